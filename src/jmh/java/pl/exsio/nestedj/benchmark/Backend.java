@@ -0,0 +1,47 @@
+/*
+ *  The MIT License
+ *
+ *  Copyright (c) 2019 eXsio.
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ *  rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *  The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ *  the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING
+ *  BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ *  NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY
+ *  CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ *  ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package pl.exsio.nestedj.benchmark;
+
+import pl.exsio.nestedj.model.TestNode;
+
+import java.util.List;
+
+/**
+ * Storage implementations covered by the benchmarks.
+ */
+public enum Backend {
+
+    MEM, COLUMNAR, OFF_HEAP, JDBC, JPA;
+
+    /**
+     * @param nodes - Nodes of the benchmark Tree
+     * @return Repository backed by this storage implementation, filled with the given Nodes
+     */
+    public RepositoryFixture createFixture(List<TestNode> nodes) {
+        switch (this) {
+            case JDBC:
+            case JPA:
+                return new DatabaseRepositoryFixture(this, nodes);
+            default:
+                return new InMemoryRepositoryFixture(this, nodes);
+        }
+    }
+}
@@ -0,0 +1,176 @@
+/*
+ *  The MIT License
+ *
+ *  Copyright (c) 2019 eXsio.
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ *  rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *  The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ *  the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING
+ *  BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ *  NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY
+ *  CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ *  ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package pl.exsio.nestedj.benchmark;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.DefaultTransactionDefinition;
+import pl.exsio.nestedj.NestedNodeRepository;
+import pl.exsio.nestedj.config.jdbc.JdbcNestedNodeRepositoryConfiguration;
+import pl.exsio.nestedj.config.jdbc.discriminator.TestJdbcTreeDiscriminator;
+import pl.exsio.nestedj.config.jdbc.factory.JdbcNestedNodeRepositoryFactory;
+import pl.exsio.nestedj.config.jpa.JpaNestedNodeRepositoryConfiguration;
+import pl.exsio.nestedj.config.jpa.discriminator.TestJpaTreeDiscriminator;
+import pl.exsio.nestedj.config.jpa.factory.JpaNestedNodeRepositoryFactory;
+import pl.exsio.nestedj.model.TestNode;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+import java.util.Properties;
+import java.util.UUID;
+
+/**
+ * Fixture of the JDBC and JPA Repositories, backed by an embedded H2 database.
+ * The schema is created by Hibernate, the Nodes are inserted once and every unit of work is rolled back.
+ */
+public class DatabaseRepositoryFixture implements RepositoryFixture {
+
+    private final EmbeddedDatabase dataSource;
+
+    private final LocalContainerEntityManagerFactoryBean entityManagerFactory;
+
+    private final JpaTransactionManager transactionManager;
+
+    private final NestedNodeRepository<Long, TestNode> repository;
+
+    private final EntityManager entityManager;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final Backend backend;
+
+    private TransactionStatus transaction;
+
+    public DatabaseRepositoryFixture(Backend backend, List<TestNode> nodes) {
+        this.backend = backend;
+        this.dataSource = new EmbeddedDatabaseBuilder().setType(EmbeddedDatabaseType.H2).setName(UUID.randomUUID().toString()).build();
+        this.entityManagerFactory = createEntityManagerFactory(dataSource);
+        this.transactionManager = new JpaTransactionManager(entityManagerFactory.getObject());
+        this.transactionManager.setDataSource(dataSource);
+        this.entityManager = SharedEntityManagerCreator.createSharedEntityManager(entityManagerFactory.getObject());
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        insert(nodes);
+        switch (backend) {
+            case JDBC:
+                this.repository = createJdbcRepository();
+                break;
+            case JPA:
+                this.repository = JpaNestedNodeRepositoryFactory.create(new JpaNestedNodeRepositoryConfiguration<>(
+                        entityManager, TestNode.class, Long.class, new TestJpaTreeDiscriminator()
+                ));
+                break;
+            default:
+                throw new IllegalArgumentException(String.format("%s is not a database backend", backend));
+        }
+    }
+
+    @Override
+    public NestedNodeRepository<Long, TestNode> getRepository() {
+        return repository;
+    }
+
+    @Override
+    public TestNode getNode(long id) {
+        if (backend == Backend.JPA) {
+            return entityManager.find(TestNode.class, id);
+        }
+        return jdbcTemplate.queryForObject("select * from nested_nodes where id = ?", (resultSet, i) -> TestNode.fromResultSet(resultSet), id);
+    }
+
+    @Override
+    public void begin() {
+        transaction = transactionManager.getTransaction(new DefaultTransactionDefinition());
+    }
+
+    @Override
+    public void rollback() {
+        if (transaction != null) {
+            transactionManager.rollback(transaction);
+            transaction = null;
+        }
+    }
+
+    @Override
+    public void close() {
+        rollback();
+        entityManagerFactory.destroy();
+        dataSource.shutdown();
+    }
+
+    private void insert(List<TestNode> nodes) {
+        jdbcTemplate.batchUpdate(
+                "insert into nested_nodes(id, tree_left, tree_level, tree_right, node_name, parent_id, discriminator) values(?,?,?,?,?,?,?)",
+                nodes,
+                1000,
+                (preparedStatement, n) -> {
+                    preparedStatement.setObject(1, n.getId());
+                    preparedStatement.setObject(2, n.getTreeLeft());
+                    preparedStatement.setObject(3, n.getTreeLevel());
+                    preparedStatement.setObject(4, n.getTreeRight());
+                    preparedStatement.setObject(5, n.getName());
+                    preparedStatement.setObject(6, n.getParentId());
+                    preparedStatement.setObject(7, n.getDiscriminator());
+                }
+        );
+        jdbcTemplate.execute(String.format("alter sequence seq restart with %d", nodes.size() + 1));
+    }
+
+    private NestedNodeRepository<Long, TestNode> createJdbcRepository() {
+        JdbcNestedNodeRepositoryConfiguration<Long, TestNode> configuration = new JdbcNestedNodeRepositoryConfiguration<>(
+                jdbcTemplate,
+                "nested_nodes",
+                (resultSet, i) -> TestNode.fromResultSet(resultSet),
+                "insert into nested_nodes(id, tree_left, tree_level, tree_right, node_name, parent_id, discriminator) values(next value for SEQ,?,?,?,?,?,?)",
+                n -> new Object[]{n.getTreeLeft(), n.getTreeLevel(), n.getTreeRight(), n.getName(), n.getParentId(), n.getDiscriminator()},
+                (node, jdbcKeyHolder) -> jdbcKeyHolder.getKeyValueAs(Long.class),
+                new TestJdbcTreeDiscriminator()
+        );
+        configuration.setIdColumnName("id");
+        configuration.setParentIdColumnName("parent_id");
+        configuration.setLeftColumnName("tree_left");
+        configuration.setRightColumnName("tree_right");
+        configuration.setLevelColumnName("tree_level");
+        return JdbcNestedNodeRepositoryFactory.create(configuration);
+    }
+
+    private static LocalContainerEntityManagerFactoryBean createEntityManagerFactory(EmbeddedDatabase dataSource) {
+        Properties properties = new Properties();
+        properties.setProperty("hibernate.hbm2ddl.auto", "create-drop");
+        properties.setProperty("hibernate.show_sql", "false");
+        properties.setProperty("hibernate.dialect", "org.hibernate.dialect.H2Dialect");
+        properties.setProperty("hibernate.cache.use_second_level_cache", "false");
+
+        LocalContainerEntityManagerFactoryBean factory = new LocalContainerEntityManagerFactoryBean();
+        factory.setDataSource(dataSource);
+        factory.setPackagesToScan("pl.exsio.nestedj.model");
+        factory.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+        factory.setJpaProperties(properties);
+        factory.afterPropertiesSet();
+        return factory;
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ *  The MIT License
+ *
+ *  Copyright (c) 2019 eXsio.
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ *  rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *  The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ *  the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING
+ *  BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ *  NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY
+ *  CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ *  ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package pl.exsio.nestedj.benchmark;
+
+import pl.exsio.nestedj.NestedNodeRepository;
+import pl.exsio.nestedj.config.columnar.ColumnarNestedNodeRepositoryConfiguration;
+import pl.exsio.nestedj.config.columnar.OffHeapNestedNodeRepositoryConfiguration;
+import pl.exsio.nestedj.config.columnar.factory.ColumnarNestedNodeRepositoryFactory;
+import pl.exsio.nestedj.config.columnar.store.NestedNodeIdCodec;
+import pl.exsio.nestedj.config.columnar.store.TestNestedNodeFactory;
+import pl.exsio.nestedj.config.mem.InMemoryNestedNodeRepositoryConfiguration;
+import pl.exsio.nestedj.config.mem.discriminator.TestInMemoryTreeDiscriminator;
+import pl.exsio.nestedj.config.mem.factory.InMemoryNestedNodeRepositoryFactory;
+import pl.exsio.nestedj.config.mem.identity.InMemoryNestedNodeIdentityGenerator;
+import pl.exsio.nestedj.model.TestNode;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongFunction;
+import java.util.stream.Collectors;
+
+/**
+ * Fixture of the InMemory, Columnar and Off-Heap Repositories. Rollback recreates the Repository from the original Nodes.
+ */
+public class InMemoryRepositoryFixture implements RepositoryFixture {
+
+    private final Backend backend;
+
+    private final List<TestNode> nodes;
+
+    private NestedNodeRepository<Long, TestNode> repository;
+
+    private LongFunction<TestNode> lookup;
+
+    public InMemoryRepositoryFixture(Backend backend, List<TestNode> nodes) {
+        this.backend = backend;
+        this.nodes = nodes;
+        rollback();
+    }
+
+    @Override
+    public NestedNodeRepository<Long, TestNode> getRepository() {
+        return repository;
+    }
+
+    @Override
+    public TestNode getNode(long id) {
+        return lookup.apply(id);
+    }
+
+    @Override
+    public void begin() {
+    }
+
+    @Override
+    public void rollback() {
+        List<TestNode> copies = nodes.stream().map(TestNode::copy).collect(Collectors.toList());
+        AtomicLong sequence = new AtomicLong(nodes.size());
+        InMemoryNestedNodeIdentityGenerator<Long> identityGenerator = sequence::incrementAndGet;
+        switch (backend) {
+            case MEM:
+                InMemoryNestedNodeRepositoryConfiguration<Long, TestNode> mem = new InMemoryNestedNodeRepositoryConfiguration<>(identityGenerator, copies, new TestInMemoryTreeDiscriminator());
+                repository = InMemoryNestedNodeRepositoryFactory.create(mem);
+                lookup = id -> mem.getNodes().findById(id).orElse(null);
+                break;
+            case COLUMNAR:
+                ColumnarNestedNodeRepositoryConfiguration<Long, TestNode> columnar = new ColumnarNestedNodeRepositoryConfiguration<>(identityGenerator, copies, new TestInMemoryTreeDiscriminator());
+                repository = ColumnarNestedNodeRepositoryFactory.create(columnar);
+                lookup = id -> columnar.getStore().findById(id).orElse(null);
+                break;
+            case OFF_HEAP:
+                OffHeapNestedNodeRepositoryConfiguration<Long, TestNode> offHeap = new OffHeapNestedNodeRepositoryConfiguration<>(identityGenerator, NestedNodeIdCodec.longIds(), new TestNestedNodeFactory(),
+                        copies, new TestInMemoryTreeDiscriminator());
+                repository = ColumnarNestedNodeRepositoryFactory.create(offHeap);
+                lookup = id -> offHeap.getStore().findById(id).orElse(null);
+                break;
+            default:
+                throw new IllegalArgumentException(String.format("%s is not an InMemory backend", backend));
+        }
+    }
+
+    @Override
+    public void close() {
+    }
+}
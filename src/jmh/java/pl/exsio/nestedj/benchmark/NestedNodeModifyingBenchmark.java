@@ -0,0 +1,132 @@
+/*
+ *  The MIT License
+ *
+ *  Copyright (c) 2019 eXsio.
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ *  rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *  The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ *  the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING
+ *  BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ *  NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY
+ *  CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ *  ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package pl.exsio.nestedj.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import pl.exsio.nestedj.model.TestNode;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Modifying operations. Every invocation works on the original Tree - the modifications are rolled back
+ * after each invocation, outside of the measured time.
+ * <ul>
+ * <li>insert - new Node as the last child of the middle Node</li>
+ * <li>move - the last Node (always a leaf) as the first child of the root</li>
+ * <li>removeSingle - the middle Node</li>
+ * <li>removeSubtree - the second Node with all its descendants</li>
+ * </ul>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NestedNodeModifyingBenchmark {
+
+    @Param
+    private Backend backend;
+
+    @Param
+    private TreeShape shape;
+
+    @Param({"100", "1000", "10000"})
+    private int size;
+
+    private RepositoryFixture fixture;
+
+    private TestNode root;
+
+    private TestNode second;
+
+    private TestNode middle;
+
+    private TestNode leaf;
+
+    private long counter = 0;
+
+    @Setup(Level.Trial)
+    public void setupTrial() {
+        fixture = backend.createFixture(shape.generate(size, "tree_1"));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDownTrial() {
+        fixture.close();
+    }
+
+    @Setup(Level.Invocation)
+    public void setupInvocation() {
+        fixture.begin();
+        root = fixture.getNode(1);
+        second = fixture.getNode(2);
+        middle = fixture.getNode(Math.max(2, size / 2));
+        leaf = fixture.getNode(size);
+    }
+
+    @TearDown(Level.Invocation)
+    public void tearDownInvocation() {
+        fixture.rollback();
+    }
+
+    @Benchmark
+    public TestNode insert() {
+        TestNode node = new TestNode(null, 0L, 0L, 0L, "inserted_" + counter++, null, "tree_1");
+        fixture.getRepository().insertAsLastChildOf(node, middle);
+        return node;
+    }
+
+    @Benchmark
+    public TestNode move() {
+        fixture.getRepository().insertAsFirstChildOf(leaf, root);
+        return leaf;
+    }
+
+    @Benchmark
+    public TestNode removeSingle() {
+        fixture.getRepository().removeSingle(middle);
+        return middle;
+    }
+
+    @Benchmark
+    public TestNode removeSubtree() {
+        fixture.getRepository().removeSubtree(second);
+        return second;
+    }
+
+    @Benchmark
+    public void rebuildTree() {
+        fixture.getRepository().rebuildTree();
+    }
+}
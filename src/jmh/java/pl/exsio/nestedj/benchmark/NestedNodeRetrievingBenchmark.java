@@ -0,0 +1,94 @@
+/*
+ *  The MIT License
+ *
+ *  Copyright (c) 2019 eXsio.
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ *  rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *  The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ *  the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING
+ *  BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ *  NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY
+ *  CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ *  ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package pl.exsio.nestedj.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import pl.exsio.nestedj.model.TestNode;
+import pl.exsio.nestedj.model.Tree;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Read-only operations. The Tree is created once per trial and shared by all invocations.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NestedNodeRetrievingBenchmark {
+
+    @Param
+    private Backend backend;
+
+    @Param
+    private TreeShape shape;
+
+    @Param({"100", "1000", "10000"})
+    private int size;
+
+    private RepositoryFixture fixture;
+
+    private TestNode root;
+
+    private TestNode leaf;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        fixture = backend.createFixture(shape.generate(size, "tree_1"));
+        root = fixture.getNode(1);
+        leaf = fixture.getNode(size);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        fixture.close();
+    }
+
+    @Benchmark
+    public List<TestNode> getTreeAsList() {
+        return fixture.getRepository().getTreeAsList(root);
+    }
+
+    @Benchmark
+    public Tree<Long, TestNode> getTree() {
+        return fixture.getRepository().getTree(root);
+    }
+
+    @Benchmark
+    public List<TestNode> getParents() {
+        return fixture.getRepository().getParents(leaf);
+    }
+}
@@ -0,0 +1,50 @@
+/*
+ *  The MIT License
+ *
+ *  Copyright (c) 2019 eXsio.
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ *  rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *  The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ *  the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING
+ *  BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ *  NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY
+ *  CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ *  ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package pl.exsio.nestedj.benchmark;
+
+import pl.exsio.nestedj.NestedNodeRepository;
+import pl.exsio.nestedj.model.TestNode;
+
+/**
+ * Repository backed by a specific storage implementation, filled with a benchmark Tree.
+ */
+public interface RepositoryFixture {
+
+    NestedNodeRepository<Long, TestNode> getRepository();
+
+    /**
+     * @param id - Node's ID
+     * @return Node that can be passed to the Repository
+     */
+    TestNode getNode(long id);
+
+    /**
+     * Starts a unit of work that will be reverted by rollback().
+     */
+    void begin();
+
+    /**
+     * Reverts all modifications performed since begin().
+     */
+    void rollback();
+
+    void close();
+}
@@ -0,0 +1,103 @@
+/*
+ *  The MIT License
+ *
+ *  Copyright (c) 2019 eXsio.
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ *  rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *  The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ *  the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING
+ *  BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ *  NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY
+ *  CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ *  ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package pl.exsio.nestedj.benchmark;
+
+import pl.exsio.nestedj.model.TestNode;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Shapes of the generated benchmark Trees. Nodes have IDs from 1 to size, the root Node has ID 1.
+ */
+public enum TreeShape {
+
+    /**
+     * Single chain of Nodes, every Node is a parent of the next one.
+     */
+    DEEP {
+        @Override
+        long getParentId(long id) {
+            return id - 1;
+        }
+    },
+
+    /**
+     * Root Node with all other Nodes as its direct children.
+     */
+    WIDE {
+        @Override
+        long getParentId(long id) {
+            return 1;
+        }
+    },
+
+    /**
+     * Binary Tree, every Node has up to two children.
+     */
+    BALANCED {
+        @Override
+        long getParentId(long id) {
+            return id / 2;
+        }
+    };
+
+    abstract long getParentId(long id);
+
+    /**
+     * @param size          - number of Nodes
+     * @param discriminator - discriminator of the generated Nodes
+     * @return Nodes sorted by ID, with proper LEFT/RIGHT/LEVEL/PARENT_ID values
+     */
+    public List<TestNode> generate(int size, String discriminator) {
+        List<TestNode> nodes = new ArrayList<>(size);
+        List<List<Integer>> children = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            long id = i + 1;
+            Long parentId = id > 1 ? getParentId(id) : null;
+            nodes.add(new TestNode(id, 0L, 0L, 0L, "node_" + id, parentId, discriminator));
+            children.add(new ArrayList<>());
+            if (parentId != null) {
+                children.get((int) (parentId - 1)).add(i);
+            }
+        }
+        long counter = 1;
+        Deque<int[]> path = new ArrayDeque<>();
+        nodes.get(0).setTreeLeft(counter++);
+        path.push(new int[]{0, 0});
+        while (!path.isEmpty()) {
+            int[] visit = path.peek();
+            List<Integer> nodeChildren = children.get(visit[0]);
+            if (visit[1] < nodeChildren.size()) {
+                int child = nodeChildren.get(visit[1]++);
+                nodes.get(child).setTreeLeft(counter++);
+                nodes.get(child).setTreeLevel((long) path.size());
+                path.push(new int[]{child, 0});
+            } else {
+                nodes.get(visit[0]).setTreeRight(counter++);
+                path.pop();
+            }
+        }
+        return nodes;
+    }
+}
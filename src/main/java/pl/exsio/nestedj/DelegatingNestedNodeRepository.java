@@ -19,17 +19,27 @@
  */
 package pl.exsio.nestedj;
 
+import pl.exsio.nestedj.cache.NoNodeInfoCache;
 import pl.exsio.nestedj.delegate.*;
 import pl.exsio.nestedj.ex.InvalidNodeException;
 import pl.exsio.nestedj.ex.InvalidParentException;
 import pl.exsio.nestedj.ex.RepositoryLockedException;
 import pl.exsio.nestedj.model.NestedNode;
 import pl.exsio.nestedj.model.NestedNodeInfo;
+import pl.exsio.nestedj.model.NestedNodeRange;
 import pl.exsio.nestedj.model.Tree;
 
 import java.io.Serializable;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 /**
  * {@inheritDoc}
@@ -48,6 +58,13 @@ public class DelegatingNestedNodeRepository<ID extends Serializable, N extends N
 
     private final Lock<ID, N> lock;
 
+    private final NodeInfoCache<ID> infoCache;
+
+    // orders the read-through puts against the evictions, so an info read before an eviction is never cached after it
+    private final Object infoCacheMonitor = new Object();
+
+    private long infoCacheEvictions = 0;
+
     private boolean allowNullableTreeFields = false;
 
     public DelegatingNestedNodeRepository(NestedNodeMover<ID, N> mover,
@@ -56,12 +73,23 @@ public class DelegatingNestedNodeRepository<ID extends Serializable, N extends N
                                           NestedNodeRebuilder<ID, N> rebuilder,
                                           NestedNodeInserter<ID, N> inserter,
                                           Lock<ID, N> lock) {
+        this(mover, remover, retriever, rebuilder, inserter, lock, new NoNodeInfoCache<>());
+    }
+
+    public DelegatingNestedNodeRepository(NestedNodeMover<ID, N> mover,
+                                          NestedNodeRemover<ID, N> remover,
+                                          NestedNodeRetriever<ID, N> retriever,
+                                          NestedNodeRebuilder<ID, N> rebuilder,
+                                          NestedNodeInserter<ID, N> inserter,
+                                          Lock<ID, N> lock,
+                                          NodeInfoCache<ID> infoCache) {
         this.inserter = inserter;
         this.mover = mover;
         this.remover = remover;
         this.retriever = retriever;
         this.rebuilder = rebuilder;
         this.lock = lock;
+        this.infoCache = infoCache;
     }
 
     /**
@@ -96,33 +124,189 @@ public class DelegatingNestedNodeRepository<ID extends Serializable, N extends N
         lockNode(node, () -> insertOrMove(node, parent, NestedNodeHierarchyManipulator.Mode.PREV_SIBLING));
     }
 
-    private void insertOrMove(N node, N parent, NestedNodeHierarchyManipulator.Mode mode) {
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void insertAllAsFirstChildrenOf(List<N> nodes, N parent) {
+        lockNode(parent, () -> insertAll(nodes, parent, NestedNodeHierarchyManipulator.Mode.FIRST_CHILD));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void insertAllAsLastChildrenOf(List<N> nodes, N parent) {
+        lockNode(parent, () -> insertAll(nodes, parent, NestedNodeHierarchyManipulator.Mode.LAST_CHILD));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void insertAllAsNextSiblingsOf(List<N> nodes, N parent) {
+        lockNode(parent, () -> insertAll(nodes, parent, NestedNodeHierarchyManipulator.Mode.NEXT_SIBLING));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void insertAllAsPrevSiblingsOf(List<N> nodes, N parent) {
+        lockNode(parent, () -> insertAll(nodes, parent, NestedNodeHierarchyManipulator.Mode.PREV_SIBLING));
+    }
+
+    private void insertAll(List<N> nodes, N parent, NestedNodeHierarchyManipulator.Mode mode) {
+        NestedNodeInfo<ID> parentInfo = getParentInfo(parent);
+        for (N node : nodes) {
+            if (node.getId() != null) {
+                throw new InvalidNodeException(String.format("Only new Nodes (with null id) can be inserted in bulk: %s", node));
+            }
+        }
+        if (!nodes.isEmpty()) {
+            NestedNodeRange range = inserter.getBulkInsertionRange(parentInfo, mode);
+            modifyRange(parent, range, () -> isCurrent(parentInfo), () -> this.inserter.insertAll(nodes, parentInfo, mode));
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void insertTreeAsFirstChildOf(Tree<ID, N> tree, N parent) {
+        lockNode(parent, () -> insertTree(tree, parent, NestedNodeHierarchyManipulator.Mode.FIRST_CHILD));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void insertTreeAsLastChildOf(Tree<ID, N> tree, N parent) {
+        lockNode(parent, () -> insertTree(tree, parent, NestedNodeHierarchyManipulator.Mode.LAST_CHILD));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void insertTreeAsNextSiblingOf(Tree<ID, N> tree, N parent) {
+        lockNode(parent, () -> insertTree(tree, parent, NestedNodeHierarchyManipulator.Mode.NEXT_SIBLING));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void insertTreeAsPrevSiblingOf(Tree<ID, N> tree, N parent) {
+        lockNode(parent, () -> insertTree(tree, parent, NestedNodeHierarchyManipulator.Mode.PREV_SIBLING));
+    }
+
+    private void insertTree(Tree<ID, N> tree, N parent, NestedNodeHierarchyManipulator.Mode mode) {
+        NestedNodeInfo<ID> parentInfo = getParentInfo(parent);
+        Deque<Tree<ID, N>> pending = new ArrayDeque<>();
+        pending.push(tree);
+        while (!pending.isEmpty()) {
+            Tree<ID, N> current = pending.pop();
+            if (current.getNode() == null || current.getNode().getId() != null) {
+                throw new InvalidNodeException(String.format("Only new Nodes (with null id) can be inserted as a Tree: %s", current.getNode()));
+            }
+            current.getChildren().forEach(pending::push);
+        }
+        NestedNodeRange range = inserter.getBulkInsertionRange(parentInfo, mode);
+        modifyRange(parent, range, () -> isCurrent(parentInfo), () -> this.inserter.insertTree(tree, parentInfo, mode));
+    }
+
+    private NestedNodeInfo<ID> getParentInfo(N parent) {
         if (parent.getId() == null) {
             throw new InvalidParentException("Cannot insert or move to a parent that has null id");
         }
-        Optional<NestedNodeInfo<ID>> parentInfo = retriever.getNodeInfo(parent.getId());
+        Optional<NestedNodeInfo<ID>> parentInfo = getNodeInfo(parent.getId());
         if (!parentInfo.isPresent()) {
             throw new InvalidParentException(String.format("Cannot insert or move to non existent parent. Parent id: %s", parent.getId()));
         }
+        return parentInfo.get();
+    }
+
+    private void insertOrMove(N node, N parent, NestedNodeHierarchyManipulator.Mode mode) {
+        NestedNodeInfo<ID> parentInfo = getParentInfo(parent);
         if (node.getId() != null) {
-            Optional<NestedNodeInfo<ID>> nodeInfo = retriever.getNodeInfo(node.getId());
+            Optional<NestedNodeInfo<ID>> nodeInfo = getNodeInfo(node.getId());
             if (nodeInfo.isPresent()) {
                 boolean nodeInfoValid = isNodeInfoValid(nodeInfo.get());
                 if (nodeInfoValid) {
-                    this.mover.move(nodeInfo.get(), parentInfo.get(), mode);
+                    // only the Nodes between the moved Node and its new position are shifted
+                    modifyRange(
+                            node,
+                            new NestedNodeRange(Math.min(nodeInfo.get().getLeft(), parentInfo.getLeft()), Math.max(nodeInfo.get().getRight(), parentInfo.getRight())),
+                            () -> isCurrent(nodeInfo.get()) && isCurrent(parentInfo),
+                            () -> this.mover.move(nodeInfo.get(), parentInfo, mode)
+                    );
                 } else if (allowNullableTreeFields) {
-                    this.inserter.insert(node, parentInfo.get(), mode);
+                    insert(node, parentInfo, mode);
                 } else {
                     throw new InvalidNodeException(String.format("Current configuration doesn't allow nullable tree fields: %s", nodeInfo.get()));
                 }
             } else {
-                this.inserter.insert(node, parentInfo.get(), mode);
+                insert(node, parentInfo, mode);
             }
         } else {
-            this.inserter.insert(node, parentInfo.get(), mode);
+            insert(node, parentInfo, mode);
         }
     }
 
+    private void insert(N node, NestedNodeInfo<ID> parentInfo, NestedNodeHierarchyManipulator.Mode mode) {
+        // with sparse numbering the range depends on the neighbours of the inserted Node as well, so it's computed again once locked
+        NestedNodeRange range = inserter.getInsertionRange(parentInfo, mode);
+        modifyRange(
+                node,
+                range,
+                () -> isCurrent(parentInfo) && range.equals(inserter.getInsertionRange(parentInfo, mode)),
+                () -> this.inserter.insert(node, parentInfo, mode)
+        );
+    }
+
+    private Optional<NestedNodeInfo<ID>> getNodeInfo(ID id) {
+        Optional<NestedNodeInfo<ID>> cached = infoCache.get(id);
+        if (cached.isPresent()) {
+            return cached;
+        }
+        long evictions;
+        synchronized (infoCacheMonitor) {
+            evictions = infoCacheEvictions;
+        }
+        Optional<NestedNodeInfo<ID>> info = retriever.getNodeInfo(id);
+        if (info.isPresent() && isNodeInfoValid(info.get())) {
+            synchronized (infoCacheMonitor) {
+                if (evictions == infoCacheEvictions) {
+                    infoCache.put(info.get());
+                }
+            }
+        }
+        return info;
+    }
+
+    private void evictNodeInfos(NestedNodeRange range) {
+        synchronized (infoCacheMonitor) {
+            infoCacheEvictions++;
+            infoCache.evict(range.getFrom(), range.getTo());
+        }
+    }
+
+    private void clearNodeInfos() {
+        synchronized (infoCacheMonitor) {
+            infoCacheEvictions++;
+            infoCache.clear();
+        }
+    }
+
+    private boolean isCurrent(NestedNodeInfo<ID> info) {
+        Optional<NestedNodeInfo<ID>> current = retriever.getNodeInfo(info.getId());
+        return current.isPresent()
+                && Objects.equals(current.get().getLeft(), info.getLeft())
+                && Objects.equals(current.get().getRight(), info.getRight())
+                && Objects.equals(current.get().getLevel(), info.getLevel());
+    }
+
     private boolean isNodeInfoValid(NestedNodeInfo<ID> nodeInfo) {
         return (nodeInfo.getLeft() != null && nodeInfo.getRight() != null && nodeInfo.getLeft() > 0 && nodeInfo.getRight() > 0);
     }
@@ -133,9 +317,9 @@ public class DelegatingNestedNodeRepository<ID extends Serializable, N extends N
     @Override
     public void removeSingle(N node) {
         lockNode(node, () -> {
-            Optional<NestedNodeInfo<ID>> nodeInfo = retriever.getNodeInfo(node.getId());
+            Optional<NestedNodeInfo<ID>> nodeInfo = getNodeInfo(node.getId());
             if (nodeInfo.isPresent()) {
-                this.remover.removeSingle(nodeInfo.get());
+                modifyRange(node, remover.getRemovalRange(nodeInfo.get()), () -> isCurrent(nodeInfo.get()), () -> this.remover.removeSingle(nodeInfo.get()));
             } else {
                 throw new InvalidNodeException(String.format("Couldn't remove node, was it already removed?: %s", node));
             }
@@ -148,9 +332,9 @@ public class DelegatingNestedNodeRepository<ID extends Serializable, N extends N
     @Override
     public void removeSubtree(N node) {
         lockNode(node, () -> {
-            Optional<NestedNodeInfo<ID>> nodeInfo = retriever.getNodeInfo(node.getId());
+            Optional<NestedNodeInfo<ID>> nodeInfo = getNodeInfo(node.getId());
             if (nodeInfo.isPresent()) {
-                this.remover.removeSubtree(nodeInfo.get());
+                modifyRange(node, remover.getRemovalRange(nodeInfo.get()), () -> isCurrent(nodeInfo.get()), () -> this.remover.removeSubtree(nodeInfo.get()));
             } else {
                 throw new InvalidNodeException(String.format("Couldn't remove node subtree, was it already removed?: %s", node));
             }
@@ -162,7 +346,37 @@ public class DelegatingNestedNodeRepository<ID extends Serializable, N extends N
      */
     @Override
     public List<N> getTreeAsList(N node) {
-        return this.retriever.getTreeAsList(node);
+        return read(() -> this.retriever.getTreeAsList(node));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<N> getTreeAsList(N node, int maxDepth) {
+        checkMaxDepth(maxDepth);
+        return read(() -> this.retriever.getTreeAsList(node, maxDepth));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Stream<N> streamTreeAsList(N node) {
+        if (lock instanceof ReadWriteLock) {
+            // a lazily consumed stream would escape the read lock
+            return read(() -> this.retriever.getTreeAsList(node)).stream();
+        }
+        return this.retriever.streamTreeAsList(node);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<N> getTreeAsList(N node, Long afterLeft, int limit) {
+        checkLimit(limit);
+        return read(() -> this.retriever.getTreeAsList(node, afterLeft, limit));
     }
 
     /**
@@ -170,7 +384,28 @@ public class DelegatingNestedNodeRepository<ID extends Serializable, N extends N
      */
     @Override
     public List<N> getChildren(N node) {
-        return this.retriever.getChildren(node);
+        return read(() -> this.retriever.getChildren(node));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<N> getChildren(N node, Long afterLeft, int limit) {
+        checkLimit(limit);
+        return read(() -> this.retriever.getChildren(node, afterLeft, limit));
+    }
+
+    private void checkLimit(int limit) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("Page limit must be greater than 0");
+        }
+    }
+
+    private void checkMaxDepth(int maxDepth) {
+        if (maxDepth < 0) {
+            throw new IllegalArgumentException("Max depth cannot be negative");
+        }
     }
 
     /**
@@ -178,7 +413,7 @@ public class DelegatingNestedNodeRepository<ID extends Serializable, N extends N
      */
     @Override
     public Optional<N> getParent(N node) {
-        return this.retriever.getParent(node);
+        return read(() -> this.retriever.getParent(node));
     }
 
     /**
@@ -186,7 +421,7 @@ public class DelegatingNestedNodeRepository<ID extends Serializable, N extends N
      */
     @Override
     public Optional<N> getPrevSibling(N node) {
-        return this.retriever.getPrevSibling(node);
+        return read(() -> this.retriever.getPrevSibling(node));
     }
 
     /**
@@ -194,7 +429,23 @@ public class DelegatingNestedNodeRepository<ID extends Serializable, N extends N
      */
     @Override
     public Optional<N> getNextSibling(N node) {
-        return this.retriever.getNextSibling(node);
+        return read(() -> this.retriever.getNextSibling(node));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Optional<N> findFirstRoot() {
+        return read(() -> this.retriever.findFirstRoot());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Optional<N> findLastRoot() {
+        return read(() -> this.retriever.findLastRoot());
     }
 
     /**
@@ -202,7 +453,16 @@ public class DelegatingNestedNodeRepository<ID extends Serializable, N extends N
      */
     @Override
     public Tree<ID, N> getTree(N node) {
-        return this.retriever.getTree(node);
+        return read(() -> this.retriever.getTree(node));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Tree<ID, N> getTree(N node, int maxDepth) {
+        checkMaxDepth(maxDepth);
+        return read(() -> this.retriever.getTree(node, maxDepth));
     }
 
     /**
@@ -210,7 +470,71 @@ public class DelegatingNestedNodeRepository<ID extends Serializable, N extends N
      */
     @Override
     public List<N> getParents(N node) {
-        return this.retriever.getParents(node);
+        return read(() -> this.retriever.getParents(node));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Map<N, List<N>> getParents(Collection<N> nodes) {
+        return read(() -> this.retriever.getParents(nodes));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<NestedNodeInfo<ID>> getTreeInfoAsList(N node) {
+        return read(() -> this.retriever.getTreeInfoAsList(node));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<NestedNodeInfo<ID>> getChildrenInfo(N node) {
+        return read(() -> this.retriever.getChildrenInfo(node));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<NestedNodeInfo<ID>> getParentsInfo(N node) {
+        return read(() -> this.retriever.getParentsInfo(node));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long countDescendants(N node) {
+        return read(() -> this.retriever.countDescendants(node));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isAncestorOf(N ancestor, N node) {
+        return read(() -> this.retriever.isAncestorOf(ancestor, node));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isDescendantOf(N node, N ancestor) {
+        return read(() -> this.retriever.isAncestorOf(ancestor, node));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getDepth(N node) {
+        return read(() -> this.retriever.getDepth(node));
     }
 
     /**
@@ -218,7 +542,13 @@ public class DelegatingNestedNodeRepository<ID extends Serializable, N extends N
      */
     @Override
     public void rebuildTree() {
-        lockRepository(rebuilder::rebuildTree);
+        lockRepository(() -> {
+            try {
+                rebuilder.rebuildTree();
+            } finally {
+                clearNodeInfos();
+            }
+        });
     }
 
     /**
@@ -226,7 +556,13 @@ public class DelegatingNestedNodeRepository<ID extends Serializable, N extends N
      */
     @Override
     public void destroyTree() {
-        lockRepository(rebuilder::destroyTree);
+        lockRepository(() -> {
+            try {
+                rebuilder.destroyTree();
+            } finally {
+                clearNodeInfos();
+            }
+        });
     }
 
     /**
@@ -268,7 +604,7 @@ public class DelegatingNestedNodeRepository<ID extends Serializable, N extends N
     }
 
     private void insertAsFirstNode(N node) {
-        inserter.insertAsFirstNode(node);
+        lockRange(node, new NestedNodeRange(0L, null), () -> !retriever.findFirstRoot().isPresent(), () -> inserter.insertAsFirstNode(node));
     }
 
     public boolean isAllowNullableTreeFields() {
@@ -302,6 +638,46 @@ public class DelegatingNestedNodeRepository<ID extends Serializable, N extends N
         }
     }
 
+    private <T> T read(Supplier<T> retrieval) {
+        if (lock instanceof ReadWriteLock) {
+            return ((ReadWriteLock<ID, N>) lock).read(retrieval);
+        }
+        return retrieval.get();
+    }
+
+    // the cached infos of the Nodes starting or ending within the modified range are evicted even if the modification fails halfway
+    private void modifyRange(N owner, NestedNodeRange range, BooleanSupplier unchanged, TreeModifier modifier) {
+        lockRange(owner, range, unchanged, () -> {
+            try {
+                modifier.modifyTree();
+            } finally {
+                evictNodeInfos(range);
+            }
+        });
+    }
+
+    // the range is computed from the infos read before locking it, so they have to be verified once it's locked;
+    // the infos that fail the verification may come from the cache, so they are evicted before retrying
+    private void lockRange(N owner, NestedNodeRange range, BooleanSupplier unchanged, TreeModifier modifier) {
+        if (!(lock instanceof RangeLock)) {
+            modifier.modifyTree();
+            return;
+        }
+        RangeLock<ID, N> rangeLock = (RangeLock<ID, N>) lock;
+        if (!rangeLock.lockRange(owner, range.getFrom(), range.getTo())) {
+            throw new RepositoryLockedException(String.format("Nested Node Repository is locked for range %d-%s of Node %s. Try again later.", range.getFrom(), range.getTo(), owner));
+        }
+        try {
+            if (!unchanged.getAsBoolean()) {
+                evictNodeInfos(range);
+                throw new RepositoryLockedException(String.format("Nested Node Repository was modified concurrently around Node %s. Try again later.", owner));
+            }
+            modifier.modifyTree();
+        } finally {
+            rangeLock.unlockRange(owner, range.getFrom(), range.getTo());
+        }
+    }
+
     private interface TreeModifier {
         void modifyTree();
     }
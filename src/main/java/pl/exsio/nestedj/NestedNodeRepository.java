@@ -20,11 +20,17 @@
 package pl.exsio.nestedj;
 
 import pl.exsio.nestedj.model.NestedNode;
+import pl.exsio.nestedj.model.NestedNodeInfo;
 import pl.exsio.nestedj.model.Tree;
 
 import java.io.Serializable;
+import java.time.Duration;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 /**
  *  Primary NestedJ API. Serves as an entry point to all Tree manipulation and some common data retrieval actions.
@@ -76,6 +82,90 @@ public interface NestedNodeRepository<ID extends Serializable, N extends NestedN
      */
     void insertAsPrevSiblingOf(N node, N parent);
 
+    /**
+     * Inserts all new (with null id) nodes as first children of given parent, keeping their order.
+     * Space for all nodes is made once and the nodes are inserted in a single batch.
+     * If Repository nas a Tree Discriminator defined, only the Nodes belonging to that Tree wil be affected.
+     *
+     * @param nodes - new Nodes
+     * @param parent - parent Node
+     */
+    void insertAllAsFirstChildrenOf(List<N> nodes, N parent);
+
+    /**
+     * Inserts all new (with null id) nodes as last children of given parent, keeping their order.
+     * Space for all nodes is made once and the nodes are inserted in a single batch.
+     * If Repository nas a Tree Discriminator defined, only the Nodes belonging to that Tree wil be affected.
+     *
+     * @param nodes - new Nodes
+     * @param parent - parent Node
+     */
+    void insertAllAsLastChildrenOf(List<N> nodes, N parent);
+
+    /**
+     * Inserts all new (with null id) nodes as next siblings of given parent, keeping their order.
+     * Space for all nodes is made once and the nodes are inserted in a single batch.
+     * If Repository nas a Tree Discriminator defined, only the Nodes belonging to that Tree wil be affected.
+     *
+     * @param nodes - new Nodes
+     * @param parent - parent Node
+     */
+    void insertAllAsNextSiblingsOf(List<N> nodes, N parent);
+
+    /**
+     * Inserts all new (with null id) nodes as previous siblings of given parent, keeping their order.
+     * Space for all nodes is made once and the nodes are inserted in a single batch.
+     * If Repository nas a Tree Discriminator defined, only the Nodes belonging to that Tree wil be affected.
+     *
+     * @param nodes - new Nodes
+     * @param parent - parent Node
+     */
+    void insertAllAsPrevSiblingsOf(List<N> nodes, N parent);
+
+    /**
+     * Inserts all new (with null id) Nodes of the given Tree as a first child of given parent, keeping the Tree's structure.
+     * LEFT/RIGHT/LEVEL values are computed before touching the Tree, space for the whole Tree is made once
+     * and each level of the Tree is inserted in a single batch.
+     * If Repository nas a Tree Discriminator defined, only the Nodes belonging to that Tree wil be affected.
+     *
+     * @param tree - Tree of new Nodes
+     * @param parent - parent Node
+     */
+    void insertTreeAsFirstChildOf(Tree<ID, N> tree, N parent);
+
+    /**
+     * Inserts all new (with null id) Nodes of the given Tree as a last child of given parent, keeping the Tree's structure.
+     * LEFT/RIGHT/LEVEL values are computed before touching the Tree, space for the whole Tree is made once
+     * and each level of the Tree is inserted in a single batch.
+     * If Repository nas a Tree Discriminator defined, only the Nodes belonging to that Tree wil be affected.
+     *
+     * @param tree - Tree of new Nodes
+     * @param parent - parent Node
+     */
+    void insertTreeAsLastChildOf(Tree<ID, N> tree, N parent);
+
+    /**
+     * Inserts all new (with null id) Nodes of the given Tree as a next sibling of given parent, keeping the Tree's structure.
+     * LEFT/RIGHT/LEVEL values are computed before touching the Tree, space for the whole Tree is made once
+     * and each level of the Tree is inserted in a single batch.
+     * If Repository nas a Tree Discriminator defined, only the Nodes belonging to that Tree wil be affected.
+     *
+     * @param tree - Tree of new Nodes
+     * @param parent - parent Node
+     */
+    void insertTreeAsNextSiblingOf(Tree<ID, N> tree, N parent);
+
+    /**
+     * Inserts all new (with null id) Nodes of the given Tree as a previous sibling of given parent, keeping the Tree's structure.
+     * LEFT/RIGHT/LEVEL values are computed before touching the Tree, space for the whole Tree is made once
+     * and each level of the Tree is inserted in a single batch.
+     * If Repository nas a Tree Discriminator defined, only the Nodes belonging to that Tree wil be affected.
+     *
+     * @param tree - Tree of new Nodes
+     * @param parent - parent Node
+     */
+    void insertTreeAsPrevSiblingOf(Tree<ID, N> tree, N parent);
+
     /**
      * Removes Single Node. All Children/Descendants of the removed Node are assigned to the parent of the removed Node.
      * If Repository nas a Tree Discriminator defined, only the Nodes belonging to that Tree wil be affected.
@@ -101,6 +191,18 @@ public interface NestedNodeRepository<ID extends Serializable, N extends NestedN
      */
     List<N> getChildren(N node);
 
+    /**
+     * Returns a single page of Node's direct Children sorted by the LEFT asc. The pages are keyset-based:
+     * to get the next page, pass the LEFT value of the last Node of the previous page.
+     * If Repository has a Tree Discriminator defined, only the Nodes belonging to that Tree will be returned.
+     *
+     * @param node      - parent Node
+     * @param afterLeft - LEFT value of the last Node of the previous page or null for the first page
+     * @param limit     - max number of returned Nodes (page size)
+     * @return List of Child Nodes
+     */
+    List<N> getChildren(N node, Long afterLeft, int limit);
+
     /**
      * Returns a Parent Node. If the Node is a Root Node, returns empty.
      * If Repository nas a Tree Discriminator defined, only the Nodes belonging to that Tree wil be returned.
@@ -128,6 +230,22 @@ public interface NestedNodeRepository<ID extends Serializable, N extends NestedN
      */
     Optional<N> getNextSibling(N node);
 
+    /**
+     * Returns the first Root Node of the Tree or empty if the Tree is empty.
+     * If Repository nas a Tree Discriminator defined, only the Nodes belonging to that Tree wil be returned.
+     *
+     * @return first Root Node or empty if the Tree is empty
+     */
+    Optional<N> findFirstRoot();
+
+    /**
+     * Returns the last Root Node of the Tree or empty if the Tree is empty.
+     * If Repository nas a Tree Discriminator defined, only the Nodes belonging to that Tree wil be returned.
+     *
+     * @return last Root Node or empty if the Tree is empty
+     */
+    Optional<N> findLastRoot();
+
     /**
      *  Returns a flat List of target Node's parents sorted from the deepest to the Root node, asc.
      *  If the target Node is a Root Node, returns empty List.
@@ -138,6 +256,86 @@ public interface NestedNodeRepository<ID extends Serializable, N extends NestedN
      */
     List<N> getParents(N node);
 
+    /**
+     * Bulk variant of getParents(N). The Ancestors of all the target Nodes are fetched at once and shared
+     * by the returned Lists, so the breadcrumbs of many Nodes cost a single round-trip.
+     * If Repository has a Tree Discriminator defined, only the Nodes belonging to that Tree will be returned.
+     *
+     * @param nodes - target Nodes
+     * @return target Nodes (in the iteration order of the Collection) mapped to the Lists of their parents,
+     * sorted from the deepest to the Root node
+     */
+    Map<N, List<N>> getParents(Collection<N> nodes);
+
+    /**
+     * Projection-only variant of getTreeAsList(N). Returns only the ID, PARENT_ID, LEFT, RIGHT and LEVEL values
+     * of the Nodes, without loading the Nodes themselves.
+     * If Repository has a Tree Discriminator defined, only the Nodes belonging to that Tree will be returned.
+     *
+     * @param node - parent Node
+     * @return flat List of the Node infos, sorted by LEFT asc
+     */
+    List<NestedNodeInfo<ID>> getTreeInfoAsList(N node);
+
+    /**
+     * Projection-only variant of getChildren(N). Returns only the ID, PARENT_ID, LEFT, RIGHT and LEVEL values
+     * of the Children, without loading the Children themselves.
+     * If Repository has a Tree Discriminator defined, only the Nodes belonging to that Tree will be returned.
+     *
+     * @param node - parent Node
+     * @return List of the Child Node infos, sorted by LEFT asc
+     */
+    List<NestedNodeInfo<ID>> getChildrenInfo(N node);
+
+    /**
+     * Projection-only variant of getParents(N). Returns only the ID, PARENT_ID, LEFT, RIGHT and LEVEL values
+     * of the parents, without loading the parents themselves.
+     * If Repository has a Tree Discriminator defined, only the Nodes belonging to that Tree will be returned.
+     *
+     * @param node - target Node
+     * @return List of the parent Node infos, sorted from the deepest to the Root node
+     */
+    List<NestedNodeInfo<ID>> getParentsInfo(N node);
+
+    /**
+     * Returns the number of the target Node's descendants. With the dense numbering it's computed from the
+     * LEFT/RIGHT values of the Node alone: (RIGHT - LEFT - 1) / 2, without querying the subtree.
+     *
+     * @param node - target Node
+     * @return number of descendants, 0 for a leaf
+     * @throws pl.exsio.nestedj.ex.InvalidNodeException if the Node doesn't exist
+     */
+    long countDescendants(N node);
+
+    /**
+     * Checks if the first Node is an ancestor of the second one, by comparing their LEFT/RIGHT intervals.
+     *
+     * @param ancestor - potential ancestor
+     * @param node     - potential descendant
+     * @return true if the ancestor's interval contains the Node's interval
+     * @throws pl.exsio.nestedj.ex.InvalidNodeException if any of the Nodes doesn't exist
+     */
+    boolean isAncestorOf(N ancestor, N node);
+
+    /**
+     * Checks if the first Node is a descendant of the second one, by comparing their LEFT/RIGHT intervals.
+     *
+     * @param node     - potential descendant
+     * @param ancestor - potential ancestor
+     * @return true if the Node's interval is contained in the ancestor's interval
+     * @throws pl.exsio.nestedj.ex.InvalidNodeException if any of the Nodes doesn't exist
+     */
+    boolean isDescendantOf(N node, N ancestor);
+
+    /**
+     * Returns the depth of the target Node - the number of its ancestors, 0 for a Root Node.
+     *
+     * @param node - target Node
+     * @return current LEVEL of the Node
+     * @throws pl.exsio.nestedj.ex.InvalidNodeException if the Node doesn't exist
+     */
+    long getDepth(N node);
+
     /**
      * Returns a flat list of all Node's direct and indirect Children/Sescendants sorted by the LEFT asc.
      * If Repository nas a Tree Discriminator defined, only the Nodes belonging to that Tree wil be returned.
@@ -147,6 +345,39 @@ public interface NestedNodeRepository<ID extends Serializable, N extends NestedN
      */
     List<N> getTreeAsList(N node);
 
+    /**
+     * Streaming variant of getTreeAsList(N). The Nodes are fetched lazily while the Stream is consumed,
+     * instead of being loaded into a List upfront, so that huge subtrees can be processed with constant memory.
+     * The Stream may hold open database resources (a Cursor) and has to be closed after use (try-with-resources).
+     * JDBC and JPA Streams have to be consumed within the transaction they were opened in.
+     *
+     * @param node - parent Node
+     * @return Stream of Child Nodes sorted by the LEFT asc, starting with the parent Node itself
+     */
+    Stream<N> streamTreeAsList(N node);
+
+    /**
+     * Returns a single page of the flat list returned by getTreeAsList(N). The pages are keyset-based:
+     * to get the next page, pass the LEFT value of the last Node of the previous page.
+     * If Repository has a Tree Discriminator defined, only the Nodes belonging to that Tree will be returned.
+     *
+     * @param node      - parent Node
+     * @param afterLeft - LEFT value of the last Node of the previous page or null for the first page
+     * @param limit     - max number of returned Nodes (page size)
+     * @return List of Child Nodes
+     */
+    List<N> getTreeAsList(N node, Long afterLeft, int limit);
+
+    /**
+     * Returns the flat list returned by getTreeAsList(N), limited to the given number of levels below the Node.
+     * If Repository has a Tree Discriminator defined, only the Nodes belonging to that Tree will be returned.
+     *
+     * @param node     - parent Node
+     * @param maxDepth - max number of levels below the parent Node, 0 returns the parent Node alone
+     * @return list of the Node and its Descendants up to the given depth, sorted by LEFT asc
+     */
+    List<N> getTreeAsList(N node, int maxDepth);
+
     /**
      * Returns a recursive structure of all Node's direct and indirect Children/Sescendants.
      * Each level contains Nodes sorted by the LEFT asc.
@@ -157,6 +388,17 @@ public interface NestedNodeRepository<ID extends Serializable, N extends NestedN
      */
     Tree<ID, N> getTree(N node);
 
+    /**
+     * Returns a recursive structure of Node's Descendants, limited to the given number of levels below the Node.
+     * Each level contains Nodes sorted by the LEFT asc.
+     * If Repository has a Tree Discriminator defined, only the Nodes belonging to that Tree will be returned.
+     *
+     * @param node     - parent Node
+     * @param maxDepth - max number of levels below the parent Node, 0 returns the parent Node alone
+     * @return Recursive Tree of Child Nodes
+     */
+    Tree<ID, N> getTree(N node, int maxDepth);
+
     /**
      * Rebuilds entire Tree based on parentId - id relationship. Useful when Tree was destroyed by an action .
      * performed outside of the Repository or if you want to initialize a new tree with Nodes previously created
@@ -236,5 +478,133 @@ public interface NestedNodeRepository<ID extends Serializable, N extends NestedN
         void unlockRepository();
     }
 
+    /**
+     * Lock that narrows the Node-based locking down to the range of LEFT/RIGHT values affected by each modification.
+     * The Repository calls lockNode() first and then, once the affected range is known, lockRange() for the duration
+     * of the modification. Modifications of disjoint ranges can be performed concurrently, so lockNode()
+     * should only guard against the locked Repository.
+     *
+     * @param <ID> - Nested Node Identifier Class
+     * @param <N>  - Nested Node Class
+     */
+    interface RangeLock<ID extends Serializable, N extends NestedNode<ID>> extends Lock<ID, N> {
+
+        /**
+         * Lock the range of LEFT/RIGHT values within the Tree of the target Node.
+         * Should fail if any part of the range is already locked.
+         *
+         * @param node - target Node, identifying the Tree
+         * @param from - first affected value
+         * @param to   - last affected value or null if all the values following the first one are affected
+         * @return - true if lock was successfull, false if unable to lock
+         */
+        boolean lockRange(N node, Long from, Long to);
+
+        /**
+         * Unlock the range locked by the corresponding lockRange() method.
+         *
+         * @param node - target Node, identifying the Tree
+         * @param from - first affected value
+         * @param to   - last affected value or null if all the values following the first one are affected
+         */
+        void unlockRange(N node, Long from, Long to);
+    }
+
+    /**
+     * Lock that, apart from the modifications, guards the retrievals, so that they never observe a partially applied
+     * modification. The Repository performs all its retrievals through the read() method, while lockNode() and
+     * lockRepository() should grant exclusive access to the Tree.
+     *
+     * @param <ID> - Nested Node Identifier Class
+     * @param <N>  - Nested Node Class
+     */
+    interface ReadWriteLock<ID extends Serializable, N extends NestedNode<ID>> extends Lock<ID, N> {
+
+        /**
+         * Performs the retrieval concurrently with other retrievals, but not with any modification.
+         * The retrieval can be performed more than once, so it should not have any side effects.
+         *
+         * @param retrieval - retrieval to perform
+         * @param <T>       - retrieval result Class
+         * @return retrieval result
+         */
+        <T> T read(Supplier<T> retrieval);
+    }
+
+    /**
+     * Lock that, instead of failing immediately, waits for the contended lock up to a configured timeout.
+     * The waiting callers should be granted the lock in the FIFO order. The lockNode() and lockRepository()
+     * methods return false only when the timeout elapses or the waiting thread gets interrupted.
+     *
+     * @param <ID> - Nested Node Identifier Class
+     * @param <N>  - Nested Node Class
+     */
+    interface BlockingLock<ID extends Serializable, N extends NestedNode<ID>> extends Lock<ID, N> {
+
+        /**
+         * @return number of callers currently waiting for the lock
+         */
+        int getQueueLength();
+
+        /**
+         * @return number of successful lock acquisitions
+         */
+        long getAcquiredCount();
+
+        /**
+         * @return number of lock acquisitions that timed out or were interrupted
+         */
+        long getTimedOutCount();
+
+        /**
+         * @return total time spent waiting by the successful lock acquisitions
+         */
+        Duration getTotalWaitTime();
+
+        /**
+         * @return longest time spent waiting by a successful lock acquisition
+         */
+        Duration getMaxWaitTime();
+    }
+
+    /**
+     * Cache of the NestedNodeInfo values read by the Repository before every insert, move and removal.
+     * Contains a default implementation of NoNodeInfoCache class used when no caching is required.
+     * The Repository evicts the infos affected by each modification, so the cache stays valid as long as all
+     * modifications go through the Repository and are committed. Changes made outside of the Repository
+     * or rolled back afterwards require calling clear().
+     *
+     * @param <ID> - Nested Node Identifier Class
+     */
+    interface NodeInfoCache<ID extends Serializable> {
+
+        /**
+         * @param id - Node's ID
+         * @return cached info of the Node or empty if it's not cached
+         */
+        Optional<NestedNodeInfo<ID>> get(ID id);
+
+        /**
+         * Caches the info of a Node, replacing any previously cached info of that Node.
+         *
+         * @param info - Node's info
+         */
+        void put(NestedNodeInfo<ID> info);
+
+        /**
+         * Evicts the infos of all the Nodes with LEFT or RIGHT value within the given range.
+         * Used after each modification, that could only have changed the Nodes ending or starting within that range.
+         *
+         * @param from - lower bound of the range (inclusive)
+         * @param to   - upper bound of the range (inclusive) or null if the range is unbounded
+         */
+        void evict(Long from, Long to);
+
+        /**
+         * Evicts all cached infos.
+         */
+        void clear();
+    }
+
 
 }
@@ -0,0 +1,611 @@
+/*
+ *  The MIT License
+ *
+ *  Copyright (c) 2019 eXsio.
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ *  rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *  The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ *  the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING
+ *  BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ *  NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY
+ *  CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ *  ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package pl.exsio.nestedj.cache;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import pl.exsio.nestedj.NestedNodeRepository;
+import pl.exsio.nestedj.config.NestedNodeNumbering;
+import pl.exsio.nestedj.config.mem.InMemoryNestedNodeRepositoryConfiguration;
+import pl.exsio.nestedj.delegate.NestedNodeRetriever;
+import pl.exsio.nestedj.delegate.control.QueryBasedNestedNodeRetriever;
+import pl.exsio.nestedj.delegate.query.mem.InMemoryNestedNodeRetrievingQueryDelegate;
+import pl.exsio.nestedj.model.NestedNode;
+import pl.exsio.nestedj.model.NestedNodeInfo;
+import pl.exsio.nestedj.model.Tree;
+
+import java.io.Serializable;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * NestedNodeRepository decorator that keeps a snapshot of the whole Tree in memory and serves all the retrieval
+ * methods from it. The snapshot is loaded lazily, on the first retrieval, and is dropped after every insert, move,
+ * remove, rebuild or destroy performed through this decorator. Changes made outside of this decorator
+ * (directly in the DB, by another Repository instance or by another application node) become visible
+ * after the snapshot outlives its TTL, or after calling the invalidate() method. When a modification runs within
+ * a Spring managed transaction, the snapshot is dropped again after the transaction completes, so that a snapshot
+ * loaded before the commit is not served afterwards.
+ *
+ * Each snapshot is loaded by a single thread - the other threads retrieving from the same Tree
+ * wait for that load to finish instead of querying the wrapped Repository themselves.
+ *
+ * If the wrapped Repository has a dynamic Tree Discriminator, a tree key Supplier returning the current
+ * discriminator value should be provided, so that each Tree gets its own snapshot.
+ *
+ * The Nodes returned by the retrieval methods are the snapshot instances shared between the callers,
+ * so they should not be modified outside of the Repository.
+ *
+ * @param <ID> - Nested Node Identifier Class
+ * @param <N>  - Nested Node Class
+ */
+public class CachingNestedNodeRepository<ID extends Serializable, N extends NestedNode<ID>> implements NestedNodeRepository<ID, N> {
+
+    private static final Object DEFAULT_TREE_KEY = new Object();
+
+    // the snapshot has no access to the numbering of the wrapped Repository, so the descendants are always counted
+    private static final NestedNodeNumbering SNAPSHOT_NUMBERING = NestedNodeNumbering.sparse(2);
+
+    // Spring is an optional dependency of the decorator
+    private static final boolean TRANSACTION_SYNCHRONIZATION_PRESENT = isPresent("org.springframework.transaction.support.TransactionSynchronizationManager");
+
+    private final NestedNodeRepository<ID, N> delegate;
+
+    private final long ttlNanos;
+
+    private final Supplier<?> treeKey;
+
+    private final ConcurrentMap<Object, Snapshot<ID, N>> snapshots = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<Object, AtomicLong> versions = new ConcurrentHashMap<>();
+
+    /**
+     * @param delegate - wrapped Repository
+     * @param ttl      - max age of the snapshot
+     */
+    public CachingNestedNodeRepository(NestedNodeRepository<ID, N> delegate, Duration ttl) {
+        this(delegate, ttl, () -> DEFAULT_TREE_KEY);
+    }
+
+    /**
+     * @param delegate - wrapped Repository
+     * @param ttl      - max age of the snapshot
+     * @param treeKey  - Supplier of the key identifying the current Tree, usually the current Tree Discriminator value
+     */
+    public CachingNestedNodeRepository(NestedNodeRepository<ID, N> delegate, Duration ttl, Supplier<?> treeKey) {
+        if (ttl.isNegative()) {
+            throw new IllegalArgumentException(String.format("Snapshot TTL cannot be negative, was: %s", ttl));
+        }
+        this.delegate = delegate;
+        this.ttlNanos = ttl.toNanos();
+        this.treeKey = treeKey;
+    }
+
+    /**
+     * Drops the snapshot of the current Tree, so that the next retrieval loads it again from the wrapped Repository.
+     */
+    public void invalidate() {
+        invalidate(treeKey.get());
+    }
+
+    /**
+     * Drops the snapshots of all Trees.
+     */
+    public void invalidateAll() {
+        versions.values().forEach(AtomicLong::incrementAndGet);
+        snapshots.clear();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void insertAsFirstChildOf(N node, N parent) {
+        modify(() -> delegate.insertAsFirstChildOf(node, parent));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void insertAsLastChildOf(N node, N parent) {
+        modify(() -> delegate.insertAsLastChildOf(node, parent));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void insertAsNextSiblingOf(N node, N parent) {
+        modify(() -> delegate.insertAsNextSiblingOf(node, parent));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void insertAsPrevSiblingOf(N node, N parent) {
+        modify(() -> delegate.insertAsPrevSiblingOf(node, parent));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void insertAllAsFirstChildrenOf(List<N> nodes, N parent) {
+        modify(() -> delegate.insertAllAsFirstChildrenOf(nodes, parent));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void insertAllAsLastChildrenOf(List<N> nodes, N parent) {
+        modify(() -> delegate.insertAllAsLastChildrenOf(nodes, parent));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void insertAllAsNextSiblingsOf(List<N> nodes, N parent) {
+        modify(() -> delegate.insertAllAsNextSiblingsOf(nodes, parent));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void insertAllAsPrevSiblingsOf(List<N> nodes, N parent) {
+        modify(() -> delegate.insertAllAsPrevSiblingsOf(nodes, parent));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void insertTreeAsFirstChildOf(Tree<ID, N> tree, N parent) {
+        modify(() -> delegate.insertTreeAsFirstChildOf(tree, parent));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void insertTreeAsLastChildOf(Tree<ID, N> tree, N parent) {
+        modify(() -> delegate.insertTreeAsLastChildOf(tree, parent));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void insertTreeAsNextSiblingOf(Tree<ID, N> tree, N parent) {
+        modify(() -> delegate.insertTreeAsNextSiblingOf(tree, parent));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void insertTreeAsPrevSiblingOf(Tree<ID, N> tree, N parent) {
+        modify(() -> delegate.insertTreeAsPrevSiblingOf(tree, parent));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void insertAsFirstRoot(N node) {
+        modify(() -> delegate.insertAsFirstRoot(node));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void insertAsLastRoot(N node) {
+        modify(() -> delegate.insertAsLastRoot(node));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void removeSingle(N node) {
+        modify(() -> delegate.removeSingle(node));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void removeSubtree(N node) {
+        modify(() -> delegate.removeSubtree(node));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void rebuildTree() {
+        modify(delegate::rebuildTree);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void destroyTree() {
+        modify(delegate::destroyTree);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<N> getChildren(N node) {
+        return getSnapshot().getChildren(node);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<N> getChildren(N node, Long afterLeft, int limit) {
+        checkLimit(limit);
+        return getSnapshot().getChildren(node, afterLeft, limit);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Optional<N> getParent(N node) {
+        return getSnapshot().getParent(node);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Optional<N> getPrevSibling(N node) {
+        return getSnapshot().getPrevSibling(node);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Optional<N> getNextSibling(N node) {
+        return getSnapshot().getNextSibling(node);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Optional<N> findFirstRoot() {
+        return getSnapshot().findFirstRoot();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Optional<N> findLastRoot() {
+        return getSnapshot().findLastRoot();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<N> getParents(N node) {
+        return getSnapshot().getParents(node);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Map<N, List<N>> getParents(Collection<N> nodes) {
+        return getSnapshot().getParents(nodes);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<NestedNodeInfo<ID>> getTreeInfoAsList(N node) {
+        return getSnapshot().getTreeInfoAsList(node);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<NestedNodeInfo<ID>> getChildrenInfo(N node) {
+        return getSnapshot().getChildrenInfo(node);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<NestedNodeInfo<ID>> getParentsInfo(N node) {
+        return getSnapshot().getParentsInfo(node);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long countDescendants(N node) {
+        return getSnapshot().countDescendants(node);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isAncestorOf(N ancestor, N node) {
+        return getSnapshot().isAncestorOf(ancestor, node);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isDescendantOf(N node, N ancestor) {
+        return getSnapshot().isAncestorOf(ancestor, node);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getDepth(N node) {
+        return getSnapshot().getDepth(node);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<N> getTreeAsList(N node) {
+        return getSnapshot().getTreeAsList(node);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Stream<N> streamTreeAsList(N node) {
+        return getSnapshot().getTreeAsList(node).stream();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<N> getTreeAsList(N node, Long afterLeft, int limit) {
+        checkLimit(limit);
+        return getSnapshot().getTreeAsList(node, afterLeft, limit);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<N> getTreeAsList(N node, int maxDepth) {
+        checkMaxDepth(maxDepth);
+        return getSnapshot().getTreeAsList(node, maxDepth);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Tree<ID, N> getTree(N node) {
+        return getSnapshot().getTree(node);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Tree<ID, N> getTree(N node, int maxDepth) {
+        checkMaxDepth(maxDepth);
+        return getSnapshot().getTree(node, maxDepth);
+    }
+
+    private void modify(Runnable modification) {
+        Object key = treeKey.get();
+        try {
+            modification.run();
+        } finally {
+            invalidate(key);
+            if (TRANSACTION_SYNCHRONIZATION_PRESENT) {
+                TransactionInvalidation.register(this, key);
+            }
+        }
+    }
+
+    private void invalidate(Object key) {
+        getVersion(key).incrementAndGet();
+        snapshots.remove(key);
+    }
+
+    private NestedNodeRetriever<ID, N> getSnapshot() {
+        Object key = treeKey.get();
+        while (true) {
+            // the version is read before loading, so a snapshot racing with a modification is never served afterwards
+            long version = getVersion(key).get();
+            Snapshot<ID, N> snapshot = snapshots.get(key);
+            // a snapshot of a later version is at least as fresh as the one this thread would load
+            if (snapshot != null && snapshot.version >= version && System.nanoTime() - snapshot.loadedAt < ttlNanos) {
+                return snapshot.get();
+            }
+            // only the thread that manages to swap in the new snapshot loads it, the others wait for its result
+            Snapshot<ID, N> loading = new Snapshot<>(this::load, version);
+            if (snapshot == null ? snapshots.putIfAbsent(key, loading) == null : snapshots.replace(key, snapshot, loading)) {
+                try {
+                    return loading.load();
+                } catch (RuntimeException | Error ex) {
+                    snapshots.remove(key, loading);
+                    throw ex;
+                }
+            }
+        }
+    }
+
+    private List<N> load() {
+        List<N> nodes = new ArrayList<>();
+        Optional<N> root = delegate.findFirstRoot();
+        while (root.isPresent()) {
+            nodes.addAll(delegate.getTreeAsList(root.get()));
+            root = delegate.getNextSibling(root.get());
+        }
+        return nodes;
+    }
+
+    private AtomicLong getVersion(Object key) {
+        return versions.computeIfAbsent(key, k -> new AtomicLong());
+    }
+
+    private void checkLimit(int limit) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("Page limit must be greater than 0");
+        }
+    }
+
+    private void checkMaxDepth(int maxDepth) {
+        if (maxDepth < 0) {
+            throw new IllegalArgumentException("Max depth cannot be negative");
+        }
+    }
+
+    private static boolean isPresent(String className) {
+        try {
+            Class.forName(className, false, CachingNestedNodeRepository.class.getClassLoader());
+            return true;
+        } catch (ClassNotFoundException | LinkageError ex) {
+            return false;
+        }
+    }
+
+    /**
+     * Drops the snapshots of the Trees modified within the current transaction after it completes.
+     */
+    private static class TransactionInvalidation implements TransactionSynchronization {
+
+        private final CachingNestedNodeRepository<?, ?> repository;
+
+        private final Set<Object> keys = new HashSet<>();
+
+        private TransactionInvalidation(CachingNestedNodeRepository<?, ?> repository) {
+            this.repository = repository;
+        }
+
+        private static void register(CachingNestedNodeRepository<?, ?> repository, Object key) {
+            if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+                return;
+            }
+            TransactionInvalidation invalidation = (TransactionInvalidation) TransactionSynchronizationManager.getResource(repository);
+            if (invalidation == null) {
+                invalidation = new TransactionInvalidation(repository);
+                TransactionSynchronizationManager.bindResource(repository, invalidation);
+                TransactionSynchronizationManager.registerSynchronization(invalidation);
+            }
+            invalidation.keys.add(key);
+        }
+
+        @Override
+        public void suspend() {
+            TransactionSynchronizationManager.unbindResource(repository);
+        }
+
+        @Override
+        public void resume() {
+            TransactionSynchronizationManager.bindResource(repository, this);
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(repository);
+            keys.forEach(repository::invalidate);
+        }
+    }
+
+    private static class Snapshot<ID extends Serializable, N extends NestedNode<ID>> {
+
+        private final FutureTask<NestedNodeRetriever<ID, N>> retriever;
+
+        private final long version;
+
+        // measured from the start of the load, so the changes committed during the load don't outlive the TTL
+        private final long loadedAt = System.nanoTime();
+
+        private Snapshot(Supplier<List<N>> nodes, long version) {
+            this.retriever = new FutureTask<>(() -> new QueryBasedNestedNodeRetriever<>(
+                    new InMemoryNestedNodeRetrievingQueryDelegate<>(new InMemoryNestedNodeRepositoryConfiguration<>(null, nodes.get())),
+                    SNAPSHOT_NUMBERING
+            ));
+            this.version = version;
+        }
+
+        private NestedNodeRetriever<ID, N> load() {
+            retriever.run();
+            return get();
+        }
+
+        private NestedNodeRetriever<ID, N> get() {
+            try {
+                return retriever.get();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for the Tree snapshot to be loaded", ex);
+            } catch (ExecutionException ex) {
+                if (ex.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) ex.getCause();
+                }
+                if (ex.getCause() instanceof Error) {
+                    throw (Error) ex.getCause();
+                }
+                throw new IllegalStateException("Couldn't load the Tree snapshot", ex.getCause());
+            }
+        }
+    }
+}
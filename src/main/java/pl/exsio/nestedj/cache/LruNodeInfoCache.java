@@ -0,0 +1,147 @@
+/*
+ *  The MIT License
+ *
+ *  Copyright (c) 2019 eXsio.
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ *  rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *  The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ *  the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING
+ *  BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ *  NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY
+ *  CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ *  ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package pl.exsio.nestedj.cache;
+
+import pl.exsio.nestedj.NestedNodeRepository;
+import pl.exsio.nestedj.model.NestedNodeInfo;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Bounded NodeInfoCache that evicts the least recently used infos when its capacity is exceeded.
+ * The cached infos are indexed by their LEFT and RIGHT values, so the evictions after the modifications
+ * only visit the affected infos. All methods are synchronized on the cache instance.
+ *
+ * @param <ID> - Nested Node Identifier Class
+ */
+public class LruNodeInfoCache<ID extends Serializable> implements NestedNodeRepository.NodeInfoCache<ID> {
+
+    private final Map<ID, NestedNodeInfo<ID>> infos;
+
+    private final NavigableMap<Long, Set<ID>> byLeft = new TreeMap<>();
+
+    private final NavigableMap<Long, Set<ID>> byRight = new TreeMap<>();
+
+    /**
+     * @param capacity - max number of cached infos, must be greater than 0
+     */
+    public LruNodeInfoCache(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException(String.format("Cache capacity has to be greater than 0, was: %d", capacity));
+        }
+        this.infos = new LinkedHashMap<ID, NestedNodeInfo<ID>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<ID, NestedNodeInfo<ID>> eldest) {
+                if (size() > capacity) {
+                    unindex(eldest.getValue());
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized Optional<NestedNodeInfo<ID>> get(ID id) {
+        return Optional.ofNullable(infos.get(id));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized void put(NestedNodeInfo<ID> info) {
+        remove(info.getId());
+        if (info.getLeft() == null || info.getRight() == null) {
+            return;
+        }
+        index(info);
+        infos.put(info.getId(), info);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized void evict(Long from, Long to) {
+        List<ID> evicted = new ArrayList<>();
+        collect(byLeft, from, to, evicted);
+        collect(byRight, from, to, evicted);
+        evicted.forEach(this::remove);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized void clear() {
+        infos.clear();
+        byLeft.clear();
+        byRight.clear();
+    }
+
+    /**
+     * @return number of cached infos
+     */
+    public synchronized int size() {
+        return infos.size();
+    }
+
+    private void collect(NavigableMap<Long, Set<ID>> index, Long from, Long to, List<ID> result) {
+        (to == null ? index.tailMap(from, true) : index.subMap(from, true, to, true)).values().forEach(result::addAll);
+    }
+
+    private void remove(ID id) {
+        NestedNodeInfo<ID> info = infos.remove(id);
+        if (info != null) {
+            unindex(info);
+        }
+    }
+
+    private void index(NestedNodeInfo<ID> info) {
+        byLeft.computeIfAbsent(info.getLeft(), value -> new HashSet<>()).add(info.getId());
+        byRight.computeIfAbsent(info.getRight(), value -> new HashSet<>()).add(info.getId());
+    }
+
+    private void unindex(NestedNodeInfo<ID> info) {
+        unindex(byLeft, info.getLeft(), info.getId());
+        unindex(byRight, info.getRight(), info.getId());
+    }
+
+    private void unindex(NavigableMap<Long, Set<ID>> index, Long value, ID id) {
+        Set<ID> ids = index.get(value);
+        if (ids != null && ids.remove(id) && ids.isEmpty()) {
+            index.remove(value);
+        }
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ *  The MIT License
+ *
+ *  Copyright (c) 2019 eXsio.
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ *  rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *  The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ *  the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING
+ *  BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ *  NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY
+ *  CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ *  ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package pl.exsio.nestedj.cache;
+
+import pl.exsio.nestedj.NestedNodeRepository;
+import pl.exsio.nestedj.model.NestedNodeInfo;
+
+import java.io.Serializable;
+import java.util.Optional;
+
+/**
+ *  Default no-op NodeInfoCache implementation
+ *
+ * @param <ID> - Nested Node Identifier Class
+ */
+public class NoNodeInfoCache<ID extends Serializable> implements NestedNodeRepository.NodeInfoCache<ID> {
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Optional<NestedNodeInfo<ID>> get(ID id) {
+        return Optional.empty();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void put(NestedNodeInfo<ID> info) {
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void evict(Long from, Long to) {
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void clear() {
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ *  The MIT License
+ *
+ *  Copyright (c) 2019 eXsio.
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ *  rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *  The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ *  the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING
+ *  BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ *  NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY
+ *  CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ *  ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package pl.exsio.nestedj.config;
+
+/**
+ * Numbering of the LEFT/RIGHT values used by the Repository.
+ * <p>
+ * Dense numbering (the default) keeps the LEFT/RIGHT values consecutive, so every insert has to shift all
+ * the Nodes that follow the new Node.
+ * <p>
+ * Sparse numbering spaces the LEFT/RIGHT values by a configurable gap (NestedNodeRepository::rebuildTree() spreads
+ * the whole Tree that way). New Nodes are placed in the free space between their neighbours. When that space
+ * is exhausted, the following Nodes within the innermost enclosing Node that still has free space left are shifted
+ * into it, and only if none of the enclosing Nodes up to the Root has any, the rest of the Tree is shifted to open
+ * a new gap. Moving and removing Nodes works the same way
+ * for both numberings, with the exception that the removal doesn't close the released space in the sparse mode.
+ */
+public final class NestedNodeNumbering {
+
+    private static final NestedNodeNumbering DENSE = new NestedNodeNumbering(1L);
+
+    private final long gap;
+
+    private NestedNodeNumbering(long gap) {
+        this.gap = gap;
+    }
+
+    /**
+     * @return dense numbering - consecutive LEFT/RIGHT values
+     */
+    public static NestedNodeNumbering dense() {
+        return DENSE;
+    }
+
+    /**
+     * @param gap - distance between the LEFT/RIGHT values of the neighbouring Nodes, must be greater than 1
+     * @return sparse numbering with the given gap
+     */
+    public static NestedNodeNumbering sparse(long gap) {
+        if (gap < 2) {
+            throw new IllegalArgumentException(String.format("Sparse numbering gap has to be greater than 1, was: %d", gap));
+        }
+        return new NestedNodeNumbering(gap);
+    }
+
+    public long getGap() {
+        return gap;
+    }
+
+    public boolean isSparse() {
+        return gap > 1;
+    }
+
+    @Override
+    public String toString() {
+        return "NestedNodeNumbering{" +
+                "gap=" + gap +
+                '}';
+    }
+}
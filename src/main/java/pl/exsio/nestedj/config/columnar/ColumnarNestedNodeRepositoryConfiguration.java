@@ -0,0 +1,141 @@
+/*
+ *  The MIT License
+ *
+ *  Copyright (c) 2019 eXsio.
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ *  rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *  The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ *  the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING
+ *  BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ *  NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY
+ *  CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ *  ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package pl.exsio.nestedj.config.columnar;
+
+import pl.exsio.nestedj.config.columnar.store.ColumnarNestedNodeStore;
+import pl.exsio.nestedj.config.columnar.store.HeapNestedNodeColumns;
+import pl.exsio.nestedj.config.columnar.store.HeapNestedNodeTable;
+import pl.exsio.nestedj.config.columnar.store.NestedNodeColumns;
+import pl.exsio.nestedj.config.columnar.store.NestedNodeTable;
+import pl.exsio.nestedj.config.mem.discriminator.InMemoryTreeDiscriminator;
+import pl.exsio.nestedj.config.mem.identity.InMemoryNestedNodeIdentityGenerator;
+import pl.exsio.nestedj.model.NestedNode;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.IntFunction;
+
+/**
+ * Configuration class that serves as a base of creating new instances of Columnar InMemory Repository.
+ * Columnar Repository keeps the LEFT/RIGHT/LEVEL values of the Nodes in primitive arrays instead of the Node objects.
+ *
+ * @param <ID> - Nested Node Identifier Class
+ * @param <N>  - Nested Node Class
+ */
+public class ColumnarNestedNodeRepositoryConfiguration<ID extends Serializable, N extends NestedNode<ID>> {
+
+    private final InMemoryNestedNodeIdentityGenerator<ID> identityGenerator;
+
+    private final ColumnarNestedNodeStore<ID, N> store;
+
+    /**
+     * Creates new Columnar InMemory Repository with empty Tree and no Tree Discriminator.
+     *
+     * @param identityGenerator - Identity generator used for inserting new Nodes into the Repository.
+     */
+    public ColumnarNestedNodeRepositoryConfiguration(InMemoryNestedNodeIdentityGenerator<ID> identityGenerator) {
+        this(identityGenerator, new ArrayList<>(), null);
+    }
+
+    /**
+     * Creates new Columnar InMemory Repository with a collection of Nodes and no Tree Discriminator.
+     * If the Nodes do not have proper LEFT/RIGHT/LEVEL values, Tree can be initialized with NestedNodeRepository::rebuildTree() method.
+     *
+     * @param identityGenerator - Identity generator used for inserting new Nodes into the Repository.
+     * @param nodes             - initial collection of Nodes
+     */
+    public ColumnarNestedNodeRepositoryConfiguration(InMemoryNestedNodeIdentityGenerator<ID> identityGenerator, Collection<N> nodes) {
+        this(identityGenerator, nodes, null);
+    }
+
+    /**
+     * Creates new Columnar InMemory Repository with a collection of Nodes and custom Tree Discriminator.
+     * If the Nodes do not have proper LEFT/RIGHT/LEVEL values, Tree can be initialized with NestedNodeRepository::rebuildTree() method.
+     * Tree Discriminator is evaluated only once for each Node - when it's added to the Repository.
+     *
+     * @param identityGenerator - Identity generator used for inserting new Nodes into the Repository.
+     * @param nodes             - initial collection of Nodes
+     * @param treeDiscriminator - custom Tree Discriminator
+     */
+    public ColumnarNestedNodeRepositoryConfiguration(InMemoryNestedNodeIdentityGenerator<ID> identityGenerator, Collection<N> nodes, InMemoryTreeDiscriminator<ID, N> treeDiscriminator) {
+        this(identityGenerator, nodes, treeDiscriminator, HeapNestedNodeColumns::new);
+    }
+
+    /**
+     * Creates new Columnar InMemory Repository with a collection of Nodes, custom Tree Discriminator and custom storage of the LEFT/RIGHT/LEVEL columns.
+     *
+     * @param identityGenerator - Identity generator used for inserting new Nodes into the Repository.
+     * @param nodes             - initial collection of Nodes
+     * @param treeDiscriminator - custom Tree Discriminator, can be null
+     * @param columnsProvider   - creates the storage of LEFT/RIGHT/LEVEL columns with the given capacity
+     */
+    public ColumnarNestedNodeRepositoryConfiguration(InMemoryNestedNodeIdentityGenerator<ID> identityGenerator, Collection<N> nodes, InMemoryTreeDiscriminator<ID, N> treeDiscriminator,
+                                                     IntFunction<NestedNodeColumns> columnsProvider) {
+        this(identityGenerator, nodes, treeDiscriminator, columnsProvider, new HeapNestedNodeTable<>());
+    }
+
+    /**
+     * Creates new Columnar InMemory Repository with a collection of Nodes, custom Tree Discriminator, custom storage of the LEFT/RIGHT/LEVEL columns
+     * and custom storage of the Nodes and their IDs/PARENT_IDs.
+     *
+     * @param identityGenerator - Identity generator used for inserting new Nodes into the Repository.
+     * @param nodes             - initial collection of Nodes
+     * @param treeDiscriminator - custom Tree Discriminator, can be null
+     * @param columnsProvider   - creates the storage of LEFT/RIGHT/LEVEL columns with the given capacity
+     * @param table             - storage of the Nodes and their IDs/PARENT_IDs
+     */
+    public ColumnarNestedNodeRepositoryConfiguration(InMemoryNestedNodeIdentityGenerator<ID> identityGenerator, Collection<N> nodes, InMemoryTreeDiscriminator<ID, N> treeDiscriminator,
+                                                     IntFunction<NestedNodeColumns> columnsProvider, NestedNodeTable<ID, N> table) {
+        this.identityGenerator = identityGenerator;
+        this.store = new ColumnarNestedNodeStore<>(treeDiscriminator != null ? treeDiscriminator::applies : n -> true, columnsProvider, table);
+        this.store.addAll(nodes);
+    }
+
+    /**
+     * @return Identiy Generator used by this Configuration
+     */
+    public InMemoryNestedNodeIdentityGenerator<ID> getIdentityGenerator() {
+        return identityGenerator;
+    }
+
+    /**
+     * This method can be used to retrieve the data structure backing the Columnar InMemory Repository.
+     * Nodes can be added to and removed from the Tree by using the store directly.
+     * If you modify the LEFT/RIGHT/LEVEL/PARENT_ID values of the Nodes manually, write them back with ColumnarNestedNodeStore::update().
+     *
+     * @return store backing the Columnar InMemory implementation
+     */
+    public ColumnarNestedNodeStore<ID, N> getStore() {
+        return store;
+    }
+
+    /**
+     * This method can be used to retrieve the Nodes backing the Columnar InMemory Repository.
+     * You can store the collection to (no)SQL storage or use it for custom data retrieval logic.
+     *
+     * @return flat List of Nodes with up to date LEFT/RIGHT/LEVEL/PARENT_ID values.
+     */
+    public List<N> getNodes() {
+        return store.getNodes();
+    }
+}
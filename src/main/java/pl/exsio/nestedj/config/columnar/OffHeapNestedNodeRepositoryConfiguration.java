@@ -0,0 +1,89 @@
+/*
+ *  The MIT License
+ *
+ *  Copyright (c) 2019 eXsio.
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ *  rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *  The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ *  the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING
+ *  BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ *  NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY
+ *  CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ *  ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package pl.exsio.nestedj.config.columnar;
+
+import pl.exsio.nestedj.config.columnar.store.NestedNodeFactory;
+import pl.exsio.nestedj.config.columnar.store.NestedNodeIdCodec;
+import pl.exsio.nestedj.config.columnar.store.OffHeapNestedNodeColumns;
+import pl.exsio.nestedj.config.columnar.store.OffHeapNestedNodeTable;
+import pl.exsio.nestedj.config.mem.discriminator.InMemoryTreeDiscriminator;
+import pl.exsio.nestedj.config.mem.identity.InMemoryNestedNodeIdentityGenerator;
+import pl.exsio.nestedj.model.NestedNode;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
+
+/**
+ * Configuration class that serves as a base of creating new instances of Off-Heap InMemory Repository.
+ * Off-Heap Repository is a Columnar Repository that keeps the ID/PARENT_ID/LEFT/RIGHT/LEVEL values of the Nodes and the ID index
+ * in direct ByteBuffers, so that they don't occupy the Java heap and don't have to be traversed by the Garbage Collector.
+ * The Node objects are not kept - the IDs are converted to 64-bit values by the NestedNodeIdCodec and the Node instances
+ * are created by the NestedNodeFactory every time they are read from the Repository.
+ * Only the Nodes that don't belong to the Tree (as decided by the Tree Discriminator) are kept on the Java heap.
+ * Instances of this class can be used with ColumnarNestedNodeRepositoryFactory.
+ *
+ * @param <ID> - Nested Node Identifier Class
+ * @param <N>  - Nested Node Class
+ */
+public class OffHeapNestedNodeRepositoryConfiguration<ID extends Serializable, N extends NestedNode<ID>> extends ColumnarNestedNodeRepositoryConfiguration<ID, N> {
+
+    /**
+     * Creates new Off-Heap InMemory Repository with empty Tree and no Tree Discriminator.
+     *
+     * @param identityGenerator - Identity generator used for inserting new Nodes into the Repository.
+     * @param idCodec           - converts the IDs to 64-bit values and back
+     * @param nodeFactory       - creates the Node instances when they are read from the Repository
+     */
+    public OffHeapNestedNodeRepositoryConfiguration(InMemoryNestedNodeIdentityGenerator<ID> identityGenerator, NestedNodeIdCodec<ID> idCodec, NestedNodeFactory<ID, N> nodeFactory) {
+        this(identityGenerator, idCodec, nodeFactory, new ArrayList<>(), null);
+    }
+
+    /**
+     * Creates new Off-Heap InMemory Repository with a collection of Nodes and no Tree Discriminator.
+     * If the Nodes do not have proper LEFT/RIGHT/LEVEL values, Tree can be initialized with NestedNodeRepository::rebuildTree() method.
+     *
+     * @param identityGenerator - Identity generator used for inserting new Nodes into the Repository.
+     * @param idCodec           - converts the IDs to 64-bit values and back
+     * @param nodeFactory       - creates the Node instances when they are read from the Repository
+     * @param nodes             - initial collection of Nodes, all of them have to have IDs
+     */
+    public OffHeapNestedNodeRepositoryConfiguration(InMemoryNestedNodeIdentityGenerator<ID> identityGenerator, NestedNodeIdCodec<ID> idCodec, NestedNodeFactory<ID, N> nodeFactory,
+                                                    Collection<N> nodes) {
+        this(identityGenerator, idCodec, nodeFactory, nodes, null);
+    }
+
+    /**
+     * Creates new Off-Heap InMemory Repository with a collection of Nodes and custom Tree Discriminator.
+     * If the Nodes do not have proper LEFT/RIGHT/LEVEL values, Tree can be initialized with NestedNodeRepository::rebuildTree() method.
+     * Tree Discriminator is evaluated only once for each Node - when it's added to the Repository.
+     *
+     * @param identityGenerator - Identity generator used for inserting new Nodes into the Repository.
+     * @param idCodec           - converts the IDs to 64-bit values and back
+     * @param nodeFactory       - creates the Node instances when they are read from the Repository
+     * @param nodes             - initial collection of Nodes, all of them have to have IDs
+     * @param treeDiscriminator - custom Tree Discriminator
+     */
+    public OffHeapNestedNodeRepositoryConfiguration(InMemoryNestedNodeIdentityGenerator<ID> identityGenerator, NestedNodeIdCodec<ID> idCodec, NestedNodeFactory<ID, N> nodeFactory,
+                                                    Collection<N> nodes, InMemoryTreeDiscriminator<ID, N> treeDiscriminator) {
+        super(identityGenerator, nodes, treeDiscriminator, OffHeapNestedNodeColumns::new, new OffHeapNestedNodeTable<>(idCodec, nodeFactory));
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ *  The MIT License
+ *
+ *  Copyright (c) 2019 eXsio.
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ *  rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *  The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ *  the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING
+ *  BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ *  NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY
+ *  CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ *  ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package pl.exsio.nestedj.config.columnar.factory;
+
+import pl.exsio.nestedj.DelegatingNestedNodeRepository;
+import pl.exsio.nestedj.NestedNodeRepository;
+import pl.exsio.nestedj.cache.NoNodeInfoCache;
+import pl.exsio.nestedj.config.NestedNodeNumbering;
+import pl.exsio.nestedj.config.columnar.ColumnarNestedNodeRepositoryConfiguration;
+import pl.exsio.nestedj.delegate.control.*;
+import pl.exsio.nestedj.delegate.query.columnar.*;
+import pl.exsio.nestedj.lock.NoLock;
+import pl.exsio.nestedj.model.NestedNode;
+
+import java.io.Serializable;
+
+/**
+ * Factory class to construct new instances of Columnar InMemory Tree Repositories.
+ */
+public final class ColumnarNestedNodeRepositoryFactory {
+
+    private ColumnarNestedNodeRepositoryFactory() {
+    }
+
+    /**
+     * Creates a new instance of NestedNodeRepository backed by Columnar InMemory storage without any Repository locking.
+     *
+     * @param configuration - Columnar InMemory Repository configuration
+     * @param <ID> - Nested Node Identifier Class
+     * @param <N> - Nested Node Class
+     * @return - a new instance of NestedNodeRepository backed by Columnar InMemory storage
+     */
+    public static <ID extends Serializable, N extends NestedNode<ID>> NestedNodeRepository<ID, N> create(ColumnarNestedNodeRepositoryConfiguration<ID, N> configuration) {
+        return create(configuration, new NoLock<>());
+    }
+
+    /**
+     * Creates a new instance of NestedNodeRepository backed by Columnar InMemory storage with custom Repository locking.
+     *
+     * @param configuration - Columnar InMemory Repository configuration
+     * @param lock - custom Repository Lock implementation
+     * @param <ID> - Nested Node Identifier Class
+     * @param <N> - Nested Node Class
+     * @return - a new instance of NestedNodeRepository backed by Columnar InMemory storage
+     */
+    public static <ID extends Serializable, N extends NestedNode<ID>> NestedNodeRepository<ID, N> create(ColumnarNestedNodeRepositoryConfiguration<ID, N> configuration, NestedNodeRepository.Lock<ID, N> lock) {
+        return create(configuration, lock, NestedNodeNumbering.dense());
+    }
+
+    /**
+     * Creates a new instance of NestedNodeRepository backed by Columnar InMemory storage with custom Repository locking and LEFT/RIGHT values numbering.
+     *
+     * @param configuration - Columnar InMemory Repository configuration
+     * @param lock - custom Repository Lock implementation
+     * @param numbering - dense or sparse LEFT/RIGHT values numbering
+     * @param <ID> - Nested Node Identifier Class
+     * @param <N> - Nested Node Class
+     * @return - a new instance of NestedNodeRepository backed by Columnar InMemory storage
+     */
+    public static <ID extends Serializable, N extends NestedNode<ID>> NestedNodeRepository<ID, N> create(ColumnarNestedNodeRepositoryConfiguration<ID, N> configuration, NestedNodeRepository.Lock<ID, N> lock, NestedNodeNumbering numbering) {
+        return create(configuration, lock, numbering, new NoNodeInfoCache<>());
+    }
+
+    /**
+     * Creates a new instance of NestedNodeRepository backed by Columnar InMemory storage with custom Repository locking, LEFT/RIGHT values numbering
+     * and a cache of the Node infos read before each modification.
+     *
+     * @param configuration - Columnar InMemory Repository configuration
+     * @param lock - custom Repository Lock implementation
+     * @param numbering - dense or sparse LEFT/RIGHT values numbering
+     * @param infoCache - custom NodeInfoCache implementation
+     * @param <ID> - Nested Node Identifier Class
+     * @param <N> - Nested Node Class
+     * @return - a new instance of NestedNodeRepository backed by Columnar InMemory storage
+     */
+    public static <ID extends Serializable, N extends NestedNode<ID>> NestedNodeRepository<ID, N> create(ColumnarNestedNodeRepositoryConfiguration<ID, N> configuration, NestedNodeRepository.Lock<ID, N> lock, NestedNodeNumbering numbering, NestedNodeRepository.NodeInfoCache<ID> infoCache) {
+        QueryBasedNestedNodeInserter<ID, N> inserter = new QueryBasedNestedNodeInserter<>(new ColumnarNestedNodeInsertingQueryDelegate<>(configuration), numbering);
+        QueryBasedNestedNodeRetriever<ID, N> retriever = new QueryBasedNestedNodeRetriever<>(new ColumnarNestedNodeRetrievingQueryDelegate<>(configuration), numbering);
+        return new DelegatingNestedNodeRepository<>(
+                new QueryBasedNestedNodeMover<>(new ColumnarNestedNodeMovingQueryDelegate<>(configuration)),
+                new QueryBasedNestedNodeRemover<>(new ColumnarNestedNodeRemovingQueryDelegate<>(configuration), numbering),
+                retriever,
+                new QueryBasedNestedNodeRebuilder<>(new ColumnarNestedNodeRebuildingQueryDelegate<>(configuration), numbering),
+                inserter,
+                lock,
+                infoCache
+        );
+    }
+}
@@ -0,0 +1,894 @@
+/*
+ *  The MIT License
+ *
+ *  Copyright (c) 2019 eXsio.
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in
+ *  all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *  THE SOFTWARE.
+ */
+
+package pl.exsio.nestedj.config.columnar.store;
+
+import pl.exsio.nestedj.model.NestedNode;
+import pl.exsio.nestedj.model.NestedNodeInfo;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.TreeSet;
+import java.util.function.IntFunction;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Columnar storage of a Nested Set Tree.
+ * The LEFT/RIGHT/LEVEL values are kept in parallel primitive arrays, sorted by the LEFT value,
+ * so that all shifting operations are plain array loops and range lookups are binary searches.
+ * The columns can be kept on the Java heap (HeapNestedNodeColumns) or outside of it (OffHeapNestedNodeColumns).
+ * The IDs and PARENT_IDs are kept in the NestedNodeTable, also on the Java heap (HeapNestedNodeTable) or outside of it
+ * (OffHeapNestedNodeTable). The LEFT/RIGHT/LEVEL/PARENT_ID values are written into the Node objects (materialized)
+ * when they are read from the store.
+ * <p>
+ * Nodes that don't meet the membership condition (usually the Tree Discriminator) are kept aside
+ * and are never modified. The membership condition is evaluated once, when the Node is added.
+ * <p>
+ * Values of the Nodes modified outside of the Repository have to be written back with update(N).
+ * Null LEFT/RIGHT/LEVEL values are stored as 0.
+ * All methods are synchronized on the store instance.
+ *
+ * @param <ID> - Nested Node Identifier Class
+ * @param <N>  - Nested Node Class
+ */
+public class ColumnarNestedNodeStore<ID extends Serializable, N extends NestedNode<ID>> {
+
+    private final static int INITIAL_CAPACITY = 16;
+
+    private final Predicate<N> membership;
+
+    private final List<N> foreignNodes = new ArrayList<>();
+
+    // node table indexed by handle, handles don't change while the Node is in the store
+    private final NestedNodeTable<ID, N> table;
+
+    // columns indexed by position, sorted by LEFT
+    private NestedNodeColumns columns;
+
+    private int size = 0;
+
+    // positions, which LEFT values may be out of order
+    private int unsortedFrom = Integer.MAX_VALUE;
+
+    private int unsortedTo = Integer.MIN_VALUE;
+
+    public ColumnarNestedNodeStore(Predicate<N> membership) {
+        this(membership, HeapNestedNodeColumns::new);
+    }
+
+    /**
+     * @param membership      - condition that the Node has to meet to be a part of the Tree
+     * @param columnsProvider - creates the storage of LEFT/RIGHT/LEVEL columns with the given capacity
+     */
+    public ColumnarNestedNodeStore(Predicate<N> membership, IntFunction<NestedNodeColumns> columnsProvider) {
+        this(membership, columnsProvider, new HeapNestedNodeTable<>());
+    }
+
+    /**
+     * @param membership      - condition that the Node has to meet to be a part of the Tree
+     * @param columnsProvider - creates the storage of LEFT/RIGHT/LEVEL columns with the given capacity
+     * @param table           - storage of the Nodes and their IDs/PARENT_IDs
+     */
+    public ColumnarNestedNodeStore(Predicate<N> membership, IntFunction<NestedNodeColumns> columnsProvider, NestedNodeTable<ID, N> table) {
+        this.membership = membership;
+        this.columns = columnsProvider.apply(INITIAL_CAPACITY);
+        this.table = table;
+    }
+
+    /**
+     * Adds the Node to the store. Node with the same ID can be added only once.
+     *
+     * @param node - Node to be added
+     * @return true if the Node was added
+     */
+    public synchronized boolean add(N node) {
+        if (!membership.test(node)) {
+            return !foreignNodes.contains(node) && foreignNodes.add(node);
+        }
+        if (table.find(node.getId()) >= 0) {
+            return false;
+        }
+        ensureSorted();
+        int handle = table.add(node);
+        long nodeLeft = valueOf(node.getTreeLeft());
+        insertAt(upperBound(nodeLeft), handle, nodeLeft, valueOf(node.getTreeRight()), valueOf(node.getTreeLevel()));
+        return true;
+    }
+
+    /**
+     * Adds all Nodes to the store.
+     *
+     * @param nodes - Nodes to be added
+     */
+    public synchronized void addAll(Collection<N> nodes) {
+        nodes.forEach(this::add);
+    }
+
+    /**
+     * Removes the Node from the store.
+     *
+     * @param node - Node to be removed
+     * @return true if the Node was removed
+     */
+    public synchronized boolean remove(N node) {
+        if (foreignNodes.remove(node)) {
+            return true;
+        }
+        return removeById(node.getId());
+    }
+
+    /**
+     * Removes all Nodes from the store.
+     */
+    public synchronized void clear() {
+        foreignNodes.clear();
+        table.clear();
+        size = 0;
+        unsortedFrom = Integer.MAX_VALUE;
+        unsortedTo = Integer.MIN_VALUE;
+    }
+
+    /**
+     * @return number of Nodes in the store, including the ones not belonging to the Tree
+     */
+    public synchronized int size() {
+        return size + foreignNodes.size();
+    }
+
+    /**
+     * @return all Nodes in the store, with materialized LEFT/RIGHT/LEVEL/PARENT_ID values
+     */
+    public synchronized List<N> getNodes() {
+        List<N> result = new ArrayList<>(size + foreignNodes.size());
+        for (int i = 0; i < size; i++) {
+            result.add(materialize(i));
+        }
+        result.addAll(foreignNodes);
+        return result;
+    }
+
+    /**
+     * Writes the LEFT/RIGHT/LEVEL/PARENT_ID values of the Node into the store.
+     * Nodes that are not in the store are ignored.
+     *
+     * @param node - modified Node
+     */
+    public synchronized void update(N node) {
+        int handle = table.find(node.getId());
+        if (handle < 0) {
+            return;
+        }
+        int position = table.getPosition(handle);
+        table.setParentId(handle, node.getParentId());
+        columns.setRight(position, valueOf(node.getTreeRight()));
+        columns.setLevel(position, valueOf(node.getTreeLevel()));
+        setLeft(position, valueOf(node.getTreeLeft()));
+    }
+
+    public synchronized Optional<N> findById(ID id) {
+        int handle = table.find(id);
+        return handle >= 0 ? Optional.of(materialize(table.getPosition(handle))) : Optional.empty();
+    }
+
+    public synchronized Optional<NestedNodeInfo<ID>> getNodeInfo(ID id) {
+        int handle = table.find(id);
+        if (handle < 0) {
+            return Optional.empty();
+        }
+        return Optional.of(infoAt(table.getPosition(handle)));
+    }
+
+    /**
+     * @return ID/PARENT_ID/LEFT/RIGHT/LEVEL values of all Nodes belonging to the Tree
+     */
+    public synchronized List<NestedNodeInfo<ID>> getNodeInfos() {
+        List<NestedNodeInfo<ID>> result = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            result.add(infoAt(i));
+        }
+        return result;
+    }
+
+    public synchronized List<N> findByParentId(ID parentId) {
+        List<N> result = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            if (table.hasParentId(columns.getHandle(i), parentId)) {
+                result.add(materialize(i));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @param nodeLeft  - LEFT value of the subtree's root
+     * @param nodeRight - RIGHT value of the subtree's root
+     * @return all Nodes from the subtree, sorted by LEFT
+     */
+    public synchronized List<N> findSubtree(long nodeLeft, long nodeRight) {
+        return findSubtree(nodeLeft, nodeRight, nodeLeft - 1, Integer.MAX_VALUE);
+    }
+
+    /**
+     * @param nodeLeft  - LEFT value of the subtree's root
+     * @param nodeRight - RIGHT value of the subtree's root
+     * @param afterLeft - only the Nodes with LEFT value greater than this one are returned
+     * @param limit     - max number of returned Nodes
+     * @return first Nodes from the subtree positioned after the given LEFT value, sorted by LEFT
+     */
+    public synchronized List<N> findSubtree(long nodeLeft, long nodeRight, long afterLeft, int limit) {
+        return collectSubtree(nodeLeft, nodeRight, afterLeft, limit, this::materialize);
+    }
+
+    /**
+     * @param nodeLeft  - LEFT value of the subtree's root
+     * @param nodeRight - RIGHT value of the subtree's root
+     * @param maxLevel  - max LEVEL value of the returned Nodes
+     * @return Nodes from the subtree that are not deeper than the given LEVEL, sorted by LEFT
+     */
+    public synchronized List<N> findSubtree(long nodeLeft, long nodeRight, long maxLevel) {
+        ensureSorted();
+        List<N> result = new ArrayList<>();
+        int i = lowerBound(nodeLeft);
+        while (i < size && columns.getLeft(i) <= nodeRight) {
+            if (columns.getRight(i) > nodeRight || columns.getLevel(i) > maxLevel) {
+                i++;
+                continue;
+            }
+            result.add(materialize(i));
+            // the descendants of a Node on the last requested LEVEL are skipped at once
+            i = columns.getLevel(i) == maxLevel ? upperBound(columns.getRight(i)) : i + 1;
+        }
+        return result;
+    }
+
+    /**
+     * @param nodeLeft  - LEFT value of the subtree's root
+     * @param nodeRight - RIGHT value of the subtree's root
+     * @return ID/PARENT_ID/LEFT/RIGHT/LEVEL values of all Nodes from the subtree, sorted by LEFT
+     */
+    public synchronized List<NestedNodeInfo<ID>> findSubtreeInfo(long nodeLeft, long nodeRight) {
+        return collectSubtree(nodeLeft, nodeRight, nodeLeft - 1, Integer.MAX_VALUE, this::infoAt);
+    }
+
+    private <T> List<T> collectSubtree(long nodeLeft, long nodeRight, long afterLeft, int limit, IntFunction<T> mapper) {
+        ensureSorted();
+        List<T> result = new ArrayList<>();
+        for (int i = upperBound(Math.max(afterLeft, nodeLeft - 1)), to = upperBound(nodeRight); i < to && result.size() < limit; i++) {
+            if (columns.getRight(i) <= nodeRight) {
+                result.add(mapper.apply(i));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Lazily streams the subtree. Every Node is located only when the Stream reaches it, so the subtree is never
+     * copied as a whole and the Store can be modified while the Stream is consumed.
+     *
+     * @param nodeLeft  - LEFT value of the subtree root
+     * @param nodeRight - RIGHT value of the subtree root
+     * @return Nodes of the subtree (including its root), sorted by LEFT
+     */
+    public Stream<N> streamSubtree(long nodeLeft, long nodeRight) {
+        Iterator<N> iterator = new Iterator<N>() {
+
+            private long last = nodeLeft;
+
+            private boolean inclusive = true;
+
+            private N next;
+
+            @Override
+            public boolean hasNext() {
+                if (next == null && last <= nodeRight) {
+                    next = findNextInSubtree(last, inclusive, nodeRight);
+                    last = next != null ? next.getTreeLeft() : nodeRight + 1;
+                    inclusive = false;
+                }
+                return next != null;
+            }
+
+            @Override
+            public N next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                N node = next;
+                next = null;
+                return node;
+            }
+        };
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
+    private synchronized N findNextInSubtree(long from, boolean inclusive, long nodeRight) {
+        ensureSorted();
+        for (int i = inclusive ? lowerBound(from) : upperBound(from); i < size && columns.getLeft(i) <= nodeRight; i++) {
+            if (columns.getRight(i) <= nodeRight) {
+                return materialize(i);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @param nodeLeft  - LEFT value of the parent
+     * @param nodeRight - RIGHT value of the parent
+     * @param nodeLevel - LEVEL value of the parent
+     * @return direct children of the parent, sorted by LEFT
+     */
+    public synchronized List<N> findChildren(long nodeLeft, long nodeRight, long nodeLevel) {
+        return findChildren(nodeLeft, nodeRight, nodeLevel, nodeLeft, Integer.MAX_VALUE);
+    }
+
+    /**
+     * @param nodeLeft  - LEFT value of the parent
+     * @param nodeRight - RIGHT value of the parent
+     * @param nodeLevel - LEVEL value of the parent
+     * @param afterLeft - only the children with LEFT value greater than this one are returned
+     * @param limit     - max number of returned Nodes
+     * @return first direct children of the parent positioned after the given LEFT value, sorted by LEFT
+     */
+    public synchronized List<N> findChildren(long nodeLeft, long nodeRight, long nodeLevel, long afterLeft, int limit) {
+        return collectChildren(nodeLeft, nodeRight, nodeLevel, afterLeft, limit, this::materialize);
+    }
+
+    /**
+     * @param nodeLeft  - LEFT value of the parent
+     * @param nodeRight - RIGHT value of the parent
+     * @param nodeLevel - LEVEL value of the parent
+     * @return ID/PARENT_ID/LEFT/RIGHT/LEVEL values of the direct children of the parent, sorted by LEFT
+     */
+    public synchronized List<NestedNodeInfo<ID>> findChildrenInfo(long nodeLeft, long nodeRight, long nodeLevel) {
+        return collectChildren(nodeLeft, nodeRight, nodeLevel, nodeLeft, Integer.MAX_VALUE, this::infoAt);
+    }
+
+    private <T> List<T> collectChildren(long nodeLeft, long nodeRight, long nodeLevel, long afterLeft, int limit, IntFunction<T> mapper) {
+        ensureSorted();
+        List<T> result = new ArrayList<>();
+        int i = upperBound(Math.max(afterLeft, nodeLeft));
+        int previous = lowerBound(afterLeft);
+        if (afterLeft > nodeLeft && previous < size && columns.getLeft(previous) == afterLeft && columns.getLevel(previous) == nodeLevel + 1) {
+            // the page continues after a child - skip its whole subtree at once
+            i = upperBound(columns.getRight(previous));
+        }
+        while (i < size && columns.getLeft(i) < nodeRight && result.size() < limit) {
+            if (columns.getLevel(i) == nodeLevel + 1 && columns.getRight(i) < nodeRight) {
+                result.add(mapper.apply(i));
+                i = upperBound(columns.getRight(i));
+            } else {
+                i++;
+            }
+        }
+        return result;
+    }
+
+    public synchronized Optional<N> findParent(ID id) {
+        int handle = table.find(id);
+        int parent = handle >= 0 ? table.findParent(handle) : -1;
+        return parent >= 0 ? Optional.of(materialize(table.getPosition(parent))) : Optional.empty();
+    }
+
+    /**
+     * @param id - Node's ID
+     * @return all ancestors of the Node, starting from the closest one
+     */
+    public synchronized List<N> findParents(ID id) {
+        List<N> result = new ArrayList<>();
+        Optional<N> parent = findParent(id);
+        while (parent.isPresent() && result.size() < size) {
+            result.add(parent.get());
+            parent = findParent(parent.get().getId());
+        }
+        return result;
+    }
+
+    /**
+     * Every Node climbs up the PARENT_ID links only until it reaches an ancestor that was already found for another Node.
+     *
+     * @param ids - IDs of the Nodes
+     * @return distinct ancestors of all the Nodes, sorted by LEFT
+     */
+    public synchronized List<N> findParents(Collection<ID> ids) {
+        ensureSorted();
+        NavigableSet<Integer> positions = new TreeSet<>();
+        for (ID id : ids) {
+            int handle = table.find(id);
+            int position = handle >= 0 ? parentPosition(table.getPosition(handle)) : -1;
+            while (position >= 0 && positions.add(position)) {
+                position = parentPosition(position);
+            }
+        }
+        List<N> result = new ArrayList<>(positions.size());
+        positions.forEach(position -> result.add(materialize(position)));
+        return result;
+    }
+
+    /**
+     * @param id - Node's ID
+     * @return ID/PARENT_ID/LEFT/RIGHT/LEVEL values of all ancestors of the Node, starting from the closest one
+     */
+    public synchronized List<NestedNodeInfo<ID>> findParentsInfo(ID id) {
+        List<NestedNodeInfo<ID>> result = new ArrayList<>();
+        int handle = table.find(id);
+        int position = handle >= 0 ? parentPosition(table.getPosition(handle)) : -1;
+        while (position >= 0 && result.size() < size) {
+            result.add(infoAt(position));
+            position = parentPosition(position);
+        }
+        return result;
+    }
+
+    /**
+     * @param nodeLeft  - LEFT value of the Node
+     * @param nodeLevel - LEVEL value of the Node
+     * @return Node on the same LEVEL that ends before the given Node starts, with no other Node's boundary in between
+     */
+    public synchronized Optional<N> findPrevSibling(long nodeLeft, long nodeLevel) {
+        ensureSorted();
+        int i = lowerBound(nodeLeft) - 1;
+        while (i >= 0 && columns.getLevel(i) > nodeLevel) {
+            i--;
+        }
+        return i >= 0 && columns.getLevel(i) == nodeLevel ? Optional.of(materialize(i)) : Optional.empty();
+    }
+
+    /**
+     * @param nodeRight - RIGHT value of the Node
+     * @param nodeLevel - LEVEL value of the Node
+     * @return Node on the same LEVEL that starts after the given Node ends, with no other Node's boundary in between
+     */
+    public synchronized Optional<N> findNextSibling(long nodeRight, long nodeLevel) {
+        ensureSorted();
+        int i = upperBound(nodeRight);
+        return i < size && columns.getLevel(i) == nodeLevel ? Optional.of(materialize(i)) : Optional.empty();
+    }
+
+    /**
+     * @param value - LEFT or RIGHT value
+     * @return the lowest LEFT or RIGHT value greater than the given value
+     */
+    public synchronized Optional<Long> findLowestValueGreaterThan(long value) {
+        ensureSorted();
+        int next = upperBound(value);
+        Long result = next < size ? columns.getLeft(next) : null;
+        // the only RIGHT values that can precede the next LEFT value belong to the Nodes enclosing the given value
+        int position = next - 1;
+        while (position >= 0 && columns.getRight(position) <= value) {
+            position = parentPosition(position);
+        }
+        if (position >= 0 && (result == null || columns.getRight(position) < result)) {
+            result = columns.getRight(position);
+        }
+        return Optional.ofNullable(result);
+    }
+
+    /**
+     * @param value - LEFT or RIGHT value
+     * @return the greatest LEFT or RIGHT value less than the given value
+     */
+    public synchronized Optional<Long> findGreatestValueLessThan(long value) {
+        ensureSorted();
+        int position = lowerBound(value) - 1;
+        if (position < 0) {
+            return Optional.empty();
+        }
+        if (columns.getRight(position) >= value) {
+            return Optional.of(columns.getLeft(position));
+        }
+        // the closest RIGHT value belongs to the outermost ancestor that still ends before the given value
+        int parent = parentPosition(position);
+        while (parent >= 0 && columns.getRight(parent) < value) {
+            position = parent;
+            parent = parentPosition(position);
+        }
+        return Optional.of(columns.getRight(position));
+    }
+
+    /**
+     * @param from - LEFT or RIGHT value
+     * @param to   - LEFT or RIGHT value greater than from
+     * @return the RIGHT values of the Nodes enclosing both given values, starting with the innermost Node
+     */
+    public synchronized List<Long> findEnclosingRightValues(long from, long to) {
+        ensureSorted();
+        List<Long> result = new ArrayList<>();
+        // every Node enclosing both values is an ancestor (or self) of the last Node starting before the first one
+        for (int position = upperBound(from) - 1; position >= 0; position = parentPosition(position)) {
+            if (columns.getRight(position) > to) {
+                result.add(columns.getRight(position));
+            }
+        }
+        return result;
+    }
+
+    public synchronized Optional<N> findFirstRoot() {
+        int root = firstRootPosition();
+        return root < size ? Optional.of(materialize(root)) : Optional.empty();
+    }
+
+    public synchronized Optional<N> findLastRoot() {
+        int root = firstRootPosition();
+        if (root >= size) {
+            return Optional.empty();
+        }
+        int next = upperBound(columns.getRight(root));
+        while (next < size && columns.getLevel(next) == 0) {
+            root = next;
+            next = upperBound(columns.getRight(root));
+        }
+        return Optional.of(materialize(root));
+    }
+
+    /**
+     * Adds delta to all LEFT and RIGHT values within the given range, in a single pass over the columns.
+     *
+     * @param to upper bound of the range (exclusive) or null if the range is unbounded
+     */
+    public synchronized void shiftSideFields(long from, boolean inclusive, Long to, long delta) {
+        ensureSorted();
+        int start = inclusive ? lowerBound(from) : upperBound(from);
+        int stop = to == null ? size : Math.max(start, lowerBound(to));
+        for (int i = 0; i < size; i++) {
+            if (i >= start && i < stop) {
+                columns.setLeft(i, columns.getLeft(i) + delta);
+            }
+            long right = columns.getRight(i);
+            if ((right > from || (inclusive && right == from)) && (to == null || right < to)) {
+                columns.setRight(i, right + delta);
+            }
+        }
+        checkOrder(start, stop);
+    }
+
+    /**
+     * Marks the subtree for moving by replacing the RIGHT values with negative numbers lowered by the marker.
+     *
+     * @return number of marked Nodes
+     */
+    public synchronized int markSubtree(long nodeLeft, long nodeRight, long marker) {
+        ensureSorted();
+        int count = 0;
+        for (int i = lowerBound(nodeLeft), to = upperBound(nodeRight); i < to; i++) {
+            long value = columns.getRight(i);
+            if (value <= nodeRight) {
+                columns.setRight(i, -value - marker);
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Moves the Nodes marked within the given subtree by delta and restores their RIGHT values.
+     * The marked Nodes keep their LEFT values, so only the subtree range has to be visited.
+     */
+    public synchronized void moveMarked(long nodeLeft, long nodeRight, long delta, long levelDelta, long marker) {
+        ensureSorted();
+        int from = Integer.MAX_VALUE;
+        int to = Integer.MIN_VALUE;
+        for (int i = lowerBound(nodeLeft), end = upperBound(nodeRight); i < end; i++) {
+            long value = columns.getRight(i);
+            if (value < 0) {
+                columns.setRight(i, -(value + marker) + delta);
+                columns.setLeft(i, columns.getLeft(i) + delta);
+                columns.setLevel(i, columns.getLevel(i) + levelDelta);
+                from = Math.min(from, i);
+                to = Math.max(to, i + 1);
+            }
+        }
+        if (from < to) {
+            markUnsorted(from, to);
+        }
+    }
+
+    /**
+     * Decrements LEFT/RIGHT/LEVEL values of all descendants of the given Node.
+     */
+    public synchronized void pushUpDescendants(long nodeLeft, long nodeRight) {
+        ensureSorted();
+        int from = upperBound(nodeLeft);
+        int to = Math.max(from, lowerBound(nodeRight));
+        for (int i = from; i < to; i++) {
+            long value = columns.getRight(i);
+            if (value < nodeRight) {
+                columns.setLeft(i, columns.getLeft(i) - 1);
+                columns.setRight(i, value - 1);
+                columns.setLevel(i, columns.getLevel(i) - 1);
+            }
+        }
+        checkOrder(from, to);
+    }
+
+    public synchronized void setSideFields(ID id, long nodeLeft, long nodeRight, long nodeLevel) {
+        int handle = table.find(id);
+        if (handle >= 0) {
+            int position = table.getPosition(handle);
+            columns.setRight(position, nodeRight);
+            columns.setLevel(position, nodeLevel);
+            setLeft(position, nodeLeft);
+        }
+    }
+
+    public synchronized void setParentId(ID id, ID parentId) {
+        int handle = table.find(id);
+        if (handle >= 0) {
+            table.setParentId(handle, parentId);
+        }
+    }
+
+    /**
+     * Sets new parent of all direct children of the given Node.
+     */
+    public synchronized void setChildrenParentId(long nodeLeft, long nodeRight, long nodeLevel, ID parentId) {
+        ensureSorted();
+        for (int i = lowerBound(nodeLeft), to = upperBound(nodeRight); i < to; i++) {
+            if (columns.getLevel(i) == nodeLevel + 1 && columns.getRight(i) <= nodeRight) {
+                table.setParentId(columns.getHandle(i), parentId);
+            }
+        }
+    }
+
+    /**
+     * Sets LEFT/RIGHT/LEVEL values of all Nodes to the given value.
+     */
+    public synchronized void resetAll(long value) {
+        for (int i = 0; i < size; i++) {
+            columns.setLeft(i, value);
+            columns.setRight(i, value);
+            columns.setLevel(i, value);
+        }
+        unsortedFrom = Integer.MAX_VALUE;
+        unsortedTo = Integer.MIN_VALUE;
+    }
+
+    public synchronized boolean removeById(ID id) {
+        int handle = table.find(id);
+        if (handle < 0) {
+            return false;
+        }
+        ensureSorted();
+        int position = table.getPosition(handle);
+        columns.copy(position + 1, position, size - position - 1);
+        size--;
+        table.remove(handle);
+        updatePositions(position, size);
+        return true;
+    }
+
+    /**
+     * Removes the Node with all its descendants.
+     */
+    public synchronized void removeSubtree(long nodeLeft, long nodeRight) {
+        ensureSorted();
+        int from = lowerBound(nodeLeft);
+        int to = upperBound(nodeRight);
+        int target = from;
+        for (int i = from; i < size; i++) {
+            if (i < to && columns.getRight(i) <= nodeRight) {
+                table.remove(columns.getHandle(i));
+            } else {
+                if (target != i) {
+                    columns.copy(i, target, 1);
+                }
+                target++;
+            }
+        }
+        size = target;
+        updatePositions(from, size);
+    }
+
+    private N materialize(int position) {
+        int handle = columns.getHandle(position);
+        N node = table.getNode(handle);
+        node.setTreeLeft(columns.getLeft(position));
+        node.setTreeRight(columns.getRight(position));
+        node.setTreeLevel(columns.getLevel(position));
+        node.setParentId(table.getParentId(handle));
+        return node;
+    }
+
+    private NestedNodeInfo<ID> infoAt(int position) {
+        int handle = columns.getHandle(position);
+        return new NestedNodeInfo<>(table.getId(handle), table.getParentId(handle), columns.getLeft(position), columns.getRight(position), columns.getLevel(position));
+    }
+
+    private int parentPosition(int position) {
+        int parent = table.findParent(columns.getHandle(position));
+        return parent >= 0 ? table.getPosition(parent) : -1;
+    }
+
+    private int firstRootPosition() {
+        ensureSorted();
+        int i = 0;
+        while (i < size && columns.getLevel(i) != 0) {
+            i++;
+        }
+        return i;
+    }
+
+    private void setLeft(int position, long value) {
+        columns.setLeft(position, value);
+        checkOrder(position, position + 1);
+    }
+
+    private void insertAt(int position, int handle, long nodeLeft, long nodeRight, long nodeLevel) {
+        ensureCapacity(size + 1);
+        columns.copy(position, position + 1, size - position);
+        columns.setLeft(position, nodeLeft);
+        columns.setRight(position, nodeRight);
+        columns.setLevel(position, nodeLevel);
+        columns.setHandle(position, handle);
+        size++;
+        updatePositions(position, size);
+    }
+
+    private void updatePositions(int from, int to) {
+        for (int i = from; i < to; i++) {
+            table.setPosition(columns.getHandle(i), i);
+        }
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > columns.capacity()) {
+            columns = columns.grow(Math.max(capacity, columns.capacity() * 2));
+        }
+    }
+
+    private long valueOf(Long value) {
+        return value != null ? value : 0L;
+    }
+
+    // first position with LEFT >= value
+    private int lowerBound(long value) {
+        return lowerBound(value, 0, size);
+    }
+
+    // first position with LEFT > value
+    private int upperBound(long value) {
+        return upperBound(value, 0, size);
+    }
+
+    private int upperBound(long value, int low, int high) {
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (columns.getLeft(mid) <= value) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private int lowerBound(long value, int low, int high) {
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (columns.getLeft(mid) < value) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private void checkOrder(int from, int to) {
+        if (from < to && ((from > 0 && columns.getLeft(from - 1) > columns.getLeft(from)) || (to < size && columns.getLeft(to - 1) > columns.getLeft(to)))) {
+            markUnsorted(from, to);
+        }
+    }
+
+    private void markUnsorted(int from, int to) {
+        unsortedFrom = Math.min(unsortedFrom, from);
+        unsortedTo = Math.max(unsortedTo, to);
+    }
+
+    /**
+     * Restores the order of LEFT values. Only the positions modified since the last sorting are taken into account,
+     * extended by the neighbouring positions that the modified values overlap with.
+     */
+    private void ensureSorted() {
+        if (unsortedFrom >= unsortedTo) {
+            return;
+        }
+        int from = unsortedFrom;
+        int to = Math.min(unsortedTo, size);
+        unsortedFrom = Integer.MAX_VALUE;
+        unsortedTo = Integer.MIN_VALUE;
+        if (from >= to) {
+            return;
+        }
+        long min = Long.MAX_VALUE;
+        long max = Long.MIN_VALUE;
+        for (int i = from; i < to; i++) {
+            min = Math.min(min, columns.getLeft(i));
+            max = Math.max(max, columns.getLeft(i));
+        }
+        from = upperBound(min, 0, from);
+        to = lowerBound(max, to, size);
+        sort(from, to);
+    }
+
+    // stable bottom-up merge sort of positions, followed by permutation of all columns
+    private void sort(int from, int to) {
+        int length = to - from;
+        if (length < 2) {
+            return;
+        }
+        int[] order = new int[length];
+        int[] buffer = new int[length];
+        long[] keys = new long[length];
+        for (int i = 0; i < length; i++) {
+            order[i] = i;
+            keys[i] = columns.getLeft(from + i);
+        }
+        for (int width = 1; width < length; width *= 2) {
+            for (int low = 0; low < length; low += 2 * width) {
+                int mid = Math.min(low + width, length);
+                int high = Math.min(low + 2 * width, length);
+                int a = low;
+                int b = mid;
+                int k = low;
+                while (a < mid && b < high) {
+                    buffer[k++] = keys[order[b]] < keys[order[a]] ? order[b++] : order[a++];
+                }
+                while (a < mid) {
+                    buffer[k++] = order[a++];
+                }
+                while (b < high) {
+                    buffer[k++] = order[b++];
+                }
+            }
+            int[] swap = order;
+            order = buffer;
+            buffer = swap;
+        }
+        long[] sortedRight = new long[length];
+        long[] sortedLevel = new long[length];
+        int[] sortedHandles = new int[length];
+        for (int i = 0; i < length; i++) {
+            sortedRight[i] = columns.getRight(from + order[i]);
+            sortedLevel[i] = columns.getLevel(from + order[i]);
+            sortedHandles[i] = columns.getHandle(from + order[i]);
+        }
+        for (int i = 0; i < length; i++) {
+            columns.setLeft(from + i, keys[order[i]]);
+            columns.setRight(from + i, sortedRight[i]);
+            columns.setLevel(from + i, sortedLevel[i]);
+            columns.setHandle(from + i, sortedHandles[i]);
+        }
+        updatePositions(from, to);
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ *  The MIT License
+ *
+ *  Copyright (c) 2019 eXsio.
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ *  rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *  The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ *  the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING
+ *  BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ *  NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY
+ *  CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ *  ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package pl.exsio.nestedj.config.columnar.store;
+
+import java.util.Arrays;
+
+/**
+ * Columns kept in parallel primitive arrays on the Java heap.
+ */
+public class HeapNestedNodeColumns implements NestedNodeColumns {
+
+    private final long[] left;
+
+    private final long[] right;
+
+    private final long[] level;
+
+    private final int[] handles;
+
+    public HeapNestedNodeColumns(int capacity) {
+        this(new long[capacity], new long[capacity], new long[capacity], new int[capacity]);
+    }
+
+    private HeapNestedNodeColumns(long[] left, long[] right, long[] level, int[] handles) {
+        this.left = left;
+        this.right = right;
+        this.level = level;
+        this.handles = handles;
+    }
+
+    @Override
+    public int capacity() {
+        return left.length;
+    }
+
+    @Override
+    public NestedNodeColumns grow(int capacity) {
+        return new HeapNestedNodeColumns(
+                Arrays.copyOf(left, capacity),
+                Arrays.copyOf(right, capacity),
+                Arrays.copyOf(level, capacity),
+                Arrays.copyOf(handles, capacity)
+        );
+    }
+
+    @Override
+    public long getLeft(int position) {
+        return left[position];
+    }
+
+    @Override
+    public void setLeft(int position, long value) {
+        left[position] = value;
+    }
+
+    @Override
+    public long getRight(int position) {
+        return right[position];
+    }
+
+    @Override
+    public void setRight(int position, long value) {
+        right[position] = value;
+    }
+
+    @Override
+    public long getLevel(int position) {
+        return level[position];
+    }
+
+    @Override
+    public void setLevel(int position, long value) {
+        level[position] = value;
+    }
+
+    @Override
+    public int getHandle(int position) {
+        return handles[position];
+    }
+
+    @Override
+    public void setHandle(int position, int handle) {
+        handles[position] = handle;
+    }
+
+    @Override
+    public void copy(int from, int to, int length) {
+        System.arraycopy(left, from, left, to, length);
+        System.arraycopy(right, from, right, to, length);
+        System.arraycopy(level, from, level, to, length);
+        System.arraycopy(handles, from, handles, to, length);
+    }
+}
@@ -0,0 +1,151 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2015 exsio.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package pl.exsio.nestedj.config.columnar.store;
+
+import pl.exsio.nestedj.model.NestedNode;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Table kept on the Java heap. It references the Node instances added to the store,
+ * so the store hands back the same instances that were put into it.
+ * Nodes without ID can be added, but cannot be found.
+ *
+ * @param <ID> - Nested Node Identifier Class
+ * @param <N>  - Nested Node Class
+ */
+@SuppressWarnings("unchecked")
+public class HeapNestedNodeTable<ID extends Serializable, N extends NestedNode<ID>> implements NestedNodeTable<ID, N> {
+
+    private final static int INITIAL_CAPACITY = 16;
+
+    private final Map<ID, Integer> handles = new HashMap<>();
+
+    private Object[] nodeOf = new Object[INITIAL_CAPACITY];
+
+    private Object[] parentIdOf = new Object[INITIAL_CAPACITY];
+
+    private int[] positionOf = new int[INITIAL_CAPACITY];
+
+    private int[] freeHandles = new int[INITIAL_CAPACITY];
+
+    private int freeHandleCount = 0;
+
+    private int handleCount = 0;
+
+    @Override
+    public int find(ID id) {
+        Integer handle = id != null ? handles.get(id) : null;
+        return handle != null ? handle : -1;
+    }
+
+    @Override
+    public int add(N node) {
+        int handle = allocateHandle();
+        nodeOf[handle] = node;
+        parentIdOf[handle] = node.getParentId();
+        if (node.getId() != null) {
+            handles.put(node.getId(), handle);
+        }
+        return handle;
+    }
+
+    @Override
+    public void remove(int handle) {
+        N node = (N) nodeOf[handle];
+        if (node.getId() != null) {
+            handles.remove(node.getId());
+        }
+        nodeOf[handle] = null;
+        parentIdOf[handle] = null;
+        freeHandles[freeHandleCount++] = handle;
+    }
+
+    @Override
+    public void clear() {
+        handles.clear();
+        Arrays.fill(nodeOf, 0, handleCount, null);
+        Arrays.fill(parentIdOf, 0, handleCount, null);
+        handleCount = 0;
+        freeHandleCount = 0;
+    }
+
+    @Override
+    public N getNode(int handle) {
+        return (N) nodeOf[handle];
+    }
+
+    @Override
+    public ID getId(int handle) {
+        return ((N) nodeOf[handle]).getId();
+    }
+
+    @Override
+    public ID getParentId(int handle) {
+        return (ID) parentIdOf[handle];
+    }
+
+    @Override
+    public void setParentId(int handle, ID parentId) {
+        parentIdOf[handle] = parentId;
+    }
+
+    @Override
+    public boolean hasParentId(int handle, ID parentId) {
+        Object nodeParentId = parentIdOf[handle];
+        return parentId == null ? nodeParentId == null : parentId.equals(nodeParentId);
+    }
+
+    @Override
+    public int findParent(int handle) {
+        return find((ID) parentIdOf[handle]);
+    }
+
+    @Override
+    public int getPosition(int handle) {
+        return positionOf[handle];
+    }
+
+    @Override
+    public void setPosition(int handle, int position) {
+        positionOf[handle] = position;
+    }
+
+    private int allocateHandle() {
+        if (freeHandleCount > 0) {
+            return freeHandles[--freeHandleCount];
+        }
+        if (handleCount == nodeOf.length) {
+            int capacity = nodeOf.length * 2;
+            nodeOf = Arrays.copyOf(nodeOf, capacity);
+            parentIdOf = Arrays.copyOf(parentIdOf, capacity);
+            positionOf = Arrays.copyOf(positionOf, capacity);
+            freeHandles = Arrays.copyOf(freeHandles, capacity);
+        }
+        return handleCount++;
+    }
+}
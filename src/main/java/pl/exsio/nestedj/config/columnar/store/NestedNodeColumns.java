@@ -0,0 +1,67 @@
+/*
+ *  The MIT License
+ *
+ *  Copyright (c) 2019 eXsio.
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ *  rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *  The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ *  the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING
+ *  BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ *  NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY
+ *  CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ *  ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package pl.exsio.nestedj.config.columnar.store;
+
+/**
+ * Storage of the LEFT/RIGHT/LEVEL columns used by the ColumnarNestedNodeStore.
+ * Each position (row) holds the LEFT, RIGHT and LEVEL values of a single Node and the handle under which
+ * the store keeps the Node itself. The store decides about the order of the rows.
+ */
+public interface NestedNodeColumns {
+
+    /**
+     * @return number of rows that can be stored
+     */
+    int capacity();
+
+    /**
+     * Creates new storage with the given capacity, containing all rows of this storage.
+     *
+     * @param capacity - capacity of the new storage
+     * @return new storage
+     */
+    NestedNodeColumns grow(int capacity);
+
+    long getLeft(int position);
+
+    void setLeft(int position, long value);
+
+    long getRight(int position);
+
+    void setRight(int position, long value);
+
+    long getLevel(int position);
+
+    void setLevel(int position, long value);
+
+    int getHandle(int position);
+
+    void setHandle(int position, int handle);
+
+    /**
+     * Copies the rows within the storage. The source and target ranges may overlap.
+     *
+     * @param from   - first source position
+     * @param to     - first target position
+     * @param length - number of rows to be copied
+     */
+    void copy(int from, int to, int length);
+}
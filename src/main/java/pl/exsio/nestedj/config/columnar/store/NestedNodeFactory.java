@@ -0,0 +1,63 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2015 exsio.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package pl.exsio.nestedj.config.columnar.store;
+
+import pl.exsio.nestedj.model.NestedNode;
+
+import java.io.Serializable;
+
+/**
+ * Creates the Node instances for a store that doesn't keep them, e.g. the OffHeapNestedNodeTable.
+ * Such store keeps only the ID/PARENT_ID/LEFT/RIGHT/LEVEL values, so all other fields of the Node
+ * have to be kept by the factory, e.g. in an external storage under the Node's ID.
+ *
+ * @param <ID> - Nested Node Identifier Class
+ * @param <N>  - Nested Node Class
+ */
+public interface NestedNodeFactory<ID extends Serializable, N extends NestedNode<ID>> {
+
+    /**
+     * Creates new instance of the Node. The LEFT/RIGHT/LEVEL/PARENT_ID values are written into it by the store.
+     *
+     * @param id - Node's ID
+     * @return new Node instance with the given ID
+     */
+    N create(ID id);
+
+    /**
+     * Called when the Node is added to the store, after its ID is assigned. Does nothing by default.
+     *
+     * @param node - added Node
+     */
+    default void added(N node) {
+    }
+
+    /**
+     * Called when the Node is removed from the store. Does nothing by default.
+     *
+     * @param id - ID of the removed Node
+     */
+    default void removed(ID id) {
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2015 exsio.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package pl.exsio.nestedj.config.columnar.store;
+
+import java.io.Serializable;
+
+/**
+ * Converts the Node IDs to 64-bit values and back, so that they can be kept outside of the Java heap.
+ * The conversion has to be lossless: decode(encode(id)) has to be equal to id and different IDs have to be encoded differently.
+ *
+ * @param <ID> - Nested Node Identifier Class
+ */
+public interface NestedNodeIdCodec<ID extends Serializable> {
+
+    long encode(ID id);
+
+    ID decode(long value);
+
+    /**
+     * @return codec of the Long IDs
+     */
+    static NestedNodeIdCodec<Long> longIds() {
+        return LongIdCodec.INSTANCE;
+    }
+
+    final class LongIdCodec implements NestedNodeIdCodec<Long> {
+
+        private static final LongIdCodec INSTANCE = new LongIdCodec();
+
+        private LongIdCodec() {
+        }
+
+        @Override
+        public long encode(Long id) {
+            return id;
+        }
+
+        @Override
+        public Long decode(long value) {
+            return value;
+        }
+    }
+}
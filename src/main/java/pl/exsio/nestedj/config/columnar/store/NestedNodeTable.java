@@ -0,0 +1,94 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2015 exsio.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package pl.exsio.nestedj.config.columnar.store;
+
+import pl.exsio.nestedj.model.NestedNode;
+
+import java.io.Serializable;
+
+/**
+ * Storage of the Nodes used by the ColumnarNestedNodeStore, indexed by handles.
+ * Each handle holds the ID and PARENT_ID of a single Node and its position within the NestedNodeColumns.
+ * Handles don't change while the Node is in the table and are reused after the Node is removed.
+ *
+ * @param <ID> - Nested Node Identifier Class
+ * @param <N>  - Nested Node Class
+ */
+public interface NestedNodeTable<ID extends Serializable, N extends NestedNode<ID>> {
+
+    /**
+     * @param id - Node's ID, can be null
+     * @return handle of the Node with the given ID or -1 if there is no such Node
+     */
+    int find(ID id);
+
+    /**
+     * Adds the Node to the table. The store makes sure that the Node with the same ID is added only once.
+     *
+     * @param node - Node to be added
+     * @return handle of the added Node
+     */
+    int add(N node);
+
+    /**
+     * Removes the Node from the table and releases its handle.
+     *
+     * @param handle - handle of the Node
+     */
+    void remove(int handle);
+
+    /**
+     * Removes all Nodes from the table.
+     */
+    void clear();
+
+    /**
+     * @param handle - handle of the Node
+     * @return Node instance, the LEFT/RIGHT/LEVEL/PARENT_ID values are written into it by the store
+     */
+    N getNode(int handle);
+
+    ID getId(int handle);
+
+    ID getParentId(int handle);
+
+    void setParentId(int handle, ID parentId);
+
+    /**
+     * @param handle   - handle of the Node
+     * @param parentId - PARENT_ID to compare with, can be null
+     * @return true if the Node has the given PARENT_ID
+     */
+    boolean hasParentId(int handle, ID parentId);
+
+    /**
+     * @param handle - handle of the Node
+     * @return handle of the Node's parent or -1 if the Node has no parent in the table
+     */
+    int findParent(int handle);
+
+    int getPosition(int handle);
+
+    void setPosition(int handle, int position);
+}
@@ -0,0 +1,125 @@
+/*
+ *  The MIT License
+ *
+ *  Copyright (c) 2019 eXsio.
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ *  rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *  The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ *  the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING
+ *  BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ *  NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY
+ *  CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ *  ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package pl.exsio.nestedj.config.columnar.store;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Columns kept outside of the Java heap, in a direct ByteBuffer.
+ * Each row occupies 32 bytes: LEFT, RIGHT and LEVEL as 64-bit values followed by the 32-bit handle.
+ * The memory is released when the storage is garbage collected.
+ */
+public class OffHeapNestedNodeColumns implements NestedNodeColumns {
+
+    private final static int ROW_SIZE = 32;
+
+    private final static int LEFT_OFFSET = 0;
+
+    private final static int RIGHT_OFFSET = 8;
+
+    private final static int LEVEL_OFFSET = 16;
+
+    private final static int HANDLE_OFFSET = 24;
+
+    private final ByteBuffer buffer;
+
+    private final int capacity;
+
+    public OffHeapNestedNodeColumns(int capacity) {
+        this.capacity = capacity;
+        this.buffer = ByteBuffer.allocateDirect(Math.multiplyExact(capacity, ROW_SIZE)).order(ByteOrder.nativeOrder());
+    }
+
+    @Override
+    public int capacity() {
+        return capacity;
+    }
+
+    @Override
+    public NestedNodeColumns grow(int capacity) {
+        OffHeapNestedNodeColumns grown = new OffHeapNestedNodeColumns(capacity);
+        ByteBuffer source = buffer.duplicate();
+        source.limit(Math.min(this.capacity, capacity) * ROW_SIZE);
+        grown.buffer.duplicate().put(source);
+        return grown;
+    }
+
+    @Override
+    public long getLeft(int position) {
+        return buffer.getLong(position * ROW_SIZE + LEFT_OFFSET);
+    }
+
+    @Override
+    public void setLeft(int position, long value) {
+        buffer.putLong(position * ROW_SIZE + LEFT_OFFSET, value);
+    }
+
+    @Override
+    public long getRight(int position) {
+        return buffer.getLong(position * ROW_SIZE + RIGHT_OFFSET);
+    }
+
+    @Override
+    public void setRight(int position, long value) {
+        buffer.putLong(position * ROW_SIZE + RIGHT_OFFSET, value);
+    }
+
+    @Override
+    public long getLevel(int position) {
+        return buffer.getLong(position * ROW_SIZE + LEVEL_OFFSET);
+    }
+
+    @Override
+    public void setLevel(int position, long value) {
+        buffer.putLong(position * ROW_SIZE + LEVEL_OFFSET, value);
+    }
+
+    @Override
+    public int getHandle(int position) {
+        return buffer.getInt(position * ROW_SIZE + HANDLE_OFFSET);
+    }
+
+    @Override
+    public void setHandle(int position, int handle) {
+        buffer.putInt(position * ROW_SIZE + HANDLE_OFFSET, handle);
+    }
+
+    @Override
+    public void copy(int from, int to, int length) {
+        if (length <= 0 || from == to) {
+            return;
+        }
+        int words = length * ROW_SIZE / 8;
+        int source = from * ROW_SIZE;
+        int target = to * ROW_SIZE;
+        // copy word by word in the direction that doesn't overwrite the source before it's read
+        if (target < source) {
+            for (int i = 0; i < words; i++) {
+                buffer.putLong(target + i * 8, buffer.getLong(source + i * 8));
+            }
+        } else {
+            for (int i = words - 1; i >= 0; i--) {
+                buffer.putLong(target + i * 8, buffer.getLong(source + i * 8));
+            }
+        }
+    }
+}
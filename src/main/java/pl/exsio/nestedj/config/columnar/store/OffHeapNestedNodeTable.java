@@ -0,0 +1,299 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2015 exsio.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package pl.exsio.nestedj.config.columnar.store;
+
+import pl.exsio.nestedj.model.NestedNode;
+
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Table kept outside of the Java heap, in direct ByteBuffers.
+ * The Node instances are not kept - only their IDs and PARENT_IDs, encoded by the NestedNodeIdCodec.
+ * A new instance is created by the NestedNodeFactory every time the Node is read from the store.
+ * <p>
+ * Each row occupies 24 bytes: ID and PARENT_ID as 64-bit values followed by the 32-bit position and flags.
+ * Released rows are chained into a free list through their position.
+ * The IDs are indexed by an open addressing hash table with linear probing, kept at most half full.
+ * Each slot occupies 16 bytes: the 64-bit ID followed by the 32-bit handle and state.
+ * The memory is released when the table is garbage collected.
+ *
+ * @param <ID> - Nested Node Identifier Class
+ * @param <N>  - Nested Node Class
+ */
+public class OffHeapNestedNodeTable<ID extends Serializable, N extends NestedNode<ID>> implements NestedNodeTable<ID, N> {
+
+    private final static int INITIAL_CAPACITY = 16;
+
+    private final static int ROW_SIZE = 24;
+
+    private final static int ID_OFFSET = 0;
+
+    private final static int PARENT_ID_OFFSET = 8;
+
+    private final static int POSITION_OFFSET = 16;
+
+    private final static int FLAGS_OFFSET = 20;
+
+    private final static int IN_USE = 1;
+
+    private final static int HAS_PARENT = 2;
+
+    private final static int SLOT_SIZE = 16;
+
+    private final static int KEY_OFFSET = 0;
+
+    private final static int HANDLE_OFFSET = 8;
+
+    private final static int STATE_OFFSET = 12;
+
+    private final static int EMPTY = 0;
+
+    private final static int OCCUPIED = 1;
+
+    private final static int REMOVED = 2;
+
+    private final NestedNodeIdCodec<ID> idCodec;
+
+    private final NestedNodeFactory<ID, N> nodeFactory;
+
+    private ByteBuffer rows;
+
+    private int rowCapacity;
+
+    private int handleCount = 0;
+
+    private int freeHandle = -1;
+
+    private ByteBuffer slots;
+
+    private int slotCapacity;
+
+    private int occupiedSlots = 0;
+
+    private int removedSlots = 0;
+
+    /**
+     * @param idCodec     - converts the IDs to 64-bit values and back
+     * @param nodeFactory - creates the Node instances when they are read from the store
+     */
+    public OffHeapNestedNodeTable(NestedNodeIdCodec<ID> idCodec, NestedNodeFactory<ID, N> nodeFactory) {
+        if (idCodec == null || nodeFactory == null) {
+            throw new NullPointerException("idCodec and nodeFactory cannot be null");
+        }
+        this.idCodec = idCodec;
+        this.nodeFactory = nodeFactory;
+        this.rows = allocate(INITIAL_CAPACITY, ROW_SIZE);
+        this.rowCapacity = INITIAL_CAPACITY;
+        this.slots = allocate(INITIAL_CAPACITY * 2, SLOT_SIZE);
+        this.slotCapacity = INITIAL_CAPACITY * 2;
+    }
+
+    @Override
+    public int find(ID id) {
+        return id != null ? lookup(idCodec.encode(id)) : -1;
+    }
+
+    @Override
+    public int add(N node) {
+        if (node.getId() == null) {
+            throw new IllegalArgumentException("Off-Heap table cannot keep a Node without ID");
+        }
+        long key = idCodec.encode(node.getId());
+        int handle = allocateHandle();
+        rows.putLong(handle * ROW_SIZE + ID_OFFSET, key);
+        setParentId(handle, node.getParentId());
+        index(key, handle);
+        nodeFactory.added(node);
+        return handle;
+    }
+
+    @Override
+    public void remove(int handle) {
+        long key = rows.getLong(handle * ROW_SIZE + ID_OFFSET);
+        unindex(key);
+        rows.putInt(handle * ROW_SIZE + FLAGS_OFFSET, 0);
+        rows.putInt(handle * ROW_SIZE + POSITION_OFFSET, freeHandle);
+        freeHandle = handle;
+        nodeFactory.removed(idCodec.decode(key));
+    }
+
+    @Override
+    public void clear() {
+        for (int handle = 0; handle < handleCount; handle++) {
+            if ((flags(handle) & IN_USE) != 0) {
+                rows.putInt(handle * ROW_SIZE + FLAGS_OFFSET, 0);
+                nodeFactory.removed(getId(handle));
+            }
+        }
+        for (int slot = 0; slot < slotCapacity; slot++) {
+            slots.putInt(slot * SLOT_SIZE + STATE_OFFSET, EMPTY);
+        }
+        handleCount = 0;
+        freeHandle = -1;
+        occupiedSlots = 0;
+        removedSlots = 0;
+    }
+
+    @Override
+    public N getNode(int handle) {
+        return nodeFactory.create(getId(handle));
+    }
+
+    @Override
+    public ID getId(int handle) {
+        return idCodec.decode(rows.getLong(handle * ROW_SIZE + ID_OFFSET));
+    }
+
+    @Override
+    public ID getParentId(int handle) {
+        return (flags(handle) & HAS_PARENT) != 0 ? idCodec.decode(rows.getLong(handle * ROW_SIZE + PARENT_ID_OFFSET)) : null;
+    }
+
+    @Override
+    public void setParentId(int handle, ID parentId) {
+        rows.putLong(handle * ROW_SIZE + PARENT_ID_OFFSET, parentId != null ? idCodec.encode(parentId) : 0L);
+        rows.putInt(handle * ROW_SIZE + FLAGS_OFFSET, parentId != null ? IN_USE | HAS_PARENT : IN_USE);
+    }
+
+    @Override
+    public boolean hasParentId(int handle, ID parentId) {
+        boolean hasParent = (flags(handle) & HAS_PARENT) != 0;
+        if (parentId == null) {
+            return !hasParent;
+        }
+        return hasParent && rows.getLong(handle * ROW_SIZE + PARENT_ID_OFFSET) == idCodec.encode(parentId);
+    }
+
+    @Override
+    public int findParent(int handle) {
+        return (flags(handle) & HAS_PARENT) != 0 ? lookup(rows.getLong(handle * ROW_SIZE + PARENT_ID_OFFSET)) : -1;
+    }
+
+    @Override
+    public int getPosition(int handle) {
+        return rows.getInt(handle * ROW_SIZE + POSITION_OFFSET);
+    }
+
+    @Override
+    public void setPosition(int handle, int position) {
+        rows.putInt(handle * ROW_SIZE + POSITION_OFFSET, position);
+    }
+
+    private int flags(int handle) {
+        return rows.getInt(handle * ROW_SIZE + FLAGS_OFFSET);
+    }
+
+    private int allocateHandle() {
+        if (freeHandle >= 0) {
+            int handle = freeHandle;
+            freeHandle = rows.getInt(handle * ROW_SIZE + POSITION_OFFSET);
+            return handle;
+        }
+        if (handleCount == rowCapacity) {
+            rows = copy(rows, allocate(rowCapacity * 2, ROW_SIZE), rowCapacity * ROW_SIZE);
+            rowCapacity *= 2;
+        }
+        return handleCount++;
+    }
+
+    private int lookup(long key) {
+        int mask = slotCapacity - 1;
+        for (int slot = hash(key) & mask; ; slot = (slot + 1) & mask) {
+            int state = slots.getInt(slot * SLOT_SIZE + STATE_OFFSET);
+            if (state == EMPTY) {
+                return -1;
+            }
+            if (state == OCCUPIED && slots.getLong(slot * SLOT_SIZE + KEY_OFFSET) == key) {
+                return slots.getInt(slot * SLOT_SIZE + HANDLE_OFFSET);
+            }
+        }
+    }
+
+    private void index(long key, int handle) {
+        if ((occupiedSlots + removedSlots + 1) * 2 > slotCapacity) {
+            // grows only when the removed slots wouldn't make enough room
+            rehash((occupiedSlots + 1) * 4 > slotCapacity ? slotCapacity * 2 : slotCapacity);
+        }
+        int mask = slotCapacity - 1;
+        int slot = hash(key) & mask;
+        while (slots.getInt(slot * SLOT_SIZE + STATE_OFFSET) == OCCUPIED) {
+            slot = (slot + 1) & mask;
+        }
+        if (slots.getInt(slot * SLOT_SIZE + STATE_OFFSET) == REMOVED) {
+            removedSlots--;
+        }
+        slots.putLong(slot * SLOT_SIZE + KEY_OFFSET, key);
+        slots.putInt(slot * SLOT_SIZE + HANDLE_OFFSET, handle);
+        slots.putInt(slot * SLOT_SIZE + STATE_OFFSET, OCCUPIED);
+        occupiedSlots++;
+    }
+
+    private void unindex(long key) {
+        int mask = slotCapacity - 1;
+        for (int slot = hash(key) & mask; ; slot = (slot + 1) & mask) {
+            int state = slots.getInt(slot * SLOT_SIZE + STATE_OFFSET);
+            if (state == EMPTY) {
+                return;
+            }
+            if (state == OCCUPIED && slots.getLong(slot * SLOT_SIZE + KEY_OFFSET) == key) {
+                slots.putInt(slot * SLOT_SIZE + STATE_OFFSET, REMOVED);
+                occupiedSlots--;
+                removedSlots++;
+                return;
+            }
+        }
+    }
+
+    private void rehash(int capacity) {
+        ByteBuffer previous = slots;
+        int previousCapacity = slotCapacity;
+        slots = allocate(capacity, SLOT_SIZE);
+        slotCapacity = capacity;
+        occupiedSlots = 0;
+        removedSlots = 0;
+        for (int slot = 0; slot < previousCapacity; slot++) {
+            if (previous.getInt(slot * SLOT_SIZE + STATE_OFFSET) == OCCUPIED) {
+                index(previous.getLong(slot * SLOT_SIZE + KEY_OFFSET), previous.getInt(slot * SLOT_SIZE + HANDLE_OFFSET));
+            }
+        }
+    }
+
+    private static int hash(long key) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32));
+    }
+
+    private static ByteBuffer allocate(int capacity, int size) {
+        return ByteBuffer.allocateDirect(Math.multiplyExact(capacity, size)).order(ByteOrder.nativeOrder());
+    }
+
+    private static ByteBuffer copy(ByteBuffer source, ByteBuffer target, int length) {
+        ByteBuffer copied = source.duplicate();
+        copied.limit(length);
+        target.duplicate().put(copied);
+        return target;
+    }
+}
@@ -60,6 +60,12 @@ public class JdbcNestedNodeRepositoryConfiguration<ID extends Serializable, N ex
 
     private Map<String, String> treeColumnNames = new HashMap<>();
 
+    private boolean singleStatementMove = true;
+
+    private int batchSize = 1000;
+
+    private int fetchSize = 1000;
+
     /**
      * Creates new JDBC Repository with custm Tree Discriminator.
      *
@@ -227,4 +233,58 @@ public class JdbcNestedNodeRepositoryConfiguration<ID extends Serializable, N ex
     public void setSelectQuery(String selectQuery) {
         this.selectQuery = selectQuery;
     }
+
+    /**
+     * @return true if the Nodes are moved with a single UPDATE statement
+     */
+    public boolean isSingleStatementMove() {
+        return singleStatementMove;
+    }
+
+    /**
+     * Enables/disables moving the Nodes with a single UPDATE statement (enabled by default).
+     * When disabled, the moved Nodes are marked, the rest of the Tree is shifted and the marked Nodes are moved
+     * with separate statements.
+     */
+    public void setSingleStatementMove(boolean singleStatementMove) {
+        this.singleStatementMove = singleStatementMove;
+    }
+
+    /**
+     * @return max number of statements sent to the database in a single JDBC batch
+     */
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    /**
+     * Sets max number of statements sent to the database in a single JDBC batch (1000 by default).
+     * Used when rebuilding the Tree and when inserting multiple Nodes at once.
+     */
+    public void setBatchSize(int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Batch size must be greater than 0");
+        }
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * @return number of rows fetched from the database at once when streaming the Nodes
+     */
+    public int getFetchSize() {
+        return fetchSize;
+    }
+
+    /**
+     * Sets the JDBC fetch size used when streaming the Nodes (1000 by default), 0 leaves the fetch size
+     * to the JDBC Driver's default. Some JDBC Drivers have their own requirements for the cursor based fetching
+     * (for example PostgreSQL needs an active transaction, MySQL needs the useCursorFetch connection property),
+     * please refer to the Driver's documentation.
+     */
+    public void setFetchSize(int fetchSize) {
+        if (fetchSize < 0) {
+            throw new IllegalArgumentException("Fetch size cannot be negative");
+        }
+        this.fetchSize = fetchSize;
+    }
 }
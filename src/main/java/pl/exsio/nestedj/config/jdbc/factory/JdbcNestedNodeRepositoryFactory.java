@@ -22,6 +22,8 @@ package pl.exsio.nestedj.config.jdbc.factory;
 
 import pl.exsio.nestedj.DelegatingNestedNodeRepository;
 import pl.exsio.nestedj.NestedNodeRepository;
+import pl.exsio.nestedj.cache.NoNodeInfoCache;
+import pl.exsio.nestedj.config.NestedNodeNumbering;
 import pl.exsio.nestedj.config.jdbc.JdbcNestedNodeRepositoryConfiguration;
 import pl.exsio.nestedj.delegate.control.*;
 import pl.exsio.nestedj.delegate.query.jdbc.*;
@@ -60,15 +62,46 @@ public final class JdbcNestedNodeRepositoryFactory {
      * @return - a new instance of NestedNodeRepository backed by JDBC storage
      */
     public static <ID extends Serializable, N extends NestedNode<ID>> NestedNodeRepository<ID, N> create(JdbcNestedNodeRepositoryConfiguration<ID, N> configuration, NestedNodeRepository.Lock<ID, N> lock) {
-        QueryBasedNestedNodeInserter<ID, N> inserter = new QueryBasedNestedNodeInserter<>(new JdbcNestedNodeInsertingQueryDelegate<>(configuration));
-        QueryBasedNestedNodeRetriever<ID, N> retriever = new QueryBasedNestedNodeRetriever<>(new JdbcNestedNodeRetrievingQueryDelegate<>(configuration));
+        return create(configuration, lock, NestedNodeNumbering.dense());
+    }
+
+    /**
+     * Creates a new instance of NestedNodeRepository backed by JDBC storage with custom Repository locking and LEFT/RIGHT values numbering.
+     *
+     * @param configuration - JDBC Repository configuration
+     * @param lock - custom Repository Lock implementation
+     * @param numbering - dense or sparse LEFT/RIGHT values numbering
+     * @param <ID> - Nested Node Identifier Class
+     * @param <N> - Nested Node Class
+     * @return - a new instance of NestedNodeRepository backed by JDBC storage
+     */
+    public static <ID extends Serializable, N extends NestedNode<ID>> NestedNodeRepository<ID, N> create(JdbcNestedNodeRepositoryConfiguration<ID, N> configuration, NestedNodeRepository.Lock<ID, N> lock, NestedNodeNumbering numbering) {
+        return create(configuration, lock, numbering, new NoNodeInfoCache<>());
+    }
+
+    /**
+     * Creates a new instance of NestedNodeRepository backed by JDBC storage with custom Repository locking, LEFT/RIGHT values numbering
+     * and a cache of the Node infos read before each modification.
+     *
+     * @param configuration - JDBC Repository configuration
+     * @param lock - custom Repository Lock implementation
+     * @param numbering - dense or sparse LEFT/RIGHT values numbering
+     * @param infoCache - custom NodeInfoCache implementation
+     * @param <ID> - Nested Node Identifier Class
+     * @param <N> - Nested Node Class
+     * @return - a new instance of NestedNodeRepository backed by JDBC storage
+     */
+    public static <ID extends Serializable, N extends NestedNode<ID>> NestedNodeRepository<ID, N> create(JdbcNestedNodeRepositoryConfiguration<ID, N> configuration, NestedNodeRepository.Lock<ID, N> lock, NestedNodeNumbering numbering, NestedNodeRepository.NodeInfoCache<ID> infoCache) {
+        QueryBasedNestedNodeInserter<ID, N> inserter = new QueryBasedNestedNodeInserter<>(new JdbcNestedNodeInsertingQueryDelegate<>(configuration), numbering);
+        QueryBasedNestedNodeRetriever<ID, N> retriever = new QueryBasedNestedNodeRetriever<>(new JdbcNestedNodeRetrievingQueryDelegate<>(configuration), numbering);
         return new DelegatingNestedNodeRepository<>(
-                new QueryBasedNestedNodeMover<>(new JdbcNestedNodeMovingQueryDelegate<>(configuration)),
-                new QueryBasedNestedNodeRemover<>(new JdbcNestedNodeRemovingQueryDelegate<>(configuration)),
+                new QueryBasedNestedNodeMover<>(new JdbcNestedNodeMovingQueryDelegate<>(configuration), configuration.isSingleStatementMove()),
+                new QueryBasedNestedNodeRemover<>(new JdbcNestedNodeRemovingQueryDelegate<>(configuration), numbering),
                 retriever,
-                new QueryBasedNestedNodeRebuilder<>(inserter, retriever, new JdbcNestedNodeRebuildingQueryDelegate<>(configuration)),
+                new QueryBasedNestedNodeRebuilder<>(new JdbcNestedNodeRebuildingQueryDelegate<>(configuration), numbering),
                 inserter,
-                lock
+                lock,
+                infoCache
         );
 
     }
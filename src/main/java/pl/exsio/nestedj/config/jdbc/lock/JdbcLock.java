@@ -0,0 +1,310 @@
+/*
+ *  The MIT License
+ *
+ *  Copyright (c) 2019 eXsio.
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ *  rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *  The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ *  the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING
+ *  BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ *  NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY
+ *  CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ *  ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package pl.exsio.nestedj.config.jdbc.lock;
+
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import pl.exsio.nestedj.NestedNodeRepository;
+import pl.exsio.nestedj.config.jdbc.discriminator.JdbcTreeDiscriminator;
+import pl.exsio.nestedj.model.NestedNode;
+
+import javax.sql.DataSource;
+import java.io.Serializable;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * JDBC Lock - distributed lock based on leases stored in a lock table, shared by all the application instances
+ * that modify the same Trees. Each Tree is locked by inserting a row with a unique lock key, so a concurrent lock
+ * of the same Tree fails on the primary key. The leases expire after the configured time, so the Trees locked by
+ * a crashed instance become available again. The lease should be longer than the longest transaction modifying
+ * the Trees and the clocks of the application instances should be synchronized.
+ * <p>
+ * The lock table is accessed with separate, auto-committed connections taken directly from the DataSource,
+ * so that the leases are visible to the other instances immediately and don't depend on the outcome of the caller's
+ * transaction. When the Repository is called within a Spring-managed transaction, the leases acquired in it are
+ * released only after the transaction completes, so that no other instance can modify the Tree before the changes
+ * are committed. Further locks of the same Tree within that transaction are granted again and renew the lease.
+ * Without an active transaction, the lease is released as soon as the modification is done.
+ * <p>
+ * Required table structure:
+ * <pre>
+ * create table nested_node_locks (
+ *     lock_key varchar(255) not null primary key,
+ *     lock_owner varchar(255) not null,
+ *     expires_at bigint not null
+ * );
+ * </pre>
+ * Locked repository takes precedence before locking the Trees and cannot be locked while any Tree is locked.
+ *
+ * @param <ID> - Nested Node Identifier Class
+ * @param <N>  - Nested Node Class
+ */
+public class JdbcLock<ID extends Serializable, N extends NestedNode<ID>> implements NestedNodeRepository.Lock<ID, N> {
+
+    private static final String REPOSITORY_KEY = "repository";
+
+    private static final String TREE_KEY_PREFIX = "tree:";
+
+    private static final String DEFAULT_LOCK_HANDLE = "default";
+
+    private static final String UNIQUE_VIOLATION_STATE_CLASS = "23";
+
+    private final DataSource dataSource;
+
+    private final String tableName;
+
+    private final long leaseMillis;
+
+    private final Function<N, String> lockKeyProvider;
+
+    private final String instanceOwner = UUID.randomUUID().toString();
+
+    /**
+     * Creates a Lock that locks all the Nodes with a single lock key.
+     *
+     * @param dataSource - DataSource of the lock table
+     * @param tableName  - name of the lock table
+     * @param lease      - time after which the lock expires
+     */
+    public JdbcLock(DataSource dataSource, String tableName, Duration lease) {
+        this(dataSource, tableName, lease, node -> DEFAULT_LOCK_HANDLE);
+    }
+
+    /**
+     * Creates a Lock that locks each Tree separately, based on the parameters of the Tree Discriminator
+     * used by the Repository at the moment of locking.
+     *
+     * @param dataSource        - DataSource of the lock table
+     * @param tableName         - name of the lock table
+     * @param lease             - time after which the lock expires
+     * @param treeDiscriminator - Tree Discriminator used by the Repository
+     */
+    public JdbcLock(DataSource dataSource, String tableName, Duration lease, JdbcTreeDiscriminator treeDiscriminator) {
+        this(dataSource, tableName, lease, node -> treeDiscriminator.getParameters());
+    }
+
+    /**
+     * Creates a Lock that locks each Tree separately, based on the Lock Handle computed from the target Node.
+     * The String representation of the Handle is used as the lock key.
+     *
+     * @param dataSource         - DataSource of the lock table
+     * @param tableName          - name of the lock table
+     * @param lease              - time after which the lock expires
+     * @param lockHandleProvider - provider of the Lock Handle of the target Node
+     */
+    public JdbcLock(DataSource dataSource, String tableName, Duration lease, Function<N, Object> lockHandleProvider) {
+        if (lockHandleProvider == null) {
+            throw new NullPointerException("lockHandleProvider cannot be null");
+        }
+        if (lease.isNegative() || lease.isZero()) {
+            throw new IllegalArgumentException(String.format("Lock lease has to be positive, was: %s", lease));
+        }
+        this.dataSource = dataSource;
+        this.tableName = tableName;
+        this.leaseMillis = lease.toMillis();
+        this.lockKeyProvider = node -> TREE_KEY_PREFIX + lockHandleProvider.apply(node);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean lockNode(N node) {
+        return lock(lockKeyProvider.apply(node), "lock_key = ?");
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void unlockNode(N node) {
+        unlock(lockKeyProvider.apply(node));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean lockRepository() {
+        return lock(REPOSITORY_KEY, "lock_key <> ?");
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void unlockRepository() {
+        unlock(REPOSITORY_KEY);
+    }
+
+    private boolean lock(String key, String conflictCondition) {
+        TransactionLeases leases = getTransactionLeases();
+        String owner = leases != null ? leases.owner : getThreadOwner();
+        if (leases != null && leases.keys.contains(key)) {
+            return execute(connection -> renew(connection, key, owner));
+        }
+        boolean locked = execute(connection -> {
+            if (!acquire(connection, key, owner)) {
+                return false;
+            }
+            // both locks are inserted before checking for the other one, so they can never be granted together
+            if (exists(connection, conflictCondition, owner)) {
+                release(connection, key, owner);
+                return false;
+            }
+            return true;
+        });
+        if (locked && leases != null) {
+            leases.keys.add(key);
+        }
+        return locked;
+    }
+
+    private void unlock(String key) {
+        TransactionLeases leases = getTransactionLeases();
+        if (leases == null || !leases.keys.contains(key)) {
+            execute(connection -> release(connection, key, getThreadOwner()));
+        }
+        // otherwise the lease is released after the transaction completes
+    }
+
+    private TransactionLeases getTransactionLeases() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return null;
+        }
+        TransactionLeases leases = (TransactionLeases) TransactionSynchronizationManager.getResource(this);
+        if (leases == null) {
+            leases = new TransactionLeases();
+            TransactionSynchronizationManager.bindResource(this, leases);
+            TransactionSynchronizationManager.registerSynchronization(leases);
+        }
+        return leases;
+    }
+
+    private String getThreadOwner() {
+        return instanceOwner + ":" + Thread.currentThread().getId();
+    }
+
+    private boolean acquire(Connection connection, String key, String owner) throws SQLException {
+        long now = System.currentTimeMillis();
+        try (PreparedStatement expired = connection.prepareStatement("delete from " + tableName + " where expires_at < ?")) {
+            expired.setLong(1, now);
+            expired.executeUpdate();
+        }
+        try (PreparedStatement insert = connection.prepareStatement("insert into " + tableName + "(lock_key, lock_owner, expires_at) values(?, ?, ?)")) {
+            insert.setString(1, key);
+            insert.setString(2, owner);
+            insert.setLong(3, now + leaseMillis);
+            insert.executeUpdate();
+            return true;
+        } catch (SQLException ex) {
+            if (ex.getSQLState() != null && ex.getSQLState().startsWith(UNIQUE_VIOLATION_STATE_CLASS)) {
+                return false;
+            }
+            throw ex;
+        }
+    }
+
+    // the lease could have expired and been taken over by another instance in the meantime
+    private boolean renew(Connection connection, String key, String owner) throws SQLException {
+        try (PreparedStatement update = connection.prepareStatement("update " + tableName + " set expires_at = ? where lock_key = ? and lock_owner = ?")) {
+            update.setLong(1, System.currentTimeMillis() + leaseMillis);
+            update.setString(2, key);
+            update.setString(3, owner);
+            return update.executeUpdate() > 0;
+        }
+    }
+
+    // only the own lease is released, in case it expired and was taken over by another instance
+    private boolean release(Connection connection, String key, String owner) throws SQLException {
+        try (PreparedStatement delete = connection.prepareStatement("delete from " + tableName + " where lock_key = ? and lock_owner = ?")) {
+            delete.setString(1, key);
+            delete.setString(2, owner);
+            return delete.executeUpdate() > 0;
+        }
+    }
+
+    private boolean releaseAll(Connection connection, String owner) throws SQLException {
+        try (PreparedStatement delete = connection.prepareStatement("delete from " + tableName + " where lock_owner = ?")) {
+            delete.setString(1, owner);
+            return delete.executeUpdate() > 0;
+        }
+    }
+
+    // the leases of the same owner don't conflict, as they are held by the same transaction
+    private boolean exists(Connection connection, String condition, String owner) throws SQLException {
+        try (PreparedStatement select = connection.prepareStatement("select count(*) from " + tableName + " where " + condition + " and lock_owner <> ? and expires_at >= ?")) {
+            select.setString(1, REPOSITORY_KEY);
+            select.setString(2, owner);
+            select.setLong(3, System.currentTimeMillis());
+            try (ResultSet resultSet = select.executeQuery()) {
+                return resultSet.next() && resultSet.getLong(1) > 0;
+            }
+        }
+    }
+
+    private boolean execute(LockStatement statement) {
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(true);
+            return statement.execute(connection);
+        } catch (SQLException ex) {
+            throw new DataAccessResourceFailureException(String.format("Couldn't access the lock table %s", tableName), ex);
+        }
+    }
+
+    private interface LockStatement {
+        boolean execute(Connection connection) throws SQLException;
+    }
+
+    private class TransactionLeases implements TransactionSynchronization {
+
+        private final String owner = UUID.randomUUID().toString();
+
+        private final Set<String> keys = new HashSet<>();
+
+        @Override
+        public void suspend() {
+            TransactionSynchronizationManager.unbindResource(JdbcLock.this);
+        }
+
+        @Override
+        public void resume() {
+            TransactionSynchronizationManager.bindResource(JdbcLock.this, this);
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(JdbcLock.this);
+            if (!keys.isEmpty()) {
+                execute(connection -> releaseAll(connection, owner));
+            }
+        }
+    }
+}
@@ -43,6 +43,8 @@ public class JpaNestedNodeRepositoryConfiguration<ID extends Serializable, N ext
 
     private final Class<ID> idClass;
 
+    private int fetchSize = 1000;
+
     /**
      * Creates new JPA Repository with custom Tree Discriminator.
      *
@@ -97,4 +99,21 @@ public class JpaNestedNodeRepositoryConfiguration<ID extends Serializable, N ext
     public Class<ID> getIdClass() {
         return idClass;
     }
+
+    /**
+     * @return number of Entities fetched from the database at once when streaming the Nodes
+     */
+    public int getFetchSize() {
+        return fetchSize;
+    }
+
+    /**
+     * Sets the number of Entities fetched from the database at once when streaming the Nodes (1000 by default).
+     */
+    public void setFetchSize(int fetchSize) {
+        if (fetchSize < 1) {
+            throw new IllegalArgumentException("Fetch size must be greater than 0");
+        }
+        this.fetchSize = fetchSize;
+    }
 }
@@ -22,14 +22,12 @@ package pl.exsio.nestedj.config.mem;
 
 import pl.exsio.nestedj.config.mem.discriminator.InMemoryTreeDiscriminator;
 import pl.exsio.nestedj.config.mem.identity.InMemoryNestedNodeIdentityGenerator;
+import pl.exsio.nestedj.config.mem.index.IndexedNestedNodeSet;
 import pl.exsio.nestedj.model.NestedNode;
 
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Collections;
-import java.util.HashSet;
-import java.util.Set;
 
 /**
  * Configuration class that serves as a base of creating new instances of InMemory Repository.
@@ -43,7 +41,7 @@ public class InMemoryNestedNodeRepositoryConfiguration<ID extends Serializable,
 
     private final InMemoryNestedNodeIdentityGenerator<ID> identityGenerator;
 
-    private final Set<N> nodes = Collections.synchronizedSet(new HashSet<>());
+    private final IndexedNestedNodeSet<ID, N> nodes = new IndexedNestedNodeSet<>();
 
     /**
      * Creates new InMemory Repository with empty Tree and no Tree Discriminator.
@@ -97,10 +95,11 @@ public class InMemoryNestedNodeRepositoryConfiguration<ID extends Serializable,
      * This method can be used to retrieve the data structure backing the InMemory Repository.
      * You can store the collection to (no)SQL storage or use it for custom data retrieval logic.
      * It is not recommended to manually modify the LEFT/RIGHT/LEVEL values of the Nodes contained in the returned Set.
+     * If you do, call IndexedNestedNodeSet::reindex() afterwards, so that the Set's indexes reflect the new values.
      *
-     * @return flat Set of Nodes - the data structure backing the InMemory implementation.
+     * @return flat, indexed Set of Nodes - the data structure backing the InMemory implementation.
      */
-    public Set<N> getNodes() {
+    public IndexedNestedNodeSet<ID, N> getNodes() {
         return nodes;
     }
 }
@@ -22,6 +22,8 @@ package pl.exsio.nestedj.config.mem.factory;
 
 import pl.exsio.nestedj.DelegatingNestedNodeRepository;
 import pl.exsio.nestedj.NestedNodeRepository;
+import pl.exsio.nestedj.cache.NoNodeInfoCache;
+import pl.exsio.nestedj.config.NestedNodeNumbering;
 import pl.exsio.nestedj.config.mem.InMemoryNestedNodeRepositoryConfiguration;
 import pl.exsio.nestedj.delegate.control.*;
 import pl.exsio.nestedj.delegate.query.mem.*;
@@ -60,15 +62,46 @@ public final class InMemoryNestedNodeRepositoryFactory {
      * @return - a new instance of NestedNodeRepository backed by InMemory storage
      */
     public static <ID extends Serializable, N extends NestedNode<ID>> NestedNodeRepository<ID, N> create(InMemoryNestedNodeRepositoryConfiguration<ID, N> configuration, NestedNodeRepository.Lock<ID, N> lock) {
-        QueryBasedNestedNodeInserter<ID, N> inserter = new QueryBasedNestedNodeInserter<>(new InMemoryNestedNodeInsertingQueryDelegate<>(configuration));
-        QueryBasedNestedNodeRetriever<ID, N> retriever = new QueryBasedNestedNodeRetriever<>(new InMemoryNestedNodeRetrievingQueryDelegate<>(configuration));
+        return create(configuration, lock, NestedNodeNumbering.dense());
+    }
+
+    /**
+     * Creates a new instance of NestedNodeRepository backed by InMemory storage with custom Repository locking and LEFT/RIGHT values numbering.
+     *
+     * @param configuration - InMemory Repository configuration
+     * @param lock - custom Repository Lock implementation
+     * @param numbering - dense or sparse LEFT/RIGHT values numbering
+     * @param <ID> - Nested Node Identifier Class
+     * @param <N> - Nested Node Class
+     * @return - a new instance of NestedNodeRepository backed by InMemory storage
+     */
+    public static <ID extends Serializable, N extends NestedNode<ID>> NestedNodeRepository<ID, N> create(InMemoryNestedNodeRepositoryConfiguration<ID, N> configuration, NestedNodeRepository.Lock<ID, N> lock, NestedNodeNumbering numbering) {
+        return create(configuration, lock, numbering, new NoNodeInfoCache<>());
+    }
+
+    /**
+     * Creates a new instance of NestedNodeRepository backed by InMemory storage with custom Repository locking, LEFT/RIGHT values numbering
+     * and a cache of the Node infos read before each modification.
+     *
+     * @param configuration - InMemory Repository configuration
+     * @param lock - custom Repository Lock implementation
+     * @param numbering - dense or sparse LEFT/RIGHT values numbering
+     * @param infoCache - custom NodeInfoCache implementation
+     * @param <ID> - Nested Node Identifier Class
+     * @param <N> - Nested Node Class
+     * @return - a new instance of NestedNodeRepository backed by InMemory storage
+     */
+    public static <ID extends Serializable, N extends NestedNode<ID>> NestedNodeRepository<ID, N> create(InMemoryNestedNodeRepositoryConfiguration<ID, N> configuration, NestedNodeRepository.Lock<ID, N> lock, NestedNodeNumbering numbering, NestedNodeRepository.NodeInfoCache<ID> infoCache) {
+        QueryBasedNestedNodeInserter<ID, N> inserter = new QueryBasedNestedNodeInserter<>(new InMemoryNestedNodeInsertingQueryDelegate<>(configuration), numbering);
+        QueryBasedNestedNodeRetriever<ID, N> retriever = new QueryBasedNestedNodeRetriever<>(new InMemoryNestedNodeRetrievingQueryDelegate<>(configuration), numbering);
         return new DelegatingNestedNodeRepository<>(
                 new QueryBasedNestedNodeMover<>(new InMemoryNestedNodeMovingQueryDelegate<>(configuration)),
-                new QueryBasedNestedNodeRemover<>(new InMemoryNestedNodeRemovingQueryDelegate<>(configuration)),
+                new QueryBasedNestedNodeRemover<>(new InMemoryNestedNodeRemovingQueryDelegate<>(configuration), numbering),
                 retriever,
-                new QueryBasedNestedNodeRebuilder<>(inserter, retriever, new InMemoryNestedNodeRebuildingQueryDelegate<>(configuration)),
+                new QueryBasedNestedNodeRebuilder<>(new InMemoryNestedNodeRebuildingQueryDelegate<>(configuration), numbering),
                 inserter,
-                lock
+                lock,
+                infoCache
         );
     }
 }
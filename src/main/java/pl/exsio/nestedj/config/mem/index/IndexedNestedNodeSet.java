@@ -0,0 +1,465 @@
+/*
+ *  The MIT License
+ *
+ *  Copyright (c) 2019 eXsio.
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in
+ *  all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *  THE SOFTWARE.
+ */
+
+package pl.exsio.nestedj.config.mem.index;
+
+import pl.exsio.nestedj.model.NestedNode;
+
+import java.io.Serializable;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.TreeSet;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Set of Nested Nodes backing the InMemory Repository.
+ * Next to the Nodes themselves it maintains a hash index on the ID and ordered indexes on the LEFT, RIGHT
+ * and LEVEL (+LEFT) values, so that the InMemory Query Delegates can answer range lookups without
+ * scanning the whole Set.
+ * <p>
+ * The indexes remember the values under which each Node was indexed. Any change to the LEFT/RIGHT/LEVEL/ID
+ * values performed outside of the Repository has to be followed by a call to reindex(N) or reindex(),
+ * otherwise the range lookups may miss the modified Nodes. NestedNodeRepository::rebuildTree() always
+ * reindexes the whole Set before doing its work.
+ * <p>
+ * All methods are synchronized on the Set instance. Just like with Collections::synchronizedSet(),
+ * iterating over the Set (or its Stream) has to be manually synchronized on the Set if it can be modified concurrently.
+ *
+ * @param <ID> - Nested Node Identifier Class
+ * @param <N>  - Nested Node Class
+ */
+public class IndexedNestedNodeSet<ID extends Serializable, N extends NestedNode<ID>> extends AbstractSet<N> {
+
+    private final Map<N, Entry<ID, N>> entries = new HashMap<>();
+
+    private final Map<ID, Entry<ID, N>> byId = new HashMap<>();
+
+    private final NavigableSet<Entry<ID, N>> byLeft = new TreeSet<>(Comparator.<Entry<ID, N>, Long>comparing(e -> e.left).thenComparingLong(e -> e.sequence));
+
+    private final NavigableSet<Entry<ID, N>> byRight = new TreeSet<>(Comparator.<Entry<ID, N>, Long>comparing(e -> e.right).thenComparingLong(e -> e.sequence));
+
+    private final NavigableSet<Entry<ID, N>> byLevel = new TreeSet<>(Comparator.<Entry<ID, N>, Long>comparing(e -> e.level).thenComparing(e -> e.left).thenComparingLong(e -> e.sequence));
+
+    private long sequence = 0;
+
+    public IndexedNestedNodeSet() {
+    }
+
+    public IndexedNestedNodeSet(Collection<N> nodes) {
+        addAll(nodes);
+    }
+
+    @Override
+    public synchronized boolean add(N node) {
+        if (entries.containsKey(node)) {
+            return false;
+        }
+        Entry<ID, N> entry = new Entry<>(node, sequence++);
+        entries.put(node, entry);
+        index(entry);
+        return true;
+    }
+
+    @Override
+    public synchronized boolean remove(Object node) {
+        Entry<ID, N> entry = entries.remove(node);
+        if (entry == null) {
+            return false;
+        }
+        unindex(entry);
+        return true;
+    }
+
+    @Override
+    public synchronized boolean contains(Object node) {
+        return entries.containsKey(node);
+    }
+
+    @Override
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    @Override
+    public synchronized void clear() {
+        entries.clear();
+        byId.clear();
+        byLeft.clear();
+        byRight.clear();
+        byLevel.clear();
+    }
+
+    @Override
+    public Iterator<N> iterator() {
+        Iterator<Entry<ID, N>> iterator = entries.values().iterator();
+        return new Iterator<N>() {
+
+            private Entry<ID, N> current;
+
+            @Override
+            public boolean hasNext() {
+                return iterator.hasNext();
+            }
+
+            @Override
+            public N next() {
+                current = iterator.next();
+                return current.node;
+            }
+
+            @Override
+            public void remove() {
+                synchronized (IndexedNestedNodeSet.this) {
+                    iterator.remove();
+                    unindex(current);
+                }
+            }
+        };
+    }
+
+    /**
+     * Applies the modification to the Node and updates the indexes accordingly.
+     * If the Node doesn't belong to this Set, the modification is applied without touching the indexes.
+     *
+     * @param node     - modified Node
+     * @param modifier - modification to be applied
+     */
+    public synchronized void update(N node, Consumer<N> modifier) {
+        Entry<ID, N> entry = entries.get(node);
+        if (entry != null) {
+            unindex(entry);
+            modifier.accept(node);
+            index(entry);
+        } else {
+            modifier.accept(node);
+        }
+    }
+
+    /**
+     * Refreshes the indexes of a single Node, after its LEFT/RIGHT/LEVEL/ID values were modified outside of the Repository.
+     *
+     * @param node - modified Node
+     */
+    public synchronized void reindex(N node) {
+        update(node, n -> {
+        });
+    }
+
+    /**
+     * Refreshes the indexes of all Nodes, after their LEFT/RIGHT/LEVEL/ID values were modified outside of the Repository.
+     */
+    public synchronized void reindex() {
+        byId.clear();
+        byLeft.clear();
+        byRight.clear();
+        byLevel.clear();
+        entries.values().forEach(this::index);
+    }
+
+    /**
+     * @param id - Node's ID
+     * @return Node with the given ID
+     */
+    public synchronized Optional<N> findById(ID id) {
+        return Optional.ofNullable(byId.get(id)).map(e -> e.node);
+    }
+
+    /**
+     * @param from          - lower bound of the LEFT value, or null if unbounded
+     * @param fromInclusive - should the lower bound be included
+     * @param to            - upper bound of the LEFT value, or null if unbounded
+     * @param toInclusive   - should the upper bound be included
+     * @return Nodes with LEFT value in the given range, sorted by LEFT
+     */
+    public synchronized List<N> findByLeft(Long from, boolean fromInclusive, Long to, boolean toInclusive) {
+        return toNodes(range(byLeft, lowerProbe(null, from, fromInclusive), upperProbe(null, to, toInclusive)));
+    }
+
+    /**
+     * @param from          - lower bound of the RIGHT value, or null if unbounded
+     * @param fromInclusive - should the lower bound be included
+     * @param to            - upper bound of the RIGHT value, or null if unbounded
+     * @param toInclusive   - should the upper bound be included
+     * @return Nodes with RIGHT value in the given range, sorted by RIGHT
+     */
+    public synchronized List<N> findByRight(Long from, boolean fromInclusive, Long to, boolean toInclusive) {
+        return toNodes(range(byRight, lowerProbe(null, from, fromInclusive), upperProbe(null, to, toInclusive)));
+    }
+
+    /**
+     * @param level         - LEVEL value
+     * @param from          - lower bound of the LEFT value, or null if unbounded
+     * @param fromInclusive - should the lower bound be included
+     * @param to            - upper bound of the LEFT value, or null if unbounded
+     * @param toInclusive   - should the upper bound be included
+     * @return Nodes on the given LEVEL with LEFT value in the given range, sorted by LEFT
+     */
+    public synchronized List<N> findByLevel(Long level, Long from, boolean fromInclusive, Long to, boolean toInclusive) {
+        return toNodes(levelRange(level, from, fromInclusive, to, toInclusive));
+    }
+
+    /**
+     * @param level      - LEVEL value
+     * @param from       - exclusive lower bound of the LEFT value, or null if unbounded
+     * @param to         - exclusive upper bound of the LEFT value, or null if unbounded
+     * @param descending - should the Nodes be visited from the highest LEFT value
+     * @param condition  - condition that the Node has to meet
+     * @return first Node on the given LEVEL with LEFT value in the given range, meeting the condition
+     */
+    public synchronized Optional<N> findFirstByLevel(Long level, Long from, Long to, boolean descending, Predicate<N> condition) {
+        return findFirst(levelRange(level, from, false, to, false), descending, condition);
+    }
+
+    /**
+     * @param from       - exclusive lower bound of the LEFT value, or null if unbounded
+     * @param to         - exclusive upper bound of the LEFT value, or null if unbounded
+     * @param descending - should the Nodes be visited from the highest LEFT value
+     * @param condition  - condition that the Node has to meet
+     * @return first Node with LEFT value in the given range, meeting the condition
+     */
+    public synchronized Optional<N> findFirstByLeft(Long from, Long to, boolean descending, Predicate<N> condition) {
+        return findFirst(range(byLeft, lowerProbe(null, from, false), upperProbe(null, to, false)), descending, condition);
+    }
+
+    /**
+     * @param from       - exclusive lower bound of the RIGHT value, or null if unbounded
+     * @param to         - exclusive upper bound of the RIGHT value, or null if unbounded
+     * @param descending - should the Nodes be visited from the highest RIGHT value
+     * @param condition  - condition that the Node has to meet
+     * @return first Node with RIGHT value in the given range, meeting the condition
+     */
+    public synchronized Optional<N> findFirstByRight(Long from, Long to, boolean descending, Predicate<N> condition) {
+        return findFirst(range(byRight, lowerProbe(null, from, false), upperProbe(null, to, false)), descending, condition);
+    }
+
+    /**
+     * @param from      - exclusive lower bound of the LEFT value, or null if unbounded
+     * @param to        - exclusive upper bound of the LEFT value, or null if unbounded
+     * @param condition - condition that the Node has to meet
+     * @param limit     - max number of returned Nodes
+     * @return first Nodes with LEFT value in the given range meeting the condition, sorted by LEFT
+     */
+    public synchronized List<N> findByLeft(Long from, Long to, Predicate<N> condition, int limit) {
+        return find(range(byLeft, lowerProbe(null, from, false), upperProbe(null, to, false)), condition, limit);
+    }
+
+    /**
+     * @param level     - LEVEL value
+     * @param from      - exclusive lower bound of the LEFT value, or null if unbounded
+     * @param to        - exclusive upper bound of the LEFT value, or null if unbounded
+     * @param condition - condition that the Node has to meet
+     * @param limit     - max number of returned Nodes
+     * @return first Nodes on the given LEVEL with LEFT value in the given range meeting the condition, sorted by LEFT
+     */
+    public synchronized List<N> findByLevel(Long level, Long from, Long to, Predicate<N> condition, int limit) {
+        return find(levelRange(level, from, false, to, false), condition, limit);
+    }
+
+    /**
+     * Lazily streams the Nodes with LEFT value in the given range. Every Node is looked up in the index only when
+     * the Stream reaches it, so no copy of the range is made and the Set can be modified while the Stream is consumed
+     * (Nodes moved behind the current position of the Stream will not be visited).
+     *
+     * @param from      - inclusive lower bound of the LEFT value
+     * @param to        - inclusive upper bound of the LEFT value
+     * @param condition - condition that the Node has to meet
+     * @return Nodes with LEFT value in the given range meeting the condition, sorted by LEFT
+     */
+    public Stream<N> streamByLeft(Long from, Long to, Predicate<N> condition) {
+        Iterator<N> iterator = new Iterator<N>() {
+
+            private Entry<ID, N> last = lowerProbe(null, from, true);
+
+            private Entry<ID, N> next;
+
+            @Override
+            public boolean hasNext() {
+                if (next == null && last != null) {
+                    next = findNextByLeft(last, upperProbe(null, to, true), condition);
+                    last = next;
+                }
+                return next != null;
+            }
+
+            @Override
+            public N next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                N node = next.node;
+                next = null;
+                return node;
+            }
+        };
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
+    // returns a snapshot of the found Entry, so that the Stream can continue after it even if the Node is modified in the meantime
+    private synchronized Entry<ID, N> findNextByLeft(Entry<ID, N> after, Entry<ID, N> to, Predicate<N> condition) {
+        for (Entry<ID, N> entry : range(byLeft, after, to)) {
+            if (condition.test(entry.node)) {
+                Entry<ID, N> snapshot = new Entry<>(entry.node, entry.sequence);
+                snapshot.left = entry.left;
+                return snapshot;
+            }
+        }
+        return null;
+    }
+
+    private List<N> find(NavigableSet<Entry<ID, N>> range, Predicate<N> condition, int limit) {
+        List<N> result = new ArrayList<>();
+        for (Entry<ID, N> entry : range) {
+            if (result.size() >= limit) {
+                break;
+            }
+            if (condition.test(entry.node)) {
+                result.add(entry.node);
+            }
+        }
+        return result;
+    }
+
+    private Optional<N> findFirst(NavigableSet<Entry<ID, N>> range, boolean descending, Predicate<N> condition) {
+        for (Entry<ID, N> entry : descending ? range.descendingSet() : range) {
+            if (condition.test(entry.node)) {
+                return Optional.of(entry.node);
+            }
+        }
+        return Optional.empty();
+    }
+
+    private NavigableSet<Entry<ID, N>> levelRange(Long level, Long from, boolean fromInclusive, Long to, boolean toInclusive) {
+        if (level == null) {
+            return new TreeSet<>();
+        }
+        return range(byLevel,
+                lowerProbe(level, from != null ? from : Long.MIN_VALUE, fromInclusive),
+                upperProbe(level, to != null ? to : Long.MAX_VALUE, toInclusive));
+    }
+
+    private NavigableSet<Entry<ID, N>> range(NavigableSet<Entry<ID, N>> index, Entry<ID, N> from, Entry<ID, N> to) {
+        if (from.left == null && to.left == null) {
+            return index;
+        } else if (from.left == null) {
+            return index.headSet(to, false);
+        } else if (to.left == null) {
+            return index.tailSet(from, false);
+        } else if (index.comparator().compare(from, to) > 0) {
+            return new TreeSet<>();
+        }
+        return index.subSet(from, false, to, false);
+    }
+
+    // probes never equal an indexed Entry, so the bound's inclusiveness is expressed by the sequence used as a tie-breaker
+    private Entry<ID, N> lowerProbe(Long level, Long value, boolean inclusive) {
+        return probe(level, value, inclusive ? Long.MIN_VALUE : Long.MAX_VALUE);
+    }
+
+    private Entry<ID, N> upperProbe(Long level, Long value, boolean inclusive) {
+        return probe(level, value, inclusive ? Long.MAX_VALUE : Long.MIN_VALUE);
+    }
+
+    private Entry<ID, N> probe(Long level, Long value, long sequence) {
+        Entry<ID, N> probe = new Entry<>(null, sequence);
+        probe.level = level;
+        probe.left = value;
+        probe.right = value;
+        return probe;
+    }
+
+    private List<N> toNodes(Collection<Entry<ID, N>> range) {
+        List<N> result = new ArrayList<>(range.size());
+        range.forEach(e -> result.add(e.node));
+        return result;
+    }
+
+    private void index(Entry<ID, N> entry) {
+        N node = entry.node;
+        entry.id = node.getId();
+        entry.left = node.getTreeLeft();
+        entry.right = node.getTreeRight();
+        entry.level = node.getTreeLevel();
+        if (entry.id != null) {
+            byId.put(entry.id, entry);
+        }
+        if (entry.left != null) {
+            byLeft.add(entry);
+        }
+        if (entry.right != null) {
+            byRight.add(entry);
+        }
+        if (entry.level != null && entry.left != null) {
+            byLevel.add(entry);
+        }
+    }
+
+    private void unindex(Entry<ID, N> entry) {
+        if (entry.id != null && byId.get(entry.id) == entry) {
+            byId.remove(entry.id);
+        }
+        if (entry.left != null) {
+            byLeft.remove(entry);
+        }
+        if (entry.right != null) {
+            byRight.remove(entry);
+        }
+        if (entry.level != null && entry.left != null) {
+            byLevel.remove(entry);
+        }
+    }
+
+    private static class Entry<ID extends Serializable, N extends NestedNode<ID>> {
+
+        private final N node;
+
+        private final long sequence;
+
+        private ID id;
+
+        private Long left;
+
+        private Long right;
+
+        private Long level;
+
+        private Entry(N node, long sequence) {
+            this.node = node;
+            this.sequence = sequence;
+        }
+    }
+}
@@ -0,0 +1,211 @@
+/*
+ *  The MIT License
+ *
+ *  Copyright (c) 2019 eXsio.
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ *  rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *  The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ *  the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING
+ *  BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ *  NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY
+ *  CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ *  ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package pl.exsio.nestedj.config.mem.lock;
+
+import pl.exsio.nestedj.NestedNodeRepository;
+import pl.exsio.nestedj.model.NestedNode;
+
+import java.io.Serializable;
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+
+/**
+ * In Memory Blocking Lock - queues the contended modifications in the FIFO order for up to the configured timeout,
+ * instead of failing them immediately. Like the InMemoryLock, it locks the Trees based on the Lock Handle computed
+ * from the target Node, so the Handle should have a proper equals() and hashCode(). Without the Lock Handle provider,
+ * all the modifications are queued on a single Handle.
+ * <p>
+ * Locked repository takes precedence before locking single Nodes: it waits for the running modifications
+ * and the modifications queued after it wait for the Repository to be unlocked.
+ * The locks are owned by the locking thread, so they have to be unlocked by the same thread.
+ *
+ * @param <ID> - Nested Node Identifier Class
+ * @param <N>  - Nested Node Class
+ */
+public class InMemoryBlockingLock<ID extends Serializable, N extends NestedNode<ID>> implements NestedNodeRepository.BlockingLock<ID, N> {
+
+    private static final Object DEFAULT_LOCK_HANDLE = new Object();
+
+    private final ReentrantReadWriteLock repositoryLock = new ReentrantReadWriteLock(true);
+
+    private final ConcurrentMap<Object, ReentrantLock> handleLocks = new ConcurrentHashMap<>();
+
+    private final Function<N, Object> lockHandleProvider;
+
+    private final long timeoutNanos;
+
+    private final AtomicInteger queueLength = new AtomicInteger();
+
+    private final LongAdder acquiredCount = new LongAdder();
+
+    private final LongAdder timedOutCount = new LongAdder();
+
+    private final LongAdder totalWaitNanos = new LongAdder();
+
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+
+    /**
+     * @param timeout - max time to wait for the lock
+     */
+    public InMemoryBlockingLock(Duration timeout) {
+        this(timeout, node -> DEFAULT_LOCK_HANDLE);
+    }
+
+    /**
+     * @param timeout            - max time to wait for the lock
+     * @param lockHandleProvider - provider of the Lock Handle of the target Node
+     */
+    public InMemoryBlockingLock(Duration timeout, Function<N, Object> lockHandleProvider) {
+        if (lockHandleProvider == null) {
+            throw new NullPointerException("lockHandleProvider cannot be null");
+        }
+        if (timeout.isNegative()) {
+            throw new IllegalArgumentException(String.format("Lock timeout cannot be negative, was: %s", timeout));
+        }
+        this.timeoutNanos = timeout.toNanos();
+        this.lockHandleProvider = lockHandleProvider;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean lockNode(N node) {
+        long start = System.nanoTime();
+        queueLength.incrementAndGet();
+        try {
+            if (!tryLock(repositoryLock.readLock(), timeoutNanos)) {
+                return timedOut();
+            }
+            Lock handleLock = handleLocks.computeIfAbsent(lockHandleProvider.apply(node), handle -> new ReentrantLock(true));
+            if (!tryLock(handleLock, timeoutNanos - (System.nanoTime() - start))) {
+                repositoryLock.readLock().unlock();
+                return timedOut();
+            }
+            return acquired(start);
+        } finally {
+            queueLength.decrementAndGet();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void unlockNode(N node) {
+        handleLocks.get(lockHandleProvider.apply(node)).unlock();
+        repositoryLock.readLock().unlock();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean lockRepository() {
+        long start = System.nanoTime();
+        queueLength.incrementAndGet();
+        try {
+            return tryLock(repositoryLock.writeLock(), timeoutNanos) ? acquired(start) : timedOut();
+        } finally {
+            queueLength.decrementAndGet();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void unlockRepository() {
+        repositoryLock.writeLock().unlock();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getQueueLength() {
+        return queueLength.get();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getAcquiredCount() {
+        return acquiredCount.sum();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getTimedOutCount() {
+        return timedOutCount.sum();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Duration getTotalWaitTime() {
+        return Duration.ofNanos(totalWaitNanos.sum());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Duration getMaxWaitTime() {
+        return Duration.ofNanos(maxWaitNanos.get());
+    }
+
+    private boolean tryLock(Lock lock, long nanos) {
+        try {
+            // the timed tryLock() honors the fairness, unlike the untimed one
+            return lock.tryLock(Math.max(nanos, 0), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private boolean acquired(long start) {
+        long waited = System.nanoTime() - start;
+        acquiredCount.increment();
+        totalWaitNanos.add(waited);
+        maxWaitNanos.accumulateAndGet(waited, Math::max);
+        return true;
+    }
+
+    private boolean timedOut() {
+        timedOutCount.increment();
+        return false;
+    }
+}
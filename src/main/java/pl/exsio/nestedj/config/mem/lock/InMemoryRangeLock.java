@@ -0,0 +1,143 @@
+/*
+ *  The MIT License
+ *
+ *  Copyright (c) 2019 eXsio.
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ *  rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *  The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ *  the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING
+ *  BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ *  NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY
+ *  CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ *  ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package pl.exsio.nestedj.config.mem.lock;
+
+import pl.exsio.nestedj.NestedNodeRepository;
+import pl.exsio.nestedj.model.NestedNode;
+
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.function.Function;
+
+/**
+ * In Memory Range Lock - instead of locking the whole Tree, locks only the range of LEFT/RIGHT values affected by
+ * each modification. The locked ranges are kept per Tree, identified by the Tree Handle computed from the target Node,
+ * so the Handle should have a proper equals() and hashCode().
+ * <p>
+ * Moves lock the range between the moved Node and its new position, so moves within disjoint subtrees can run concurrently.
+ * Inserts and removals lock the range reported by the Inserter / Remover: with the dense numbering they shift all the following
+ * values and lock everything from the first affected value onwards, with the sparse numbering they lock only the removed subtree
+ * or the gap the new Node is placed into.
+ * The concurrently modified Repository must tolerate concurrent modifications of disjoint ranges, e.g. the Columnar Repository
+ * or a DB-based Repository performing each modification in its own transaction.
+ * <p>
+ * Locked repository takes precedence before locking Nodes and ranges, and cannot be locked while any Node is locked.
+ *
+ * @param <ID> - Nested Node Identifier Class
+ * @param <N>  - Nested Node Class
+ */
+public class InMemoryRangeLock<ID extends Serializable, N extends NestedNode<ID>> implements NestedNodeRepository.RangeLock<ID, N> {
+
+    private static final Object DEFAULT_TREE_HANDLE = new Object();
+
+    private final Map<Object, NavigableMap<Long, Long>> lockedRanges = new HashMap<>();
+
+    private final Function<N, Object> treeHandleProvider;
+
+    private boolean repositoryLocked = false;
+
+    private int lockedNodes = 0;
+
+    public InMemoryRangeLock() {
+        this.treeHandleProvider = node -> DEFAULT_TREE_HANDLE;
+    }
+
+    public InMemoryRangeLock(Function<N, Object> treeHandleProvider) {
+        if (treeHandleProvider == null) {
+            throw new NullPointerException("treeHandleProvider cannot be null");
+        }
+        this.treeHandleProvider = treeHandleProvider;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized boolean lockNode(N node) {
+        if (repositoryLocked) {
+            return false;
+        }
+        lockedNodes++;
+        return true;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized void unlockNode(N node) {
+        lockedNodes--;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized boolean lockRange(N node, Long from, Long to) {
+        long end = to != null ? to : Long.MAX_VALUE;
+        NavigableMap<Long, Long> ranges = lockedRanges.computeIfAbsent(treeHandleProvider.apply(node), handle -> new TreeMap<>());
+        // the locked ranges are disjoint, so only the last one starting before the end can overlap
+        Map.Entry<Long, Long> preceding = ranges.floorEntry(end);
+        if (preceding != null && preceding.getValue() >= from) {
+            return false;
+        }
+        ranges.put(from, end);
+        return true;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized void unlockRange(N node, Long from, Long to) {
+        Object handle = treeHandleProvider.apply(node);
+        NavigableMap<Long, Long> ranges = lockedRanges.get(handle);
+        if (ranges != null) {
+            ranges.remove(from);
+            if (ranges.isEmpty()) {
+                lockedRanges.remove(handle);
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized boolean lockRepository() {
+        if (repositoryLocked || lockedNodes > 0) {
+            return false;
+        }
+        repositoryLocked = true;
+        return true;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized void unlockRepository() {
+        repositoryLocked = false;
+    }
+}
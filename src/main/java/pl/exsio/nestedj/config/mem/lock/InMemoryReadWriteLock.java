@@ -0,0 +1,117 @@
+/*
+ *  The MIT License
+ *
+ *  Copyright (c) 2019 eXsio.
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ *  rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *  The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ *  the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING
+ *  BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ *  NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY
+ *  CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ *  ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package pl.exsio.nestedj.config.mem.lock;
+
+import pl.exsio.nestedj.NestedNodeRepository;
+import pl.exsio.nestedj.model.NestedNode;
+
+import java.io.Serializable;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Supplier;
+
+/**
+ * In Memory Read/Write Lock - lets the retrievals run concurrently with each other, but never with a modification.
+ * Retrievals are first performed optimistically, without any locking, and are repeated under the read lock only
+ * if a modification started in the meantime. Modifications get exclusive access to the whole Repository:
+ * a modification fails immediately if another one is in progress and otherwise waits for the running retrievals to finish.
+ * <p>
+ * Useful mainly for the InMemory and Columnar Repositories, which would otherwise expose the transient state
+ * of the Nodes being moved to the concurrent retrievals. Note that those Repositories return the live Node instances,
+ * so only the NestedNodeInfo projections are guaranteed to hold the values from the moment of retrieval.
+ *
+ * @param <ID> - Nested Node Identifier Class
+ * @param <N>  - Nested Node Class
+ */
+public class InMemoryReadWriteLock<ID extends Serializable, N extends NestedNode<ID>> implements NestedNodeRepository.ReadWriteLock<ID, N> {
+
+    private final StampedLock lock = new StampedLock();
+
+    private final AtomicBoolean locked = new AtomicBoolean(false);
+
+    private long writeStamp;
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public <T> T read(Supplier<T> retrieval) {
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0) {
+            try {
+                T result = retrieval.get();
+                if (lock.validate(stamp)) {
+                    return result;
+                }
+            } catch (RuntimeException ex) {
+                // a retrieval racing with a modification can fail on the inconsistent state, which doesn't count
+                if (lock.validate(stamp)) {
+                    throw ex;
+                }
+            }
+        }
+        stamp = lock.readLock();
+        try {
+            return retrieval.get();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean lockNode(N node) {
+        return lockRepository();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void unlockNode(N node) {
+        unlockRepository();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean lockRepository() {
+        if (!locked.compareAndSet(false, true)) {
+            return false;
+        }
+        writeStamp = lock.writeLock();
+        return true;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void unlockRepository() {
+        if (locked.get()) {
+            lock.unlockWrite(writeStamp);
+            locked.set(false);
+        }
+    }
+}
@@ -21,12 +21,29 @@ package pl.exsio.nestedj.delegate;
 
 import pl.exsio.nestedj.model.NestedNode;
 import pl.exsio.nestedj.model.NestedNodeInfo;
+import pl.exsio.nestedj.model.NestedNodeRange;
+import pl.exsio.nestedj.model.Tree;
 
 import java.io.Serializable;
+import java.util.List;
 
 public interface NestedNodeInserter<ID extends Serializable, N extends NestedNode<ID>> extends NestedNodeHierarchyManipulator {
 
     void insert(N node, NestedNodeInfo<ID> parentInfo, Mode mode);
 
+    void insertAll(List<N> nodes, NestedNodeInfo<ID> parentInfo, Mode mode);
+
+    void insertTree(Tree<ID, N> tree, NestedNodeInfo<ID> parentInfo, Mode mode);
+
     void insertAsFirstNode(N node);
+
+    /**
+     * @return range of the LEFT/RIGHT values modified by the insert() method
+     */
+    NestedNodeRange getInsertionRange(NestedNodeInfo<ID> parentInfo, Mode mode);
+
+    /**
+     * @return range of the LEFT/RIGHT values modified by the insertAll() and insertTree() methods
+     */
+    NestedNodeRange getBulkInsertionRange(NestedNodeInfo<ID> parentInfo, Mode mode);
 }
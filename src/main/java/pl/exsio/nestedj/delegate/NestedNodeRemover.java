@@ -21,6 +21,7 @@ package pl.exsio.nestedj.delegate;
 
 import pl.exsio.nestedj.model.NestedNode;
 import pl.exsio.nestedj.model.NestedNodeInfo;
+import pl.exsio.nestedj.model.NestedNodeRange;
 
 import java.io.Serializable;
 
@@ -29,4 +30,9 @@ public interface NestedNodeRemover<ID extends Serializable, N extends NestedNode
     void removeSingle(NestedNodeInfo<ID> node);
 
     void removeSubtree(NestedNodeInfo<ID> node);
+
+    /**
+     * @return range of the LEFT/RIGHT values modified by the removeSingle() and removeSubtree() methods
+     */
+    NestedNodeRange getRemovalRange(NestedNodeInfo<ID> node);
 }
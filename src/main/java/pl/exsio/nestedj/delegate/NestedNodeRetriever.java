@@ -24,15 +24,26 @@ import pl.exsio.nestedj.model.NestedNodeInfo;
 import pl.exsio.nestedj.model.Tree;
 
 import java.io.Serializable;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface NestedNodeRetriever<ID extends Serializable, N extends NestedNode<ID>> {
 
     List<N> getTreeAsList(N node);
 
+    Stream<N> streamTreeAsList(N node);
+
+    List<N> getTreeAsList(N node, Long afterLeft, int limit);
+
+    List<N> getTreeAsList(N node, int maxDepth);
+
     List<N> getChildren(N node);
 
+    List<N> getChildren(N node, Long afterLeft, int limit);
+
     Optional<N> getParent(N nodes);
 
     Optional<N> getPrevSibling(N node);
@@ -41,8 +52,24 @@ public interface NestedNodeRetriever<ID extends Serializable, N extends NestedNo
 
     Tree<ID, N> getTree(N node);
 
+    Tree<ID, N> getTree(N node, int maxDepth);
+
     List<N> getParents(N node);
 
+    Map<N, List<N>> getParents(Collection<N> nodes);
+
+    List<NestedNodeInfo<ID>> getTreeInfoAsList(N node);
+
+    List<NestedNodeInfo<ID>> getChildrenInfo(N node);
+
+    List<NestedNodeInfo<ID>> getParentsInfo(N node);
+
+    long countDescendants(N node);
+
+    boolean isAncestorOf(N ancestor, N node);
+
+    long getDepth(N node);
+
     Optional<NestedNodeInfo<ID>> getNodeInfo(ID nodeIds);
 
     Optional<N> findFirstRoot();
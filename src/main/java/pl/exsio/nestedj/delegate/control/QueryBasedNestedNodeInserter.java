@@ -21,39 +21,141 @@ package pl.exsio.nestedj.delegate.control;
 
 import pl.exsio.nestedj.delegate.NestedNodeInserter;
 import pl.exsio.nestedj.delegate.query.NestedNodeInsertingQueryDelegate;
+import pl.exsio.nestedj.config.NestedNodeNumbering;
 import pl.exsio.nestedj.model.NestedNode;
 import pl.exsio.nestedj.model.NestedNodeInfo;
+import pl.exsio.nestedj.model.NestedNodeRange;
+import pl.exsio.nestedj.model.Tree;
 
 import java.io.Serializable;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Optional;
 
-import static pl.exsio.nestedj.model.NestedNode.LEFT;
-import static pl.exsio.nestedj.model.NestedNode.RIGHT;
+import static pl.exsio.nestedj.delegate.query.NestedNodeInsertingQueryDelegate.INCREMENT_BY;
 
 
 public class QueryBasedNestedNodeInserter<ID extends Serializable, N extends NestedNode<ID>> implements NestedNodeInserter<ID, N> {
 
     private final NestedNodeInsertingQueryDelegate<ID, N> queryDelegate;
 
+    private final NestedNodeNumbering numbering;
+
     public QueryBasedNestedNodeInserter(NestedNodeInsertingQueryDelegate<ID, N> queryDelegate) {
+        this(queryDelegate, NestedNodeNumbering.dense());
+    }
+
+    public QueryBasedNestedNodeInserter(NestedNodeInsertingQueryDelegate<ID, N> queryDelegate, NestedNodeNumbering numbering) {
         this.queryDelegate = queryDelegate;
+        this.numbering = numbering;
     }
 
     @Override
     public void insert(N node, NestedNodeInfo<ID> parentInfo, Mode mode) {
-        makeSpaceForNewElement(getMoveFrom(parentInfo, mode), mode);
-        insertNodeIntoTree(parentInfo, node, mode);
+        if (numbering.isSparse()) {
+            insertNodeIntoGap(parentInfo, node, mode);
+        } else {
+            makeSpaceForNewElement(getMoveFrom(parentInfo, mode), mode, INCREMENT_BY);
+            insertNodeIntoTree(parentInfo, node, mode);
+        }
+    }
+
+    @Override
+    public void insertAll(List<N> nodes, NestedNodeInfo<ID> parentInfo, Mode mode) {
+        makeSpaceForNewElement(getMoveFrom(parentInfo, mode), mode, INCREMENT_BY * nodes.size());
+        Long left = this.getNodeLeft(parentInfo, mode);
+        Long level = this.getNodeLevel(parentInfo, mode);
+        ID parentId = this.getNodeParent(parentInfo, mode).orElse(null);
+        for (N node : nodes) {
+            node.setTreeLeft(left);
+            node.setTreeRight(left + 1);
+            node.setTreeLevel(level);
+            node.setParentId(parentId);
+            left += INCREMENT_BY;
+        }
+        queryDelegate.insertAll(nodes);
+    }
+
+    @Override
+    public void insertTree(Tree<ID, N> tree, NestedNodeInfo<ID> parentInfo, Mode mode) {
+        long size = assignSideFields(tree, this.getNodeLeft(parentInfo, mode), this.getNodeLevel(parentInfo, mode));
+        makeSpaceForNewElement(getMoveFrom(parentInfo, mode), mode, INCREMENT_BY * size);
+        tree.getNode().setParentId(this.getNodeParent(parentInfo, mode).orElse(null));
+
+        // every level is inserted as a single batch, so that the children can reference the IDs generated for their parents
+        List<Tree<ID, N>> level = new ArrayList<>();
+        level.add(tree);
+        while (!level.isEmpty()) {
+            List<N> nodes = new ArrayList<>(level.size());
+            level.forEach(t -> nodes.add(t.getNode()));
+            queryDelegate.insertAll(nodes);
+            List<Tree<ID, N>> nextLevel = new ArrayList<>();
+            for (Tree<ID, N> parent : level) {
+                for (Tree<ID, N> child : parent.getChildren()) {
+                    child.getNode().setParentId(parent.getNode().getId());
+                    nextLevel.add(child);
+                }
+            }
+            level = nextLevel;
+        }
+    }
+
+    private long assignSideFields(Tree<ID, N> tree, Long left, Long level) {
+        long counter = left;
+        Deque<Tree<ID, N>> path = new ArrayDeque<>();
+        Deque<Iterator<Tree<ID, N>>> pending = new ArrayDeque<>();
+        tree.getNode().setTreeLeft(counter++);
+        tree.getNode().setTreeLevel(level);
+        path.push(tree);
+        pending.push(tree.getChildren().iterator());
+        while (!path.isEmpty()) {
+            if (pending.peek().hasNext()) {
+                Tree<ID, N> child = pending.peek().next();
+                child.getNode().setTreeLeft(counter++);
+                child.getNode().setTreeLevel(level + path.size());
+                path.push(child);
+                pending.push(child.getChildren().iterator());
+            } else {
+                path.pop().getNode().setTreeRight(counter++);
+                pending.pop();
+            }
+        }
+        return (counter - left) / INCREMENT_BY;
     }
 
     @Override
     public void insertAsFirstNode(N node) {
-        node.setTreeLeft(1L);
-        node.setTreeRight(2L);
+        node.setTreeLeft(numbering.getGap());
+        node.setTreeRight(2 * numbering.getGap());
         node.setTreeLevel(0L);
         node.setParentId(null);
         queryDelegate.insert(node);
     }
 
+    /**
+     * With sparse numbering only the free space between the future neighbours is affected, unless it has to be made first.
+     */
+    @Override
+    public NestedNodeRange getInsertionRange(NestedNodeInfo<ID> parentInfo, Mode mode) {
+        if (!numbering.isSparse()) {
+            return getBulkInsertionRange(parentInfo, mode);
+        }
+        Gap gap = findGap(parentInfo, mode);
+        if (gap.upper == null || gap.getStep(numbering.getGap()) >= 1) {
+            return new NestedNodeRange(gap.lower, gap.upper);
+        }
+        return new NestedNodeRange(gap.lower, findEnclosingRightWithRoom(gap).orElse(null));
+    }
+
+    @Override
+    public NestedNodeRange getBulkInsertionRange(NestedNodeInfo<ID> parentInfo, Mode mode) {
+        // all the values from the first inserted one onwards are shifted
+        return new NestedNodeRange(getNodeLeft(parentInfo, mode), null);
+    }
+
     private void insertNodeIntoTree(NestedNodeInfo<ID> parent, N node, Mode mode) {
         Long left = this.getNodeLeft(parent, mode);
         Long right = left + 1;
@@ -65,13 +167,72 @@ public class QueryBasedNestedNodeInserter<ID extends Serializable, N extends Nes
         queryDelegate.insert(node);
     }
 
-    private void makeSpaceForNewElement(Long from, Mode mode) {
+    /**
+     * Places the Node in the free space between the LEFT/RIGHT values of its future neighbours, taking at most
+     * the numbering's gap from both sides. If there is no free space left, it is made locally first: the values
+     * following the insertion point are moved into the free space left before the RIGHT value of the innermost
+     * enclosing Node that still has some, so only the rows within that Node are updated. Only if none of the
+     * enclosing Nodes, up to the Root, has any free space left, all the following values in the Tree are shifted
+     * by twice the gap.
+     */
+    private void insertNodeIntoGap(NestedNodeInfo<ID> parent, N node, Mode mode) {
+        Gap gap = findGap(parent, mode);
+        long step = gap.getStep(numbering.getGap());
+        if (step < 1) {
+            long delta = makeSpaceInGap(gap);
+            step = new Gap(gap.lower, gap.upper + delta).getStep(numbering.getGap());
+        }
+        node.setTreeLeft(gap.lower + step);
+        node.setTreeRight(gap.lower + 2 * step);
+        node.setTreeLevel(this.getNodeLevel(parent, mode));
+        node.setParentId(this.getNodeParent(parent, mode).orElse(null));
+        queryDelegate.insert(node);
+    }
+
+    private Gap findGap(NestedNodeInfo<ID> parent, Mode mode) {
+        switch (mode) {
+            case NEXT_SIBLING:
+                return new Gap(parent.getRight(), queryDelegate.findLowestSideFieldValueGreaterThan(parent.getRight()).orElse(null));
+            case PREV_SIBLING:
+                return new Gap(queryDelegate.findGreatestSideFieldValueLessThan(parent.getLeft()).orElse(0L), parent.getLeft());
+            case FIRST_CHILD:
+                return new Gap(parent.getLeft(), queryDelegate.findLowestSideFieldValueGreaterThan(parent.getLeft()).orElse(parent.getRight()));
+            case LAST_CHILD:
+            default:
+                return new Gap(queryDelegate.findGreatestSideFieldValueLessThan(parent.getRight()).orElse(parent.getLeft()), parent.getRight());
+        }
+    }
+
+    private long makeSpaceInGap(Gap gap) {
+        long delta = 2 * numbering.getGap();
+        Optional<Long> enclosingRight = findEnclosingRightWithRoom(gap);
+        if (enclosingRight.isPresent()) {
+            delta = Math.min(delta, getRoomBefore(enclosingRight.get(), gap.upper));
+            queryDelegate.incrementSideFieldsInRange(gap.upper, enclosingRight.get(), delta);
+        } else {
+            queryDelegate.incrementSideFieldsGreaterThanOrEqualTo(gap.upper, delta);
+        }
+        return delta;
+    }
+
+    private Optional<Long> findEnclosingRightWithRoom(Gap gap) {
+        for (Long enclosingRight : queryDelegate.findEnclosingRightSideFieldValues(gap.lower, gap.upper)) {
+            if (getRoomBefore(enclosingRight, gap.upper) >= INCREMENT_BY) {
+                return Optional.of(enclosingRight);
+            }
+        }
+        return Optional.empty();
+    }
+
+    private long getRoomBefore(Long enclosingRight, Long upper) {
+        return enclosingRight - queryDelegate.findGreatestSideFieldValueLessThan(enclosingRight).orElse(upper) - 1;
+    }
+
+    private void makeSpaceForNewElement(Long from, Mode mode, Long delta) {
         if(applyGte(mode)) {
-            queryDelegate.incermentSideFieldsGreaterThanOrEqualTo(from, RIGHT);
-            queryDelegate.incermentSideFieldsGreaterThanOrEqualTo(from, LEFT);
+            queryDelegate.incrementSideFieldsGreaterThanOrEqualTo(from, delta);
         } else {
-            queryDelegate.incrementSideFieldsGreaterThan(from, RIGHT);
-            queryDelegate.incrementSideFieldsGreaterThan(from, LEFT);
+            queryDelegate.incrementSideFieldsGreaterThan(from, delta);
         }
 
     }
@@ -142,4 +303,23 @@ public class QueryBasedNestedNodeInserter<ID extends Serializable, N extends Nes
         }
     }
 
+    /**
+     * Free space between the LEFT/RIGHT values of the future neighbours of the inserted Node.
+     */
+    private static class Gap {
+
+        private final Long lower;
+
+        // null if the Node is inserted after the last Root
+        private final Long upper;
+
+        private Gap(Long lower, Long upper) {
+            this.lower = lower;
+            this.upper = upper;
+        }
+
+        private long getStep(long gap) {
+            return upper != null ? Math.min(gap, (upper - lower) / 3) : gap;
+        }
+    }
 }
@@ -21,6 +21,7 @@ package pl.exsio.nestedj.delegate.control;
 
 import pl.exsio.nestedj.delegate.NestedNodeMover;
 import pl.exsio.nestedj.delegate.query.NestedNodeMovingQueryDelegate;
+import pl.exsio.nestedj.delegate.query.NestedNodeSingleStatementMovingQueryDelegate;
 import pl.exsio.nestedj.ex.InvalidNodesHierarchyException;
 import pl.exsio.nestedj.model.NestedNode;
 import pl.exsio.nestedj.model.NestedNodeInfo;
@@ -28,21 +29,28 @@ import pl.exsio.nestedj.model.NestedNodeInfo;
 import java.io.Serializable;
 import java.util.Optional;
 
-import static pl.exsio.nestedj.model.NestedNode.LEFT;
-import static pl.exsio.nestedj.model.NestedNode.RIGHT;
-
 public class QueryBasedNestedNodeMover<ID extends Serializable, N extends NestedNode<ID>> implements NestedNodeMover<ID, N> {
 
-    private final static long DELTA_MULTIPLIER = 2L;
-
     private enum Sign {
         PLUS, MINUS
     }
 
     private final NestedNodeMovingQueryDelegate<ID, N> queryDelegate;
 
+    private final NestedNodeSingleStatementMovingQueryDelegate<ID, N> singleStatementQueryDelegate;
+
     public QueryBasedNestedNodeMover(NestedNodeMovingQueryDelegate<ID, N> queryDelegate) {
         this.queryDelegate = queryDelegate;
+        this.singleStatementQueryDelegate = null;
+    }
+
+    /**
+     * @param singleStatement - if true, the whole move is performed with a single statement. Otherwise the moved Nodes
+     *                        are marked, the rest of the Tree is shifted and the marked Nodes are moved step by step.
+     */
+    public QueryBasedNestedNodeMover(NestedNodeSingleStatementMovingQueryDelegate<ID, N> queryDelegate, boolean singleStatement) {
+        this.queryDelegate = queryDelegate;
+        this.singleStatementQueryDelegate = singleStatement ? queryDelegate : null;
     }
 
     @Override
@@ -50,19 +58,28 @@ public class QueryBasedNestedNodeMover<ID extends Serializable, N extends Nested
         if (!canMoveNodeToSelectedParent(nodeInfo, parentInfo)) {
             throw new InvalidNodesHierarchyException("You cannot move a parent node to it's child or move a node to itself");
         }
-        Integer nodeCount = queryDelegate.markNodeIds(nodeInfo);
-
         Sign sign = getSign(nodeInfo, parentInfo, mode);
         Long start = getStart(nodeInfo, parentInfo, mode, sign);
         Long stop = getStop(nodeInfo, parentInfo, mode, sign);
-        Long delta = getDelta(nodeCount);
-        makeSpaceForMovedElement(sign, delta, start, stop);
-
+        Long delta = getDelta(nodeInfo);
         Long nodeDelta = getNodeDelta(start, stop);
         Sign nodeSign = getNodeSign(sign);
         Long levelModificator = getLevelModificator(nodeInfo, parentInfo, mode);
-        performMove(nodeDelta, nodeSign, levelModificator);
-        updateParent(nodeInfo, parentInfo, mode);
+
+        if (singleStatementQueryDelegate != null) {
+            singleStatementQueryDelegate.performSingleStatementMove(nodeInfo, start, stop,
+                    applySign(sign, delta), applySign(nodeSign, nodeDelta), levelModificator,
+                    getNewParentId(parentInfo, mode).orElse(null));
+        } else {
+            queryDelegate.markNodeIds(nodeInfo);
+            makeSpaceForMovedElement(sign, delta, start, stop);
+            performMove(nodeInfo, nodeDelta, nodeSign, levelModificator);
+            updateParent(nodeInfo, parentInfo, mode);
+        }
+    }
+
+    private Long applySign(Sign sign, Long value) {
+        return Sign.PLUS.equals(sign) ? value : -value;
     }
 
     private void updateParent(NestedNodeInfo<ID> nodeInfo, NestedNodeInfo<ID> parentInfo, Mode mode) {
@@ -74,21 +91,19 @@ public class QueryBasedNestedNodeMover<ID extends Serializable, N extends Nested
         }
     }
 
-    private void performMove(Long nodeDelta, Sign nodeSign, Long levelModificator) {
+    private void performMove(NestedNodeInfo<ID> nodeInfo, Long nodeDelta, Sign nodeSign, Long levelModificator) {
         if(Sign.PLUS.equals(nodeSign)) {
-            queryDelegate.performMoveUp(nodeDelta, levelModificator);
+            queryDelegate.performMoveUp(nodeInfo, nodeDelta, levelModificator);
         } else if(Sign.MINUS.equals(nodeSign)) {
-            queryDelegate.performMoveDown(nodeDelta, levelModificator);
+            queryDelegate.performMoveDown(nodeInfo, nodeDelta, levelModificator);
         }
     }
 
     private void makeSpaceForMovedElement(Sign sign, Long delta, Long start, Long stop) {
         if(Sign.PLUS.equals(sign)) {
-            queryDelegate.updateSideFieldsUp(delta, start, stop, RIGHT);
-            queryDelegate.updateSideFieldsUp(delta, start, stop, LEFT);
+            queryDelegate.updateSideFieldsUp(delta, start, stop);
         } else if(Sign.MINUS.equals(sign)) {
-            queryDelegate.updateSideFieldsDown(delta, start, stop, RIGHT);
-            queryDelegate.updateSideFieldsDown(delta, start, stop, LEFT);
+            queryDelegate.updateSideFieldsDown(delta, start, stop);
         }
     }
 
@@ -128,8 +143,9 @@ public class QueryBasedNestedNodeMover<ID extends Serializable, N extends Nested
         return stop - start - 1;
     }
 
-    private Long getDelta(Integer nodeCount) {
-        return nodeCount * DELTA_MULTIPLIER;
+    // width of the moved subtree - equal to 2 * number of moved Nodes with the dense numbering
+    private Long getDelta(NestedNodeInfo<ID> node) {
+        return node.getRight() - node.getLeft() + 1;
     }
 
     private Sign getNodeSign(Sign sign) {
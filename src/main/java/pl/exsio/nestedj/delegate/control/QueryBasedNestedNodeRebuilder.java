@@ -19,42 +19,81 @@
  */
 package pl.exsio.nestedj.delegate.control;
 
-import pl.exsio.nestedj.delegate.NestedNodeInserter;
-import pl.exsio.nestedj.delegate.NestedNodeMover;
 import pl.exsio.nestedj.delegate.NestedNodeRebuilder;
-import pl.exsio.nestedj.delegate.NestedNodeRetriever;
 import pl.exsio.nestedj.delegate.query.NestedNodeRebuildingQueryDelegate;
+import pl.exsio.nestedj.config.NestedNodeNumbering;
 import pl.exsio.nestedj.ex.InvalidNodeException;
 import pl.exsio.nestedj.model.NestedNode;
 import pl.exsio.nestedj.model.NestedNodeInfo;
 
 import java.io.Serializable;
-import java.util.Optional;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 public class QueryBasedNestedNodeRebuilder<ID extends Serializable, N extends NestedNode<ID>> implements NestedNodeRebuilder<ID, N> {
 
-    private final NestedNodeInserter<ID, N> inserter;
+    private final NestedNodeRebuildingQueryDelegate<ID, N> queryDelegate;
 
-    private final NestedNodeRetriever<ID, N> retriever;
+    private final NestedNodeNumbering numbering;
 
-    private final NestedNodeRebuildingQueryDelegate<ID, N> queryDelegate;
+    public QueryBasedNestedNodeRebuilder(NestedNodeRebuildingQueryDelegate<ID, N> queryDelegate) {
+        this(queryDelegate, NestedNodeNumbering.dense());
+    }
 
-    public QueryBasedNestedNodeRebuilder(NestedNodeInserter<ID, N> inserter, NestedNodeRetriever<ID, N> retriever,
-                                         NestedNodeRebuildingQueryDelegate<ID, N> queryDelegate) {
-        this.inserter = inserter;
-        this.retriever = retriever;
+    public QueryBasedNestedNodeRebuilder(NestedNodeRebuildingQueryDelegate<ID, N> queryDelegate, NestedNodeNumbering numbering) {
         this.queryDelegate = queryDelegate;
+        this.numbering = numbering;
     }
 
+    /**
+     * Loads the ID/PARENT_ID pairs of all Nodes once, computes the LEFT/RIGHT/LEVEL values with an iterative
+     * depth-first traversal and writes them back in bulk.
+     * Root Nodes are ordered by ID descending, children of every Node are ordered by ID ascending.
+     * Nodes that are not reachable from any Root Node are left untouched.
+     * With the sparse numbering, the consecutive LEFT/RIGHT values are spaced by the numbering's gap.
+     */
     @Override
     public void rebuildTree() {
-        N first = queryDelegate.findFirst();
-        queryDelegate.resetFirst(first);
-        restoreSiblings(first);
-        rebuildRecursively(first);
-        for (N node : queryDelegate.getSiblings(first.getId())) {
-            rebuildRecursively(node);
+        List<ID> roots = new ArrayList<>();
+        Map<ID, List<ID>> children = new HashMap<>();
+        for (NestedNodeInfo<ID> node : queryDelegate.getHierarchy()) {
+            if (node.getParentId() == null) {
+                roots.add(node.getId());
+            } else {
+                children.computeIfAbsent(node.getParentId(), id -> new ArrayList<>()).add(node.getId());
+            }
+        }
+        if (roots.isEmpty()) {
+            throw new InvalidNodeException("There are no Root Nodes in the Tree");
         }
+        Collections.reverse(roots);
+
+        List<NestedNodeInfo<ID>> result = new ArrayList<>();
+        Deque<Visit<ID>> path = new ArrayDeque<>();
+        long gap = numbering.getGap();
+        long counter = gap;
+        for (ID root : roots) {
+            path.push(new Visit<>(root, null, 0, counter, children.getOrDefault(root, Collections.emptyList())));
+            counter += gap;
+            while (!path.isEmpty()) {
+                Visit<ID> visit = path.peek();
+                if (visit.nextChild < visit.children.size()) {
+                    ID child = visit.children.get(visit.nextChild++);
+                    path.push(new Visit<>(child, visit.id, visit.level + 1, counter, children.getOrDefault(child, Collections.emptyList())));
+                    counter += gap;
+                } else {
+                    path.pop();
+                    result.add(new NestedNodeInfo<>(visit.id, visit.parentId, visit.left, counter, visit.level));
+                    counter += gap;
+                }
+            }
+        }
+        queryDelegate.updateSideFields(result);
     }
 
     @Override
@@ -62,28 +101,27 @@ public class QueryBasedNestedNodeRebuilder<ID extends Serializable, N extends Ne
         queryDelegate.destroyTree();
     }
 
-    private void rebuildRecursively(N parent) {
-        for (N child : queryDelegate.getChildren(parent)) {
-            inserter.insert(child, getNodeInfo(parent.getId()), NestedNodeMover.Mode.LAST_CHILD);
-            rebuildRecursively(child);
-        }
-    }
+    private static class Visit<ID extends Serializable> {
 
-    private void restoreSiblings(N first) {
-        for (N node : queryDelegate.getSiblings(first.getId())) {
-            inserter.insert(node, getNodeInfo(first.getId()), NestedNodeMover.Mode.NEXT_SIBLING);
-        }
-    }
+        private final ID id;
 
-    private NestedNodeInfo<ID> getNodeInfo(ID nodeId) {
-        if (nodeId == null) {
-            throw new NullPointerException("nodeId cannot be null");
-        }
-        Optional<NestedNodeInfo<ID>> nodeInfo = retriever.getNodeInfo(nodeId);
-        if (!nodeInfo.isPresent()) {
-            throw new InvalidNodeException(String.format("Couldn't find node with Id %s", nodeId));
+        private final ID parentId;
+
+        private final long level;
+
+        private final long left;
+
+        private final List<ID> children;
+
+        private int nextChild = 0;
+
+        private Visit(ID id, ID parentId, long level, long left, List<ID> children) {
+            this.id = id;
+            this.parentId = parentId;
+            this.level = level;
+            this.left = left;
+            this.children = children;
         }
-        return nodeInfo.get();
     }
 
 }
@@ -21,28 +21,35 @@ package pl.exsio.nestedj.delegate.control;
 
 import pl.exsio.nestedj.delegate.NestedNodeRemover;
 import pl.exsio.nestedj.delegate.query.NestedNodeRemovingQueryDelegate;
+import pl.exsio.nestedj.config.NestedNodeNumbering;
 import pl.exsio.nestedj.model.NestedNode;
 import pl.exsio.nestedj.model.NestedNodeInfo;
+import pl.exsio.nestedj.model.NestedNodeRange;
 
 import java.io.Serializable;
 
-import static pl.exsio.nestedj.model.NestedNode.LEFT;
-import static pl.exsio.nestedj.model.NestedNode.RIGHT;
-
 public class QueryBasedNestedNodeRemover<ID extends Serializable, N extends NestedNode<ID>> implements NestedNodeRemover<ID, N> {
 
     private final NestedNodeRemovingQueryDelegate<ID, N> queryDelegate;
 
+    private final NestedNodeNumbering numbering;
+
     public QueryBasedNestedNodeRemover(NestedNodeRemovingQueryDelegate<ID, N> queryDelegate) {
+        this(queryDelegate, NestedNodeNumbering.dense());
+    }
+
+    public QueryBasedNestedNodeRemover(NestedNodeRemovingQueryDelegate<ID, N> queryDelegate, NestedNodeNumbering numbering) {
         this.queryDelegate = queryDelegate;
+        this.numbering = numbering;
     }
 
     @Override
     public void removeSingle(NestedNodeInfo<ID> nodeInfo) {
         Long from = nodeInfo.getRight();
         queryDelegate.setNewParentForDeletedNodesChildren(nodeInfo);
-        queryDelegate.decrementSideFieldsBeforeSingleNodeRemoval(from, RIGHT);
-        queryDelegate.decrementSideFieldsBeforeSingleNodeRemoval(from, LEFT);
+        if (!numbering.isSparse()) {
+            queryDelegate.decrementSideFieldsBeforeSingleNodeRemoval(from);
+        }
         queryDelegate.pushUpDeletedNodesChildren(nodeInfo);
         queryDelegate.performSingleDeletion(nodeInfo);
     }
@@ -52,7 +59,16 @@ public class QueryBasedNestedNodeRemover<ID extends Serializable, N extends Nest
         Long delta = nodeInfo.getRight() - nodeInfo.getLeft() + 1;
         Long from = nodeInfo.getRight();
         queryDelegate.performBatchDeletion(nodeInfo);
-        queryDelegate.decrementSideFieldsAfterSubtreeRemoval(from, delta, RIGHT);
-        queryDelegate.decrementSideFieldsAfterSubtreeRemoval(from, delta, LEFT);
+        if (!numbering.isSparse()) {
+            queryDelegate.decrementSideFieldsAfterSubtreeRemoval(from, delta);
+        }
+    }
+
+    /**
+     * With sparse numbering the following values are not decremented, so only the values of the removed Node are affected.
+     */
+    @Override
+    public NestedNodeRange getRemovalRange(NestedNodeInfo<ID> node) {
+        return new NestedNodeRange(node.getLeft(), numbering.isSparse() ? node.getRight() : null);
     }
 }
@@ -19,31 +19,69 @@
  */
 package pl.exsio.nestedj.delegate.control;
 
+import pl.exsio.nestedj.config.NestedNodeNumbering;
 import pl.exsio.nestedj.delegate.NestedNodeRetriever;
 import pl.exsio.nestedj.delegate.query.NestedNodeRetrievingQueryDelegate;
+import pl.exsio.nestedj.ex.InvalidNodeException;
 import pl.exsio.nestedj.model.InMemoryTree;
 import pl.exsio.nestedj.model.NestedNode;
 import pl.exsio.nestedj.model.NestedNodeInfo;
 import pl.exsio.nestedj.model.Tree;
 
 import java.io.Serializable;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Deque;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public class QueryBasedNestedNodeRetriever<ID extends Serializable, N extends NestedNode<ID>> implements NestedNodeRetriever<ID, N> {
 
     private final NestedNodeRetrievingQueryDelegate<ID, N> queryDelegate;
 
+    private final NestedNodeNumbering numbering;
+
     public QueryBasedNestedNodeRetriever(NestedNodeRetrievingQueryDelegate<ID, N> queryDelegate) {
+        this(queryDelegate, NestedNodeNumbering.dense());
+    }
+
+    public QueryBasedNestedNodeRetriever(NestedNodeRetrievingQueryDelegate<ID, N> queryDelegate, NestedNodeNumbering numbering) {
         this.queryDelegate = queryDelegate;
+        this.numbering = numbering;
     }
 
     @Override
     public Tree<ID, N> getTree(N node) {
+        return buildTree(node, queryDelegate.getTreeAsList(node));
+    }
+
+    @Override
+    public Tree<ID, N> getTree(N node, int maxDepth) {
+        return buildTree(node, getTreeAsList(node, maxDepth));
+    }
+
+    private Tree<ID, N> buildTree(N node, List<N> nodes) {
         Tree<ID, N> tree = new InMemoryTree<>(node);
-        for (N n : queryDelegate.getChildren(node)) {
-            Tree<ID, N> subtree = this.getTree(n);
-            tree.addChild(subtree);
+        Deque<Tree<ID, N>> path = new ArrayDeque<>();
+        path.push(tree);
+        // Nodes are sorted by LEFT, so the parent of each Node is the closest Node on the path that still contains it
+        for (N n : nodes) {
+            if (n.getTreeLeft().equals(node.getTreeLeft())) {
+                continue;
+            }
+            while (path.size() > 1 && path.peek().getNode().getTreeRight() < n.getTreeLeft()) {
+                path.pop();
+            }
+            Tree<ID, N> subtree = new InMemoryTree<>(n);
+            path.peek().addChild(subtree);
+            path.push(subtree);
         }
         return tree;
     }
@@ -53,6 +91,31 @@ public class QueryBasedNestedNodeRetriever<ID extends Serializable, N extends Ne
         return queryDelegate.getTreeAsList(node);
     }
 
+    @Override
+    public List<N> getTreeAsList(N node, int maxDepth) {
+        return queryDelegate.getTreeAsList(node, node.getTreeLevel() + maxDepth);
+    }
+
+    @Override
+    public Stream<N> streamTreeAsList(N node) {
+        return queryDelegate.streamTreeAsList(node);
+    }
+
+    @Override
+    public List<N> getTreeAsList(N node, Long afterLeft, int limit) {
+        return queryDelegate.getTreeAsList(node, getPageStart(node, afterLeft), limit);
+    }
+
+    @Override
+    public List<N> getChildren(N node, Long afterLeft, int limit) {
+        return queryDelegate.getChildren(node, getPageStart(node, afterLeft), limit);
+    }
+
+    // the first page starts right before the parent Node, so that the delegates only have to check LEFT > afterLeft
+    private Long getPageStart(N node, Long afterLeft) {
+        return afterLeft == null || afterLeft < node.getTreeLeft() ? node.getTreeLeft() - 1 : afterLeft;
+    }
+
     @Override
     public List<N> getChildren(N node) {
         return queryDelegate.getChildren(node);
@@ -68,6 +131,53 @@ public class QueryBasedNestedNodeRetriever<ID extends Serializable, N extends Ne
         return queryDelegate.getParents(node);
     }
 
+    @Override
+    public Map<N, List<N>> getParents(Collection<N> nodes) {
+        Map<N, List<N>> result = new LinkedHashMap<>();
+        if (nodes.isEmpty()) {
+            return result;
+        }
+        List<N> sorted = new ArrayList<>(nodes);
+        sorted.sort(Comparator.comparing(NestedNode::getTreeLeft));
+        Iterator<N> parents = queryDelegate.getParents(nodes).iterator();
+        N nextParent = parents.hasNext() ? parents.next() : null;
+        // both Lists are sorted by LEFT, so the path of open parents at each Node is exactly the Node's ancestry
+        Deque<N> path = new ArrayDeque<>();
+        Map<N, List<N>> parentsOfNodes = new HashMap<>();
+        for (N node : sorted) {
+            while (nextParent != null && nextParent.getTreeLeft() < node.getTreeLeft()) {
+                closePath(path, nextParent.getTreeLeft());
+                path.push(nextParent);
+                nextParent = parents.hasNext() ? parents.next() : null;
+            }
+            closePath(path, node.getTreeLeft());
+            parentsOfNodes.put(node, new ArrayList<>(path));
+        }
+        nodes.forEach(node -> result.put(node, parentsOfNodes.get(node)));
+        return result;
+    }
+
+    private void closePath(Deque<N> path, Long left) {
+        while (!path.isEmpty() && path.peek().getTreeRight() < left) {
+            path.pop();
+        }
+    }
+
+    @Override
+    public List<NestedNodeInfo<ID>> getTreeInfoAsList(N node) {
+        return queryDelegate.getTreeInfoAsList(node);
+    }
+
+    @Override
+    public List<NestedNodeInfo<ID>> getChildrenInfo(N node) {
+        return queryDelegate.getChildrenInfo(node);
+    }
+
+    @Override
+    public List<NestedNodeInfo<ID>> getParentsInfo(N node) {
+        return queryDelegate.getParentsInfo(node);
+    }
+
     @Override
     public Optional<N> getPrevSibling(N node) {
         return queryDelegate.getPrevSibling(node);
@@ -83,6 +193,33 @@ public class QueryBasedNestedNodeRetriever<ID extends Serializable, N extends Ne
         return queryDelegate.getNodeInfo(nodeId);
     }
 
+    @Override
+    public long countDescendants(N node) {
+        NestedNodeInfo<ID> info = getExistingNodeInfo(node);
+        if (numbering.isSparse()) {
+            // the released and reserved space makes the interval width meaningless, so the subtree has to be counted
+            return queryDelegate.getTreeInfoAsList(node).size() - 1;
+        }
+        return (info.getRight() - info.getLeft() - 1) / 2;
+    }
+
+    @Override
+    public boolean isAncestorOf(N ancestor, N node) {
+        NestedNodeInfo<ID> ancestorInfo = getExistingNodeInfo(ancestor);
+        NestedNodeInfo<ID> nodeInfo = getExistingNodeInfo(node);
+        return ancestorInfo.getLeft() < nodeInfo.getLeft() && ancestorInfo.getRight() > nodeInfo.getRight();
+    }
+
+    @Override
+    public long getDepth(N node) {
+        return getExistingNodeInfo(node).getLevel();
+    }
+
+    private NestedNodeInfo<ID> getExistingNodeInfo(N node) {
+        return queryDelegate.getNodeInfo(node.getId())
+                .orElseThrow(() -> new InvalidNodeException(String.format("Couldn't find node, was it removed?: %s", node)));
+    }
+
     @Override
     public Optional<N> findFirstRoot() {
         return queryDelegate.findFirstRoot();
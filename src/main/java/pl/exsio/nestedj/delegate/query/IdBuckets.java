@@ -0,0 +1,59 @@
+/*
+ *  The MIT License
+ *
+ *  Copyright (c) 2019 eXsio.
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ *  rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *  The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ *  the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING
+ *  BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ *  NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY
+ *  CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ *  ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package pl.exsio.nestedj.delegate.query;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+/**
+ * Splits the IDs used in the IN lists of the bulk queries into buckets of a few fixed sizes - the powers of two
+ * up to {@value #MAX_SIZE}. Each bucket is padded to its size by repeating its last ID, so the database sees
+ * only a handful of distinct statements and can reuse their plans, no matter how many IDs are queried.
+ * The bucket size is independent of the JDBC batch size used by the modifications.
+ */
+public final class IdBuckets {
+
+    public static final int MAX_SIZE = 256;
+
+    private IdBuckets() {
+    }
+
+    /**
+     * @param ids - IDs to be split, duplicates are queried only once
+     * @return padded buckets of the IDs
+     */
+    public static <T> List<List<T>> of(Collection<T> ids) {
+        List<T> distinct = new ArrayList<>(new LinkedHashSet<>(ids));
+        List<List<T>> buckets = new ArrayList<>();
+        for (int from = 0; from < distinct.size(); from += MAX_SIZE) {
+            List<T> bucket = new ArrayList<>(distinct.subList(from, Math.min(from + MAX_SIZE, distinct.size())));
+            int size = Math.max(1, Integer.highestOneBit(bucket.size() - 1) << 1);
+            T last = bucket.get(bucket.size() - 1);
+            while (bucket.size() < size) {
+                bucket.add(last);
+            }
+            buckets.add(bucket);
+        }
+        return buckets;
+    }
+}
@@ -23,6 +23,8 @@ package pl.exsio.nestedj.delegate.query;
 import pl.exsio.nestedj.model.NestedNode;
 
 import java.io.Serializable;
+import java.util.List;
+import java.util.Optional;
 
 public interface NestedNodeInsertingQueryDelegate<ID extends Serializable, N extends NestedNode<ID>> {
 
@@ -30,7 +32,45 @@ public interface NestedNodeInsertingQueryDelegate<ID extends Serializable, N ext
 
     void insert(N node);
 
-    void incrementSideFieldsGreaterThan(Long from, String fieldName);
+    /**
+     * Inserts new Nodes (with null IDs) that already have their LEFT/RIGHT/LEVEL/PARENT_ID values assigned.
+     *
+     * @param nodes - new Nodes
+     */
+    void insertAll(List<N> nodes);
 
-    void incermentSideFieldsGreaterThanOrEqualTo(Long from, String fieldName);
+    /**
+     * @param value - LEFT or RIGHT value
+     * @return the lowest LEFT or RIGHT value in the Tree that is greater than the given value
+     */
+    Optional<Long> findLowestSideFieldValueGreaterThan(Long value);
+
+    /**
+     * @param value - LEFT or RIGHT value
+     * @return the greatest LEFT or RIGHT value in the Tree that is less than the given value
+     */
+    Optional<Long> findGreatestSideFieldValueLessThan(Long value);
+
+    /**
+     * @param from - LEFT or RIGHT value
+     * @param to   - LEFT or RIGHT value greater than from
+     * @return the RIGHT values of the Nodes enclosing both given values, starting with the innermost Node
+     */
+    List<Long> findEnclosingRightSideFieldValues(Long from, Long to);
+
+    /**
+     * Adds the delta to all LEFT and RIGHT values greater than or equal to the first value and less than the second one,
+     * with a single update of both fields.
+     */
+    void incrementSideFieldsInRange(Long from, Long to, Long delta);
+
+    /**
+     * Adds the delta to all LEFT and RIGHT values greater than the given value, with a single update of both fields.
+     */
+    void incrementSideFieldsGreaterThan(Long from, Long delta);
+
+    /**
+     * Adds the delta to all LEFT and RIGHT values greater than or equal to the given value, with a single update of both fields.
+     */
+    void incrementSideFieldsGreaterThanOrEqualTo(Long from, Long delta);
 }
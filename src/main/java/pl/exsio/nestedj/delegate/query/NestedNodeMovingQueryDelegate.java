@@ -29,13 +29,13 @@ public interface NestedNodeMovingQueryDelegate<ID extends Serializable, N extend
 
     Integer markNodeIds(NestedNodeInfo<ID> node);
 
-    void updateSideFieldsUp(Long delta, Long start, Long stop, String field);
+    void updateSideFieldsUp(Long delta, Long start, Long stop);
 
-    void updateSideFieldsDown(Long delta, Long start, Long stop, String field);
+    void updateSideFieldsDown(Long delta, Long start, Long stop);
 
-    void performMoveUp(Long nodeDelta, Long levelModificator);
+    void performMoveUp(NestedNodeInfo<ID> node, Long nodeDelta, Long levelModificator);
 
-    void performMoveDown(Long nodeDelta, Long levelModificator);
+    void performMoveDown(NestedNodeInfo<ID> node, Long nodeDelta, Long levelModificator);
 
     void updateParentField(ID newParentId, NestedNodeInfo<ID> node);
 
@@ -21,6 +21,7 @@
 package pl.exsio.nestedj.delegate.query;
 
 import pl.exsio.nestedj.model.NestedNode;
+import pl.exsio.nestedj.model.NestedNodeInfo;
 
 import java.io.Serializable;
 import java.util.List;
@@ -29,11 +30,15 @@ public interface NestedNodeRebuildingQueryDelegate<ID extends Serializable, N ex
 
     void destroyTree();
 
-    N findFirst();
-
-    void resetFirst(N first);
-
-    List<N> getSiblings(ID first);
-
-    List<N> getChildren(N parent);
+    /**
+     * @return ID and PARENT_ID of all Nodes in the Tree, sorted by ID
+     */
+    List<NestedNodeInfo<ID>> getHierarchy();
+
+    /**
+     * Writes the LEFT/RIGHT/LEVEL values of all given Nodes.
+     *
+     * @param nodes - IDs of the Nodes with new LEFT/RIGHT/LEVEL values
+     */
+    void updateSideFields(List<NestedNodeInfo<ID>> nodes);
 }
@@ -33,11 +33,11 @@ public interface NestedNodeRemovingQueryDelegate<ID extends Serializable, N exte
 
     void performSingleDeletion(NestedNodeInfo<ID> node);
 
-    void decrementSideFieldsBeforeSingleNodeRemoval(Long from, String field);
+    void decrementSideFieldsBeforeSingleNodeRemoval(Long from);
 
     void pushUpDeletedNodesChildren(NestedNodeInfo<ID> node);
 
-    void decrementSideFieldsAfterSubtreeRemoval(Long from, Long delta, String field);
+    void decrementSideFieldsAfterSubtreeRemoval(Long from, Long delta);
 
     void performBatchDeletion(NestedNodeInfo<ID> node);
 }
@@ -24,19 +24,51 @@ import pl.exsio.nestedj.model.NestedNode;
 import pl.exsio.nestedj.model.NestedNodeInfo;
 
 import java.io.Serializable;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface NestedNodeRetrievingQueryDelegate<ID extends Serializable, N extends NestedNode<ID>> {
 
     List<N> getTreeAsList(N node);
 
+    Stream<N> streamTreeAsList(N node);
+
+    /**
+     * @param afterLeft - only the Nodes with LEFT value greater than this one are returned
+     * @param limit - max number of returned Nodes
+     */
+    List<N> getTreeAsList(N node, Long afterLeft, int limit);
+
+    /**
+     * @param maxLevel - only the Nodes with LEVEL value lower than or equal to this one are returned
+     */
+    List<N> getTreeAsList(N node, Long maxLevel);
+
     List<N> getChildren(N node);
 
+    /**
+     * @param afterLeft - only the Nodes with LEFT value greater than this one are returned
+     * @param limit - max number of returned Nodes
+     */
+    List<N> getChildren(N node, Long afterLeft, int limit);
+
     Optional<N> getParent(N node);
 
     List<N> getParents(N node);
 
+    /**
+     * @return distinct parents of all the given Nodes, sorted by LEFT asc
+     */
+    List<N> getParents(Collection<N> nodes);
+
+    List<NestedNodeInfo<ID>> getTreeInfoAsList(N node);
+
+    List<NestedNodeInfo<ID>> getChildrenInfo(N node);
+
+    List<NestedNodeInfo<ID>> getParentsInfo(N node);
+
     Optional<N> getPrevSibling(N node);
 
     Optional<N> getNextSibling(N node);
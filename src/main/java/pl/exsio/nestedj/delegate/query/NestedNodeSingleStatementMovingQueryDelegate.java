@@ -0,0 +1,47 @@
+/*
+ *  The MIT License
+ *
+ *  Copyright (c) 2019 eXsio.
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ *  rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *  The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ *  the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING
+ *  BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ *  NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY
+ *  CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ *  ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package pl.exsio.nestedj.delegate.query;
+
+import pl.exsio.nestedj.model.NestedNode;
+import pl.exsio.nestedj.model.NestedNodeInfo;
+
+import java.io.Serializable;
+
+/**
+ * Moving Query Delegate that is able to perform the whole move with a single statement,
+ * without marking the moved Nodes and shifting the LEFT/RIGHT values step by step.
+ */
+public interface NestedNodeSingleStatementMovingQueryDelegate<ID extends Serializable, N extends NestedNode<ID>> extends NestedNodeMovingQueryDelegate<ID, N> {
+
+    /**
+     * Moves the subtree of the given Node and shifts the LEFT/RIGHT values of all Nodes in the (start, stop) range
+     * to make space for it, all at once.
+     *
+     * @param node - moved Node
+     * @param start - lower bound of the shifted range (exclusive)
+     * @param stop - upper bound of the shifted range (exclusive)
+     * @param delta - value added to the LEFT/RIGHT values in the shifted range
+     * @param nodeDelta - value added to the LEFT/RIGHT values of the moved subtree
+     * @param levelModificator - value added to the LEVEL values of the moved subtree
+     * @param newParentId - new PARENT_ID of the moved Node or null if it becomes a root Node
+     */
+    void performSingleStatementMove(NestedNodeInfo<ID> node, Long start, Long stop, Long delta, Long nodeDelta, Long levelModificator, ID newParentId);
+}
@@ -0,0 +1,84 @@
+/*
+ *  The MIT License
+ *
+ *  Copyright (c) 2019 eXsio.
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ *  rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *  The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ *  the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING
+ *  BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ *  NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY
+ *  CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ *  ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package pl.exsio.nestedj.delegate.query.columnar;
+
+import pl.exsio.nestedj.config.columnar.ColumnarNestedNodeRepositoryConfiguration;
+import pl.exsio.nestedj.delegate.query.NestedNodeInsertingQueryDelegate;
+import pl.exsio.nestedj.model.NestedNode;
+
+import java.io.Serializable;
+import java.util.List;
+import java.util.Optional;
+
+public class ColumnarNestedNodeInsertingQueryDelegate<ID extends Serializable, N extends NestedNode<ID>>
+        extends ColumnarNestedNodeQueryDelegate<ID, N>
+        implements NestedNodeInsertingQueryDelegate<ID, N> {
+
+    public ColumnarNestedNodeInsertingQueryDelegate(ColumnarNestedNodeRepositoryConfiguration<ID, N> configuration) {
+        super(configuration);
+    }
+
+    @Override
+    public void insert(N node) {
+        if (node.getId() == null) {
+            node.setId(generateIdentity());
+            store.add(node);
+        } else {
+            store.update(node);
+        }
+    }
+
+    @Override
+    public void insertAll(List<N> nodes) {
+        nodes.forEach(n -> n.setId(generateIdentity()));
+        store.addAll(nodes);
+    }
+
+    @Override
+    public Optional<Long> findLowestSideFieldValueGreaterThan(Long value) {
+        return store.findLowestValueGreaterThan(value);
+    }
+
+    @Override
+    public Optional<Long> findGreatestSideFieldValueLessThan(Long value) {
+        return store.findGreatestValueLessThan(value);
+    }
+
+    @Override
+    public List<Long> findEnclosingRightSideFieldValues(Long from, Long to) {
+        return store.findEnclosingRightValues(from, to);
+    }
+
+    @Override
+    public void incrementSideFieldsInRange(Long from, Long to, Long delta) {
+        shiftSideFields(from, true, to, delta);
+    }
+
+    @Override
+    public void incrementSideFieldsGreaterThan(Long from, Long delta) {
+        shiftSideFields(from, false, null, delta);
+    }
+
+    @Override
+    public void incrementSideFieldsGreaterThanOrEqualTo(Long from, Long delta) {
+        shiftSideFields(from, true, null, delta);
+    }
+}
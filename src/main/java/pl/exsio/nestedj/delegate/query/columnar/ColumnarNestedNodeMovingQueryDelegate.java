@@ -0,0 +1,77 @@
+/*
+ *  The MIT License
+ *
+ *  Copyright (c) 2019 eXsio.
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ *  rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *  The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ *  the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING
+ *  BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ *  NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY
+ *  CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ *  ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package pl.exsio.nestedj.delegate.query.columnar;
+
+import pl.exsio.nestedj.config.columnar.ColumnarNestedNodeRepositoryConfiguration;
+import pl.exsio.nestedj.delegate.query.NestedNodeMovingQueryDelegate;
+import pl.exsio.nestedj.model.NestedNode;
+import pl.exsio.nestedj.model.NestedNodeInfo;
+
+import java.io.Serializable;
+
+public class ColumnarNestedNodeMovingQueryDelegate<ID extends Serializable, N extends NestedNode<ID>>
+        extends ColumnarNestedNodeQueryDelegate<ID, N>
+        implements NestedNodeMovingQueryDelegate<ID, N> {
+
+    private final static Long MARKING_MODIFIER = 1000L;
+
+    public ColumnarNestedNodeMovingQueryDelegate(ColumnarNestedNodeRepositoryConfiguration<ID, N> configuration) {
+        super(configuration);
+    }
+
+    @Override
+    public Integer markNodeIds(NestedNodeInfo<ID> node) {
+        return store.markSubtree(node.getLeft(), node.getRight(), MARKING_MODIFIER);
+    }
+
+    @Override
+    public void updateSideFieldsUp(Long delta, Long start, Long stop) {
+        shiftSideFields(start, false, stop, delta);
+    }
+
+    @Override
+    public void updateSideFieldsDown(Long delta, Long start, Long stop) {
+        shiftSideFields(start, false, stop, -delta);
+    }
+
+    @Override
+    public void performMoveUp(NestedNodeInfo<ID> node, Long nodeDelta, Long levelModificator) {
+        store.moveMarked(node.getLeft(), node.getRight(), nodeDelta, levelModificator, MARKING_MODIFIER);
+    }
+
+    @Override
+    public void performMoveDown(NestedNodeInfo<ID> node, Long nodeDelta, Long levelModificator) {
+        store.moveMarked(node.getLeft(), node.getRight(), -nodeDelta, levelModificator, MARKING_MODIFIER);
+    }
+
+    @Override
+    public void updateParentField(ID newParentId, NestedNodeInfo<ID> node) {
+        if (newParentId == null) {
+            throw new NullPointerException("newParentId cannot be null");
+        }
+        store.setParentId(node.getId(), newParentId);
+    }
+
+    @Override
+    public void clearParentField(NestedNodeInfo<ID> node) {
+        store.setParentId(node.getId(), null);
+    }
+}
@@ -0,0 +1,48 @@
+/*
+ *  The MIT License
+ *
+ *  Copyright (c) 2019 eXsio.
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ *  rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *  The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ *  the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING
+ *  BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ *  NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY
+ *  CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ *  ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package pl.exsio.nestedj.delegate.query.columnar;
+
+import pl.exsio.nestedj.config.columnar.ColumnarNestedNodeRepositoryConfiguration;
+import pl.exsio.nestedj.config.columnar.store.ColumnarNestedNodeStore;
+import pl.exsio.nestedj.config.mem.identity.InMemoryNestedNodeIdentityGenerator;
+import pl.exsio.nestedj.model.NestedNode;
+
+import java.io.Serializable;
+
+public abstract class ColumnarNestedNodeQueryDelegate<ID extends Serializable, N extends NestedNode<ID>> {
+
+    private final InMemoryNestedNodeIdentityGenerator<ID> identityGenerator;
+
+    protected final ColumnarNestedNodeStore<ID, N> store;
+
+    public ColumnarNestedNodeQueryDelegate(ColumnarNestedNodeRepositoryConfiguration<ID, N> configuration) {
+        this.identityGenerator = configuration.getIdentityGenerator();
+        this.store = configuration.getStore();
+    }
+
+    protected ID generateIdentity() {
+        return identityGenerator.generateIdentity();
+    }
+
+    protected void shiftSideFields(Long from, boolean inclusive, Long to, Long delta) {
+        store.shiftSideFields(from, inclusive, to, delta);
+    }
+}
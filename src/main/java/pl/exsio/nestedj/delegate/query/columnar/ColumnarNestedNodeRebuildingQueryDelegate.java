@@ -0,0 +1,68 @@
+/*
+ *  The MIT License
+ *
+ *  Copyright (c) 2019 eXsio.
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ *  rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *  The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ *  the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING
+ *  BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ *  NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY
+ *  CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ *  ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package pl.exsio.nestedj.delegate.query.columnar;
+
+import pl.exsio.nestedj.config.columnar.ColumnarNestedNodeRepositoryConfiguration;
+import pl.exsio.nestedj.delegate.query.NestedNodeRebuildingQueryDelegate;
+import pl.exsio.nestedj.model.NestedNode;
+import pl.exsio.nestedj.model.NestedNodeInfo;
+
+import java.io.Serializable;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+public class ColumnarNestedNodeRebuildingQueryDelegate<ID extends Serializable, N extends NestedNode<ID>>
+        extends ColumnarNestedNodeQueryDelegate<ID, N>
+        implements NestedNodeRebuildingQueryDelegate<ID, N> {
+
+    public ColumnarNestedNodeRebuildingQueryDelegate(ColumnarNestedNodeRepositoryConfiguration<ID, N> configuration) {
+        super(configuration);
+    }
+
+    @Override
+    public void destroyTree() {
+        store.resetAll(0L);
+    }
+
+    @Override
+    public List<NestedNodeInfo<ID>> getHierarchy() {
+        return store.getNodeInfos().stream()
+                .sorted(getIdComparator())
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public void updateSideFields(List<NestedNodeInfo<ID>> nodes) {
+        nodes.forEach(n -> store.setSideFields(n.getId(), n.getLeft(), n.getRight(), n.getLevel()));
+    }
+
+    @SuppressWarnings("unchecked")
+    private Comparator<NestedNodeInfo<ID>> getIdComparator() {
+        return (o1, o2) -> {
+            if (o1.getId() instanceof Comparable) {
+                return ((Comparable) o1.getId()).compareTo(o2.getId());
+            } else {
+                return Integer.compare(o1.getId().hashCode(), o2.getId().hashCode());
+            }
+        };
+    }
+}
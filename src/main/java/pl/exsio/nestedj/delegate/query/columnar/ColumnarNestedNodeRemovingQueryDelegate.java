@@ -0,0 +1,67 @@
+/*
+ *  The MIT License
+ *
+ *  Copyright (c) 2019 eXsio.
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ *  rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *  The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ *  the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING
+ *  BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ *  NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY
+ *  CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ *  ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package pl.exsio.nestedj.delegate.query.columnar;
+
+import pl.exsio.nestedj.config.columnar.ColumnarNestedNodeRepositoryConfiguration;
+import pl.exsio.nestedj.delegate.query.NestedNodeRemovingQueryDelegate;
+import pl.exsio.nestedj.model.NestedNode;
+import pl.exsio.nestedj.model.NestedNodeInfo;
+
+import java.io.Serializable;
+
+public class ColumnarNestedNodeRemovingQueryDelegate<ID extends Serializable, N extends NestedNode<ID>>
+        extends ColumnarNestedNodeQueryDelegate<ID, N>
+        implements NestedNodeRemovingQueryDelegate<ID, N> {
+
+    public ColumnarNestedNodeRemovingQueryDelegate(ColumnarNestedNodeRepositoryConfiguration<ID, N> configuration) {
+        super(configuration);
+    }
+
+    @Override
+    public void setNewParentForDeletedNodesChildren(NestedNodeInfo<ID> node) {
+        store.setChildrenParentId(node.getLeft(), node.getRight(), node.getLevel(), node.getParentId());
+    }
+
+    @Override
+    public void performSingleDeletion(NestedNodeInfo<ID> node) {
+        store.removeById(node.getId());
+    }
+
+    @Override
+    public void decrementSideFieldsBeforeSingleNodeRemoval(Long from) {
+        shiftSideFields(from, false, null, -DECREMENT_BY);
+    }
+
+    @Override
+    public void pushUpDeletedNodesChildren(NestedNodeInfo<ID> node) {
+        store.pushUpDescendants(node.getLeft(), node.getRight());
+    }
+
+    @Override
+    public void decrementSideFieldsAfterSubtreeRemoval(Long from, Long delta) {
+        shiftSideFields(from, false, null, -delta);
+    }
+
+    @Override
+    public void performBatchDeletion(NestedNodeInfo<ID> node) {
+        store.removeSubtree(node.getLeft(), node.getRight());
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ *  The MIT License
+ *
+ *  Copyright (c) 2019 eXsio.
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ *  rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *  The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ *  the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING
+ *  BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ *  NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY
+ *  CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ *  ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package pl.exsio.nestedj.delegate.query.columnar;
+
+import pl.exsio.nestedj.config.columnar.ColumnarNestedNodeRepositoryConfiguration;
+import pl.exsio.nestedj.delegate.query.NestedNodeRetrievingQueryDelegate;
+import pl.exsio.nestedj.model.NestedNode;
+import pl.exsio.nestedj.model.NestedNodeInfo;
+
+import java.io.Serializable;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+public class ColumnarNestedNodeRetrievingQueryDelegate<ID extends Serializable, N extends NestedNode<ID>>
+        extends ColumnarNestedNodeQueryDelegate<ID, N>
+        implements NestedNodeRetrievingQueryDelegate<ID, N> {
+
+    public ColumnarNestedNodeRetrievingQueryDelegate(ColumnarNestedNodeRepositoryConfiguration<ID, N> configuration) {
+        super(configuration);
+    }
+
+    @Override
+    public List<N> getTreeAsList(N node) {
+        return store.findSubtree(node.getTreeLeft(), node.getTreeRight());
+    }
+
+    @Override
+    public Stream<N> streamTreeAsList(N node) {
+        return store.streamSubtree(node.getTreeLeft(), node.getTreeRight());
+    }
+
+    @Override
+    public List<N> getTreeAsList(N node, Long afterLeft, int limit) {
+        return store.findSubtree(node.getTreeLeft(), node.getTreeRight(), afterLeft, limit);
+    }
+
+    @Override
+    public List<N> getTreeAsList(N node, Long maxLevel) {
+        return store.findSubtree(node.getTreeLeft(), node.getTreeRight(), maxLevel);
+    }
+
+    @Override
+    public List<N> getChildren(N node) {
+        return store.findChildren(node.getTreeLeft(), node.getTreeRight(), node.getTreeLevel());
+    }
+
+    @Override
+    public List<N> getChildren(N node, Long afterLeft, int limit) {
+        return store.findChildren(node.getTreeLeft(), node.getTreeRight(), node.getTreeLevel(), afterLeft, limit);
+    }
+
+    @Override
+    public Optional<N> getParent(N node) {
+        return store.findParent(node.getId());
+    }
+
+    @Override
+    public List<N> getParents(N node) {
+        return store.findParents(node.getId());
+    }
+
+    @Override
+    public List<N> getParents(Collection<N> nodes) {
+        return store.findParents(nodes.stream().map(NestedNode::getId).collect(Collectors.toList()));
+    }
+
+    @Override
+    public List<NestedNodeInfo<ID>> getTreeInfoAsList(N node) {
+        return store.findSubtreeInfo(node.getTreeLeft(), node.getTreeRight());
+    }
+
+    @Override
+    public List<NestedNodeInfo<ID>> getChildrenInfo(N node) {
+        return store.findChildrenInfo(node.getTreeLeft(), node.getTreeRight(), node.getTreeLevel());
+    }
+
+    @Override
+    public List<NestedNodeInfo<ID>> getParentsInfo(N node) {
+        return store.findParentsInfo(node.getId());
+    }
+
+    @Override
+    public Optional<N> getPrevSibling(N node) {
+        return store.findPrevSibling(node.getTreeLeft(), node.getTreeLevel());
+    }
+
+    @Override
+    public Optional<N> getNextSibling(N node) {
+        return store.findNextSibling(node.getTreeRight(), node.getTreeLevel());
+    }
+
+    @Override
+    public Optional<NestedNodeInfo<ID>> getNodeInfo(ID nodeId) {
+        return store.getNodeInfo(nodeId);
+    }
+
+    @Override
+    public Optional<N> findFirstRoot() {
+        return store.findFirstRoot();
+    }
+
+    @Override
+    public Optional<N> findLastRoot() {
+        return store.findLastRoot();
+    }
+}
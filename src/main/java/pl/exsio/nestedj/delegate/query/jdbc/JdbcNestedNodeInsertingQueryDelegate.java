@@ -24,16 +24,42 @@ import pl.exsio.nestedj.config.jdbc.JdbcNestedNodeRepositoryConfiguration;
 import pl.exsio.nestedj.delegate.query.NestedNodeInsertingQueryDelegate;
 import pl.exsio.nestedj.model.NestedNode;
 
+import org.springframework.jdbc.core.ColumnMapRowMapper;
+import org.springframework.jdbc.core.ConnectionCallback;
+
 import java.io.Serializable;
 import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.sql.Types;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 public class JdbcNestedNodeInsertingQueryDelegate<ID extends Serializable, N extends NestedNode<ID>>
         extends JdbcNestedNodeQueryDelegate<ID, N>
         implements NestedNodeInsertingQueryDelegate<ID, N> {
 
+    private final String updateQuery;
+
+    private final String findLowestLeftQuery;
+
+    private final String findLowestRightQuery;
+
+    private final String findGreatestLeftQuery;
+
+    private final String findGreatestRightQuery;
+
+    private final String findEnclosingRightQuery;
+
     public JdbcNestedNodeInsertingQueryDelegate(JdbcNestedNodeRepositoryConfiguration<ID, N> configuration) {
         super(configuration);
+        this.updateQuery = new Query("update :tableName set :left = ?, :right = ?, :level = ?, :parentId = ? where :id = ?").build();
+        this.findLowestLeftQuery = findSideFieldValueQuery("min", ">", left);
+        this.findLowestRightQuery = findSideFieldValueQuery("min", ">", right);
+        this.findGreatestLeftQuery = findSideFieldValueQuery("max", "<", left);
+        this.findGreatestRightQuery = findSideFieldValueQuery("max", "<", right);
+        this.findEnclosingRightQuery = new Query("select :right from :tableName where :left <= ? and :right > ? order by :right").build();
     }
 
     @Override
@@ -49,9 +75,7 @@ public class JdbcNestedNodeInsertingQueryDelegate<ID extends Serializable, N ext
 
     private void update(N node) {
         jdbcTemplate.update(
-                getDiscriminatedQuery(
-                        new Query("update :tableName set :left = ?, :right = ?, :level = ?, :parentId = ? where :id = ?").build()
-                ),
+                getDiscriminatedQuery(updateQuery),
                 preparedStatement -> {
                     preparedStatement.setObject(1, node.getTreeLeft());
                     preparedStatement.setObject(2, node.getTreeRight());
@@ -81,30 +105,102 @@ public class JdbcNestedNodeInsertingQueryDelegate<ID extends Serializable, N ext
     }
 
     @Override
-    public void incrementSideFieldsGreaterThan(Long from, String fieldName) {
-        updateFields(from, fieldName, false);
+    public void insertAll(List<N> nodes) {
+        jdbcTemplate.execute((ConnectionCallback<Void>) con -> {
+            try (PreparedStatement ps = con.prepareStatement(insertQuery, new String[]{id})) {
+                for (List<N> batch : batches(nodes)) {
+                    for (N node : batch) {
+                        Object[] params = insertValuesProvider.apply(node);
+                        for (int i = 0; i < params.length; i++) {
+                            ps.setObject(i + 1, params[i]);
+                        }
+                        ps.addBatch();
+                    }
+                    ps.executeBatch();
+                    resolveGeneratedKeys(ps, batch);
+                }
+            }
+            return null;
+        });
+    }
+
+    private void resolveGeneratedKeys(PreparedStatement ps, List<N> batch) throws SQLException {
+        ColumnMapRowMapper keyMapper = new ColumnMapRowMapper();
+        try (ResultSet keys = ps.getGeneratedKeys()) {
+            int row = 0;
+            for (N node : batch) {
+                if (!keys.next()) {
+                    throw new SQLException("Unable to retrieve the generated keys of the batch insert. Expected " + batch.size() + " keys, got " + row);
+                }
+                JdbcKeyHolder keyHolder = new JdbcKeyHolder();
+                keyHolder.getKeyList().add(keyMapper.mapRow(keys, row++));
+                node.setId(generatedKeyResolver.apply(node, keyHolder));
+            }
+        }
     }
 
     @Override
-    public void incermentSideFieldsGreaterThanOrEqualTo(Long from, String fieldName) {
-        updateFields(from, fieldName, true);
+    public Optional<Long> findLowestSideFieldValueGreaterThan(Long value) {
+        return Stream.of(findSideFieldValue(findLowestLeftQuery, value), findSideFieldValue(findLowestRightQuery, value))
+                .filter(Optional::isPresent).map(Optional::get).min(Long::compare);
     }
 
-    private void updateFields(Long from, String fieldName, boolean gte) {
-        String columnName = treeColumnNames.get(fieldName);
-        String sign = gte ? ">=" : ">";
-        jdbcTemplate.update(
-                getDiscriminatedQuery(
-                        new Query("update :tableName set :columnName = (:columnName + ?) where :columnName :sign ?")
-                                .set("columnName", columnName)
-                                .set("sign", sign)
-                                .build()
-                ),
+    @Override
+    public Optional<Long> findGreatestSideFieldValueLessThan(Long value) {
+        return Stream.of(findSideFieldValue(findGreatestLeftQuery, value), findSideFieldValue(findGreatestRightQuery, value))
+                .filter(Optional::isPresent).map(Optional::get).max(Long::compare);
+    }
+
+    private String findSideFieldValueQuery(String function, String sign, String columnName) {
+        return new Query("select :function(:columnName) from :tableName where :columnName :sign ?")
+                .set("function", function)
+                .set("columnName", columnName)
+                .set("sign", sign)
+                .build();
+    }
+
+    private Optional<Long> findSideFieldValue(String query, Long value) {
+        return Optional.ofNullable(jdbcTemplate.query(
+                getDiscriminatedQuery(query),
                 preparedStatement -> {
-                    preparedStatement.setLong(1, INCREMENT_BY);
-                    preparedStatement.setLong(2, from);
-                    setDiscriminatorParams(preparedStatement, 3);
+                    preparedStatement.setLong(1, value);
+                    setDiscriminatorParams(preparedStatement, 2);
+                },
+                rs -> {
+                    if (!rs.next()) {
+                        return null;
+                    }
+                    long result = rs.getLong(1);
+                    return rs.wasNull() ? null : result;
                 }
+        ));
+    }
+
+    @Override
+    public List<Long> findEnclosingRightSideFieldValues(Long from, Long to) {
+        return jdbcTemplate.query(
+                getDiscriminatedQuery(findEnclosingRightQuery),
+                preparedStatement -> {
+                    preparedStatement.setLong(1, from);
+                    preparedStatement.setLong(2, to);
+                    setDiscriminatorParams(preparedStatement, 3);
+                },
+                (rs, rowNum) -> rs.getLong(1)
         );
     }
+
+    @Override
+    public void incrementSideFieldsInRange(Long from, Long to, Long delta) {
+        shiftSideFields(from, true, to, delta);
+    }
+
+    @Override
+    public void incrementSideFieldsGreaterThan(Long from, Long delta) {
+        shiftSideFields(from, false, null, delta);
+    }
+
+    @Override
+    public void incrementSideFieldsGreaterThanOrEqualTo(Long from, Long delta) {
+        shiftSideFields(from, true, null, delta);
+    }
 }
@@ -21,7 +21,7 @@
 package pl.exsio.nestedj.delegate.query.jdbc;
 
 import pl.exsio.nestedj.config.jdbc.JdbcNestedNodeRepositoryConfiguration;
-import pl.exsio.nestedj.delegate.query.NestedNodeMovingQueryDelegate;
+import pl.exsio.nestedj.delegate.query.NestedNodeSingleStatementMovingQueryDelegate;
 import pl.exsio.nestedj.model.NestedNode;
 import pl.exsio.nestedj.model.NestedNodeInfo;
 
@@ -30,7 +30,7 @@ import java.sql.Types;
 
 public class JdbcNestedNodeMovingQueryDelegate<ID extends Serializable, N extends NestedNode<ID>>
         extends JdbcNestedNodeQueryDelegate<ID, N>
-        implements NestedNodeMovingQueryDelegate<ID, N> {
+        implements NestedNodeSingleStatementMovingQueryDelegate<ID, N> {
 
     private final static Long MARKING_MODIFIER = 1000L;
 
@@ -38,16 +38,32 @@ public class JdbcNestedNodeMovingQueryDelegate<ID extends Serializable, N extend
         UP, DOWN
     }
 
+    private final String markNodeIdsQuery;
+
+    private final String moveUpQuery;
+
+    private final String moveDownQuery;
+
+    private final String singleStatementMoveQuery;
+
+    private final String singleStatementMoveToRootQuery;
+
+    private final String updateParentFieldQuery;
+
     public JdbcNestedNodeMovingQueryDelegate(JdbcNestedNodeRepositoryConfiguration<ID, N> configuration) {
         super(configuration);
+        this.markNodeIdsQuery = new Query("update :tableName set :right = (-:right - ?) where :left >= ? and :right <= ?").build();
+        this.moveUpQuery = performMoveQuery("+");
+        this.moveDownQuery = performMoveQuery("-");
+        this.singleStatementMoveQuery = singleStatementMoveQuery("?");
+        this.singleStatementMoveToRootQuery = singleStatementMoveQuery("null");
+        this.updateParentFieldQuery = new Query("update :tableName set :parentId = ? where :id = ?").build();
     }
 
     @Override
     public Integer markNodeIds(NestedNodeInfo<ID> node) {
         return jdbcTemplate.update(
-                getDiscriminatedQuery(
-                        new Query("update :tableName set :right = (-:right - ?) where :left >= ? and :right <= ?").build()
-                ),
+                getDiscriminatedQuery(markNodeIdsQuery),
                 preparedStatement -> {
                     preparedStatement.setLong(1, MARKING_MODIFIER);
                     preparedStatement.setLong(2, node.getLeft());
@@ -58,23 +74,23 @@ public class JdbcNestedNodeMovingQueryDelegate<ID extends Serializable, N extend
     }
 
     @Override
-    public void updateSideFieldsUp(Long delta, Long start, Long stop, String field) {
-        updateFields(Mode.UP, delta, start, stop, field);
+    public void updateSideFieldsUp(Long delta, Long start, Long stop) {
+        shiftSideFields(start, false, stop, delta);
     }
 
     @Override
-    public void updateSideFieldsDown(Long delta, Long start, Long stop, String field) {
-        updateFields(Mode.DOWN, delta, start, stop, field);
+    public void updateSideFieldsDown(Long delta, Long start, Long stop) {
+        shiftSideFields(start, false, stop, -delta);
     }
 
     @Override
-    public void performMoveUp(Long nodeDelta, Long levelModificator) {
-        performMove(Mode.UP, nodeDelta, levelModificator);
+    public void performMoveUp(NestedNodeInfo<ID> node, Long nodeDelta, Long levelModificator) {
+        performMove(node, Mode.UP, nodeDelta, levelModificator);
     }
 
     @Override
-    public void performMoveDown(Long nodeDelta, Long levelModificator) {
-        performMove(Mode.DOWN, nodeDelta, levelModificator);
+    public void performMoveDown(NestedNodeInfo<ID> node, Long nodeDelta, Long levelModificator) {
+        performMove(node, Mode.DOWN, nodeDelta, levelModificator);
     }
 
     @Override
@@ -90,48 +106,74 @@ public class JdbcNestedNodeMovingQueryDelegate<ID extends Serializable, N extend
         doUpdateParentField(null, node);
     }
 
-    private void updateFields(Mode mode, Long delta, Long start, Long stop, String field) {
-        String columnName = treeColumnNames.get(field);
-        String sign = Mode.UP.equals(mode) ? "+" : "-";
+    @Override
+    public void performSingleStatementMove(NestedNodeInfo<ID> node, Long start, Long stop, Long delta, Long nodeDelta, Long levelModificator, ID newParentId) {
         jdbcTemplate.update(
-                getDiscriminatedQuery(
-                        new Query("update :tableName set :columnName = :columnName :sign ? where :columnName > ? and :columnName < ?")
-                                .set("columnName", columnName)
-                                .set("sign", sign)
-                                .build()
-                ),
+                getDiscriminatedQuery(newParentId == null ? singleStatementMoveToRootQuery : singleStatementMoveQuery),
                 preparedStatement -> {
-                    preparedStatement.setLong(1, delta);
-                    preparedStatement.setLong(2, start);
-                    preparedStatement.setLong(3, stop);
-                    setDiscriminatorParams(preparedStatement, 4);
+                    int index = 1;
+                    preparedStatement.setLong(index++, node.getLeft());
+                    preparedStatement.setLong(index++, node.getRight());
+                    preparedStatement.setLong(index++, levelModificator);
+                    preparedStatement.setObject(index++, node.getId());
+                    if (newParentId != null) {
+                        preparedStatement.setObject(index++, newParentId);
+                    }
+                    for (int column = 0; column < 2; column++) {
+                        preparedStatement.setLong(index++, node.getLeft());
+                        preparedStatement.setLong(index++, node.getRight());
+                        preparedStatement.setLong(index++, nodeDelta);
+                        preparedStatement.setLong(index++, start);
+                        preparedStatement.setLong(index++, stop);
+                        preparedStatement.setLong(index++, delta);
+                    }
+                    preparedStatement.setLong(index++, node.getLeft());
+                    preparedStatement.setLong(index++, node.getRight());
+                    for (int column = 0; column < 2; column++) {
+                        preparedStatement.setLong(index++, start);
+                        preparedStatement.setLong(index++, stop);
+                    }
+                    setDiscriminatorParams(preparedStatement, index);
                 }
         );
     }
 
-    private void performMove(Mode mode, Long nodeDelta, Long levelModificator) {
-        String sign = Mode.UP.equals(mode) ? "+" : "-";
+    private String singleStatementMoveQuery(String newParentId) {
+        return new Query("update :tableName set " +
+                ":level = case when :left >= ? and :left <= ? then :level + ? else :level end, " +
+                ":parentId = case when :id = ? then :newParentId else :parentId end, " +
+                ":left = case when :left >= ? and :left <= ? then :left + ? when :left > ? and :left < ? then :left + ? else :left end, " +
+                ":right = case when :right >= ? and :right <= ? then :right + ? when :right > ? and :right < ? then :right + ? else :right end " +
+                "where ((:left >= ? and :left <= ?) or (:left > ? and :left < ?) or (:right > ? and :right < ?))")
+                .set("newParentId", newParentId)
+                .build();
+    }
+
+    // the marked Nodes keep their LEFT values, which bounds the update to the moved subtree
+    private String performMoveQuery(String sign) {
+        return new Query("update :tableName set :level = (:level + ?), :right = (-(:right + ?) :sign ?), :left = :left :sign ? where :right < 0 and :left >= ? and :left <= ?")
+                .set("sign", sign)
+                .build();
+    }
+
+    private void performMove(NestedNodeInfo<ID> node, Mode mode, Long nodeDelta, Long levelModificator) {
         jdbcTemplate.update(
-                getDiscriminatedQuery(
-                        new Query("update :tableName set :level = (:level + ?), :right = (-(:right + ?) :sign ?), :left = :left :sign ? where :right < 0")
-                                .set("sign", sign)
-                                .build()
-                ),
+                getDiscriminatedQuery(Mode.UP.equals(mode) ? moveUpQuery : moveDownQuery),
                 preparedStatement -> {
                     preparedStatement.setLong(1, levelModificator);
                     preparedStatement.setLong(2, MARKING_MODIFIER);
                     preparedStatement.setLong(3, nodeDelta);
                     preparedStatement.setLong(4, nodeDelta);
-                    setDiscriminatorParams(preparedStatement, 5);
+                    preparedStatement.setLong(5, node.getLeft());
+                    preparedStatement.setLong(6, node.getRight());
+                    setDiscriminatorParams(preparedStatement, 7);
                 }
         );
     }
 
     private void doUpdateParentField(ID newParentId, NestedNodeInfo<ID> node) {
         jdbcTemplate.update(
-                getDiscriminatedQuery(
-                        new Query("update :tableName set :parentId = ? where :id = ?").build()
-                ),
+                getDiscriminatedQuery(updateParentFieldQuery),
                 preparedStatement -> {
                     if (newParentId == null) {
                         preparedStatement.setNull(1, Types.OTHER);
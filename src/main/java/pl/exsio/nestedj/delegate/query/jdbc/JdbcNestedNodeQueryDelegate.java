@@ -21,6 +21,7 @@
 package pl.exsio.nestedj.delegate.query.jdbc;
 
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
 import org.springframework.jdbc.core.RowMapper;
 import pl.exsio.nestedj.config.jdbc.JdbcNestedNodeRepositoryConfiguration;
 import pl.exsio.nestedj.config.jdbc.discriminator.JdbcTreeDiscriminator;
@@ -29,8 +30,12 @@ import pl.exsio.nestedj.model.NestedNode;
 import java.io.Serializable;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.BiFunction;
 import java.util.function.Function;
 
@@ -64,6 +69,21 @@ public abstract class JdbcNestedNodeQueryDelegate<ID extends Serializable, N ext
 
     protected final BiFunction<N, JdbcKeyHolder, ID> generatedKeyResolver;
 
+    protected final int batchSize;
+
+    protected final int fetchSize;
+
+    private final String shiftFromExclusiveQuery;
+
+    private final String shiftFromInclusiveQuery;
+
+    private final String shiftRangeExclusiveQuery;
+
+    private final String shiftRangeInclusiveQuery;
+
+    // discriminated statements, rendered for the Tree Discriminator's query part they are kept with
+    private volatile DiscriminatedQueries discriminatedQueries = new DiscriminatedQueries(null);
+
     public JdbcNestedNodeQueryDelegate(JdbcNestedNodeRepositoryConfiguration<ID, N> configuration) {
         this.jdbcTemplate = configuration.getJdbcTemplate();
         this.tableName = configuration.getTableName();
@@ -79,10 +99,29 @@ public abstract class JdbcNestedNodeQueryDelegate<ID extends Serializable, N ext
         this.level = configuration.getTreeColumnNames().get(NestedNode.LEVEL);
         this.treeColumnNames = configuration.getTreeColumnNames();
         this.generatedKeyResolver = configuration.getGeneratedKeyResolver();
+        this.batchSize = configuration.getBatchSize();
+        this.fetchSize = configuration.getFetchSize();
+        this.shiftFromExclusiveQuery = shiftSideFieldsQuery(false, false);
+        this.shiftFromInclusiveQuery = shiftSideFieldsQuery(true, false);
+        this.shiftRangeExclusiveQuery = shiftSideFieldsQuery(false, true);
+        this.shiftRangeInclusiveQuery = shiftSideFieldsQuery(true, true);
     }
 
+    /**
+     * @param baseQuery - statement rendered by the delegate once, when it was created
+     * @return the statement narrowed by the Tree Discriminator's query part, rendered once per query part
+     */
     protected String getDiscriminatedQuery(String baseQuery) {
-        String disriminatedQuery = treeDiscriminator.getQueryPart();
+        String queryPart = treeDiscriminator.getQueryPart();
+        DiscriminatedQueries queries = discriminatedQueries;
+        if (!Objects.equals(queries.queryPart, queryPart)) {
+            queries = new DiscriminatedQueries(queryPart);
+            discriminatedQueries = queries;
+        }
+        return queries.get(baseQuery);
+    }
+
+    private String discriminate(String baseQuery, String disriminatedQuery) {
         String[] queryParts = baseQuery.split("order by");
 
         String modifiedQuery = queryParts[0].contains("where") ? String.format("%s and %s", queryParts[0], disriminatedQuery) : String.format("%s where %s", queryParts[0], disriminatedQuery);
@@ -90,6 +129,78 @@ public abstract class JdbcNestedNodeQueryDelegate<ID extends Serializable, N ext
         return s;
     }
 
+    /**
+     * Executes the statement for every item, sending the statements to the database in batches of the configured size.
+     */
+    protected <T> void batchUpdate(String query, List<T> items, ParameterizedPreparedStatementSetter<T> setter) {
+        if (!items.isEmpty()) {
+            jdbcTemplate.batchUpdate(query, items, batchSize, setter);
+        }
+    }
+
+    /**
+     * Splits the items into consecutive batches of the configured size.
+     */
+    protected <T> List<List<T>> batches(List<T> items) {
+        List<List<T>> batches = new ArrayList<>();
+        for (int from = 0; from < items.size(); from += batchSize) {
+            batches.add(items.subList(from, Math.min(from + batchSize, items.size())));
+        }
+        return batches;
+    }
+
+    /**
+     * Adds the delta to all LEFT and RIGHT values within the given range. Both columns are shifted by a single
+     * UPDATE statement with a CASE expression per column, so the affected rows are scanned and locked only once.
+     *
+     * @param from - lower bound of the range
+     * @param inclusive - whether the lower bound is included in the range
+     * @param to - upper bound of the range (exclusive) or null if the range is unbounded
+     * @param delta - value to be added (negative values shift the fields down)
+     */
+    protected void shiftSideFields(Long from, boolean inclusive, Long to, Long delta) {
+        String query = to == null
+                ? (inclusive ? shiftFromInclusiveQuery : shiftFromExclusiveQuery)
+                : (inclusive ? shiftRangeInclusiveQuery : shiftRangeExclusiveQuery);
+        jdbcTemplate.update(
+                getDiscriminatedQuery(query),
+                preparedStatement -> {
+                    int index = 1;
+                    for (int column = 0; column < 2; column++) {
+                        index = setSideFieldRangeParams(preparedStatement, index, from, to);
+                        preparedStatement.setLong(index++, delta);
+                    }
+                    for (int column = 0; column < 2; column++) {
+                        index = setSideFieldRangeParams(preparedStatement, index, from, to);
+                    }
+                    setDiscriminatorParams(preparedStatement, index);
+                }
+        );
+    }
+
+    private String shiftSideFieldsQuery(boolean inclusive, boolean bounded) {
+        return new Query("update :tableName set " +
+                ":right = case when :rangeOfRight then :right + ? else :right end, " +
+                ":left = case when :rangeOfLeft then :left + ? else :left end " +
+                "where (:rangeOfRight or :rangeOfLeft)")
+                .set("rangeOfRight", sideFieldRange(right, inclusive, bounded))
+                .set("rangeOfLeft", sideFieldRange(left, inclusive, bounded))
+                .build();
+    }
+
+    private String sideFieldRange(String columnName, boolean inclusive, boolean bounded) {
+        String range = columnName + (inclusive ? " >= ?" : " > ?");
+        return bounded ? range + " and " + columnName + " < ?" : range;
+    }
+
+    private int setSideFieldRangeParams(PreparedStatement ps, int index, Long from, Long to) throws SQLException {
+        ps.setLong(index++, from);
+        if (to != null) {
+            ps.setLong(index++, to);
+        }
+        return index;
+    }
+
     protected void setDiscriminatorParams(PreparedStatement ps, int offset) throws SQLException {
         for (int i = 0; i < treeDiscriminator.getParameters().size(); i++) {
             ps.setObject(i + offset, treeDiscriminator.getParameters().get(i));
@@ -113,18 +224,39 @@ public abstract class JdbcNestedNodeQueryDelegate<ID extends Serializable, N ext
 
         protected String build() {
             String q = query;
-            q = q.replaceAll(":tableName", tableName);
-            q = q.replaceAll(":parentId", parentId);
-            q = q.replaceAll(":id", id);
-            q = q.replaceAll(":left", left);
-            q = q.replaceAll(":right", right);
-            q = q.replaceAll(":level", level);
+            q = q.replace(":tableName", tableName);
+            q = q.replace(":parentId", parentId);
+            q = q.replace(":id", id);
+            q = q.replace(":left", left);
+            q = q.replace(":right", right);
+            q = q.replace(":level", level);
             for (Map.Entry<String, String> entry : parts.entrySet()) {
                 String label = ":" + entry.getKey();
                 String part = entry.getValue();
-                q = q.replaceAll(label, part);
+                q = q.replace(label, part);
             }
             return q;
         }
     }
+
+    private class DiscriminatedQueries {
+
+        private final String queryPart;
+
+        // bounded by the number of statements rendered by the delegate
+        private final Map<String, String> queries = new ConcurrentHashMap<>();
+
+        private DiscriminatedQueries(String queryPart) {
+            this.queryPart = queryPart;
+        }
+
+        private String get(String baseQuery) {
+            String query = queries.get(baseQuery);
+            if (query == null) {
+                query = discriminate(baseQuery, queryPart);
+                queries.putIfAbsent(baseQuery, query);
+            }
+            return query;
+        }
+    }
 }
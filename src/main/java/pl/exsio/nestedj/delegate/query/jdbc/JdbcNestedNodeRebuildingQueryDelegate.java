@@ -23,6 +23,7 @@ package pl.exsio.nestedj.delegate.query.jdbc;
 import pl.exsio.nestedj.config.jdbc.JdbcNestedNodeRepositoryConfiguration;
 import pl.exsio.nestedj.delegate.query.NestedNodeRebuildingQueryDelegate;
 import pl.exsio.nestedj.model.NestedNode;
+import pl.exsio.nestedj.model.NestedNodeInfo;
 
 import java.io.Serializable;
 import java.util.List;
@@ -31,73 +32,50 @@ public class JdbcNestedNodeRebuildingQueryDelegate<ID extends Serializable, N ex
         extends JdbcNestedNodeQueryDelegate<ID, N>
         implements NestedNodeRebuildingQueryDelegate<ID, N> {
 
+    private final String destroyTreeQuery;
+
+    private final String getHierarchyQuery;
+
+    private final String updateSideFieldsQuery;
+
     public JdbcNestedNodeRebuildingQueryDelegate(JdbcNestedNodeRepositoryConfiguration<ID, N> configuration) {
         super(configuration);
+        this.destroyTreeQuery = new Query("update :tableName set :left = 0, :right = 0, :level = 0").build();
+        this.getHierarchyQuery = new Query("select :id, :parentId from :tableName order by :id asc").build();
+        this.updateSideFieldsQuery = new Query("update :tableName set :left = ?, :right = ?, :level = ? where :id = ?").build();
     }
 
 
     @Override
     public void destroyTree() {
         jdbcTemplate.update(
-                getDiscriminatedQuery(
-                        new Query("update :tableName set :left = 0, :right = 0, :level = 0").build()
-                ),
+                getDiscriminatedQuery(destroyTreeQuery),
                 preparedStatement -> setDiscriminatorParams(preparedStatement, 1)
         );
     }
 
     @Override
-    public N findFirst() {
-        List<N> result =  jdbcTemplate.query(
-                getDiscriminatedQuery(
-                        new Query("select * from :tableName where :parentId is null order by :id desc").build()
-                ),
-                preparedStatement -> {
-                    setDiscriminatorParams(preparedStatement, 1);
-                },
-                rowMapper
-        );
-        return result.stream().findFirst().orElse(null);
-    }
-
-    @Override
-    public void resetFirst(N first) {
-        jdbcTemplate.update(
-                getDiscriminatedQuery(
-                        new Query("update :tableName set :left = 1, :right = 2, :level = 0 where :id = ?").build()
-                ),
-                preparedStatement -> {
-                    preparedStatement.setObject(1, first.getId());
-                    setDiscriminatorParams(preparedStatement, 2);
-                }
-        );
-    }
-
-    @Override
-    public List<N> getSiblings(ID first) {
+    @SuppressWarnings("unchecked")
+    public List<NestedNodeInfo<ID>> getHierarchy() {
         return jdbcTemplate.query(
-                getDiscriminatedQuery(
-                        new Query("select * from :tableName where :parentId is null and :id <> ? order by :id asc").build()
-                ),
-                preparedStatement -> {
-                    preparedStatement.setObject(1, first);
-                    setDiscriminatorParams(preparedStatement, 2);
-                },
-                rowMapper
+                getDiscriminatedQuery(getHierarchyQuery),
+                preparedStatement -> setDiscriminatorParams(preparedStatement, 1),
+                (rs, rowNum) -> new NestedNodeInfo<>((ID) rs.getObject(id), (ID) rs.getObject(parentId), null, null, null)
         );
     }
 
     @Override
-    public List<N> getChildren(N parent) {
-        return jdbcTemplate.query(
-                getDiscriminatedQuery(
-                        new Query("select * from :tableName where :parentId = ? order by :id asc").build()
-                ),
-                preparedStatement -> {
-                    preparedStatement.setObject(1, parent.getId());
-                    setDiscriminatorParams(preparedStatement, 2);
-                },
-                rowMapper
+    public void updateSideFields(List<NestedNodeInfo<ID>> nodes) {
+        batchUpdate(
+                getDiscriminatedQuery(updateSideFieldsQuery),
+                nodes,
+                (preparedStatement, node) -> {
+                    preparedStatement.setObject(1, node.getLeft());
+                    preparedStatement.setObject(2, node.getRight());
+                    preparedStatement.setObject(3, node.getLevel());
+                    preparedStatement.setObject(4, node.getId());
+                    setDiscriminatorParams(preparedStatement, 5);
+                }
         );
     }
 }
@@ -34,17 +34,30 @@ public class JdbcNestedNodeRemovingQueryDelegate<ID extends Serializable, N exte
         extends JdbcNestedNodeQueryDelegate<ID, N>
         implements NestedNodeRemovingQueryDelegate<ID, N> {
 
+    private final String setNewParentQuery;
+
+    private final String findNodeParentIdQuery;
+
+    private final String singleDeletionQuery;
+
+    private final String pushUpChildrenQuery;
+
+    private final String batchDeletionQuery;
+
     public JdbcNestedNodeRemovingQueryDelegate(JdbcNestedNodeRepositoryConfiguration<ID, N> configuration) {
         super(configuration);
+        this.setNewParentQuery = new Query("update :tableName set :parentId = ? where :left >= ? and :right <= ? and :level = ?").build();
+        this.findNodeParentIdQuery = new Query("select :id from :tableName where :left < ? and :right > ? and :level = ?").build();
+        this.singleDeletionQuery = new Query("delete from :tableName where :id = ?").build();
+        this.pushUpChildrenQuery = new Query("update :tableName set :right = (:right - 1), :left = (:left - 1), :level = (:level - 1) where :right < ? and :left > ?").build();
+        this.batchDeletionQuery = new Query("delete from :tableName where :left >= ? and :right <= ?").build();
     }
 
 
     @Override
     public void setNewParentForDeletedNodesChildren(NestedNodeInfo<ID> node) {
         jdbcTemplate.update(
-                getDiscriminatedQuery(
-                        new Query("update :tableName set :parentId = ? where :left >= ? and :right <= ? and :level = ?").build()
-                ),
+                getDiscriminatedQuery(setNewParentQuery),
                 preparedStatement -> {
                     Optional<ID> newParentId = findNodeParentId(node);
                     if (!newParentId.isPresent()) {
@@ -65,9 +78,7 @@ public class JdbcNestedNodeRemovingQueryDelegate<ID extends Serializable, N exte
         ID id = null;
         if (node.getLevel() > 0) {
             id = jdbcTemplate.query(
-                    getDiscriminatedQuery(
-                            new Query("select :id from :tableName where :left < ? and :right > ? and :level = ?").build()
-                    ),
+                    getDiscriminatedQuery(findNodeParentIdQuery),
                     preparedStatement -> {
                         preparedStatement.setLong(1, node.getLeft());
                         preparedStatement.setLong(2, node.getRight());
@@ -88,9 +99,7 @@ public class JdbcNestedNodeRemovingQueryDelegate<ID extends Serializable, N exte
     @Override
     public void performSingleDeletion(NestedNodeInfo<ID> node) {
         jdbcTemplate.update(
-                getDiscriminatedQuery(
-                        new Query("delete from :tableName where :id = ?").build()
-                ),
+                getDiscriminatedQuery(singleDeletionQuery),
                 preparedStatement -> {
                     preparedStatement.setObject(1, node.getId());
                     setDiscriminatorParams(preparedStatement, 2);
@@ -99,16 +108,14 @@ public class JdbcNestedNodeRemovingQueryDelegate<ID extends Serializable, N exte
     }
 
     @Override
-    public void decrementSideFieldsBeforeSingleNodeRemoval(Long from, String field) {
-        decrementSideFields(from, DECREMENT_BY, field);
+    public void decrementSideFieldsBeforeSingleNodeRemoval(Long from) {
+        shiftSideFields(from, false, null, -DECREMENT_BY);
     }
 
     @Override
     public void pushUpDeletedNodesChildren(NestedNodeInfo<ID> node) {
         jdbcTemplate.update(
-                getDiscriminatedQuery(
-                        new Query("update :tableName set :right = (:right - 1), :left = (:left - 1), :level = (:level - 1) where :right < ? and :left > ?").build()
-                ),
+                getDiscriminatedQuery(pushUpChildrenQuery),
                 preparedStatement -> {
                     preparedStatement.setObject(1, node.getRight());
                     preparedStatement.setObject(2, node.getLeft());
@@ -118,16 +125,14 @@ public class JdbcNestedNodeRemovingQueryDelegate<ID extends Serializable, N exte
     }
 
     @Override
-    public void decrementSideFieldsAfterSubtreeRemoval(Long from, Long delta, String field) {
-        decrementSideFields(from, delta, field);
+    public void decrementSideFieldsAfterSubtreeRemoval(Long from, Long delta) {
+        shiftSideFields(from, false, null, -delta);
     }
 
     @Override
     public void performBatchDeletion(NestedNodeInfo<ID> node) {
         jdbcTemplate.update(
-                getDiscriminatedQuery(
-                        new Query("delete from :tableName where :left >= ? and :right <= ?").build()
-                ),
+                getDiscriminatedQuery(batchDeletionQuery),
                 preparedStatement -> {
                     preparedStatement.setObject(1, node.getLeft());
                     preparedStatement.setObject(2, node.getRight());
@@ -135,20 +140,4 @@ public class JdbcNestedNodeRemovingQueryDelegate<ID extends Serializable, N exte
                 }
         );
     }
-
-    private void decrementSideFields(Long from, Long delta, String field) {
-        String columnName = treeColumnNames.get(field);
-        jdbcTemplate.update(
-                getDiscriminatedQuery(
-                        new Query("update :tableName set :columnName = (:columnName - ?) where :columnName > ?")
-                                .set("columnName", columnName)
-                                .build()
-                ),
-                preparedStatement -> {
-                    preparedStatement.setLong(1, delta);
-                    preparedStatement.setLong(2, from);
-                    setDiscriminatorParams(preparedStatement, 3);
-                }
-        );
-    }
 }
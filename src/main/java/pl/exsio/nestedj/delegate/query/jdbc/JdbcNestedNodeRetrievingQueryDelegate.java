@@ -21,32 +21,118 @@
 package pl.exsio.nestedj.delegate.query.jdbc;
 
 import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.jdbc.core.RowMapper;
 import pl.exsio.nestedj.config.jdbc.JdbcNestedNodeRepositoryConfiguration;
+import pl.exsio.nestedj.delegate.query.IdBuckets;
 import pl.exsio.nestedj.delegate.query.NestedNodeRetrievingQueryDelegate;
 import pl.exsio.nestedj.model.NestedNode;
 import pl.exsio.nestedj.model.NestedNodeInfo;
 
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 public class JdbcNestedNodeRetrievingQueryDelegate<ID extends Serializable, N extends NestedNode<ID>>
         extends JdbcNestedNodeQueryDelegate<ID, N>
         implements NestedNodeRetrievingQueryDelegate<ID, N> {
 
+    @SuppressWarnings("unchecked")
+    private final RowMapper<NestedNodeInfo<ID>> infoMapper = (rs, rowNum) ->
+            new NestedNodeInfo<>((ID) rs.getObject(id), (ID) rs.getObject(parentId), rs.getLong(left), rs.getLong(right), rs.getLong(level));
+
+    private final String treeQuery;
+
+    private final String treeAfterLeftQuery;
+
+    private final String treeUpToLevelQuery;
+
+    private final String childrenQuery;
+
+    private final String childrenAfterLeftQuery;
+
+    private final String parentQuery;
+
+    private final String parentsQuery;
+
+    private final String treeInfoQuery;
+
+    private final String childrenInfoQuery;
+
+    private final String parentsInfoQuery;
+
+    private final String nodeInfoQuery;
+
+    private final String firstRootQuery;
+
+    private final String lastRootQuery;
+
+    private final String prevOnLevelQuery;
+
+    private final String nextOnLevelQuery;
+
+    private final String leftBetweenQuery;
+
+    private final String rightBetweenQuery;
+
+    private final Map<Integer, String> parentsOfBucketQueries = new HashMap<>();
+
+
     public JdbcNestedNodeRetrievingQueryDelegate(JdbcNestedNodeRepositoryConfiguration<ID, N> configuration) {
         super(configuration);
+        this.treeQuery = new Query("select * from :tableName where :left >= ? and :right <= ? order by :left asc").build();
+        this.treeAfterLeftQuery = new Query("select * from :tableName where :left > ? and :right <= ? order by :left asc").build();
+        this.treeUpToLevelQuery = new Query("select * from :tableName where :left >= ? and :right <= ? and :level <= ? order by :left asc").build();
+        this.childrenQuery = new Query("select * from :tableName where :left >= ? and :right <= ? and :level = ? order by :left asc").build();
+        this.childrenAfterLeftQuery = new Query("select * from :tableName where :left > ? and :right <= ? and :level = ? order by :left asc").build();
+        this.parentQuery = new Query("select * from :tableName where :left < ? and :right > ? and :level = ? order by :left asc").build();
+        this.parentsQuery = new Query("select * from :tableName where :left < ? and :right > ? order by :left desc").build();
+        this.treeInfoQuery = new Query("select :id, :parentId, :left, :right, :level from :tableName where :left >= ? and :right <= ? order by :left asc").build();
+        this.childrenInfoQuery = new Query("select :id, :parentId, :left, :right, :level from :tableName where :left >= ? and :right <= ? and :level = ? order by :left asc").build();
+        this.parentsInfoQuery = new Query("select :id, :parentId, :left, :right, :level from :tableName where :left < ? and :right > ? order by :left desc").build();
+        this.nodeInfoQuery = new Query("select :id, :parentId, :left, :right, :level from :tableName where :id = ?").build();
+        this.firstRootQuery = new Query("select * from :tableName where :level = 0 order by :left asc").build();
+        this.lastRootQuery = new Query("select * from :tableName where :level = 0 order by :left desc").build();
+        this.prevOnLevelQuery = new Query("select * from :tableName where :right < ? and :level = ? order by :right desc").build();
+        this.nextOnLevelQuery = new Query("select * from :tableName where :left > ? and :level = ? order by :left asc").build();
+        this.leftBetweenQuery = existsBetweenQuery(left);
+        this.rightBetweenQuery = existsBetweenQuery(right);
+        for (int size = 1; size <= IdBuckets.MAX_SIZE; size <<= 1) {
+            parentsOfBucketQueries.put(size, new Query("select * from :tableName p where exists (select 1 from :tableName n " +
+                    "where n.:id in (:placeholders) and p.:left < n.:left and p.:right > n.:right) order by :left asc")
+                    .set("placeholders", String.join(", ", Collections.nCopies(size, "?")))
+                    .build());
+        }
     }
 
 
     @Override
     public List<N> getTreeAsList(N node) {
         return jdbcTemplate.query(
-                getDiscriminatedQuery(
-                        new Query("select * from :tableName where :left >= ? and :right <= ? order by :left asc").build()
-                ),
+                getDiscriminatedQuery(treeQuery),
+                preparedStatement -> {
+                    preparedStatement.setObject(1, node.getTreeLeft());
+                    preparedStatement.setObject(2, node.getTreeRight());
+                    setDiscriminatorParams(preparedStatement, 3);
+                },
+                rowMapper
+        );
+    }
+
+    @Override
+    public Stream<N> streamTreeAsList(N node) {
+        return jdbcTemplate.queryForStream(
+                getDiscriminatedQuery(treeQuery),
                 preparedStatement -> {
+                    preparedStatement.setFetchSize(fetchSize);
                     preparedStatement.setObject(1, node.getTreeLeft());
                     preparedStatement.setObject(2, node.getTreeRight());
                     setDiscriminatorParams(preparedStatement, 3);
@@ -55,12 +141,38 @@ public class JdbcNestedNodeRetrievingQueryDelegate<ID extends Serializable, N ex
         );
     }
 
+    @Override
+    public List<N> getTreeAsList(N node, Long afterLeft, int limit) {
+        return jdbcTemplate.query(
+                getDiscriminatedQuery(treeAfterLeftQuery),
+                preparedStatement -> {
+                    preparedStatement.setMaxRows(limit);
+                    preparedStatement.setObject(1, afterLeft);
+                    preparedStatement.setObject(2, node.getTreeRight());
+                    setDiscriminatorParams(preparedStatement, 3);
+                },
+                rowMapper
+        );
+    }
+
+    @Override
+    public List<N> getTreeAsList(N node, Long maxLevel) {
+        return jdbcTemplate.query(
+                getDiscriminatedQuery(treeUpToLevelQuery),
+                preparedStatement -> {
+                    preparedStatement.setObject(1, node.getTreeLeft());
+                    preparedStatement.setObject(2, node.getTreeRight());
+                    preparedStatement.setObject(3, maxLevel);
+                    setDiscriminatorParams(preparedStatement, 4);
+                },
+                rowMapper
+        );
+    }
+
     @Override
     public List<N> getChildren(N node) {
         return jdbcTemplate.query(
-                getDiscriminatedQuery(
-                        new Query("select * from :tableName where :left >= ? and :right <= ? and :level = ? order by :left asc").build()
-                ),
+                getDiscriminatedQuery(childrenQuery),
                 preparedStatement -> {
                     preparedStatement.setObject(1, node.getTreeLeft());
                     preparedStatement.setObject(2, node.getTreeRight());
@@ -71,13 +183,26 @@ public class JdbcNestedNodeRetrievingQueryDelegate<ID extends Serializable, N ex
         );
     }
 
+    @Override
+    public List<N> getChildren(N node, Long afterLeft, int limit) {
+        return jdbcTemplate.query(
+                getDiscriminatedQuery(childrenAfterLeftQuery),
+                preparedStatement -> {
+                    preparedStatement.setMaxRows(limit);
+                    preparedStatement.setObject(1, afterLeft);
+                    preparedStatement.setObject(2, node.getTreeRight());
+                    preparedStatement.setObject(3, node.getTreeLevel() + 1);
+                    setDiscriminatorParams(preparedStatement, 4);
+                },
+                rowMapper
+        );
+    }
+
     @Override
     public Optional<N> getParent(N node) {
         if (node.getTreeLevel() > 0) {
             return jdbcTemplate.query(
-                    getDiscriminatedQuery(
-                            new Query("select * from :tableName where :left < ? and :right > ? and :level = ? order by :left asc").build()
-                    ),
+                    getDiscriminatedQuery(parentQuery),
                     preparedStatement -> {
                         preparedStatement.setObject(1, node.getTreeLeft());
                         preparedStatement.setObject(2, node.getTreeRight());
@@ -95,9 +220,7 @@ public class JdbcNestedNodeRetrievingQueryDelegate<ID extends Serializable, N ex
     public List<N> getParents(N node) {
         if (node.getTreeLevel() > 0) {
             return jdbcTemplate.query(
-                    getDiscriminatedQuery(
-                            new Query("select * from :tableName where :left < ? and :right > ? order by :left desc").build()
-                    ),
+                    getDiscriminatedQuery(parentsQuery),
                     preparedStatement -> {
                         preparedStatement.setObject(1, node.getTreeLeft());
                         preparedStatement.setObject(2, node.getTreeRight());
@@ -110,53 +233,131 @@ public class JdbcNestedNodeRetrievingQueryDelegate<ID extends Serializable, N ex
         }
     }
 
+    /**
+     * The parents are selected by a semi-join of the Tree with the target Nodes, with one query per bucket of IDs,
+     * so every Parent is returned once without comparing whole rows. The target Nodes are found by their IDs,
+     * so only the Parents are narrowed by the Tree Discriminator.
+     */
     @Override
-    public Optional<N> getPrevSibling(N node) {
+    public List<N> getParents(Collection<N> nodes) {
+        Map<ID, N> parents = new HashMap<>();
+        for (List<ID> bucket : IdBuckets.of(nodes.stream().map(NestedNode::getId).collect(Collectors.toList()))) {
+            jdbcTemplate.query(
+                    getDiscriminatedQuery(parentsOfBucketQueries.get(bucket.size())),
+                    preparedStatement -> {
+                        int index = 1;
+                        for (ID nodeId : bucket) {
+                            preparedStatement.setObject(index++, nodeId);
+                        }
+                        setDiscriminatorParams(preparedStatement, index);
+                    },
+                    rowMapper
+            ).forEach(parent -> parents.putIfAbsent(parent.getId(), parent));
+        }
+        List<N> result = new ArrayList<>(parents.values());
+        result.sort(Comparator.comparing(NestedNode::getTreeLeft));
+        return result;
+    }
+
+    @Override
+    public List<NestedNodeInfo<ID>> getTreeInfoAsList(N node) {
         return jdbcTemplate.query(
-                getDiscriminatedQuery(
-                        new Query("select * from :tableName where :right = ? and :level = ? order by :left asc").build()
-                ),
+                getDiscriminatedQuery(treeInfoQuery),
                 preparedStatement -> {
-                    preparedStatement.setObject(1, node.getTreeLeft() - 1);
-                    preparedStatement.setObject(2, node.getTreeLevel());
+                    preparedStatement.setObject(1, node.getTreeLeft());
+                    preparedStatement.setObject(2, node.getTreeRight());
                     setDiscriminatorParams(preparedStatement, 3);
                 },
-                rowMapper
-        ).stream().findFirst();
+                infoMapper
+        );
     }
 
     @Override
-    public Optional<N> getNextSibling(N node) {
+    public List<NestedNodeInfo<ID>> getChildrenInfo(N node) {
         return jdbcTemplate.query(
-                getDiscriminatedQuery(
-                        new Query("select * from :tableName where :left = ? and :level = ? order by :left asc").build()
-                ),
+                getDiscriminatedQuery(childrenInfoQuery),
+                preparedStatement -> {
+                    preparedStatement.setObject(1, node.getTreeLeft());
+                    preparedStatement.setObject(2, node.getTreeRight());
+                    preparedStatement.setObject(3, node.getTreeLevel() + 1);
+                    setDiscriminatorParams(preparedStatement, 4);
+                },
+                infoMapper
+        );
+    }
+
+    @Override
+    public List<NestedNodeInfo<ID>> getParentsInfo(N node) {
+        if (node.getTreeLevel() > 0) {
+            return jdbcTemplate.query(
+                    getDiscriminatedQuery(parentsInfoQuery),
+                    preparedStatement -> {
+                        preparedStatement.setObject(1, node.getTreeLeft());
+                        preparedStatement.setObject(2, node.getTreeRight());
+                        setDiscriminatorParams(preparedStatement, 3);
+                    },
+                    infoMapper
+            );
+        } else {
+            return new LinkedList<>();
+        }
+    }
+
+    @Override
+    public Optional<N> getPrevSibling(N node) {
+        // the closest Node on the same LEVEL is a Sibling, unless the LEFT value of the common Parent lies in between
+        return findClosestOnLevel(prevOnLevelQuery, node.getTreeLeft(), node.getTreeLevel())
+                .filter(n -> n.getTreeRight() == node.getTreeLeft() - 1 || !existsBetween(leftBetweenQuery, n.getTreeRight(), node.getTreeLeft()));
+    }
+
+    @Override
+    public Optional<N> getNextSibling(N node) {
+        // the closest Node on the same LEVEL is a Sibling, unless the RIGHT value of the common Parent lies in between
+        return findClosestOnLevel(nextOnLevelQuery, node.getTreeRight(), node.getTreeLevel())
+                .filter(n -> n.getTreeLeft() == node.getTreeRight() + 1 || !existsBetween(rightBetweenQuery, node.getTreeRight(), n.getTreeLeft()));
+    }
+
+    private Optional<N> findClosestOnLevel(String query, Long value, Long nodeLevel) {
+        return Optional.ofNullable(jdbcTemplate.query(
+                getDiscriminatedQuery(query),
                 preparedStatement -> {
-                    preparedStatement.setObject(1, node.getTreeRight() + 1);
-                    preparedStatement.setObject(2, node.getTreeLevel());
+                    preparedStatement.setMaxRows(1);
+                    preparedStatement.setObject(1, value);
+                    preparedStatement.setObject(2, nodeLevel);
                     setDiscriminatorParams(preparedStatement, 3);
                 },
-                rowMapper
-        ).stream().findFirst();
+                rs -> rs.next() ? rowMapper.mapRow(rs, 0) : null
+        ));
+    }
+
+    private String existsBetweenQuery(String columnName) {
+        return new Query("select count(*) from :tableName where :columnName > ? and :columnName < ?")
+                .set("columnName", columnName)
+                .build();
+    }
+
+    private boolean existsBetween(String query, Long from, Long to) {
+        Boolean exists = jdbcTemplate.query(
+                getDiscriminatedQuery(query),
+                preparedStatement -> {
+                    preparedStatement.setLong(1, from);
+                    preparedStatement.setLong(2, to);
+                    setDiscriminatorParams(preparedStatement, 3);
+                },
+                rs -> rs.next() && rs.getLong(1) > 0
+        );
+        return Boolean.TRUE.equals(exists);
     }
 
     @Override
-    @SuppressWarnings("unchecked")
     public Optional<NestedNodeInfo<ID>> getNodeInfo(ID nodeId) {
         NestedNodeInfo<ID> info = jdbcTemplate.query(
-                getDiscriminatedQuery(
-                        new Query("select :id, :parentId, :left, :right, :level from :tableName where :id = ?").build()
-                ),
+                getDiscriminatedQuery(nodeInfoQuery),
                 preparedStatement -> {
                     preparedStatement.setObject(1, nodeId);
                     setDiscriminatorParams(preparedStatement, 2);
                 },
-                (ResultSetExtractor<NestedNodeInfo<ID>>) rs -> {
-                    if (!rs.next()) {
-                        return null;
-                    }
-                    return new NestedNodeInfo((ID) rs.getObject(id), (ID) rs.getObject(parentId), rs.getLong(left), rs.getLong(right), rs.getLong(level));
-                }
+                (ResultSetExtractor<NestedNodeInfo<ID>>) rs -> rs.next() ? infoMapper.mapRow(rs, 0) : null
         );
         return Optional.ofNullable(info);
     }
@@ -164,9 +365,7 @@ public class JdbcNestedNodeRetrievingQueryDelegate<ID extends Serializable, N ex
     @Override
     public Optional<N> findFirstRoot() {
         return jdbcTemplate.query(
-                getDiscriminatedQuery(
-                        new Query("select * from :tableName where :level = 0 order by :left asc").build()
-                ),
+                getDiscriminatedQuery(firstRootQuery),
                 preparedStatement -> setDiscriminatorParams(preparedStatement, 1),
                 rowMapper
         ).stream().findFirst();
@@ -175,9 +374,7 @@ public class JdbcNestedNodeRetrievingQueryDelegate<ID extends Serializable, N ex
     @Override
     public Optional<N> findLastRoot() {
         return jdbcTemplate.query(
-                getDiscriminatedQuery(
-                        new Query("select * from :tableName where :level = 0 order by :left desc").build()
-                ),
+                getDiscriminatedQuery(lastRootQuery),
                 preparedStatement -> setDiscriminatorParams(preparedStatement, 1),
                 rowMapper
         ).stream().findFirst();
@@ -25,9 +25,15 @@ import pl.exsio.nestedj.delegate.query.NestedNodeInsertingQueryDelegate;
 import pl.exsio.nestedj.model.NestedNode;
 
 import javax.persistence.criteria.CriteriaBuilder;
-import javax.persistence.criteria.CriteriaUpdate;
+import javax.persistence.criteria.CriteriaQuery;
 import javax.persistence.criteria.Root;
 import java.io.Serializable;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static pl.exsio.nestedj.model.NestedNode.LEFT;
+import static pl.exsio.nestedj.model.NestedNode.RIGHT;
 
 public class JpaNestedNodeInsertingQueryDelegate<ID extends Serializable, N extends NestedNode<ID>>
         extends JpaNestedNodeQueryDelegate<ID, N>
@@ -42,26 +48,64 @@ public class JpaNestedNodeInsertingQueryDelegate<ID extends Serializable, N exte
         entityManager.persist(node);
     }
 
+    /**
+     * Hibernate groups the inserts into JDBC batches if hibernate.jdbc.batch_size is configured.
+     */
     @Override
-    public void incrementSideFieldsGreaterThan(Long from, String fieldName) {
-        updateFields(from, fieldName, false);
+    public void insertAll(List<N> nodes) {
+        nodes.forEach(entityManager::persist);
     }
 
     @Override
-    public void incermentSideFieldsGreaterThanOrEqualTo(Long from, String fieldName) {
-        updateFields(from, fieldName, true);
+    public Optional<Long> findLowestSideFieldValueGreaterThan(Long value) {
+        return Stream.of(findSideFieldValue(LEFT, value, false), findSideFieldValue(RIGHT, value, false))
+                .filter(Optional::isPresent).map(Optional::get).min(Long::compare);
     }
 
-    private void updateFields(Long from, String fieldName, boolean gte) {
+    @Override
+    public Optional<Long> findGreatestSideFieldValueLessThan(Long value) {
+        return Stream.of(findSideFieldValue(LEFT, value, true), findSideFieldValue(RIGHT, value, true))
+                .filter(Optional::isPresent).map(Optional::get).max(Long::compare);
+    }
+
+    private Optional<Long> findSideFieldValue(String fieldName, Long value, boolean lessThan) {
         CriteriaBuilder cb = entityManager.getCriteriaBuilder();
-        CriteriaUpdate<N> update = cb.createCriteriaUpdate(nodeClass);
-        Root<N> root = update.from(nodeClass);
-        update.set(root.<Long>get(fieldName), cb.sum(root.get(fieldName), INCREMENT_BY));
-        if(gte) {
-            update.where(getPredicates(cb, root, cb.greaterThanOrEqualTo(root.get(fieldName), from)));
+        CriteriaQuery<Long> select = cb.createQuery(Long.class);
+        Root<N> root = select.from(nodeClass);
+        if (lessThan) {
+            select.select(cb.max(root.get(fieldName))).where(getPredicates(cb, root, cb.lessThan(root.get(fieldName), value)));
         } else {
-            update.where(getPredicates(cb, root, cb.greaterThan(root.get(fieldName), from)));
+            select.select(cb.min(root.get(fieldName))).where(getPredicates(cb, root, cb.greaterThan(root.get(fieldName), value)));
         }
-        entityManager.createQuery(update).executeUpdate();
+        return Optional.ofNullable(entityManager.createQuery(select).getSingleResult());
+    }
+
+    @Override
+    public List<Long> findEnclosingRightSideFieldValues(Long from, Long to) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> select = cb.createQuery(Long.class);
+        Root<N> root = select.from(nodeClass);
+        select.select(root.get(RIGHT))
+                .where(getPredicates(cb, root,
+                        cb.lessThanOrEqualTo(root.get(LEFT), from),
+                        cb.greaterThan(root.get(RIGHT), to)
+                ))
+                .orderBy(cb.asc(root.get(RIGHT)));
+        return entityManager.createQuery(select).getResultList();
+    }
+
+    @Override
+    public void incrementSideFieldsInRange(Long from, Long to, Long delta) {
+        shiftSideFields(from, true, to, delta);
+    }
+
+    @Override
+    public void incrementSideFieldsGreaterThan(Long from, Long delta) {
+        shiftSideFields(from, false, null, delta);
+    }
+
+    @Override
+    public void incrementSideFieldsGreaterThanOrEqualTo(Long from, Long delta) {
+        shiftSideFields(from, true, null, delta);
     }
 }
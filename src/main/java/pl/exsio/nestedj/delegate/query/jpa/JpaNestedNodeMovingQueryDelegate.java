@@ -68,23 +68,23 @@ public class JpaNestedNodeMovingQueryDelegate<ID extends Serializable, N extends
 
 
     @Override
-    public void updateSideFieldsUp(Long delta, Long start, Long stop, String field) {
-        updateFields(Mode.UP, delta, start, stop, field);
+    public void updateSideFieldsUp(Long delta, Long start, Long stop) {
+        shiftSideFields(start, false, stop, delta);
     }
 
     @Override
-    public void updateSideFieldsDown(Long delta, Long start, Long stop, String field) {
-        updateFields(Mode.DOWN, delta, start, stop, field);
+    public void updateSideFieldsDown(Long delta, Long start, Long stop) {
+        shiftSideFields(start, false, stop, -delta);
     }
 
     @Override
-    public void performMoveUp(Long nodeDelta, Long levelModificator) {
-        performMove(Mode.UP, nodeDelta, levelModificator);
+    public void performMoveUp(NestedNodeInfo<ID> node, Long nodeDelta, Long levelModificator) {
+        performMove(node, Mode.UP, nodeDelta, levelModificator);
     }
 
     @Override
-    public void performMoveDown(Long nodeDelta, Long levelModificator) {
-        performMove(Mode.DOWN, nodeDelta, levelModificator);
+    public void performMoveDown(NestedNodeInfo<ID> node, Long nodeDelta, Long levelModificator) {
+        performMove(node, Mode.DOWN, nodeDelta, levelModificator);
     }
 
     @Override
@@ -100,24 +100,8 @@ public class JpaNestedNodeMovingQueryDelegate<ID extends Serializable, N extends
         doUpdateParentField(null, node);
     }
 
-    private void updateFields(Mode mode, Long delta, Long start, Long stop, String field) {
-        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
-        CriteriaUpdate<N> update = cb.createCriteriaUpdate(nodeClass);
-        Root<N> root = update.from(nodeClass);
-
-        if (Mode.DOWN.equals(mode)) {
-            update.set(root.<Long>get(field), cb.diff(root.get(field), delta));
-        } else if (Mode.UP.equals(mode)) {
-            update.set(root.<Long>get(field), cb.sum(root.get(field), delta));
-        }
-        update.where(getPredicates(cb, root,
-                cb.greaterThan(root.get(field), start),
-                cb.lessThan(root.get(field), stop)
-        ));
-        entityManager.createQuery(update).executeUpdate();
-    }
-
-    private void performMove(Mode mode, Long nodeDelta, Long levelModificator) {
+    // the marked Nodes keep their LEFT values, which bounds the update to the moved subtree
+    private void performMove(NestedNodeInfo<ID> node, Mode mode, Long nodeDelta, Long levelModificator) {
         CriteriaBuilder cb = entityManager.getCriteriaBuilder();
         CriteriaUpdate<N> update = cb.createCriteriaUpdate(nodeClass);
         Root<N> root = update.from(nodeClass);
@@ -131,7 +115,11 @@ public class JpaNestedNodeMovingQueryDelegate<ID extends Serializable, N extends
             update.set(root.<Long>get(LEFT), cb.sum(root.get(LEFT), nodeDelta));
         }
         update.where(
-                getPredicates(cb, root, cb.lessThan(root.get(RIGHT), 0))
+                getPredicates(cb, root,
+                        cb.lessThan(root.get(RIGHT), 0),
+                        cb.greaterThanOrEqualTo(root.get(LEFT), node.getLeft()),
+                        cb.lessThanOrEqualTo(root.get(LEFT), node.getRight())
+                )
         );
         entityManager.createQuery(update).executeUpdate();
     }
@@ -26,6 +26,8 @@ import pl.exsio.nestedj.model.NestedNode;
 
 import javax.persistence.EntityManager;
 import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaUpdate;
+import javax.persistence.criteria.Path;
 import javax.persistence.criteria.Predicate;
 import javax.persistence.criteria.Root;
 import java.io.Serializable;
@@ -33,6 +35,9 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 
+import static pl.exsio.nestedj.model.NestedNode.LEFT;
+import static pl.exsio.nestedj.model.NestedNode.RIGHT;
+
 public abstract class JpaNestedNodeQueryDelegate<ID extends Serializable, N extends NestedNode<ID>> {
 
     private final JpaTreeDiscriminator<ID, N> treeDiscriminator;
@@ -43,11 +48,14 @@ public abstract class JpaNestedNodeQueryDelegate<ID extends Serializable, N exte
 
     protected final Class<ID> idClass;
 
+    protected final int fetchSize;
+
     public JpaNestedNodeQueryDelegate(JpaNestedNodeRepositoryConfiguration<ID, N> configuration) {
         this.entityManager = configuration.getEntityManager();
         this.treeDiscriminator = configuration.getTreeDiscriminator();
         this.nodeClass = configuration.getNodeClass();
         this.idClass = configuration.getIdClass();
+        this.fetchSize = configuration.getFetchSize();
     }
 
     protected Predicate[] getPredicates(CriteriaBuilder cb, Root<N> root, Predicate... predicates) {
@@ -55,4 +63,38 @@ public abstract class JpaNestedNodeQueryDelegate<ID extends Serializable, N exte
         Collections.addAll(predicateList, predicates);
         return predicateList.toArray(new Predicate[0]);
     }
+
+    /**
+     * Adds the delta to all LEFT and RIGHT values within the given range. Both fields are shifted by a single
+     * bulk UPDATE with a CASE expression per field, so the affected rows are scanned and locked only once.
+     *
+     * @param from - lower bound of the range
+     * @param inclusive - whether the lower bound is included in the range
+     * @param to - upper bound of the range (exclusive) or null if the range is unbounded
+     * @param delta - value to be added (negative values shift the fields down)
+     */
+    protected void shiftSideFields(Long from, boolean inclusive, Long to, Long delta) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaUpdate<N> update = cb.createCriteriaUpdate(nodeClass);
+        Root<N> root = update.from(nodeClass);
+        Path<Long> right = root.get(RIGHT);
+        Path<Long> left = root.get(LEFT);
+
+        update.set(right, cb.<Long>selectCase()
+                .when(isInRange(cb, right, from, inclusive, to), cb.sum(right, delta))
+                .otherwise(right));
+        update.set(left, cb.<Long>selectCase()
+                .when(isInRange(cb, left, from, inclusive, to), cb.sum(left, delta))
+                .otherwise(left));
+        update.where(getPredicates(cb, root, cb.or(
+                isInRange(cb, right, from, inclusive, to),
+                isInRange(cb, left, from, inclusive, to)
+        )));
+        entityManager.createQuery(update).executeUpdate();
+    }
+
+    private Predicate isInRange(CriteriaBuilder cb, Path<Long> field, Long from, boolean inclusive, Long to) {
+        Predicate lower = inclusive ? cb.greaterThanOrEqualTo(field, from) : cb.greaterThan(field, from);
+        return to == null ? lower : cb.and(lower, cb.lessThan(field, to));
+    }
 }
@@ -23,13 +23,18 @@ package pl.exsio.nestedj.delegate.query.jpa;
 import pl.exsio.nestedj.config.jpa.JpaNestedNodeRepositoryConfiguration;
 import pl.exsio.nestedj.delegate.query.NestedNodeRebuildingQueryDelegate;
 import pl.exsio.nestedj.model.NestedNode;
+import pl.exsio.nestedj.model.NestedNodeInfo;
 
+import javax.persistence.Query;
+import javax.persistence.Tuple;
 import javax.persistence.criteria.CriteriaBuilder;
 import javax.persistence.criteria.CriteriaQuery;
 import javax.persistence.criteria.CriteriaUpdate;
+import javax.persistence.criteria.ParameterExpression;
 import javax.persistence.criteria.Root;
 import java.io.Serializable;
 import java.util.List;
+import java.util.stream.Collectors;
 
 import static pl.exsio.nestedj.model.NestedNode.*;
 
@@ -37,8 +42,6 @@ public class JpaNestedNodeRebuildingQueryDelegate<ID extends Serializable, N ext
         extends JpaNestedNodeQueryDelegate<ID, N>
         implements NestedNodeRebuildingQueryDelegate<ID, N> {
 
-    private final static Long UPDATE_INCREMENT_BY = 2L;
-
     public JpaNestedNodeRebuildingQueryDelegate(JpaNestedNodeRepositoryConfiguration<ID, N> configuration) {
         super(configuration);
     }
@@ -58,46 +61,40 @@ public class JpaNestedNodeRebuildingQueryDelegate<ID extends Serializable, N ext
     }
 
     @Override
-    public N findFirst() {
+    public List<NestedNodeInfo<ID>> getHierarchy() {
         CriteriaBuilder cb = entityManager.getCriteriaBuilder();
-        CriteriaQuery<N> select = cb.createQuery(nodeClass);
+        CriteriaQuery<Tuple> select = cb.createTupleQuery();
         Root<N> root = select.from(nodeClass);
-        select.where(getPredicates(cb, root, cb.isNull(root.get(PARENT_ID))))
-                .orderBy(cb.desc(root.get(ID)));
-        return entityManager.createQuery(select).setMaxResults(1).getSingleResult();
+        select.multiselect(root.get(ID), root.get(PARENT_ID))
+                .where(getPredicates(cb, root))
+                .orderBy(cb.asc(root.get(ID)));
+        return entityManager.createQuery(select).getResultList().stream()
+                .map(t -> new NestedNodeInfo<>(t.get(0, idClass), t.get(1, idClass), null, null, null))
+                .collect(Collectors.toList());
     }
 
     @Override
-    public void resetFirst(N first) {
+    public void updateSideFields(List<NestedNodeInfo<ID>> nodes) {
         CriteriaBuilder cb = entityManager.getCriteriaBuilder();
         CriteriaUpdate<N> update = cb.createCriteriaUpdate(nodeClass);
         Root<N> root = update.from(nodeClass);
+        ParameterExpression<Long> left = cb.parameter(Long.class, "left");
+        ParameterExpression<Long> right = cb.parameter(Long.class, "right");
+        ParameterExpression<Long> level = cb.parameter(Long.class, "level");
+        ParameterExpression<ID> id = cb.parameter(idClass, "id");
         update
-                .set(root.<Long>get(LEVEL), 0L)
-                .set(root.<Long>get(LEFT), 1L)
-                .set(root.<Long>get(RIGHT), 2L)
-                .where(getPredicates(cb, root, cb.equal(update.getRoot().get(ID), first.getId())));
-        entityManager.createQuery(update).executeUpdate();
-    }
-
-    @Override
-    public List<N> getSiblings(ID first) {
-        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
-        CriteriaQuery<N> select = cb.createQuery(nodeClass);
-        Root<N> root = select.from(nodeClass);
-        select.where(getPredicates(cb, root,
-                cb.isNull(root.get(PARENT_ID)),
-                cb.notEqual(root.get(ID), first)
-        )).orderBy(cb.asc(root.get(ID)));
-        return entityManager.createQuery(select).getResultList();
-    }
-
-    @Override
-    public List<N> getChildren(N parent) {
-        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
-        CriteriaQuery<N> select = cb.createQuery(nodeClass);
-        Root<N> root = select.from(nodeClass);
-        select.where(getPredicates(cb, root, cb.equal(root.get(PARENT_ID), parent.getId()))).orderBy(cb.asc(root.get(ID)));
-        return entityManager.createQuery(select).getResultList();
+                .set(root.<Long>get(LEFT), left)
+                .set(root.<Long>get(RIGHT), right)
+                .set(root.<Long>get(LEVEL), level)
+                .where(getPredicates(cb, root, cb.equal(root.get(ID), id)));
+        // JPA has no batch API, the Query is built once and executed for each Node with new parameters
+        Query query = entityManager.createQuery(update);
+        for (NestedNodeInfo<ID> node : nodes) {
+            query.setParameter("left", node.getLeft())
+                    .setParameter("right", node.getRight())
+                    .setParameter("level", node.getLevel())
+                    .setParameter("id", node.getId())
+                    .executeUpdate();
+        }
     }
 }
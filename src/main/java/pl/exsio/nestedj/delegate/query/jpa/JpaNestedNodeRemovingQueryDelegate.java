@@ -88,8 +88,8 @@ public class JpaNestedNodeRemovingQueryDelegate<ID extends Serializable, N exten
     }
 
     @Override
-    public void decrementSideFieldsBeforeSingleNodeRemoval(Long from, String field) {
-        decrementSideFields(from, DECREMENT_BY, field);
+    public void decrementSideFieldsBeforeSingleNodeRemoval(Long from) {
+        shiftSideFields(from, false, null, -DECREMENT_BY);
     }
 
     @Override
@@ -110,8 +110,8 @@ public class JpaNestedNodeRemovingQueryDelegate<ID extends Serializable, N exten
     }
 
     @Override
-    public void decrementSideFieldsAfterSubtreeRemoval(Long from, Long delta, String field) {
-        decrementSideFields(from, delta, field);
+    public void decrementSideFieldsAfterSubtreeRemoval(Long from, Long delta) {
+        shiftSideFields(from, false, null, -delta);
     }
 
     @Override
@@ -126,15 +126,4 @@ public class JpaNestedNodeRemovingQueryDelegate<ID extends Serializable, N exten
 
         entityManager.createQuery(delete).executeUpdate();
     }
-
-    private void decrementSideFields(Long from, Long delta, String field) {
-        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
-        CriteriaUpdate<N> update = cb.createCriteriaUpdate(nodeClass);
-        Root<N> root = update.from(nodeClass);
-
-        update.set(root.<Long>get(field), cb.diff(root.get(field), delta))
-                .where(getPredicates(cb, root, cb.greaterThan(root.get(field), from)));
-
-        entityManager.createQuery(update).executeUpdate();
-    }
 }
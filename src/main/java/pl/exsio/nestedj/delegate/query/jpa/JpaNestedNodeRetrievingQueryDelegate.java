@@ -21,18 +21,34 @@
 package pl.exsio.nestedj.delegate.query.jpa;
 
 import pl.exsio.nestedj.config.jpa.JpaNestedNodeRepositoryConfiguration;
+import pl.exsio.nestedj.delegate.query.IdBuckets;
 import pl.exsio.nestedj.delegate.query.NestedNodeRetrievingQueryDelegate;
 import pl.exsio.nestedj.model.NestedNode;
 import pl.exsio.nestedj.model.NestedNodeInfo;
 
 import javax.persistence.NoResultException;
+import javax.persistence.criteria.CompoundSelection;
 import javax.persistence.criteria.CriteriaBuilder;
 import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.ParameterExpression;
+import javax.persistence.criteria.Predicate;
 import javax.persistence.criteria.Root;
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Optional;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import static pl.exsio.nestedj.model.NestedNode.*;
 
@@ -48,28 +64,90 @@ public class JpaNestedNodeRetrievingQueryDelegate<ID extends Serializable, N ext
 
     @Override
     public List<N> getTreeAsList(N node) {
+        return entityManager.createQuery(getTreeAsListQuery(node, node.getTreeLeft(), true)).getResultList();
+    }
+
+    /**
+     * The Nodes are fetched lazily in chunks of the configured fetch size. Each chunk continues after the LEFT value
+     * of the previous one (keyset pagination), so no chunk query has to skip over the already fetched rows.
+     * The fetched Entities stay managed by the Entity Manager - when streaming huge subtrees, clear or detach them as you go.
+     */
+    @Override
+    public Stream<N> streamTreeAsList(N node) {
+        Iterator<N> iterator = new Iterator<N>() {
+
+            private Iterator<N> chunk = Collections.emptyIterator();
+
+            private Long last = node.getTreeLeft() - 1;
+
+            @Override
+            public boolean hasNext() {
+                while (!chunk.hasNext() && last != null) {
+                    List<N> nodes = getTreeAsList(node, last, fetchSize);
+                    last = nodes.size() < fetchSize ? null : nodes.get(nodes.size() - 1).getTreeLeft();
+                    chunk = nodes.iterator();
+                }
+                return chunk.hasNext();
+            }
+
+            @Override
+            public N next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return chunk.next();
+            }
+        };
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
+    @Override
+    public List<N> getTreeAsList(N node, Long afterLeft, int limit) {
+        return entityManager.createQuery(getTreeAsListQuery(node, afterLeft, false)).setMaxResults(limit).getResultList();
+    }
+
+    @Override
+    public List<N> getTreeAsList(N node, Long maxLevel) {
         CriteriaBuilder cb = entityManager.getCriteriaBuilder();
         CriteriaQuery<N> select = cb.createQuery(nodeClass);
         Root<N> root = select.from(nodeClass);
         select.where(getPredicates(cb, root,
                 cb.greaterThanOrEqualTo(root.get(LEFT), node.getTreeLeft()),
-                cb.lessThanOrEqualTo(root.get(RIGHT), node.getTreeRight())
+                cb.lessThanOrEqualTo(root.get(RIGHT), node.getTreeRight()),
+                cb.lessThanOrEqualTo(root.get(LEVEL), maxLevel)
         )).orderBy(cb.asc(root.<Long>get(LEFT)));
-
         return entityManager.createQuery(select).getResultList();
     }
 
+    private CriteriaQuery<N> getTreeAsListQuery(N node, Long from, boolean inclusive) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<N> select = cb.createQuery(nodeClass);
+        Root<N> root = select.from(nodeClass);
+        return select.where(getPredicates(cb, root,
+                inclusive ? cb.greaterThanOrEqualTo(root.get(LEFT), from) : cb.greaterThan(root.get(LEFT), from),
+                cb.lessThanOrEqualTo(root.get(RIGHT), node.getTreeRight())
+        )).orderBy(cb.asc(root.<Long>get(LEFT)));
+    }
+
     @Override
     public List<N> getChildren(N node) {
+        return entityManager.createQuery(getChildrenQuery(node, node.getTreeLeft(), true)).getResultList();
+    }
+
+    @Override
+    public List<N> getChildren(N node, Long afterLeft, int limit) {
+        return entityManager.createQuery(getChildrenQuery(node, afterLeft, false)).setMaxResults(limit).getResultList();
+    }
+
+    private CriteriaQuery<N> getChildrenQuery(N node, Long from, boolean inclusive) {
         CriteriaBuilder cb = entityManager.getCriteriaBuilder();
         CriteriaQuery<N> select = cb.createQuery(nodeClass);
         Root<N> root = select.from(nodeClass);
-        select.where(getPredicates(cb, root,
-                cb.greaterThanOrEqualTo(root.get(LEFT), node.getTreeLeft()),
+        return select.where(getPredicates(cb, root,
+                inclusive ? cb.greaterThanOrEqualTo(root.get(LEFT), from) : cb.greaterThan(root.get(LEFT), from),
                 cb.lessThanOrEqualTo(root.get(RIGHT), node.getTreeRight()),
                 cb.equal(root.<Long>get(LEVEL), node.getTreeLevel() + 1)
         )).orderBy(cb.asc(root.<Long>get(LEFT)));
-        return entityManager.createQuery(select).getResultList();
     }
 
     @Override
@@ -111,14 +189,12 @@ public class JpaNestedNodeRetrievingQueryDelegate<ID extends Serializable, N ext
         CriteriaQuery<N> select = cb.createQuery(nodeClass);
         Root<N> root = select.from(nodeClass);
         select.where(getPredicates(cb, root,
-                cb.equal(root.<Long>get(RIGHT), node.getTreeLeft() - 1),
+                cb.lessThan(root.get(RIGHT), node.getTreeLeft()),
                 cb.equal(root.<Long>get(LEVEL), node.getTreeLevel())
-        )).orderBy(cb.asc(root.<Long>get(LEFT)));
-        try {
-            return Optional.of(entityManager.createQuery(select).setMaxResults(1).getSingleResult());
-        } catch (NoResultException ex) {
-            return Optional.empty();
-        }
+        )).orderBy(cb.desc(root.<Long>get(RIGHT)));
+        // the closest Node on the same LEVEL is a Sibling, unless the LEFT value of the common Parent lies in between
+        return findFirst(select)
+                .filter(n -> n.getTreeRight() == node.getTreeLeft() - 1 || !existsBetween(LEFT, n.getTreeRight(), node.getTreeLeft()));
     }
 
     @Override
@@ -127,9 +203,15 @@ public class JpaNestedNodeRetrievingQueryDelegate<ID extends Serializable, N ext
         CriteriaQuery<N> select = cb.createQuery(nodeClass);
         Root<N> root = select.from(nodeClass);
         select.where(getPredicates(cb, root,
-                cb.equal(root.<Long>get(LEFT), node.getTreeRight() + 1),
+                cb.greaterThan(root.get(LEFT), node.getTreeRight()),
                 cb.equal(root.<Long>get(LEVEL), node.getTreeLevel())
         )).orderBy(cb.asc(root.<Long>get(LEFT)));
+        // the closest Node on the same LEVEL is a Sibling, unless the RIGHT value of the common Parent lies in between
+        return findFirst(select)
+                .filter(n -> n.getTreeLeft() == node.getTreeRight() + 1 || !existsBetween(RIGHT, node.getTreeRight(), n.getTreeLeft()));
+    }
+
+    private Optional<N> findFirst(CriteriaQuery<N> select) {
         try {
             return Optional.of(entityManager.createQuery(select).setMaxResults(1).getSingleResult());
         } catch (NoResultException ex) {
@@ -137,22 +219,109 @@ public class JpaNestedNodeRetrievingQueryDelegate<ID extends Serializable, N ext
         }
     }
 
+    private boolean existsBetween(String fieldName, Long from, Long to) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> select = cb.createQuery(Long.class);
+        Root<N> root = select.from(nodeClass);
+        select.select(cb.count(root)).where(getPredicates(cb, root,
+                cb.greaterThan(root.get(fieldName), from),
+                cb.lessThan(root.get(fieldName), to)
+        ));
+        return entityManager.createQuery(select).getSingleResult() > 0;
+    }
+
+    /**
+     * The parents are selected by a range join of the Tree with the target Nodes, with one query per bucket of IDs.
+     */
+    @Override
+    @SuppressWarnings("rawtypes")
+    public List<N> getParents(Collection<N> nodes) {
+        Map<ID, N> parents = new HashMap<>();
+        for (List<ID> bucket : IdBuckets.of(nodes.stream().map(NestedNode::getId).collect(Collectors.toList()))) {
+            CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+            CriteriaQuery<N> select = cb.createQuery(nodeClass);
+            Root<N> parent = select.from(nodeClass);
+            Root<N> node = select.from(nodeClass);
+            ParameterExpression<Collection> ids = cb.parameter(Collection.class);
+            select.select(parent).distinct(true).where(getPredicates(cb, parent, getPredicates(cb, node,
+                    node.get(ID).in(ids),
+                    cb.lessThan(parent.<Long>get(LEFT), node.<Long>get(LEFT)),
+                    cb.greaterThan(parent.<Long>get(RIGHT), node.<Long>get(RIGHT))
+            )));
+            entityManager.createQuery(select).setParameter(ids, bucket).getResultList()
+                    .forEach(p -> parents.putIfAbsent(p.getId(), p));
+        }
+        List<N> result = new ArrayList<>(parents.values());
+        result.sort(Comparator.comparing(NestedNode::getTreeLeft));
+        return result;
+    }
+
+    @Override
+    public List<NestedNodeInfo<ID>> getTreeInfoAsList(N node) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<NestedNodeInfo> select = cb.createQuery(NestedNodeInfo.class);
+        Root<N> root = select.from(nodeClass);
+        select.select(constructInfo(cb, root)).where(getPredicates(cb, root,
+                cb.greaterThanOrEqualTo(root.get(LEFT), node.getTreeLeft()),
+                cb.lessThanOrEqualTo(root.get(RIGHT), node.getTreeRight())
+        )).orderBy(cb.asc(root.<Long>get(LEFT)));
+        return getInfoList(select);
+    }
+
+    @Override
+    public List<NestedNodeInfo<ID>> getChildrenInfo(N node) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<NestedNodeInfo> select = cb.createQuery(NestedNodeInfo.class);
+        Root<N> root = select.from(nodeClass);
+        select.select(constructInfo(cb, root)).where(getPredicates(cb, root,
+                cb.greaterThanOrEqualTo(root.get(LEFT), node.getTreeLeft()),
+                cb.lessThanOrEqualTo(root.get(RIGHT), node.getTreeRight()),
+                cb.equal(root.<Long>get(LEVEL), node.getTreeLevel() + 1)
+        )).orderBy(cb.asc(root.<Long>get(LEFT)));
+        return getInfoList(select);
+    }
+
+    @Override
+    public List<NestedNodeInfo<ID>> getParentsInfo(N node) {
+        if (node.getTreeLevel() > 0) {
+            CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+            CriteriaQuery<NestedNodeInfo> select = cb.createQuery(NestedNodeInfo.class);
+            Root<N> root = select.from(nodeClass);
+            select.select(constructInfo(cb, root)).where(getPredicates(cb, root,
+                    cb.lessThan(root.<Long>get(LEFT), node.getTreeLeft()),
+                    cb.greaterThan(root.<Long>get(RIGHT), node.getTreeRight())
+            )).orderBy(cb.desc(root.<Long>get(LEFT)));
+            return getInfoList(select);
+        } else {
+            return new ArrayList<>();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<NestedNodeInfo<ID>> getInfoList(CriteriaQuery<NestedNodeInfo> select) {
+        List<NestedNodeInfo<ID>> result = new ArrayList<>();
+        entityManager.createQuery(select).getResultList().forEach(info -> result.add((NestedNodeInfo<ID>) info));
+        return result;
+    }
+
+    private CompoundSelection<NestedNodeInfo> constructInfo(CriteriaBuilder cb, Root<N> root) {
+        return cb.construct(
+                NestedNodeInfo.class,
+                root.get(ID),
+                root.get(PARENT_ID),
+                root.get(LEFT),
+                root.get(RIGHT),
+                root.get(LEVEL)
+        );
+    }
+
     @Override
     @SuppressWarnings("unchecked")
     public Optional<NestedNodeInfo<ID>> getNodeInfo(ID nodeId) {
         CriteriaBuilder cb = entityManager.getCriteriaBuilder();
         CriteriaQuery<NestedNodeInfo> select = cb.createQuery(NestedNodeInfo.class);
         Root<N> root = select.from(nodeClass);
-        select.select(
-                cb.construct(
-                        NestedNodeInfo.class,
-                        root.get(ID),
-                        root.get(PARENT_ID),
-                        root.get(LEFT),
-                        root.get(RIGHT),
-                        root.get(LEVEL)
-                )
-        ).where(cb.equal(root.get(ID), nodeId));
+        select.select(constructInfo(cb, root)).where(cb.equal(root.get(ID), nodeId));
         try {
             return Optional.of(entityManager.createQuery(select).getSingleResult());
         } catch (NoResultException ex) {
@@ -25,6 +25,13 @@ import pl.exsio.nestedj.delegate.query.NestedNodeInsertingQueryDelegate;
 import pl.exsio.nestedj.model.NestedNode;
 
 import java.io.Serializable;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static pl.exsio.nestedj.model.NestedNode.LEFT;
+import static pl.exsio.nestedj.model.NestedNode.RIGHT;
 
 
 public class InMemoryNestedNodeInsertingQueryDelegate<ID extends Serializable, N extends NestedNode<ID>>
@@ -46,14 +53,19 @@ public class InMemoryNestedNodeInsertingQueryDelegate<ID extends Serializable, N
     }
 
     private void update(N node) {
-        nodesStream()
-                .filter(n -> getSerializable(NestedNode.ID, n).equals(node.getId()))
-                .forEach(n -> {
-                    n.setTreeLevel(node.getTreeLevel());
-                    n.setTreeLeft(node.getTreeLeft());
-                    n.setTreeRight(node.getTreeRight());
-                    n.setParentId(node.getParentId());
-                });
+        nodes.findById(node.getId())
+                .filter(this::applies)
+                .ifPresent(n -> update(n, u -> {
+                    u.setTreeLevel(node.getTreeLevel());
+                    u.setTreeLeft(node.getTreeLeft());
+                    u.setTreeRight(node.getTreeRight());
+                    u.setParentId(node.getParentId());
+                }));
+    }
+
+    @Override
+    public void insertAll(List<N> nodes) {
+        nodes.forEach(this::doInsert);
     }
 
     private void doInsert(N node) {
@@ -63,17 +75,43 @@ public class InMemoryNestedNodeInsertingQueryDelegate<ID extends Serializable, N
     }
 
     @Override
-    public void incrementSideFieldsGreaterThan(Long from, String fieldName) {
-        nodesStream()
-                .filter(n -> getLong(fieldName, n) > from)
-                .forEach(n -> setLong(fieldName, n, getLong(fieldName, n) + INCREMENT_BY));
+    public Optional<Long> findLowestSideFieldValueGreaterThan(Long value) {
+        return Stream.of(
+                nodes.findFirstByLeft(value, null, false, this::applies).map(n -> getLong(LEFT, n)),
+                nodes.findFirstByRight(value, null, false, this::applies).map(n -> getLong(RIGHT, n))
+        ).filter(Optional::isPresent).map(Optional::get).min(Long::compare);
+    }
+
+    @Override
+    public Optional<Long> findGreatestSideFieldValueLessThan(Long value) {
+        return Stream.of(
+                nodes.findFirstByLeft(null, value, true, this::applies).map(n -> getLong(LEFT, n)),
+                nodes.findFirstByRight(null, value, true, this::applies).map(n -> getLong(RIGHT, n))
+        ).filter(Optional::isPresent).map(Optional::get).max(Long::compare);
+    }
+
+    @Override
+    public List<Long> findEnclosingRightSideFieldValues(Long from, Long to) {
+        return nodes.findByRight(to, false, null, false).stream()
+                .filter(this::applies)
+                .filter(n -> getLong(LEFT, n) <= from)
+                .map(n -> getLong(RIGHT, n))
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public void incrementSideFieldsInRange(Long from, Long to, Long delta) {
+        shiftSideFields(from, true, to, delta);
+    }
+
+    @Override
+    public void incrementSideFieldsGreaterThan(Long from, Long delta) {
+        shiftSideFields(from, false, null, delta);
     }
 
     @Override
-    public void incermentSideFieldsGreaterThanOrEqualTo(Long from, String fieldName) {
-        nodesStream()
-                .filter(n -> getLong(fieldName, n) >= from)
-                .forEach(n -> setLong(fieldName, n, getLong(fieldName, n) + INCREMENT_BY));
+    public void incrementSideFieldsGreaterThanOrEqualTo(Long from, Long delta) {
+        shiftSideFields(from, true, null, delta);
     }
 
 }
@@ -27,7 +27,6 @@ import pl.exsio.nestedj.model.NestedNodeInfo;
 
 import java.io.Serializable;
 
-import static pl.exsio.nestedj.model.NestedNode.ID;
 import static pl.exsio.nestedj.model.NestedNode.LEFT;
 import static pl.exsio.nestedj.model.NestedNode.LEVEL;
 import static pl.exsio.nestedj.model.NestedNode.RIGHT;
@@ -49,31 +48,31 @@ public class InMemoryNestedNodeMovingQueryDelegate<ID extends Serializable, N ex
 
     @Override
     public Integer markNodeIds(NestedNodeInfo<ID> node) {
-        return Math.toIntExact(nodesStream()
-                .filter(n -> getLong(LEFT, n) >= node.getLeft())
+        return Math.toIntExact(nodes.findByLeft(node.getLeft(), true, node.getRight(), true).stream()
+                .filter(this::applies)
                 .filter(n -> getLong(RIGHT, n) <= node.getRight())
-                .peek(n -> setLong(RIGHT, n, negate(getLong(RIGHT, n)) - MARKING_MODIFIER))
+                .peek(n -> update(n, u -> setLong(RIGHT, u, negate(getLong(RIGHT, u)) - MARKING_MODIFIER)))
                 .count());
     }
 
     @Override
-    public void updateSideFieldsUp(Long delta, Long start, Long stop, String field) {
-        updateFields(Mode.UP, delta, start, stop, field);
+    public void updateSideFieldsUp(Long delta, Long start, Long stop) {
+        shiftSideFields(start, false, stop, delta);
     }
 
     @Override
-    public void updateSideFieldsDown(Long delta, Long start, Long stop, String field) {
-        updateFields(Mode.DOWN, delta, start, stop, field);
+    public void updateSideFieldsDown(Long delta, Long start, Long stop) {
+        shiftSideFields(start, false, stop, -delta);
     }
 
     @Override
-    public void performMoveUp(Long nodeDelta, Long levelModificator) {
-        performMove(Mode.UP, nodeDelta, levelModificator);
+    public void performMoveUp(NestedNodeInfo<ID> node, Long nodeDelta, Long levelModificator) {
+        performMove(node, Mode.UP, nodeDelta, levelModificator);
     }
 
     @Override
-    public void performMoveDown(Long nodeDelta, Long levelModificator) {
-        performMove(Mode.DOWN, nodeDelta, levelModificator);
+    public void performMoveDown(NestedNodeInfo<ID> node, Long nodeDelta, Long levelModificator) {
+        performMove(node, Mode.DOWN, nodeDelta, levelModificator);
     }
 
     @Override
@@ -89,39 +88,28 @@ public class InMemoryNestedNodeMovingQueryDelegate<ID extends Serializable, N ex
         doUpdateParentField(null, node);
     }
 
-    private void updateFields(Mode mode, Long delta, Long start, Long stop, String field) {
-        nodesStream()
-                .filter(n -> getLong(field, n) > start)
-                .filter(n -> getLong(field, n) < stop)
-                .forEach(n -> {
-                    if (Mode.DOWN.equals(mode)) {
-                        setLong(field, n, getLong(field, n) - delta);
-                    } else if (Mode.UP.equals(mode)) {
-                        setLong(field, n, getLong(field, n) + delta);
-                    }
-                });
-    }
-
-    private void performMove(Mode mode, Long nodeDelta, Long levelModificator) {
-        nodesStream()
+    // the marked Nodes keep their LEFT values, which bounds the update to the moved subtree
+    private void performMove(NestedNodeInfo<ID> node, Mode mode, Long nodeDelta, Long levelModificator) {
+        nodes.findByLeft(node.getLeft(), true, node.getRight(), true).stream()
+                .filter(this::applies)
                 .filter(n -> getLong(RIGHT, n) < 0)
-                .forEach(n -> {
-                    setLong(LEVEL, n, getLong(LEVEL, n) + levelModificator);
-                    Long right = negate(getLong(RIGHT, n) + MARKING_MODIFIER);
+                .forEach(n -> update(n, u -> {
+                    setLong(LEVEL, u, getLong(LEVEL, u) + levelModificator);
+                    Long right = negate(getLong(RIGHT, u) + MARKING_MODIFIER);
                     if (Mode.DOWN.equals(mode)) {
-                        setLong(RIGHT, n, right - nodeDelta);
-                        setLong(LEFT, n, getLong(LEFT, n) - nodeDelta);
+                        setLong(RIGHT, u, right - nodeDelta);
+                        setLong(LEFT, u, getLong(LEFT, u) - nodeDelta);
                     } else if (Mode.UP.equals(mode)) {
-                        setLong(RIGHT, n, right + nodeDelta);
-                        setLong(LEFT, n, getLong(LEFT, n) + nodeDelta);
+                        setLong(RIGHT, u, right + nodeDelta);
+                        setLong(LEFT, u, getLong(LEFT, u) + nodeDelta);
                     }
-                });
+                }));
     }
 
     private void doUpdateParentField(ID newParentId, NestedNodeInfo<ID> node) {
-        nodesStream()
-                .filter(n -> getSerializable(ID, n).equals(node.getId()))
-                .forEach(n -> n.setParentId(newParentId));
+        nodes.findById(node.getId())
+                .filter(this::applies)
+                .ifPresent(n -> update(n, u -> u.setParentId(newParentId)));
     }
 
     private Long negate(Long value) {
@@ -23,12 +23,15 @@ package pl.exsio.nestedj.delegate.query.mem;
 import pl.exsio.nestedj.config.mem.InMemoryNestedNodeRepositoryConfiguration;
 import pl.exsio.nestedj.config.mem.discriminator.InMemoryTreeDiscriminator;
 import pl.exsio.nestedj.config.mem.identity.InMemoryNestedNodeIdentityGenerator;
+import pl.exsio.nestedj.config.mem.index.IndexedNestedNodeSet;
 import pl.exsio.nestedj.model.NestedNode;
 
 import java.io.Serializable;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.Consumer;
 import java.util.stream.Stream;
 
 import static pl.exsio.nestedj.model.NestedNode.ID;
@@ -44,7 +47,7 @@ public abstract class InMemoryNestedNodeQueryDelegate<ID extends Serializable, N
 
     private final InMemoryNestedNodeIdentityGenerator<ID> identityGenerator;
 
-    protected final Set<N> nodes;
+    protected final IndexedNestedNodeSet<ID, N> nodes;
 
     protected final static Map<String, InMemoryNestedNodeInsertingQueryDelegate.Setter> SETTERS = new HashMap<>();
 
@@ -74,6 +77,39 @@ public abstract class InMemoryNestedNodeQueryDelegate<ID extends Serializable, N
         return treeDiscriminator != null ? nodes.stream().filter(treeDiscriminator::applies) : nodes.stream();
     }
 
+    protected boolean applies(N node) {
+        return treeDiscriminator == null || treeDiscriminator.applies(node);
+    }
+
+    /**
+     * Adds the delta to all LEFT and RIGHT values within the given range. Every affected Node is updated
+     * (and re-indexed) only once, no matter how many of its side fields are shifted.
+     *
+     * @param to - upper bound of the range (exclusive) or null if the range is unbounded
+     */
+    protected void shiftSideFields(Long from, boolean inclusive, Long to, Long delta) {
+        Set<N> affected = new LinkedHashSet<>(nodes.findByRight(from, inclusive, to, false));
+        affected.addAll(nodes.findByLeft(from, inclusive, to, false));
+        affected.stream()
+                .filter(this::applies)
+                .forEach(n -> update(n, u -> {
+                    if (isInRange(getLong(RIGHT, u), from, inclusive, to)) {
+                        setLong(RIGHT, u, getLong(RIGHT, u) + delta);
+                    }
+                    if (isInRange(getLong(LEFT, u), from, inclusive, to)) {
+                        setLong(LEFT, u, getLong(LEFT, u) + delta);
+                    }
+                }));
+    }
+
+    private boolean isInRange(Long value, Long from, boolean inclusive, Long to) {
+        return (value > from || (inclusive && value.equals(from))) && (to == null || value < to);
+    }
+
+    protected void update(N node, Consumer<N> modifier) {
+        nodes.update(node, modifier);
+    }
+
     protected ID generateIdentity() {
         return identityGenerator.generateIdentity();
     }
@@ -22,17 +22,14 @@ package pl.exsio.nestedj.delegate.query.mem;
 
 import pl.exsio.nestedj.config.mem.InMemoryNestedNodeRepositoryConfiguration;
 import pl.exsio.nestedj.delegate.query.NestedNodeRebuildingQueryDelegate;
-import pl.exsio.nestedj.ex.InvalidNodeException;
 import pl.exsio.nestedj.model.NestedNode;
+import pl.exsio.nestedj.model.NestedNodeInfo;
 
 import java.io.Serializable;
 import java.util.Comparator;
 import java.util.List;
 import java.util.stream.Collectors;
 
-import static pl.exsio.nestedj.model.NestedNode.ID;
-import static pl.exsio.nestedj.model.NestedNode.PARENT_ID;
-
 public class InMemoryNestedNodeRebuildingQueryDelegate<ID extends Serializable, N extends NestedNode<ID>>
         extends InMemoryNestedNodeQueryDelegate<ID, N>
         implements NestedNodeRebuildingQueryDelegate<ID, N> {
@@ -45,50 +42,35 @@ public class InMemoryNestedNodeRebuildingQueryDelegate<ID extends Serializable,
     @Override
     public void destroyTree() {
         nodesStream()
-                .forEach(n -> {
-                    n.setTreeLeft(0L);
-                    n.setTreeRight(0L);
-                    n.setTreeLevel(0L);
-                });
+                .collect(Collectors.toList())
+                .forEach(n -> update(n, u -> {
+                    u.setTreeLeft(0L);
+                    u.setTreeRight(0L);
+                    u.setTreeLevel(0L);
+                }));
     }
 
     @Override
-
-    public N findFirst() {
+    public List<NestedNodeInfo<ID>> getHierarchy() {
+        // the Tree could have been broken by modifications performed outside of the Repository
+        nodes.reindex();
         return nodesStream()
-                .filter(n -> n.getParentId() == null)
-                .max(getIdComparator()).orElseThrow(() -> new InvalidNodeException("There are no Root Nodes in the Tree"));
-    }
-
-    @Override
-    public void resetFirst(N first) {
-        nodesStream()
-                .filter(n -> n.getId().equals(first.getId()))
-                .forEach(n -> {
-                    n.setTreeLeft(1L);
-                    n.setTreeRight(2L);
-                    n.setTreeLevel(0L);
-                });
-    }
-
-    @Override
-    public List<N> getSiblings(ID first) {
-        if (first == null) {
-            throw new NullPointerException("first cannot be null");
-        }
-        return nodesStream()
-                .filter(n -> getSerializable(PARENT_ID, n) == null)
-                .filter(n -> !getSerializable(ID, n).equals(first))
                 .sorted(getIdComparator())
+                .map(n -> new NestedNodeInfo<>(n.getId(), n.getParentId(), null, null, null))
                 .collect(Collectors.toList());
     }
 
     @Override
-    public List<N> getChildren(N parent) {
-        return nodesStream()
-                .filter(n -> parent.getId().equals(getSerializable(PARENT_ID, n)))
-                .sorted(getIdComparator())
-                .collect(Collectors.toList());
+    public void updateSideFields(List<NestedNodeInfo<ID>> hierarchy) {
+        for (NestedNodeInfo<ID> info : hierarchy) {
+            nodes.findById(info.getId()).filter(this::applies).ifPresent(n -> {
+                n.setTreeLeft(info.getLeft());
+                n.setTreeRight(info.getRight());
+                n.setTreeLevel(info.getLevel());
+            });
+        }
+        // the indexes are refreshed once, after all Nodes were modified
+        nodes.reindex();
     }
 
     @SuppressWarnings("unchecked")
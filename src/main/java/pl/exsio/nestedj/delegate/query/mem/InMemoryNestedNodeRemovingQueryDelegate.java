@@ -27,11 +27,8 @@ import pl.exsio.nestedj.model.NestedNode;
 import pl.exsio.nestedj.model.NestedNodeInfo;
 
 import java.io.Serializable;
-import java.util.List;
 import java.util.Optional;
-import java.util.stream.Collectors;
 
-import static pl.exsio.nestedj.model.NestedNode.ID;
 import static pl.exsio.nestedj.model.NestedNode.LEFT;
 import static pl.exsio.nestedj.model.NestedNode.LEVEL;
 import static pl.exsio.nestedj.model.NestedNode.PARENT_ID;
@@ -48,66 +45,55 @@ public class InMemoryNestedNodeRemovingQueryDelegate<ID extends Serializable, N
 
     @Override
     public void setNewParentForDeletedNodesChildren(NestedNodeInfo<ID> node) {
-        nodesStream()
-                .filter(n -> getLong(LEFT, n) >= node.getLeft())
+        ID newParentId = findNodeParentId(node).orElse(null);
+        nodes.findByLevel(node.getLevel() + 1, node.getLeft(), true, node.getRight(), true).stream()
+                .filter(this::applies)
                 .filter(n -> getLong(RIGHT, n) <= node.getRight())
-                .filter(n -> getLong(LEVEL, n).equals(node.getLevel() + 1))
-                .forEach(n -> setSerializable(PARENT_ID, n, findNodeParentId(node).orElse(null)));
+                .forEach(n -> update(n, u -> setSerializable(PARENT_ID, u, newParentId)));
     }
 
     @Override
     public void performSingleDeletion(NestedNodeInfo<ID> node) {
-        List<N> nodesToDelete = nodesStream()
-                .filter(n -> getSerializable(ID, n).equals(node.getId()))
-                .collect(Collectors.toList());
-        nodes.removeAll(nodesToDelete);
+        nodes.findById(node.getId())
+                .filter(this::applies)
+                .ifPresent(nodes::remove);
     }
 
     @Override
-    public void decrementSideFieldsBeforeSingleNodeRemoval(Long from, String field) {
-        decrementSideFields(from, DECREMENT_BY, field);
+    public void decrementSideFieldsBeforeSingleNodeRemoval(Long from) {
+        shiftSideFields(from, false, null, -DECREMENT_BY);
     }
 
     @Override
     public void pushUpDeletedNodesChildren(NestedNodeInfo<ID> node) {
-        nodesStream()
-                .filter(n -> getLong(LEFT, n) > node.getLeft())
+        nodes.findByLeft(node.getLeft(), false, node.getRight(), false).stream()
+                .filter(this::applies)
                 .filter(n -> getLong(RIGHT, n) < node.getRight())
-                .forEach(n -> {
-                    setLong(RIGHT, n, getLong(RIGHT, n) - 1);
-                    setLong(LEFT, n, getLong(LEFT, n) - 1);
-                    setLong(LEVEL, n, getLong(LEVEL, n) - 1);
-                });
+                .forEach(n -> update(n, u -> {
+                    setLong(RIGHT, u, getLong(RIGHT, u) - 1);
+                    setLong(LEFT, u, getLong(LEFT, u) - 1);
+                    setLong(LEVEL, u, getLong(LEVEL, u) - 1);
+                }));
     }
 
     @Override
-    public void decrementSideFieldsAfterSubtreeRemoval(Long from, Long delta, String field) {
-        decrementSideFields(from, delta, field);
+    public void decrementSideFieldsAfterSubtreeRemoval(Long from, Long delta) {
+        shiftSideFields(from, false, null, -delta);
     }
 
     @Override
     public void performBatchDeletion(NestedNodeInfo<ID> node) {
-        List<N> nodesToDelete = nodesStream()
-                .filter(n -> getLong(LEFT, n) >= node.getLeft())
+        nodes.findByLeft(node.getLeft(), true, node.getRight(), true).stream()
+                .filter(this::applies)
                 .filter(n -> getLong(RIGHT, n) <= node.getRight())
-                .collect(Collectors.toList());
-        nodes.removeAll(nodesToDelete);
-    }
-
-    private void decrementSideFields(Long from, Long delta, String field) {
-        nodesStream()
-                .filter(n -> getLong(field, n) > from)
-                .forEach(n -> setLong(field, n, getLong(field, n) - delta));
+                .forEach(nodes::remove);
     }
 
     private Optional<ID> findNodeParentId(NestedNodeInfo<ID> node) {
         if (node.getLevel() > 0) {
-            return Optional.of(nodesStream()
-                    .filter(n -> getLong(LEFT, n) < node.getLeft())
-                    .filter(n -> getLong(RIGHT, n) > node.getRight())
-                    .filter(n -> getLong(LEVEL, n).equals(node.getLevel() - 1))
+            return Optional.of(nodes.findFirstByLevel(node.getLevel() - 1, null, node.getLeft(), true,
+                    n -> applies(n) && getLong(RIGHT, n) > node.getRight())
                     .map(NestedNode::getId)
-                    .findFirst()
                     .orElseThrow(() -> new InvalidNodeException(String.format("Couldn't find node's parent, although its level is greater than 0. It seems the tree is malformed: %s", node))));
         }
         return Optional.empty();
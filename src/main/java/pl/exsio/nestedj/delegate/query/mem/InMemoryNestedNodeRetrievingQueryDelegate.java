@@ -26,10 +26,15 @@ import pl.exsio.nestedj.model.NestedNode;
 import pl.exsio.nestedj.model.NestedNodeInfo;
 
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Comparator;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static pl.exsio.nestedj.model.NestedNode.*;
 
@@ -44,31 +49,59 @@ public class InMemoryNestedNodeRetrievingQueryDelegate<ID extends Serializable,
 
     @Override
     public List<N> getTreeAsList(N node) {
-        return nodesStream()
-                .filter(n -> getLong(LEFT, n) >= node.getTreeLeft())
+        return nodes.findByLeft(node.getTreeLeft(), true, node.getTreeRight(), true).stream()
+                .filter(this::applies)
                 .filter(n -> getLong(RIGHT, n) <= node.getTreeRight())
-                .sorted(Comparator.comparing(NestedNode::getTreeLeft))
                 .collect(Collectors.toList());
     }
 
+    @Override
+    public Stream<N> streamTreeAsList(N node) {
+        return nodes.streamByLeft(node.getTreeLeft(), node.getTreeRight(), n -> applies(n) && getLong(RIGHT, n) <= node.getTreeRight());
+    }
+
+    @Override
+    public List<N> getTreeAsList(N node, Long afterLeft, int limit) {
+        return nodes.findByLeft(afterLeft, node.getTreeRight(), n -> applies(n) && getLong(RIGHT, n) <= node.getTreeRight(), limit);
+    }
+
+    /**
+     * The LEVEL index is walked one level at a time, so the Nodes deeper than the max LEVEL are never visited.
+     */
+    @Override
+    public List<N> getTreeAsList(N node, Long maxLevel) {
+        List<N> result = new ArrayList<>();
+        for (long level = node.getTreeLevel(); level <= maxLevel; level++) {
+            List<N> onLevel = nodes.findByLevel(level, node.getTreeLeft(), true, node.getTreeRight(), true);
+            if (onLevel.isEmpty()) {
+                break;
+            }
+            onLevel.stream()
+                    .filter(this::applies)
+                    .filter(n -> getLong(RIGHT, n) <= node.getTreeRight())
+                    .forEach(result::add);
+        }
+        result.sort(Comparator.comparing(n -> getLong(LEFT, n)));
+        return result;
+    }
+
     @Override
     public List<N> getChildren(N node) {
-        return nodesStream()
-                .filter(n -> getLong(LEFT, n) >= node.getTreeLeft())
+        return nodes.findByLevel(node.getTreeLevel() + 1, node.getTreeLeft(), true, node.getTreeRight(), true).stream()
+                .filter(this::applies)
                 .filter(n -> getLong(RIGHT, n) <= node.getTreeRight())
-                .filter(n -> getLong(LEVEL, n).equals(node.getTreeLevel() + 1))
-                .sorted(Comparator.comparing(NestedNode::getTreeLeft))
                 .collect(Collectors.toList());
     }
 
+    @Override
+    public List<N> getChildren(N node, Long afterLeft, int limit) {
+        return nodes.findByLevel(node.getTreeLevel() + 1, afterLeft, node.getTreeRight(), n -> applies(n) && getLong(RIGHT, n) <= node.getTreeRight(), limit);
+    }
+
     @Override
     public Optional<N> getParent(N node) {
         if (node.getTreeLevel() > 0) {
-            return nodesStream()
-                    .filter(n -> getLong(LEFT, n) < node.getTreeLeft())
-                    .filter(n -> getLong(RIGHT, n) > node.getTreeRight())
-                    .filter(n -> getLong(LEVEL, n).equals(node.getTreeLevel() - 1))
-                    .min(Comparator.comparing(NestedNode::getTreeLeft));
+            return findAncestor(node, node.getTreeLevel() - 1);
         } else {
             return Optional.empty();
         }
@@ -76,55 +109,93 @@ public class InMemoryNestedNodeRetrievingQueryDelegate<ID extends Serializable,
 
     @Override
     public List<N> getParents(N node) {
-        return nodesStream()
-                .filter(n -> getLong(LEFT, n) < node.getTreeLeft())
-                .filter(n -> getLong(RIGHT, n) > node.getTreeRight())
-                .sorted(Comparator.<N, Long>comparing(NestedNode::getTreeLeft).reversed())
-                .collect(Collectors.toList());
+        List<N> parents = new ArrayList<>();
+        for (long level = node.getTreeLevel() - 1; level >= 0; level--) {
+            findAncestor(node, level).ifPresent(parents::add);
+        }
+        return parents;
+    }
+
+    /**
+     * Every Node climbs up the LEVEL index only until it reaches a parent that was already found for another Node.
+     */
+    @Override
+    public List<N> getParents(Collection<N> nodes) {
+        Set<N> parents = new HashSet<>();
+        for (N node : nodes) {
+            for (long level = node.getTreeLevel() - 1; level >= 0; level--) {
+                Optional<N> parent = findAncestor(node, level);
+                if (parent.isPresent() && !parents.add(parent.get())) {
+                    break;
+                }
+            }
+        }
+        List<N> result = new ArrayList<>(parents);
+        result.sort(Comparator.comparing(n -> getLong(LEFT, n)));
+        return result;
+    }
+
+    @Override
+    public List<NestedNodeInfo<ID>> getTreeInfoAsList(N node) {
+        return toInfo(getTreeAsList(node));
+    }
+
+    @Override
+    public List<NestedNodeInfo<ID>> getChildrenInfo(N node) {
+        return toInfo(getChildren(node));
+    }
+
+    @Override
+    public List<NestedNodeInfo<ID>> getParentsInfo(N node) {
+        return toInfo(getParents(node));
     }
 
     @Override
     public Optional<N> getPrevSibling(N node) {
-        return nodesStream()
-                .filter(n -> getLong(RIGHT, n).equals(node.getTreeLeft() - 1))
-                .filter(n -> getLong(LEVEL, n).equals(node.getTreeLevel()))
-                .min(Comparator.comparing(NestedNode::getTreeLeft));
+        // the closest Node on the same LEVEL is a Sibling, unless the LEFT value of the common Parent lies in between
+        return nodes.findFirstByLevel(node.getTreeLevel(), null, node.getTreeLeft(), true, this::applies)
+                .filter(n -> !nodes.findFirstByLeft(getLong(RIGHT, n), node.getTreeLeft(), false, this::applies).isPresent());
     }
 
     @Override
     public Optional<N> getNextSibling(N node) {
-        return nodesStream()
-                .filter(n -> getLong(LEFT, n).equals(node.getTreeRight() + 1))
-                .filter(n -> getLong(LEVEL, n).equals(node.getTreeLevel()))
-                .min(Comparator.comparing(NestedNode::getTreeLeft));
+        // the closest Node on the same LEVEL is a Sibling, unless the RIGHT value of the common Parent lies in between
+        return nodes.findFirstByLevel(node.getTreeLevel(), node.getTreeRight(), null, false, this::applies)
+                .filter(n -> !nodes.findFirstByRight(node.getTreeRight(), getLong(LEFT, n), false, this::applies).isPresent());
     }
 
     @Override
-    @SuppressWarnings("unchecked")
     public Optional<NestedNodeInfo<ID>> getNodeInfo(ID nodeId) {
-        Optional<N> node = nodesStream()
-                .filter(n -> getSerializable(ID, n).equals(nodeId))
-                .findFirst();
-        return node.map(n -> new NestedNodeInfo<>(
-                        (ID) getSerializable(ID, n),
-                        (ID) getSerializable(PARENT_ID, n),
-                        getLong(LEFT, n),
-                        getLong(RIGHT, n),
-                        getLong(LEVEL, n)
-                ));
+        return nodes.findById(nodeId).filter(this::applies).map(this::toInfo);
+    }
+
+    private List<NestedNodeInfo<ID>> toInfo(List<N> nodes) {
+        return nodes.stream().map(this::toInfo).collect(Collectors.toList());
+    }
+
+    @SuppressWarnings("unchecked")
+    private NestedNodeInfo<ID> toInfo(N node) {
+        return new NestedNodeInfo<>(
+                (ID) getSerializable(ID, node),
+                (ID) getSerializable(PARENT_ID, node),
+                getLong(LEFT, node),
+                getLong(RIGHT, node),
+                getLong(LEVEL, node)
+        );
     }
 
     @Override
     public Optional<N> findFirstRoot() {
-        return nodesStream()
-                .filter(n -> getLong(LEVEL, n).equals(0L))
-                .min(Comparator.comparing(NestedNode::getTreeLeft));
+        return nodes.findFirstByLevel(0L, null, null, false, this::applies);
     }
 
     @Override
     public Optional<N> findLastRoot() {
-        return nodesStream()
-                .filter(n -> getLong(LEVEL, n).equals(0L))
-                .max(Comparator.comparing(NestedNode::getTreeLeft));
+        return nodes.findFirstByLevel(0L, null, null, true, this::applies);
+    }
+
+    private Optional<N> findAncestor(N node, Long level) {
+        return nodes.findFirstByLevel(level, null, node.getTreeLeft(), true,
+                n -> applies(n) && getLong(RIGHT, n) > node.getTreeRight());
     }
 }
@@ -23,7 +23,7 @@ package pl.exsio.nestedj.model;
 import java.io.Serializable;
 
 /**
- * Internal representation of Nested Node, not intended for use outside of NestedJ implementation.
+ * Lightweight projection of Nested Node, holding only its ID, PARENT_ID, LEFT, RIGHT and LEVEL values.
  *
  * @param <ID> - Nested Node Identifier Class
  */
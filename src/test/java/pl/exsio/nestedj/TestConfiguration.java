@@ -11,6 +11,11 @@ import org.springframework.orm.jpa.JpaTransactionManager;
 import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
 import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
 import org.springframework.transaction.PlatformTransactionManager;
+import pl.exsio.nestedj.config.columnar.ColumnarNestedNodeRepositoryConfiguration;
+import pl.exsio.nestedj.config.columnar.OffHeapNestedNodeRepositoryConfiguration;
+import pl.exsio.nestedj.config.columnar.factory.ColumnarNestedNodeRepositoryFactory;
+import pl.exsio.nestedj.config.columnar.store.NestedNodeIdCodec;
+import pl.exsio.nestedj.config.columnar.store.TestNestedNodeFactory;
 import pl.exsio.nestedj.config.jdbc.JdbcNestedNodeRepositoryConfiguration;
 import pl.exsio.nestedj.config.jdbc.discriminator.TestJdbcTreeDiscriminator;
 import pl.exsio.nestedj.config.jdbc.factory.JdbcNestedNodeRepositoryFactory;
@@ -23,6 +28,8 @@ import pl.exsio.nestedj.config.mem.factory.InMemoryNestedNodeRepositoryFactory;
 import pl.exsio.nestedj.config.mem.lock.InMemoryLock;
 import pl.exsio.nestedj.delegate.query.jdbc.JdbcKeyHolder;
 import pl.exsio.nestedj.model.TestNode;
+import pl.exsio.nestedj.qualifier.Columnar;
+import pl.exsio.nestedj.qualifier.OffHeap;
 import pl.exsio.nestedj.qualifier.Jdbc;
 import pl.exsio.nestedj.qualifier.Jpa;
 import pl.exsio.nestedj.qualifier.Mem;
@@ -38,6 +45,7 @@ import java.util.UUID;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.BiFunction;
 import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Configuration
 public class TestConfiguration {
@@ -70,6 +78,10 @@ public class TestConfiguration {
 
     public static final InMemoryNestedNodeRepositoryConfiguration<Long, TestNode> IN_MEM_CONFIG = inMemoryConfiguration();
 
+    public static final ColumnarNestedNodeRepositoryConfiguration<Long, TestNode> COLUMNAR_CONFIG = columnarConfiguration();
+
+    public static final OffHeapNestedNodeRepositoryConfiguration<Long, TestNode> OFF_HEAP_CONFIG = offHeapConfiguration();
+
     @Bean
     public DataSource dataSource() {
         EmbeddedDatabaseBuilder builder = new EmbeddedDatabaseBuilder().setType(EmbeddedDatabaseType.H2).setName(UUID.randomUUID().toString());
@@ -116,15 +128,24 @@ public class TestConfiguration {
     @Bean
     @Jpa
     public NestedNodeRepository<Long, TestNode> jpaRepository() {
-        JpaNestedNodeRepositoryConfiguration<Long, TestNode> configuration = new JpaNestedNodeRepositoryConfiguration<>(
-                entityManager, TestNode.class, Long.class, new TestJpaTreeDiscriminator()
-        );
-        return JpaNestedNodeRepositoryFactory.create(configuration);
+        return JpaNestedNodeRepositoryFactory.create(jpaConfiguration(entityManager));
     }
 
     @Bean
     @Jdbc
     public NestedNodeRepository<Long, TestNode> jdbcRepository(DataSource dataSource) {
+        return JdbcNestedNodeRepositoryFactory.create(jdbcConfiguration(dataSource));
+    }
+
+    public static JpaNestedNodeRepositoryConfiguration<Long, TestNode> jpaConfiguration(EntityManager entityManager) {
+        JpaNestedNodeRepositoryConfiguration<Long, TestNode> configuration = new JpaNestedNodeRepositoryConfiguration<>(
+                entityManager, TestNode.class, Long.class, new TestJpaTreeDiscriminator()
+        );
+        configuration.setFetchSize(3);
+        return configuration;
+    }
+
+    public static JdbcNestedNodeRepositoryConfiguration<Long, TestNode> jdbcConfiguration(DataSource dataSource) {
         //ROW MAPPER FOR CREATING INSTANCES OF THE NODE OBJECT
         RowMapper<TestNode> mapper = (resultSet, i) -> TestNode.fromResultSet(resultSet);
 
@@ -149,8 +170,9 @@ public class TestConfiguration {
         configuration.setLeftColumnName("tree_left");
         configuration.setRightColumnName("tree_right");
         configuration.setLevelColumnName("tree_level");
+        configuration.setFetchSize(3);
 
-        return JdbcNestedNodeRepositoryFactory.create(configuration);
+        return configuration;
     }
 
     @Bean
@@ -159,10 +181,34 @@ public class TestConfiguration {
         return InMemoryNestedNodeRepositoryFactory.create(IN_MEM_CONFIG, new InMemoryLock<>(TestNode::getDiscriminator));
     }
 
+    @Bean
+    @Columnar
+    public NestedNodeRepository<Long, TestNode> columnarRepository() {
+        return ColumnarNestedNodeRepositoryFactory.create(COLUMNAR_CONFIG, new InMemoryLock<>(TestNode::getDiscriminator));
+    }
+
+    @Bean
+    @OffHeap
+    public NestedNodeRepository<Long, TestNode> offHeapRepository() {
+        return ColumnarNestedNodeRepositoryFactory.create(OFF_HEAP_CONFIG, new InMemoryLock<>(TestNode::getDiscriminator));
+    }
+
     private static InMemoryNestedNodeRepositoryConfiguration<Long, TestNode> inMemoryConfiguration() {
         return new InMemoryNestedNodeRepositoryConfiguration<>(
                 ID::incrementAndGet, IN_MEM_NODES, new TestInMemoryTreeDiscriminator()
         );
     }
 
+    private static ColumnarNestedNodeRepositoryConfiguration<Long, TestNode> columnarConfiguration() {
+        return new ColumnarNestedNodeRepositoryConfiguration<>(
+                ID::incrementAndGet, IN_MEM_NODES.stream().map(TestNode::copy).collect(Collectors.toList()), new TestInMemoryTreeDiscriminator()
+        );
+    }
+
+    private static OffHeapNestedNodeRepositoryConfiguration<Long, TestNode> offHeapConfiguration() {
+        return new OffHeapNestedNodeRepositoryConfiguration<>(
+                ID::incrementAndGet, NestedNodeIdCodec.longIds(), new TestNestedNodeFactory(), IN_MEM_NODES.stream().map(TestNode::copy).collect(Collectors.toList()), new TestInMemoryTreeDiscriminator()
+        );
+    }
+
 }
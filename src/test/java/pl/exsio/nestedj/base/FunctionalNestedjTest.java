@@ -26,7 +26,7 @@ package pl.exsio.nestedj.base;
 
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.ContextConfiguration;
-import pl.exsio.nestedj.DelegatingNestedNodeRepository;
+import pl.exsio.nestedj.NestedNodeRepository;
 import pl.exsio.nestedj.TestConfiguration;
 import pl.exsio.nestedj.model.TestNode;
 
@@ -56,7 +56,7 @@ public abstract class FunctionalNestedjTest {
      *                             12 H 13
      */
 
-    protected DelegatingNestedNodeRepository<Long, TestNode> repository;
+    protected NestedNodeRepository<Long, TestNode> repository;
 
     protected abstract TestNode findNode(String symbol);
 
@@ -25,8 +25,15 @@ package pl.exsio.nestedj.base;
 
 import org.junit.jupiter.api.Test;
 import org.springframework.transaction.annotation.Transactional;
+import pl.exsio.nestedj.ex.InvalidNodeException;
 import pl.exsio.nestedj.ex.InvalidNodesHierarchyException;
+import pl.exsio.nestedj.ex.InvalidParentException;
+import pl.exsio.nestedj.model.InMemoryTree;
 import pl.exsio.nestedj.model.TestNode;
+import pl.exsio.nestedj.model.Tree;
+
+import java.util.Arrays;
+import java.util.Collections;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNull;
@@ -193,6 +200,233 @@ public abstract class NestedNodeRepositoryInsertingTest extends FunctionalNested
         assertSecondTreeIntact();
     }
 
+    @Test
+    public void testInsertAllAsFirstChildrenOf() {
+
+        TestNode i = this.createTestNode("i");
+        TestNode j = this.createTestNode("j");
+        TestNode b = this.findNode("b");
+        this.repository.insertAllAsFirstChildrenOf(Arrays.asList(i, j), b);
+        flushAndClear();
+        i = this.findNode("i");
+        j = this.findNode("j");
+        b = this.findNode("b");
+        TestNode a = this.findNode("a");
+        TestNode d = this.findNode("d");
+        TestNode e = this.findNode("e");
+        TestNode h = this.findNode("h");
+
+        assertEquals(3, (long) i.getTreeLeft());
+        assertEquals(4, (long) i.getTreeRight());
+        assertEquals(5, (long) j.getTreeLeft());
+        assertEquals(6, (long) j.getTreeRight());
+        assertEquals(7, (long) d.getTreeLeft());
+        assertEquals(10, (long) e.getTreeRight());
+        assertEquals(2, (long) b.getTreeLeft());
+        assertEquals(11, (long) b.getTreeRight());
+        assertEquals(20, (long) a.getTreeRight());
+        assertEquals(16, (long) h.getTreeLeft());
+        assertEquals(17, (long) h.getTreeRight());
+        assertEquals((long) i.getTreeLevel(), b.getTreeLevel() + 1);
+        assertEquals((long) j.getTreeLevel(), b.getTreeLevel() + 1);
+        assertEquals(b.getId(), i.getParentId());
+        assertEquals(b.getId(), j.getParentId());
+        assertSecondTreeIntact();
+    }
+
+    @Test
+    public void testInsertAllAsLastChildrenOf() {
+
+        TestNode i = this.createTestNode("i");
+        TestNode j = this.createTestNode("j");
+        TestNode b = this.findNode("b");
+        this.repository.insertAllAsLastChildrenOf(Arrays.asList(i, j), b);
+        flushAndClear();
+        i = this.findNode("i");
+        j = this.findNode("j");
+        b = this.findNode("b");
+        TestNode a = this.findNode("a");
+        TestNode c = this.findNode("c");
+        TestNode e = this.findNode("e");
+
+        assertEquals(5, (long) e.getTreeLeft());
+        assertEquals(6, (long) e.getTreeRight());
+        assertEquals(7, (long) i.getTreeLeft());
+        assertEquals(8, (long) i.getTreeRight());
+        assertEquals(9, (long) j.getTreeLeft());
+        assertEquals(10, (long) j.getTreeRight());
+        assertEquals(11, (long) b.getTreeRight());
+        assertEquals(12, (long) c.getTreeLeft());
+        assertEquals(20, (long) a.getTreeRight());
+        assertEquals(b.getId(), i.getParentId());
+        assertEquals(b.getId(), j.getParentId());
+        assertSecondTreeIntact();
+    }
+
+    @Test
+    public void testInsertAllAsPrevSiblingsOf() {
+
+        TestNode k = this.createTestNode("k");
+        TestNode l = this.createTestNode("l");
+        TestNode e = this.findNode("e");
+        this.repository.insertAllAsPrevSiblingsOf(Arrays.asList(k, l), e);
+        flushAndClear();
+        k = this.findNode("k");
+        l = this.findNode("l");
+        e = this.findNode("e");
+        TestNode a = this.findNode("a");
+        TestNode c = this.findNode("c");
+
+        assertEquals(5, (long) k.getTreeLeft());
+        assertEquals(6, (long) k.getTreeRight());
+        assertEquals(7, (long) l.getTreeLeft());
+        assertEquals(8, (long) l.getTreeRight());
+        assertEquals(9, (long) e.getTreeLeft());
+        assertEquals(10, (long) e.getTreeRight());
+        assertEquals(12, (long) c.getTreeLeft());
+        assertEquals(20, (long) a.getTreeRight());
+        assertEquals(k.getTreeLevel(), e.getTreeLevel());
+        assertEquals(l.getTreeLevel(), e.getTreeLevel());
+        assertEquals(k.getParentId(), e.getParentId());
+        assertEquals(l.getParentId(), e.getParentId());
+        assertSecondTreeIntact();
+    }
+
+    @Test
+    public void testInsertAllAsNextSiblingsOf() {
+
+        TestNode m = this.createTestNode("m");
+        TestNode n = this.createTestNode("n");
+        TestNode h = this.findNode("h");
+        this.repository.insertAllAsNextSiblingsOf(Arrays.asList(m, n), h);
+        flushAndClear();
+        m = this.findNode("m");
+        n = this.findNode("n");
+        h = this.findNode("h");
+        TestNode a = this.findNode("a");
+        TestNode g = this.findNode("g");
+        TestNode c = this.findNode("c");
+
+        assertEquals(14, (long) m.getTreeLeft());
+        assertEquals(15, (long) m.getTreeRight());
+        assertEquals(16, (long) n.getTreeLeft());
+        assertEquals(17, (long) n.getTreeRight());
+        assertEquals(18, (long) g.getTreeRight());
+        assertEquals(19, (long) c.getTreeRight());
+        assertEquals(20, (long) a.getTreeRight());
+        assertEquals(m.getTreeLevel(), h.getTreeLevel());
+        assertEquals(n.getTreeLevel(), h.getTreeLevel());
+        assertEquals(m.getParentId(), h.getParentId());
+        assertEquals(n.getParentId(), h.getParentId());
+        assertSecondTreeIntact();
+    }
+
+    @Test
+    public void testInsertAllEmptyList() {
+        TestNode b = this.findNode("b");
+        this.repository.insertAllAsLastChildrenOf(Collections.emptyList(), b);
+        flushAndClear();
+        TestNode a = this.findNode("a");
+        assertEquals(16, (long) a.getTreeRight());
+        assertSecondTreeIntact();
+    }
+
+    @Test
+    public void testInsertAllExistingNode() {
+        TestNode i = this.createTestNode("i");
+        TestNode d = this.findNode("d");
+        TestNode b = this.findNode("b");
+        assertThrows(InvalidNodeException.class, () -> this.repository.insertAllAsLastChildrenOf(Arrays.asList(i, d), b));
+        assertSecondTreeIntact();
+    }
+
+    @Test
+    public void testInsertAllToNewParent() {
+        TestNode i = this.createTestNode("i");
+        TestNode j = this.createTestNode("j");
+        assertThrows(InvalidParentException.class, () -> this.repository.insertAllAsLastChildrenOf(Collections.singletonList(i), j));
+        assertSecondTreeIntact();
+    }
+
+    @Test
+    public void testInsertTreeAsLastChildOf() {
+
+        TestNode b = this.findNode("b");
+        this.repository.insertTreeAsLastChildOf(createImportedTree(), b);
+        flushAndClear();
+        TestNode x = this.findNode("x");
+        TestNode y = this.findNode("y");
+        TestNode z = this.findNode("z");
+        TestNode w = this.findNode("w");
+        TestNode a = this.findNode("a");
+        TestNode c = this.findNode("c");
+        b = this.findNode("b");
+
+        assertEquals(7, (long) x.getTreeLeft());
+        assertEquals(14, (long) x.getTreeRight());
+        assertEquals(8, (long) y.getTreeLeft());
+        assertEquals(11, (long) y.getTreeRight());
+        assertEquals(9, (long) z.getTreeLeft());
+        assertEquals(10, (long) z.getTreeRight());
+        assertEquals(12, (long) w.getTreeLeft());
+        assertEquals(13, (long) w.getTreeRight());
+        assertEquals(2, (long) x.getTreeLevel());
+        assertEquals(3, (long) y.getTreeLevel());
+        assertEquals(4, (long) z.getTreeLevel());
+        assertEquals(3, (long) w.getTreeLevel());
+        assertEquals(b.getId(), x.getParentId());
+        assertEquals(x.getId(), y.getParentId());
+        assertEquals(y.getId(), z.getParentId());
+        assertEquals(x.getId(), w.getParentId());
+        assertEquals(15, (long) b.getTreeRight());
+        assertEquals(16, (long) c.getTreeLeft());
+        assertEquals(24, (long) a.getTreeRight());
+        assertSecondTreeIntact();
+    }
+
+    @Test
+    public void testInsertTreeAsPrevSiblingOfRoot() {
+
+        TestNode a = this.findNode("a");
+        this.repository.insertTreeAsPrevSiblingOf(createImportedTree(), a);
+        flushAndClear();
+        TestNode x = this.findNode("x");
+        TestNode z = this.findNode("z");
+        TestNode w = this.findNode("w");
+        TestNode h = this.findNode("h");
+        a = this.findNode("a");
+
+        assertEquals(1, (long) x.getTreeLeft());
+        assertEquals(8, (long) x.getTreeRight());
+        assertEquals(0, (long) x.getTreeLevel());
+        assertNull(x.getParentId());
+        assertEquals(3, (long) z.getTreeLeft());
+        assertEquals(2, (long) z.getTreeLevel());
+        assertEquals(6, (long) w.getTreeLeft());
+        assertEquals(7, (long) w.getTreeRight());
+        assertEquals(9, (long) a.getTreeLeft());
+        assertEquals(24, (long) a.getTreeRight());
+        assertEquals(20, (long) h.getTreeLeft());
+        assertSecondTreeIntact();
+    }
+
+    @Test
+    public void testInsertTreeWithExistingNode() {
+        TestNode b = this.findNode("b");
+        Tree<Long, TestNode> tree = createImportedTree();
+        tree.getChildren().get(1).addChild(new InMemoryTree<>(this.findNode("d")));
+        assertThrows(InvalidNodeException.class, () -> this.repository.insertTreeAsLastChildOf(tree, b));
+        assertSecondTreeIntact();
+    }
+
+    private Tree<Long, TestNode> createImportedTree() {
+        Tree<Long, TestNode> x = new InMemoryTree<>(this.createTestNode("x"));
+        Tree<Long, TestNode> y = new InMemoryTree<>(this.createTestNode("y"));
+        y.addChild(new InMemoryTree<>(this.createTestNode("z")));
+        x.addChild(y);
+        x.addChild(new InMemoryTree<>(this.createTestNode("w")));
+        return x;
+    }
 
     @Test
     public void testInsertAsFirstNodeFirstRoot() {
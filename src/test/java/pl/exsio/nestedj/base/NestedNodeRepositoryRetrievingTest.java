@@ -25,16 +25,26 @@ package pl.exsio.nestedj.base;
 
 import org.junit.jupiter.api.Test;
 import org.springframework.transaction.annotation.Transactional;
+import pl.exsio.nestedj.ex.InvalidNodeException;
 import pl.exsio.nestedj.ex.InvalidNodesHierarchyException;
+import pl.exsio.nestedj.model.NestedNodeInfo;
 import pl.exsio.nestedj.model.TestNode;
 import pl.exsio.nestedj.model.Tree;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Fail.fail;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 
@@ -142,6 +152,31 @@ public abstract class NestedNodeRepositoryRetrievingTest extends FunctionalNeste
         assertSecondTreeIntact();
     }
 
+    @Test
+    public void testGetTreeWithMaxDepth() {
+        Tree<Long, TestNode> tree = this.repository.getTree(this.findNode("a"), 2);
+        assertEquals("a", tree.getNode().getName());
+        assertEquals(2, tree.getChildren().size());
+        assertEquals(2, tree.getChildren().get(0).getChildren().size());
+        assertEquals(2, tree.getChildren().get(1).getChildren().size());
+        assertTrue(tree.getChildren().get(1).getChildren().get(1).getChildren().isEmpty());
+        assertTrue(this.repository.getTree(this.findNode("a"), 0).getChildren().isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> this.repository.getTree(this.findNode("a"), -1));
+        assertSecondTreeIntact();
+    }
+
+    @Test
+    public void testGetTreeAsListWithMaxDepth() {
+        TestNode a = this.findNode("a");
+        assertEquals(Collections.singletonList("a"), names(this.repository.getTreeAsList(a, 0)));
+        assertEquals(Arrays.asList("a", "b", "c"), names(this.repository.getTreeAsList(a, 1)));
+        assertEquals(Arrays.asList("a", "b", "d", "e", "c", "f", "g"), names(this.repository.getTreeAsList(a, 2)));
+        assertEquals(Arrays.asList("a", "b", "d", "e", "c", "f", "g", "h"), names(this.repository.getTreeAsList(a, 10)));
+        assertEquals(Arrays.asList("c", "f", "g"), names(this.repository.getTreeAsList(this.findNode("c"), 1)));
+        assertThrows(IllegalArgumentException.class, () -> this.repository.getTreeAsList(a, -1));
+        assertSecondTreeIntact();
+    }
+
     @Test
     public void testGetTreeAsList() {
         List<TestNode> list = (List<TestNode>) this.repository.getTreeAsList(this.findNode("a"));
@@ -149,6 +184,165 @@ public abstract class NestedNodeRepositoryRetrievingTest extends FunctionalNeste
         assertSecondTreeIntact();
     }
 
+    @Test
+    public void testStreamTreeAsList() {
+        try (Stream<TestNode> stream = this.repository.streamTreeAsList(this.findNode("c"))) {
+            assertEquals(Arrays.asList("c", "f", "g", "h"), stream.map(TestNode::getName).collect(Collectors.toList()));
+        }
+        try (Stream<TestNode> stream = this.repository.streamTreeAsList(this.findNode("a"))) {
+            assertEquals(Arrays.asList("a", "b", "d", "e", "c", "f", "g", "h"), stream.map(TestNode::getName).collect(Collectors.toList()));
+        }
+        assertSecondTreeIntact();
+    }
+
+    @Test
+    public void testStreamTreeAsListOfLeaf() {
+        try (Stream<TestNode> stream = this.repository.streamTreeAsList(this.findNode("h"))) {
+            assertEquals(Collections.singletonList("h"), stream.map(TestNode::getName).collect(Collectors.toList()));
+        }
+        assertSecondTreeIntact();
+    }
+
+    @Test
+    public void testGetTreeAsListPage() {
+        TestNode a = this.findNode("a");
+        assertEquals(Arrays.asList("a", "b", "d"), names(this.repository.getTreeAsList(a, null, 3)));
+        assertEquals(Arrays.asList("e", "c", "f"), names(this.repository.getTreeAsList(a, this.findNode("d").getTreeLeft(), 3)));
+        assertEquals(Arrays.asList("g", "h"), names(this.repository.getTreeAsList(a, this.findNode("f").getTreeLeft(), 3)));
+        assertTrue(this.repository.getTreeAsList(a, this.findNode("h").getTreeLeft(), 3).isEmpty());
+        assertEquals(Arrays.asList("c", "f"), names(this.repository.getTreeAsList(this.findNode("c"), null, 2)));
+        assertThrows(IllegalArgumentException.class, () -> this.repository.getTreeAsList(a, null, 0));
+        assertSecondTreeIntact();
+    }
+
+    @Test
+    public void testGetChildrenPage() {
+        TestNode a = this.findNode("a");
+        assertEquals(Collections.singletonList("b"), names(this.repository.getChildren(a, null, 1)));
+        assertEquals(Collections.singletonList("c"), names(this.repository.getChildren(a, this.findNode("b").getTreeLeft(), 1)));
+        assertTrue(this.repository.getChildren(a, this.findNode("c").getTreeLeft(), 1).isEmpty());
+        TestNode c = this.findNode("c");
+        assertEquals(Arrays.asList("f", "g"), names(this.repository.getChildren(c, null, 5)));
+        assertEquals(Collections.singletonList("g"), names(this.repository.getChildren(c, this.findNode("f").getTreeLeft(), 5)));
+        assertThrows(IllegalArgumentException.class, () -> this.repository.getChildren(a, null, 0));
+        assertSecondTreeIntact();
+    }
+
+    @Test
+    public void testGetTreeInfoAsList() {
+        TestNode c = this.findNode("c");
+        List<NestedNodeInfo<Long>> result = this.repository.getTreeInfoAsList(c);
+        assertEquals(ids("c", "f", "g", "h"), infoIds(result));
+        NestedNodeInfo<Long> g = result.get(2);
+        assertEquals(c.getId(), g.getParentId());
+        assertEquals(Long.valueOf(11), g.getLeft());
+        assertEquals(Long.valueOf(14), g.getRight());
+        assertEquals(Long.valueOf(2), g.getLevel());
+        assertSecondTreeIntact();
+    }
+
+    @Test
+    public void testGetChildrenInfo() {
+        assertEquals(ids("b", "c"), infoIds(this.repository.getChildrenInfo(this.findNode("a"))));
+        assertTrue(this.repository.getChildrenInfo(this.findNode("h")).isEmpty());
+        assertSecondTreeIntact();
+    }
+
+    @Test
+    public void testGetParentsInfo() {
+        assertEquals(ids("g", "c", "a"), infoIds(this.repository.getParentsInfo(this.findNode("h"))));
+        assertTrue(this.repository.getParentsInfo(this.findNode("a")).isEmpty());
+        assertSecondTreeIntact();
+    }
+
+    @Test
+    public void testGetParentsOfMultipleNodes() {
+        TestNode h = this.findNode("h");
+        TestNode e = this.findNode("e");
+        TestNode a = this.findNode("a");
+        TestNode f = this.findNode("f");
+        Map<TestNode, List<TestNode>> result = this.repository.getParents(Arrays.asList(h, e, a, f));
+        assertEquals(Arrays.asList(h, e, a, f), new ArrayList<>(result.keySet()));
+        assertEquals(Arrays.asList("g", "c", "a"), names(result.get(h)));
+        assertEquals(Arrays.asList("b", "a"), names(result.get(e)));
+        assertTrue(result.get(a).isEmpty());
+        assertEquals(Arrays.asList("c", "a"), names(result.get(f)));
+        assertTrue(this.repository.getParents(Collections.<TestNode>emptyList()).isEmpty());
+        assertSecondTreeIntact();
+    }
+
+    @Test
+    public void testGetParentsOfNodesPaddedToBucketSize() {
+        List<TestNode> children = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            children.add(this.createTestNode("x" + i));
+        }
+        this.repository.insertAllAsLastChildrenOf(children, this.findNode("h"));
+        flushAndClear();
+
+        List<TestNode> nodes = this.repository.getChildren(this.findNode("h"));
+        assertEquals(5, nodes.size());
+        nodes.add(this.findNode("h"));
+        Map<TestNode, List<TestNode>> result = this.repository.getParents(nodes);
+        assertEquals(6, result.size());
+        for (TestNode child : nodes.subList(0, 5)) {
+            assertEquals(Arrays.asList("h", "g", "c", "a"), names(result.get(child)));
+        }
+        assertEquals(Arrays.asList("g", "c", "a"), names(result.get(nodes.get(5))));
+        assertSecondTreeIntact();
+    }
+
+    @Test
+    public void testCountDescendants() {
+        assertEquals(7, this.repository.countDescendants(this.findNode("a")));
+        assertEquals(3, this.repository.countDescendants(this.findNode("c")));
+        assertEquals(0, this.repository.countDescendants(this.findNode("h")));
+        assertSecondTreeIntact();
+    }
+
+    @Test
+    public void testIsAncestorOf() {
+        assertTrue(this.repository.isAncestorOf(this.findNode("a"), this.findNode("h")));
+        assertTrue(this.repository.isAncestorOf(this.findNode("g"), this.findNode("h")));
+        assertFalse(this.repository.isAncestorOf(this.findNode("h"), this.findNode("a")));
+        assertFalse(this.repository.isAncestorOf(this.findNode("b"), this.findNode("f")));
+        assertFalse(this.repository.isAncestorOf(this.findNode("c"), this.findNode("c")));
+        assertSecondTreeIntact();
+    }
+
+    @Test
+    public void testIsDescendantOf() {
+        assertTrue(this.repository.isDescendantOf(this.findNode("e"), this.findNode("b")));
+        assertFalse(this.repository.isDescendantOf(this.findNode("b"), this.findNode("e")));
+        assertFalse(this.repository.isDescendantOf(this.findNode("e"), this.findNode("c")));
+        assertSecondTreeIntact();
+    }
+
+    @Test
+    public void testGetDepth() {
+        assertEquals(0, this.repository.getDepth(this.findNode("a")));
+        assertEquals(2, this.repository.getDepth(this.findNode("g")));
+        assertEquals(3, this.repository.getDepth(this.findNode("h")));
+        assertSecondTreeIntact();
+    }
+
+    @Test
+    public void testGetDepthOfNonExistentNode() {
+        assertThrows(InvalidNodeException.class, () -> this.repository.getDepth(this.createTestNode("x")));
+    }
+
+    private List<Long> ids(String... names) {
+        return Arrays.stream(names).map(name -> this.findNode(name).getId()).collect(Collectors.toList());
+    }
+
+    private List<Long> infoIds(List<NestedNodeInfo<Long>> infos) {
+        return infos.stream().map(NestedNodeInfo::getId).collect(Collectors.toList());
+    }
+
+    private List<String> names(List<TestNode> nodes) {
+        return nodes.stream().map(TestNode::getName).collect(Collectors.toList());
+    }
+
     @Test
     public void testGetParent() {
         TestNode b = this.findNode("b");
@@ -0,0 +1,280 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2015 exsio.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package pl.exsio.nestedj.base;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.annotation.Transactional;
+import pl.exsio.nestedj.model.TestNode;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+
+@Transactional
+public abstract class NestedNodeRepositorySparseNumberingTest extends FunctionalNestedjTest {
+
+    /**
+     * STARTING NESTED TREE CONDITIONS, AFTER SPREADING THE TREE WITH THE GAP OF 10
+     * <p/>
+     *                 10 A 160
+     *                   / \
+     *                  /   \
+     *                 /     \
+     *            20 B 70   80 C 150
+     *               /         \
+     *              /\         /\
+     *             /  \       /  \
+     *            /    \     /    \
+     *           / 50 E 60  90 F 100 \
+     *       30 D 40             110 G 140
+     *                                \
+     *                                 \
+     *                             120 H 130
+     */
+    protected final static long GAP = 10L;
+
+    protected void spreadTree() {
+        this.repository.rebuildTree();
+        flushAndClear();
+    }
+
+    @Test
+    public void testSpreadTree() {
+        assertNode("a", 10, 160, 0);
+        assertNode("b", 20, 70, 1);
+        assertNode("c", 80, 150, 1);
+        assertNode("d", 30, 40, 2);
+        assertNode("e", 50, 60, 2);
+        assertNode("f", 90, 100, 2);
+        assertNode("g", 110, 140, 2);
+        assertNode("h", 120, 130, 3);
+        assertSecondTreeIntact();
+    }
+
+    @Test
+    public void testInsertAsLastChildIntoGap() {
+        TestNode i = this.createTestNode("i");
+        this.repository.insertAsLastChildOf(i, findNode("b"));
+        flushAndClear();
+
+        assertNode("i", 63, 66, 2);
+        assertEquals(findNode("b").getId(), findNode("i").getParentId());
+        assertNode("b", 20, 70, 1);
+        assertNode("c", 80, 150, 1);
+        assertNode("a", 10, 160, 0);
+        assertSecondTreeIntact();
+    }
+
+    @Test
+    public void testInsertAsFirstChildIntoGap() {
+        TestNode i = this.createTestNode("i");
+        this.repository.insertAsFirstChildOf(i, findNode("b"));
+        flushAndClear();
+
+        assertNode("i", 23, 26, 2);
+        assertEquals(findNode("b").getId(), findNode("i").getParentId());
+        assertNode("d", 30, 40, 2);
+        assertNode("a", 10, 160, 0);
+        assertSecondTreeIntact();
+    }
+
+    @Test
+    public void testInsertAsNextSiblingIntoGap() {
+        TestNode i = this.createTestNode("i");
+        this.repository.insertAsNextSiblingOf(i, findNode("h"));
+        flushAndClear();
+
+        assertNode("i", 133, 136, 3);
+        assertEquals(findNode("g").getId(), findNode("i").getParentId());
+        assertNode("g", 110, 140, 2);
+        assertNode("a", 10, 160, 0);
+        assertSecondTreeIntact();
+    }
+
+    @Test
+    public void testInsertAsPrevSiblingIntoGap() {
+        TestNode i = this.createTestNode("i");
+        this.repository.insertAsPrevSiblingOf(i, findNode("b"));
+        flushAndClear();
+
+        assertNode("i", 13, 16, 1);
+        assertEquals(findNode("a").getId(), findNode("i").getParentId());
+        assertNode("b", 20, 70, 1);
+        assertNode("a", 10, 160, 0);
+        assertSecondTreeIntact();
+    }
+
+    @Test
+    public void testInsertAsRootsIntoGap() {
+        this.repository.insertAsFirstRoot(this.createTestNode("x"));
+        this.repository.insertAsLastRoot(this.createTestNode("y"));
+        flushAndClear();
+
+        assertNode("x", 3, 6, 0);
+        assertNull(findNode("x").getParentId());
+        assertNode("y", 170, 180, 0);
+        assertNull(findNode("y").getParentId());
+        assertNode("a", 10, 160, 0);
+        assertSecondTreeIntact();
+    }
+
+    @Test
+    public void testInsertIntoExhaustedGap() {
+        this.repository.insertAsLastChildOf(this.createTestNode("i"), findNode("d"));
+        flushAndClear();
+        this.repository.insertAsLastChildOf(this.createTestNode("j"), findNode("d"));
+        flushAndClear();
+        assertNode("i", 33, 36, 3);
+        assertNode("j", 37, 38, 3);
+        assertNode("d", 30, 40, 2);
+        assertNode("a", 10, 160, 0);
+
+        // D has no room left, so the values up to the RIGHT value of B are moved into the free space of B
+        this.repository.insertAsLastChildOf(this.createTestNode("k"), findNode("d"));
+        flushAndClear();
+        assertNode("k", 41, 44, 3);
+        assertNode("d", 30, 49, 2);
+        assertNode("e", 59, 69, 2);
+        assertNode("b", 20, 70, 1);
+        assertNode("c", 80, 150, 1);
+        assertNode("g", 110, 140, 2);
+        assertNode("a", 10, 160, 0);
+        assertSecondTreeIntact();
+    }
+
+    @Test
+    public void testInsertIntoExhaustedGapWithinParent() {
+        this.repository.insertAsNextSiblingOf(this.createTestNode("x"), findNode("d"));
+        flushAndClear();
+        this.repository.insertAsNextSiblingOf(this.createTestNode("y"), findNode("d"));
+        flushAndClear();
+        assertNode("x", 43, 46, 2);
+        assertNode("y", 41, 42, 2);
+
+        this.repository.insertAsNextSiblingOf(this.createTestNode("z"), findNode("d"));
+        flushAndClear();
+        assertNode("z", 43, 46, 2);
+        assertNode("y", 50, 51, 2);
+        assertNode("x", 52, 55, 2);
+        assertNode("e", 59, 69, 2);
+        assertEquals(findNode("b").getId(), findNode("z").getParentId());
+
+        // only the rows within the Parent were updated
+        assertNode("b", 20, 70, 1);
+        assertNode("d", 30, 40, 2);
+        assertNode("c", 80, 150, 1);
+        assertNode("f", 90, 100, 2);
+        assertNode("g", 110, 140, 2);
+        assertNode("h", 120, 130, 3);
+        assertNode("a", 10, 160, 0);
+        assertSecondTreeIntact();
+    }
+
+    @Test
+    public void testInsertIntoExhaustedGapBetweenRoots() {
+        this.repository.insertAsPrevSiblingOf(this.createTestNode("x"), findNode("a"));
+        flushAndClear();
+        this.repository.insertAsPrevSiblingOf(this.createTestNode("y"), findNode("a"));
+        flushAndClear();
+        assertNode("x", 3, 6, 0);
+        assertNode("y", 7, 8, 0);
+
+        // there is no enclosing Node with any room left, so the whole Tree is shifted
+        this.repository.insertAsPrevSiblingOf(this.createTestNode("z"), findNode("a"));
+        flushAndClear();
+        assertNode("z", 15, 22, 0);
+        assertNode("y", 7, 8, 0);
+        assertNode("a", 30, 180, 0);
+        assertNode("b", 40, 90, 1);
+        assertNode("h", 140, 150, 3);
+        assertSecondTreeIntact();
+    }
+
+    @Test
+    public void testSiblings() {
+        assertEquals("e", this.repository.getNextSibling(findNode("d")).map(TestNode::getName).orElse(null));
+        assertEquals("d", this.repository.getPrevSibling(findNode("e")).map(TestNode::getName).orElse(null));
+        assertEquals("c", this.repository.getNextSibling(findNode("b")).map(TestNode::getName).orElse(null));
+        assertFalse(this.repository.getPrevSibling(findNode("d")).isPresent());
+        assertFalse(this.repository.getNextSibling(findNode("e")).isPresent());
+        assertFalse(this.repository.getPrevSibling(findNode("f")).isPresent());
+        assertFalse(this.repository.getNextSibling(findNode("a")).isPresent());
+    }
+
+    @Test
+    public void testRemoveSingle() {
+        this.repository.removeSingle(findNode("b"));
+        flushAndClear();
+
+        assertNode("d", 29, 39, 1);
+        assertNode("e", 49, 59, 1);
+        assertEquals(findNode("a").getId(), findNode("d").getParentId());
+        assertNode("c", 80, 150, 1);
+        assertNode("a", 10, 160, 0);
+        assertSecondTreeIntact();
+    }
+
+    @Test
+    public void testRemoveSubtree() {
+        this.repository.removeSubtree(findNode("b"));
+        flushAndClear();
+
+        assertEquals(1, this.repository.getChildren(findNode("a")).size());
+        assertNode("c", 80, 150, 1);
+        assertNode("a", 10, 160, 0);
+        assertSecondTreeIntact();
+    }
+
+    @Test
+    public void testMove() {
+        this.repository.insertAsLastChildOf(findNode("d"), findNode("c"));
+        flushAndClear();
+
+        assertNode("d", 139, 149, 2);
+        assertEquals(findNode("c").getId(), findNode("d").getParentId());
+        assertNode("e", 39, 49, 2);
+        assertNode("b", 20, 59, 1);
+        assertNode("c", 69, 150, 1);
+        assertNode("g", 99, 129, 2);
+        assertNode("h", 109, 119, 3);
+        assertNode("a", 10, 160, 0);
+        assertSecondTreeIntact();
+    }
+
+    @Test
+    public void testCountDescendants() {
+        assertEquals(7, this.repository.countDescendants(findNode("a")));
+        assertEquals(3, this.repository.countDescendants(findNode("c")));
+        assertEquals(0, this.repository.countDescendants(findNode("h")));
+        assertSecondTreeIntact();
+    }
+
+    private void assertNode(String symbol, long left, long right, long level) {
+        TestNode node = findNode(symbol);
+        assertEquals(left, (long) node.getTreeLeft(), symbol + " LEFT");
+        assertEquals(right, (long) node.getTreeRight(), symbol + " RIGHT");
+        assertEquals(level, (long) node.getTreeLevel(), symbol + " LEVEL");
+    }
+}
@@ -0,0 +1,155 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2015 exsio.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package pl.exsio.nestedj.cache;
+
+import org.junit.jupiter.api.Test;
+import pl.exsio.nestedj.model.NestedNodeInfo;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class LruNodeInfoCacheTest {
+
+    @Test
+    public void testEvictLeastRecentlyUsedOverCapacity() {
+        LruNodeInfoCache<Long> cache = new LruNodeInfoCache<>(2);
+        cache.put(info(1L, 1L, 2L));
+        cache.put(info(2L, 3L, 4L));
+        assertTrue(cache.get(1L).isPresent());
+        cache.put(info(3L, 5L, 6L));
+
+        assertEquals(2, cache.size());
+        assertTrue(cache.get(1L).isPresent());
+        assertFalse(cache.get(2L).isPresent());
+        assertTrue(cache.get(3L).isPresent());
+
+        // the evicted info is no longer indexed
+        cache.evict(3L, 4L);
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    public void testReplaceInfoOfTheSameNode() {
+        LruNodeInfoCache<Long> cache = new LruNodeInfoCache<>(2);
+        cache.put(info(1L, 1L, 2L));
+        cache.put(info(1L, 5L, 6L));
+
+        assertEquals(1, cache.size());
+        assertEquals(5L, (long) cache.get(1L).get().getLeft());
+
+        cache.evict(1L, 2L);
+        assertTrue(cache.get(1L).isPresent());
+    }
+
+    @Test
+    public void testEvictInclusiveBounds() {
+        LruNodeInfoCache<Long> cache = new LruNodeInfoCache<>(10);
+        cache.put(info(1L, 1L, 10L));
+        cache.put(info(2L, 2L, 3L));
+        cache.put(info(3L, 4L, 5L));
+        cache.put(info(4L, 6L, 7L));
+
+        cache.evict(3L, 6L);
+
+        assertTrue(cache.get(1L).isPresent());
+        assertFalse(cache.get(2L).isPresent());
+        assertFalse(cache.get(3L).isPresent());
+        assertFalse(cache.get(4L).isPresent());
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void testEvictTailWhenUnbounded() {
+        LruNodeInfoCache<Long> cache = new LruNodeInfoCache<>(10);
+        cache.put(info(1L, 1L, 2L));
+        cache.put(info(2L, 3L, 4L));
+        cache.put(info(3L, 100L, 101L));
+
+        cache.evict(3L, null);
+
+        assertTrue(cache.get(1L).isPresent());
+        assertFalse(cache.get(2L).isPresent());
+        assertFalse(cache.get(3L).isPresent());
+    }
+
+    @Test
+    public void testEvictByEitherLeftOrRight() {
+        LruNodeInfoCache<Long> cache = new LruNodeInfoCache<>(10);
+        cache.put(info(1L, 1L, 20L));
+        cache.put(info(2L, 10L, 30L));
+        cache.put(info(3L, 11L, 12L));
+
+        // only the RIGHT of 1 and only the LEFT of 2 fall within the range
+        cache.evict(15L, 25L);
+        assertFalse(cache.get(1L).isPresent());
+        assertTrue(cache.get(2L).isPresent());
+        assertTrue(cache.get(3L).isPresent());
+
+        cache.evict(5L, 10L);
+        assertFalse(cache.get(2L).isPresent());
+        assertTrue(cache.get(3L).isPresent());
+
+        // the evicted infos are unindexed under both values
+        cache.put(info(1L, 40L, 41L));
+        cache.evict(1L, 30L);
+        assertTrue(cache.get(1L).isPresent());
+        assertFalse(cache.get(3L).isPresent());
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void testSkipInfoWithoutLeftOrRight() {
+        LruNodeInfoCache<Long> cache = new LruNodeInfoCache<>(10);
+        cache.put(info(1L, 1L, 2L));
+        cache.put(info(1L, null, 2L));
+        cache.put(info(2L, 3L, null));
+
+        assertFalse(cache.get(1L).isPresent());
+        assertFalse(cache.get(2L).isPresent());
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testClear() {
+        LruNodeInfoCache<Long> cache = new LruNodeInfoCache<>(10);
+        cache.put(info(1L, 1L, 2L));
+        cache.put(info(2L, 3L, 4L));
+
+        cache.clear();
+
+        assertEquals(0, cache.size());
+        assertFalse(cache.get(1L).isPresent());
+    }
+
+    @Test
+    public void testRejectCapacityLowerThanOne() {
+        assertThrows(IllegalArgumentException.class, () -> new LruNodeInfoCache<Long>(0));
+    }
+
+    private NestedNodeInfo<Long> info(Long id, Long left, Long right) {
+        return new NestedNodeInfo<>(id, null, left, right, 0L);
+    }
+}
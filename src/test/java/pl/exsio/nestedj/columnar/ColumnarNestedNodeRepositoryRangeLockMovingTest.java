@@ -0,0 +1,186 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2015 exsio.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package pl.exsio.nestedj.columnar;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.annotation.Transactional;
+import pl.exsio.nestedj.DelegatingNestedNodeRepository;
+import pl.exsio.nestedj.TestConfiguration;
+import pl.exsio.nestedj.base.NestedNodeRepositoryMovingTest;
+import pl.exsio.nestedj.config.columnar.factory.ColumnarNestedNodeRepositoryFactory;
+import pl.exsio.nestedj.config.mem.lock.InMemoryRangeLock;
+import pl.exsio.nestedj.ex.RepositoryLockedException;
+import pl.exsio.nestedj.model.TestNode;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntConsumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Transactional
+public class ColumnarNestedNodeRepositoryRangeLockMovingTest extends NestedNodeRepositoryMovingTest {
+
+    private ColumnarTestHelper helper;
+
+    private InMemoryRangeLock<Long, TestNode> lock;
+
+    @BeforeEach
+    public void setup() {
+        helper = new ColumnarTestHelper();
+        helper.rollback();
+        lock = new InMemoryRangeLock<>(TestNode::getDiscriminator);
+        this.repository = (DelegatingNestedNodeRepository<Long, TestNode>) ColumnarNestedNodeRepositoryFactory.create(TestConfiguration.COLUMNAR_CONFIG, lock);
+    }
+
+    @Test
+    public void testConcurrentMovesAndRemovalsInDisjointRanges() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            List<Future<?>> writers = new ArrayList<>();
+            // moves within b, moves within c and inserts/removals under c, each returning the Tree to its initial state
+            writers.add(executor.submit(() -> repeat(1000, i -> this.repository.insertAsNextSiblingOf(
+                    this.findNode(i % 2 == 0 ? "d" : "e"), this.findNode(i % 2 == 0 ? "e" : "d")))));
+            writers.add(executor.submit(() -> repeat(1000, i -> this.repository.insertAsLastChildOf(
+                    this.findNode("h"), this.findNode(i % 2 == 0 ? "f" : "g")))));
+            writers.add(executor.submit(() -> repeat(1000, i -> {
+                if (i % 2 == 0) {
+                    this.repository.insertAsLastChildOf(this.createTestNode("x"), this.findNode("c"));
+                } else {
+                    this.repository.removeSingle(this.findNode("x"));
+                }
+            })));
+            for (Future<?> writer : writers) {
+                writer.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertNode("a", 1, 16, 0, null);
+        assertNode("b", 2, 7, 1, "a");
+        assertNode("d", 3, 4, 2, "b");
+        assertNode("e", 5, 6, 2, "b");
+        assertNode("c", 8, 15, 1, "a");
+        assertNode("f", 9, 10, 2, "c");
+        assertNode("g", 11, 14, 2, "c");
+        assertNode("h", 12, 13, 3, "g");
+        assertSecondTreeIntact();
+    }
+
+    // retries the contended modifications, like a caller of a fail-fast Lock would
+    private void repeat(int times, IntConsumer modification) {
+        for (int i = 0; i < times; i++) {
+            while (true) {
+                try {
+                    modification.accept(i);
+                    break;
+                } catch (RepositoryLockedException ex) {
+                    Thread.yield();
+                }
+            }
+        }
+    }
+
+    private void assertNode(String symbol, long left, long right, long level, String parent) {
+        TestNode node = this.findNode(symbol);
+        assertEquals(left, (long) node.getTreeLeft(), symbol);
+        assertEquals(right, (long) node.getTreeRight(), symbol);
+        assertEquals(level, (long) node.getTreeLevel(), symbol);
+        TestNode actualParent = this.getParent(node);
+        assertEquals(parent, actualParent != null ? actualParent.getName() : null, symbol);
+    }
+
+    @Test
+    public void testModifyOutsideOfLockedRange() {
+        TestNode b = this.findNode("b");
+        assertTrue(lock.lockRange(b, b.getTreeLeft(), b.getTreeRight()));
+        try {
+            this.repository.insertAsFirstChildOf(this.findNode("h"), this.findNode("c"));
+            TestNode h = this.findNode("h");
+            assertEquals(9, (long) h.getTreeLeft());
+            assertEquals(10, (long) h.getTreeRight());
+            assertEquals("c", this.getParent(h).getName());
+
+            assertThrows(RepositoryLockedException.class, () -> this.repository.insertAsFirstChildOf(this.findNode("e"), this.findNode("b")));
+            assertThrows(RepositoryLockedException.class, () -> this.repository.removeSingle(this.findNode("d")));
+        } finally {
+            lock.unlockRange(b, b.getTreeLeft(), b.getTreeRight());
+        }
+        this.repository.removeSingle(this.findNode("d"));
+        assertEquals(5, (long) this.findNode("b").getTreeRight());
+        assertSecondTreeIntact();
+    }
+
+    @Override
+    protected TestNode findNode(String symbol) {
+        return helper.findNode(symbol);
+    }
+
+    @Override
+    protected TestNode getParent(TestNode f) {
+        return helper.getParent(f);
+    }
+
+    @Override
+    protected void breakTree() {
+        helper.breakTree();
+    }
+
+    @Override
+    protected void resetParent(String symbol) {
+        helper.resetParent(symbol);
+    }
+
+    @Override
+    protected void removeTree() {
+        helper.removeTree();
+    }
+
+    @Override
+    protected void flushAndClear() {
+        helper.flushAndClear();
+    }
+
+    @Override
+    protected void flush() {
+        helper.flush();
+    }
+
+    @Override
+    protected void refresh(TestNode node) {
+        helper.refresh(node);
+    }
+
+    @Override
+    protected void save(TestNode node) {
+        helper.save(node);
+    }
+}
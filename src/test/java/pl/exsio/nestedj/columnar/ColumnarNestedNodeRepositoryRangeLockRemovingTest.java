@@ -0,0 +1,216 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2015 exsio.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package pl.exsio.nestedj.columnar;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.annotation.Transactional;
+import pl.exsio.nestedj.DelegatingNestedNodeRepository;
+import pl.exsio.nestedj.NestedNodeRepository;
+import pl.exsio.nestedj.TestConfiguration;
+import pl.exsio.nestedj.base.NestedNodeRepositoryRemovingTest;
+import pl.exsio.nestedj.cache.LruNodeInfoCache;
+import pl.exsio.nestedj.config.NestedNodeNumbering;
+import pl.exsio.nestedj.config.columnar.factory.ColumnarNestedNodeRepositoryFactory;
+import pl.exsio.nestedj.config.mem.lock.InMemoryRangeLock;
+import pl.exsio.nestedj.ex.RepositoryLockedException;
+import pl.exsio.nestedj.model.NestedNodeInfo;
+import pl.exsio.nestedj.model.TestNode;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Transactional
+public class ColumnarNestedNodeRepositoryRangeLockRemovingTest extends NestedNodeRepositoryRemovingTest {
+
+    private ColumnarTestHelper helper;
+
+    private InMemoryRangeLock<Long, TestNode> lock;
+
+    @BeforeEach
+    public void setup() {
+        helper = new ColumnarTestHelper();
+        helper.rollback();
+        lock = new InMemoryRangeLock<>(TestNode::getDiscriminator);
+        this.repository = (DelegatingNestedNodeRepository<Long, TestNode>) ColumnarNestedNodeRepositoryFactory.create(TestConfiguration.COLUMNAR_CONFIG, lock);
+    }
+
+    @Test
+    public void testEvictStaleCachedInfoAfterFailedVerification() {
+        LruNodeInfoCache<Long> infoCache = new LruNodeInfoCache<>(10);
+        NestedNodeRepository<Long, TestNode> repository = ColumnarNestedNodeRepositoryFactory.create(TestConfiguration.COLUMNAR_CONFIG, lock, NestedNodeNumbering.dense(), infoCache);
+        TestNode h = this.findNode("h");
+        // an info read before a concurrent modification, but cached after that modification evicted it
+        infoCache.put(new NestedNodeInfo<>(h.getId(), h.getParentId(), h.getTreeLeft() + 2, h.getTreeRight() + 2, h.getTreeLevel()));
+
+        assertThrows(RepositoryLockedException.class, () -> repository.removeSingle(h));
+        repository.removeSingle(h);
+
+        TestNode g = this.findNode("g");
+        assertEquals(12, (long) g.getTreeRight());
+        assertSecondTreeIntact();
+    }
+
+    @Test
+    public void testRemoveLeavesInDifferentBranchesConcurrentlyWithSparseNumbering() throws Exception {
+        CountDownLatch firstRemoved = new CountDownLatch(1);
+        CountDownLatch secondRemoved = new CountDownLatch(1);
+        NestedNodeRepository<Long, TestNode> repository = ColumnarNestedNodeRepositoryFactory.create(TestConfiguration.COLUMNAR_CONFIG,
+                new HoldingRangeLock(lock, "d", firstRemoved, secondRemoved), NestedNodeNumbering.sparse(10));
+        repository.rebuildTree();
+        TestNode d = this.findNode("d");
+        TestNode f = this.findNode("f");
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            // keeps the range of d locked until f is removed
+            Future<?> first = executor.submit(() -> repository.removeSingle(d));
+            assertTrue(firstRemoved.await(10, TimeUnit.SECONDS));
+            repository.removeSingle(f);
+            secondRemoved.countDown();
+            first.get(10, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertNull(this.findNode("d"));
+        assertNull(this.findNode("f"));
+        TestNode b = this.findNode("b");
+        TestNode c = this.findNode("c");
+        assertEquals(20, (long) b.getTreeLeft());
+        assertEquals(70, (long) b.getTreeRight());
+        assertEquals(80, (long) c.getTreeLeft());
+        assertEquals(150, (long) c.getTreeRight());
+        assertSecondTreeIntact();
+    }
+
+    private static class HoldingRangeLock implements NestedNodeRepository.RangeLock<Long, TestNode> {
+
+        private final NestedNodeRepository.RangeLock<Long, TestNode> delegate;
+
+        private final String heldNode;
+
+        private final CountDownLatch modified;
+
+        private final CountDownLatch released;
+
+        HoldingRangeLock(NestedNodeRepository.RangeLock<Long, TestNode> delegate, String heldNode, CountDownLatch modified, CountDownLatch released) {
+            this.delegate = delegate;
+            this.heldNode = heldNode;
+            this.modified = modified;
+            this.released = released;
+        }
+
+        @Override
+        public boolean lockRange(TestNode node, Long from, Long to) {
+            return delegate.lockRange(node, from, to);
+        }
+
+        @Override
+        public void unlockRange(TestNode node, Long from, Long to) {
+            if (heldNode.equals(node.getName())) {
+                modified.countDown();
+                try {
+                    released.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            delegate.unlockRange(node, from, to);
+        }
+
+        @Override
+        public boolean lockNode(TestNode node) {
+            return delegate.lockNode(node);
+        }
+
+        @Override
+        public void unlockNode(TestNode node) {
+            delegate.unlockNode(node);
+        }
+
+        @Override
+        public boolean lockRepository() {
+            return delegate.lockRepository();
+        }
+
+        @Override
+        public void unlockRepository() {
+            delegate.unlockRepository();
+        }
+    }
+
+    @Override
+    protected TestNode findNode(String symbol) {
+        return helper.findNode(symbol);
+    }
+
+    @Override
+    protected TestNode getParent(TestNode f) {
+        return helper.getParent(f);
+    }
+
+    @Override
+    protected void breakTree() {
+        helper.breakTree();
+    }
+
+    @Override
+    protected void resetParent(String symbol) {
+        helper.resetParent(symbol);
+    }
+
+    @Override
+    protected void removeTree() {
+        helper.removeTree();
+    }
+
+    @Override
+    protected void flushAndClear() {
+        helper.flushAndClear();
+    }
+
+    @Override
+    protected void flush() {
+        helper.flush();
+    }
+
+    @Override
+    protected void refresh(TestNode node) {
+        helper.refresh(node);
+    }
+
+    @Override
+    protected void save(TestNode node) {
+        helper.save(node);
+    }
+}
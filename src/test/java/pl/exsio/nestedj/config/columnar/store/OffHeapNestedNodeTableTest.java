@@ -0,0 +1,106 @@
+package pl.exsio.nestedj.config.columnar.store;
+
+import org.junit.jupiter.api.Test;
+import pl.exsio.nestedj.model.TestNode;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class OffHeapNestedNodeTableTest {
+
+    private final OffHeapNestedNodeTable<Long, TestNode> table = new OffHeapNestedNodeTable<>(NestedNodeIdCodec.longIds(), new TestNestedNodeFactory());
+
+    @Test
+    public void testFindNodesAfterGrowingAndReusingHandles() {
+        Map<Long, Integer> handles = new HashMap<>();
+        for (long id = 1; id <= 1000; id++) {
+            handles.put(id, add(id, id > 1 ? id - 1 : null));
+        }
+        for (long id = 2; id <= 1000; id += 2) {
+            table.remove(handles.remove(id));
+        }
+        for (long id = 1001; id <= 1500; id++) {
+            handles.put(id, add(id, 1L));
+        }
+
+        assertEquals(1000, handles.size());
+        for (long id = 2; id <= 1000; id += 2) {
+            assertEquals(-1, table.find(id));
+        }
+        handles.forEach((id, handle) -> {
+            assertEquals((int) handle, table.find(id));
+            assertEquals(id, table.getId(handle));
+            assertEquals(id, table.getNode(handle).getId());
+            assertEquals(handle + 7, table.getPosition(handle));
+        });
+        // the parents of the odd Nodes were removed
+        for (long id = 3; id < 1000; id += 2) {
+            assertEquals(-1, table.findParent(handles.get(id)));
+        }
+        for (long id = 1001; id <= 1500; id++) {
+            assertEquals((int) handles.get(1L), table.findParent(handles.get(id)));
+        }
+    }
+
+    @Test
+    public void testKeepParentIds() {
+        int root = add(1L, null);
+        int child = add(2L, 1L);
+
+        assertNull(table.getParentId(root));
+        assertTrue(table.hasParentId(root, null));
+        assertFalse(table.hasParentId(root, 1L));
+        assertEquals(-1, table.findParent(root));
+
+        assertEquals(1L, (long) table.getParentId(child));
+        assertTrue(table.hasParentId(child, 1L));
+        assertFalse(table.hasParentId(child, null));
+        assertEquals(root, table.findParent(child));
+
+        table.setParentId(child, null);
+        assertNull(table.getParentId(child));
+        assertEquals(-1, table.findParent(child));
+    }
+
+    @Test
+    public void testCreateNewInstanceOnRead() {
+        TestNode node = new TestNode(1L, 1L, 0L, 2L, "a", null, "tree_1");
+        int handle = table.add(node);
+
+        TestNode read = table.getNode(handle);
+        assertNotSame(node, read);
+        assertNotSame(read, table.getNode(handle));
+        assertEquals("a", read.getName());
+        assertEquals("tree_1", read.getDiscriminator());
+    }
+
+    @Test
+    public void testClear() {
+        add(1L, null);
+        add(2L, 1L);
+
+        table.clear();
+
+        assertEquals(-1, table.find(1L));
+        assertEquals(-1, table.find(2L));
+        assertEquals(0, add(3L, null));
+    }
+
+    @Test
+    public void testRejectNodeWithoutId() {
+        assertThrows(IllegalArgumentException.class, () -> table.add(new TestNode()));
+    }
+
+    private int add(Long id, Long parentId) {
+        int handle = table.add(new TestNode(id, null, null, null, "node_" + id, parentId, "tree_1"));
+        table.setPosition(handle, handle + 7);
+        return handle;
+    }
+}
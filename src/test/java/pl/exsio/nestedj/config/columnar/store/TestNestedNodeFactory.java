@@ -0,0 +1,30 @@
+package pl.exsio.nestedj.config.columnar.store;
+
+import pl.exsio.nestedj.model.TestNode;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps the names and discriminators of the Nodes, as a stand-in for an external storage of the Node fields.
+ */
+public class TestNestedNodeFactory implements NestedNodeFactory<Long, TestNode> {
+
+    private final Map<Long, TestNode> fields = new ConcurrentHashMap<>();
+
+    @Override
+    public TestNode create(Long id) {
+        TestNode node = fields.get(id);
+        return new TestNode(id, null, null, null, node.getName(), null, node.getDiscriminator());
+    }
+
+    @Override
+    public void added(TestNode node) {
+        fields.put(node.getId(), new TestNode(node.getId(), null, null, null, node.getName(), null, node.getDiscriminator()));
+    }
+
+    @Override
+    public void removed(Long id) {
+        fields.remove(id);
+    }
+}
@@ -0,0 +1,63 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2015 exsio.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package pl.exsio.nestedj.delegate.query;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class IdBucketsTest {
+
+    @Test
+    public void testPadBucketsToPowersOfTwo() {
+        assertTrue(IdBuckets.of(Collections.<Long>emptyList()).isEmpty());
+        assertEquals(Collections.singletonList(Collections.singletonList(1L)), IdBuckets.of(Collections.singletonList(1L)));
+        assertEquals(Collections.singletonList(Arrays.asList(1L, 2L)), IdBuckets.of(Arrays.asList(1L, 2L)));
+        assertEquals(Collections.singletonList(Arrays.asList(1L, 2L, 3L, 3L)), IdBuckets.of(Arrays.asList(1L, 2L, 3L)));
+        assertEquals(Collections.singletonList(Arrays.asList(1L, 2L, 3L, 4L, 5L, 5L, 5L, 5L)), IdBuckets.of(Arrays.asList(1L, 2L, 3L, 4L, 5L)));
+    }
+
+    @Test
+    public void testQueryDuplicatesOnce() {
+        assertEquals(Collections.singletonList(Arrays.asList(2L, 1L)), IdBuckets.of(Arrays.asList(2L, 1L, 2L, 1L)));
+    }
+
+    @Test
+    public void testSplitIntoBucketsOfMaxSize() {
+        List<Long> ids = new ArrayList<>();
+        for (long id = 0; id < IdBuckets.MAX_SIZE + 3; id++) {
+            ids.add(id);
+        }
+        List<List<Long>> buckets = IdBuckets.of(ids);
+        assertEquals(2, buckets.size());
+        assertEquals(ids.subList(0, IdBuckets.MAX_SIZE), buckets.get(0));
+        assertEquals(Arrays.asList((long) IdBuckets.MAX_SIZE, IdBuckets.MAX_SIZE + 1L, IdBuckets.MAX_SIZE + 2L, IdBuckets.MAX_SIZE + 2L), buckets.get(1));
+    }
+}
@@ -0,0 +1,153 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2015 exsio.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package pl.exsio.nestedj.jdbc;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.annotation.Transactional;
+import pl.exsio.nestedj.DelegatingNestedNodeRepository;
+import pl.exsio.nestedj.TestConfiguration;
+import pl.exsio.nestedj.base.NestedNodeRepositoryInsertingTest;
+import pl.exsio.nestedj.cache.LruNodeInfoCache;
+import pl.exsio.nestedj.config.NestedNodeNumbering;
+import pl.exsio.nestedj.config.jdbc.factory.JdbcNestedNodeRepositoryFactory;
+import pl.exsio.nestedj.lock.NoLock;
+import pl.exsio.nestedj.model.NestedNodeInfo;
+import pl.exsio.nestedj.model.TestNode;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@Transactional
+public class JdbcNestedNodeRepositoryCachedNodeInfoInsertingTest extends NestedNodeRepositoryInsertingTest {
+
+    private JdbcTestHelper helper;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @BeforeEach
+    public void setup() {
+        helper = new JdbcTestHelper(dataSource);
+        this.repository = (DelegatingNestedNodeRepository<Long, TestNode>) JdbcNestedNodeRepositoryFactory.create(
+                TestConfiguration.jdbcConfiguration(dataSource), new NoLock<>(), NestedNodeNumbering.dense(), new LruNodeInfoCache<>(4)
+        );
+    }
+
+    @Test
+    public void testReadNodeInfoFromCacheOnSecondModification() {
+        CountingNodeInfoCache infoCache = new CountingNodeInfoCache();
+        this.repository = (DelegatingNestedNodeRepository<Long, TestNode>) JdbcNestedNodeRepositoryFactory.create(
+                TestConfiguration.jdbcConfiguration(dataSource), new NoLock<>(), NestedNodeNumbering.dense(), infoCache
+        );
+        TestNode d = this.findNode("d");
+
+        this.repository.insertAsNextSiblingOf(this.createTestNode("m"), d);
+        assertEquals(0, infoCache.getHits(d.getId()));
+        // the insert shifts only the values following d, so its cached info stays valid
+        this.repository.insertAsNextSiblingOf(this.createTestNode("n"), d);
+        assertEquals(1, infoCache.getHits(d.getId()));
+
+        flushAndClear();
+        TestNode m = this.findNode("m");
+        TestNode n = this.findNode("n");
+        TestNode b = this.findNode("b");
+        assertEquals(5, (long) n.getTreeLeft());
+        assertEquals(6, (long) n.getTreeRight());
+        assertEquals(7, (long) m.getTreeLeft());
+        assertEquals(8, (long) m.getTreeRight());
+        assertEquals(11, (long) b.getTreeRight());
+        assertSecondTreeIntact();
+    }
+
+    private static class CountingNodeInfoCache extends LruNodeInfoCache<Long> {
+
+        private final Map<Long, Integer> hits = new HashMap<>();
+
+        CountingNodeInfoCache() {
+            super(4);
+        }
+
+        @Override
+        public synchronized Optional<NestedNodeInfo<Long>> get(Long id) {
+            Optional<NestedNodeInfo<Long>> info = super.get(id);
+            info.ifPresent(value -> hits.merge(id, 1, Integer::sum));
+            return info;
+        }
+
+        synchronized int getHits(Long id) {
+            return hits.getOrDefault(id, 0);
+        }
+    }
+
+    @Override
+    protected TestNode findNode(String symbol) {
+        return helper.findNode(symbol);
+    }
+
+    @Override
+    protected TestNode getParent(TestNode f) {
+        return helper.getParent(f);
+    }
+
+    @Override
+    protected void breakTree() {
+        helper.breakTree();
+    }
+
+    @Override
+    protected void resetParent(String symbol) {
+        helper.resetParent(symbol);
+    }
+
+    @Override
+    protected void removeTree() {
+        helper.removeTree();
+    }
+
+    @Override
+    protected void flushAndClear() {
+        helper.flushAndClear();
+    }
+
+    @Override
+    protected void flush() {
+        helper.flush();
+    }
+
+    @Override
+    protected void refresh(TestNode node) {
+        helper.refresh(node);
+    }
+
+    @Override
+    protected void save(TestNode node){
+        helper.save(node);
+    }
+}
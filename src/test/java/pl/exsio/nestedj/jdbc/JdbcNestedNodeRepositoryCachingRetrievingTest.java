@@ -0,0 +1,222 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2015 exsio.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package pl.exsio.nestedj.jdbc;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import pl.exsio.nestedj.DelegatingNestedNodeRepository;
+import pl.exsio.nestedj.NestedNodeRepository;
+import pl.exsio.nestedj.base.NestedNodeRepositoryRetrievingTest;
+import pl.exsio.nestedj.cache.CachingNestedNodeRepository;
+import pl.exsio.nestedj.model.TestNode;
+import pl.exsio.nestedj.qualifier.Jdbc;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Transactional
+public class JdbcNestedNodeRepositoryCachingRetrievingTest extends NestedNodeRepositoryRetrievingTest {
+
+    private JdbcTestHelper helper;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    @Jdbc
+    private DelegatingNestedNodeRepository<Long, TestNode> jdbcRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @BeforeEach
+    public void setup() {
+        helper = new JdbcTestHelper(dataSource);
+        this.repository = new CachingNestedNodeRepository<>(this.jdbcRepository, Duration.ofHours(1));
+    }
+
+    @Test
+    public void testServesSnapshotUntilInvalidated() {
+        TestNode a = this.findNode("a");
+        assertEquals(Arrays.asList("b", "c"), names(this.repository.getChildren(a)));
+
+        removeTree();
+        assertEquals(Arrays.asList("b", "c"), names(this.repository.getChildren(a)));
+
+        ((CachingNestedNodeRepository<Long, TestNode>) this.repository).invalidate();
+        assertTrue(this.repository.getChildren(a).isEmpty());
+    }
+
+    @Test
+    public void testReloadsExpiredSnapshot() {
+        this.repository = new CachingNestedNodeRepository<>(this.jdbcRepository, Duration.ZERO);
+        TestNode a = this.findNode("a");
+        assertEquals(Arrays.asList("b", "c"), names(this.repository.getChildren(a)));
+
+        removeTree();
+        assertTrue(this.repository.getChildren(a).isEmpty());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testLoadsSnapshotOnceForConcurrentRetrievals() throws InterruptedException {
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        NestedNodeRepository<Long, TestNode> blockingDelegate = (NestedNodeRepository<Long, TestNode>) Proxy.newProxyInstance(
+                getClass().getClassLoader(),
+                new Class<?>[]{NestedNodeRepository.class},
+                (proxy, method, args) -> {
+                    if (method.getName().equals("findFirstRoot")) {
+                        loads.incrementAndGet();
+                        release.await(10, TimeUnit.SECONDS);
+                        return Optional.empty();
+                    }
+                    try {
+                        return method.invoke(this.jdbcRepository, args);
+                    } catch (InvocationTargetException ex) {
+                        throw ex.getCause();
+                    }
+                }
+        );
+        CachingNestedNodeRepository<Long, TestNode> caching = new CachingNestedNodeRepository<>(blockingDelegate, Duration.ofHours(1));
+
+        List<Thread> readers = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            Thread reader = new Thread(caching::findFirstRoot);
+            readers.add(reader);
+            reader.start();
+        }
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (readers.stream().anyMatch(r -> r.getState() != Thread.State.WAITING && r.getState() != Thread.State.TIMED_WAITING)
+                && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        release.countDown();
+        for (Thread reader : readers) {
+            reader.join();
+        }
+
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void testDropsSnapshotLoadedBeforeCommit() {
+        TestNode h = this.findNode("h");
+        TestNode k = this.createTestNode("k");
+        new TransactionTemplate(transactionManager).execute(status -> {
+            this.repository.insertAsLastChildOf(k, h);
+            // another thread doesn't see the uncommitted Node and caches the snapshot without it
+            inAnotherThread(() -> this.repository.getChildren(h));
+            return null;
+        });
+        try {
+            assertEquals(Collections.singletonList("k"), names(this.repository.getChildren(this.findNode("h"))));
+        } finally {
+            new TransactionTemplate(transactionManager).execute(status -> {
+                this.jdbcRepository.removeSingle(this.findNode("k"));
+                return null;
+            });
+        }
+        assertSecondTreeIntact();
+    }
+
+    private void inAnotherThread(Runnable action) {
+        Thread thread = new Thread(action);
+        thread.start();
+        try {
+            thread.join();
+        } catch (InterruptedException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private List<String> names(List<TestNode> nodes) {
+        return nodes.stream().map(TestNode::getName).collect(Collectors.toList());
+    }
+
+    @Override
+    protected TestNode findNode(String symbol) {
+        return helper.findNode(symbol);
+    }
+
+    @Override
+    protected TestNode getParent(TestNode f) {
+        return helper.getParent(f);
+    }
+
+    @Override
+    protected void breakTree() {
+        helper.breakTree();
+    }
+
+    @Override
+    protected void resetParent(String symbol) {
+        helper.resetParent(symbol);
+    }
+
+    @Override
+    protected void removeTree() {
+        helper.removeTree();
+    }
+
+    @Override
+    protected void flushAndClear() {
+        helper.flushAndClear();
+    }
+
+    @Override
+    protected void flush() {
+        helper.flush();
+    }
+
+    @Override
+    protected void refresh(TestNode node) {
+        helper.refresh(node);
+    }
+
+    @Override
+    protected void save(TestNode node) {
+        helper.save(node);
+    }
+}
@@ -0,0 +1,192 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2015 exsio.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package pl.exsio.nestedj.jdbc;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import pl.exsio.nestedj.DelegatingNestedNodeRepository;
+import pl.exsio.nestedj.TestConfiguration;
+import pl.exsio.nestedj.base.NestedNodeRepositoryMovingTest;
+import pl.exsio.nestedj.config.jdbc.discriminator.TestJdbcTreeDiscriminator;
+import pl.exsio.nestedj.config.jdbc.factory.JdbcNestedNodeRepositoryFactory;
+import pl.exsio.nestedj.config.jdbc.lock.JdbcLock;
+import pl.exsio.nestedj.ex.RepositoryLockedException;
+import pl.exsio.nestedj.model.TestNode;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Transactional
+public class JdbcNestedNodeRepositoryDistributedLockMovingTest extends NestedNodeRepositoryMovingTest {
+
+    private JdbcTestHelper helper;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private ExecutorService anotherInstance;
+
+    @BeforeEach
+    public void setup() {
+        helper = new JdbcTestHelper(dataSource);
+        anotherInstance = Executors.newSingleThreadExecutor();
+        this.repository = (DelegatingNestedNodeRepository<Long, TestNode>) JdbcNestedNodeRepositoryFactory.create(
+                TestConfiguration.jdbcConfiguration(dataSource), lock(Duration.ofSeconds(30))
+        );
+    }
+
+    @AfterEach
+    public void tearDown() {
+        anotherInstance.shutdown();
+    }
+
+    @Test
+    public void testMoveInTreeLockedByAnotherInstance() {
+        JdbcLock<Long, TestNode> otherInstance = lock(Duration.ofSeconds(30));
+        TestNode a = this.findNode("a");
+        assertTrue(inAnotherInstance(() -> otherInstance.lockNode(a)));
+        try {
+            assertFalse(inAnotherInstance(() -> lock(Duration.ofSeconds(30)).lockRepository()));
+            assertThrows(RepositoryLockedException.class, () -> this.repository.insertAsFirstChildOf(this.findNode("h"), this.findNode("b")));
+        } finally {
+            inAnotherInstance(() -> {
+                otherInstance.unlockNode(a);
+                return true;
+            });
+        }
+        this.repository.insertAsFirstChildOf(this.findNode("h"), this.findNode("b"));
+        assertEquals("b", this.getParent(this.findNode("h")).getName());
+        assertSecondTreeIntact();
+    }
+
+    @Test
+    public void testMoveInTreeWithExpiredLock() throws InterruptedException {
+        JdbcLock<Long, TestNode> crashedInstance = lock(Duration.ofMillis(1));
+        assertTrue(crashedInstance.lockNode(this.findNode("a")));
+        Thread.sleep(20);
+
+        this.repository.insertAsFirstChildOf(this.findNode("h"), this.findNode("b"));
+        assertEquals("b", this.getParent(this.findNode("h")).getName());
+        crashedInstance.unlockNode(this.findNode("a"));
+        assertSecondTreeIntact();
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void testTreeLockedUntilTransactionCommit() {
+        JdbcLock<Long, TestNode> otherInstance = lock(Duration.ofSeconds(30));
+        TestNode a = this.findNode("a");
+        new TransactionTemplate(transactionManager).execute(status -> {
+            this.repository.insertAsFirstChildOf(this.findNode("h"), this.findNode("b"));
+            assertFalse(inAnotherInstance(() -> otherInstance.lockNode(a)));
+            // the lease is still held by this transaction, so the Tree can be modified again
+            this.repository.insertAsLastChildOf(this.findNode("h"), this.findNode("g"));
+            assertFalse(inAnotherInstance(() -> otherInstance.lockNode(a)));
+            assertFalse(inAnotherInstance(otherInstance::lockRepository));
+            return null;
+        });
+        assertTrue(inAnotherInstance(() -> otherInstance.lockNode(a)));
+        inAnotherInstance(() -> {
+            otherInstance.unlockNode(a);
+            return true;
+        });
+        assertEquals("g", this.getParent(this.findNode("h")).getName());
+        assertSecondTreeIntact();
+    }
+
+    private boolean inAnotherInstance(Callable<Boolean> action) {
+        try {
+            return anotherInstance.submit(action).get();
+        } catch (InterruptedException | ExecutionException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private JdbcLock<Long, TestNode> lock(Duration lease) {
+        return new JdbcLock<>(dataSource, "nested_node_locks", lease, new TestJdbcTreeDiscriminator());
+    }
+
+    @Override
+    protected TestNode findNode(String symbol) {
+        return helper.findNode(symbol);
+    }
+
+    @Override
+    protected TestNode getParent(TestNode f) {
+        return helper.getParent(f);
+    }
+
+    @Override
+    protected void breakTree() {
+        helper.breakTree();
+    }
+
+    @Override
+    protected void resetParent(String symbol) {
+        helper.resetParent(symbol);
+    }
+
+    @Override
+    protected void removeTree() {
+        helper.removeTree();
+    }
+
+    @Override
+    protected void flushAndClear() {
+        helper.flushAndClear();
+    }
+
+    @Override
+    protected void flush() {
+        helper.flush();
+    }
+
+    @Override
+    protected void refresh(TestNode node) {
+        helper.refresh(node);
+    }
+
+    @Override
+    protected void save(TestNode node){
+        helper.save(node);
+    }
+}
@@ -0,0 +1,168 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2015 exsio.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package pl.exsio.nestedj.mem;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.annotation.Transactional;
+import pl.exsio.nestedj.DelegatingNestedNodeRepository;
+import pl.exsio.nestedj.TestConfiguration;
+import pl.exsio.nestedj.base.NestedNodeRepositoryRemovingTest;
+import pl.exsio.nestedj.config.mem.factory.InMemoryNestedNodeRepositoryFactory;
+import pl.exsio.nestedj.config.mem.lock.InMemoryBlockingLock;
+import pl.exsio.nestedj.ex.RepositoryLockedException;
+import pl.exsio.nestedj.model.TestNode;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Transactional
+public class InMemoryNestedNodeRepositoryBlockingLockRemovingTest extends NestedNodeRepositoryRemovingTest {
+
+    private InMemoryTestHelper helper;
+
+    private InMemoryBlockingLock<Long, TestNode> lock;
+
+    @BeforeEach
+    public void setup() {
+        helper = new InMemoryTestHelper();
+        helper.rollback();
+        lock = new InMemoryBlockingLock<>(Duration.ofSeconds(5), TestNode::getDiscriminator);
+        this.repository = (DelegatingNestedNodeRepository<Long, TestNode>) InMemoryNestedNodeRepositoryFactory.create(TestConfiguration.IN_MEM_CONFIG, lock);
+    }
+
+    @Test
+    public void testRemoveWaitsForLockedRepository() throws Exception {
+        CountDownLatch locked = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> holder = executor.submit(() -> {
+                assertTrue(lock.lockRepository());
+                locked.countDown();
+                try {
+                    Thread.sleep(200);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    lock.unlockRepository();
+                }
+            });
+            assertTrue(locked.await(5, TimeUnit.SECONDS));
+            this.repository.removeSingle(this.findNode("d"));
+            holder.get(5, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+        assertNull(this.findNode("d"));
+        assertEquals(5, (long) this.findNode("b").getTreeRight());
+        assertEquals(0, lock.getQueueLength());
+        assertEquals(0, lock.getTimedOutCount());
+        assertTrue(lock.getMaxWaitTime().toMillis() >= 100);
+        assertSecondTreeIntact();
+    }
+
+    @Test
+    public void testRemoveTimesOutOnLockedRepository() throws Exception {
+        lock = new InMemoryBlockingLock<>(Duration.ofMillis(50), TestNode::getDiscriminator);
+        this.repository = InMemoryNestedNodeRepositoryFactory.create(TestConfiguration.IN_MEM_CONFIG, lock);
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch removed = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            executor.submit(() -> {
+                lock.lockRepository();
+                locked.countDown();
+                try {
+                    removed.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    lock.unlockRepository();
+                }
+            });
+            assertTrue(locked.await(5, TimeUnit.SECONDS));
+            assertThrows(RepositoryLockedException.class, () -> this.repository.removeSingle(this.findNode("d")));
+            removed.countDown();
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(1, lock.getTimedOutCount());
+        assertEquals(3, (long) this.findNode("d").getTreeLeft());
+        assertSecondTreeIntact();
+    }
+
+    @Override
+    protected TestNode findNode(String symbol) {
+        return helper.findNode(symbol);
+    }
+
+    @Override
+    protected TestNode getParent(TestNode f) {
+        return helper.getParent(f);
+    }
+
+    @Override
+    protected void breakTree() {
+        helper.breakTree();
+    }
+
+    @Override
+    protected void resetParent(String symbol) {
+        helper.resetParent(symbol);
+    }
+
+    @Override
+    protected void removeTree() {
+        helper.removeTree();
+    }
+
+    @Override
+    protected void flushAndClear() {
+        helper.flushAndClear();
+    }
+
+    @Override
+    protected void flush() {
+        helper.flush();
+    }
+
+    @Override
+    protected void refresh(TestNode node) {
+        helper.refresh(node);
+    }
+
+    @Override
+    protected void save(TestNode node) {
+        helper.save(node);
+    }
+}
@@ -0,0 +1,75 @@
+package pl.exsio.nestedj.offheap;
+
+import pl.exsio.nestedj.TestConfiguration;
+import pl.exsio.nestedj.base.TestHelper;
+import pl.exsio.nestedj.config.columnar.OffHeapNestedNodeRepositoryConfiguration;
+import pl.exsio.nestedj.model.TestNode;
+
+import java.util.stream.Collectors;
+
+public class OffHeapTestHelper implements TestHelper {
+
+    private final OffHeapNestedNodeRepositoryConfiguration<Long, TestNode> config = TestConfiguration.OFF_HEAP_CONFIG;
+
+    @Override
+    public TestNode findNode(String symbol) {
+        return config.getNodes().stream().filter(n -> n.getName().equals(symbol)).findFirst().orElse(null);
+    }
+
+    @Override
+    public TestNode getParent(TestNode f) {
+        if (f.getParentId() == null) {
+            return null;
+        }
+        TestNode parent = config.getNodes().stream().filter(n -> n.getId().equals(f.getParentId())).findFirst().orElse(null);
+        System.out.println(String.format("Parent of %s is %s", f.getName(), parent != null ? parent.getName() : "null"));
+        return parent;
+    }
+
+    @Override
+    public void breakTree() {
+        config.getNodes().stream()
+                .filter(n -> n.getDiscriminator()
+                        .equals("tree_1")).forEach(n -> {
+            n.setTreeLevel(0L);
+            n.setTreeLeft(0L);
+            n.setTreeRight(0L);
+            config.getStore().update(n);
+        });
+    }
+
+    @Override
+    public void resetParent(String symbol) {
+        TestNode node = findNode(symbol);
+        node.setParentId(null);
+        config.getStore().update(node);
+    }
+
+    @Override
+    public void removeTree() {
+        config.getNodes().stream().filter(n -> n.getDiscriminator().equals("tree_1"))
+                .forEach(n -> config.getStore().remove(n));
+    }
+
+    @Override
+    public void refresh(TestNode node) {
+        // the store creates new Node instances, so the values are copied into the given one
+        config.getStore().findById(node.getId()).ifPresent(refreshed -> {
+            node.setParentId(refreshed.getParentId());
+            node.setTreeLeft(refreshed.getTreeLeft());
+            node.setTreeRight(refreshed.getTreeRight());
+            node.setTreeLevel(refreshed.getTreeLevel());
+        });
+    }
+
+    @Override
+    public void save(TestNode node) {
+        node.setId(config.getIdentityGenerator().generateIdentity());
+        config.getStore().add(node);
+    }
+
+    public void rollback() {
+        config.getStore().clear();
+        config.getStore().addAll(TestConfiguration.IN_MEM_NODES.stream().map(TestNode::copy).collect(Collectors.toList()));
+    }
+}
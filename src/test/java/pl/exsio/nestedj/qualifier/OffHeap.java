@@ -0,0 +1,7 @@
+package pl.exsio.nestedj.qualifier;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+
+@Qualifier
+public @interface OffHeap {
+}
@@ -15,3 +15,4 @@ insert into nested_nodes(id, tree_left, tree_level, tree_right, node_name, paren
 insert into nested_nodes(id, tree_left, tree_level, tree_right, node_name, parent_id, discriminator) values(14000,9,2,10,'f2',11000, 'tree_2');
 insert into nested_nodes(id, tree_left, tree_level, tree_right, node_name, parent_id, discriminator) values(15000,11,2,14,'g2',11000, 'tree_2');
 insert into nested_nodes(id, tree_left, tree_level, tree_right, node_name, parent_id, discriminator) values(16000,12,3,13,'h2',15000, 'tree_2');
+create table nested_node_locks (lock_key varchar(255) not null primary key, lock_owner varchar(255) not null, expires_at bigint not null);